@@ -25,8 +25,11 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -92,7 +95,14 @@ import org.apache.wink.json4j.JSONObject;
  */
 public class Connection implements Closeable
 {		
+	//default number of compiled plans kept in the plan cache
+	public static final int DEFAULT_PLAN_CACHE_SIZE = 16;
+	
 	private DMLConfig _dmlconf = null;
+	
+	//LRU cache of compiled runtime programs (never executed, 
+	//prepared scripts always obtain deep copies of these plans)
+	private PlanCache _planCache = new PlanCache(DEFAULT_PLAN_CACHE_SIZE);
 
 	/**
 	 * Connection constructor, the starting point for any other JMLC API calls.
@@ -157,7 +167,11 @@ public class Connection implements Closeable
 	public PreparedScript prepareScript( String script, Map<String, String> args, String[] inputs, String[] outputs, boolean parsePyDML) 
 		throws DMLException 
 	{
-		//prepare arguments
+		//probe plan cache for previously compiled program
+		PlanCacheKey key = new PlanCacheKey(script, args, inputs, outputs, parsePyDML);
+		Program cprog = _planCache.getPlan(key);
+		if( cprog != null )
+			return new PreparedScript(JMLCUtils.createDeepCopyProgram(cprog), inputs, outputs);
 		
 		//simplified compilation chain
 		Program rtprog = null;
@@ -199,10 +213,53 @@ public class Connection implements Closeable
 			throw new DMLException(ex);
 		}
 			
+		//put deep copy of compiled program into plan cache
+		if( _planCache.getCapacity() > 0 )
+			_planCache.putPlan(key, JMLCUtils.createDeepCopyProgram(rtprog));
+		
 		//return newly create precompiled script 
 		return new PreparedScript(rtprog, inputs, outputs);
 	}
 	
+	/**
+	 * Sets the maximum number of compiled plans kept in the plan cache 
+	 * of this connection, where 0 disables plan caching. Repeated preparation 
+	 * of the same script (with equal arguments, inputs, and outputs) returns
+	 * a deep copy of the cached plan instead of recompiling the script.
+	 * 
+	 * @param size maximum number of cached plans
+	 */
+	public void setPlanCacheSize(int size) {
+		_planCache = new PlanCache(Math.max(size, 0));
+	}
+	
+	/**
+	 * Clears the plan cache of this connection.
+	 */
+	public void clearPlanCache() {
+		_planCache.clear();
+	}
+	
+	/**
+	 * Gets the number of plan cache hits, i.e., prepared scripts 
+	 * obtained from a cached plan instead of compiling the script.
+	 * 
+	 * @return number of plan cache hits
+	 */
+	public long getPlanCacheHits() {
+		return _planCache.getHits();
+	}
+	
+	/**
+	 * Gets the number of plan cache misses, i.e., prepared scripts 
+	 * that required compiling the script.
+	 * 
+	 * @return number of plan cache misses
+	 */
+	public long getPlanCacheMisses() {
+		return _planCache.getMisses();
+	}
+	
 	/**
 	 * Close connection to SystemML, which clears the
 	 * thread-local DML and compiler configurations.
@@ -211,6 +268,9 @@ public class Connection implements Closeable
 	public void close() {
 		//clear thread-local dml / compiler configs
 		ConfigurationManager.clearLocalConfigs();
+		
+		//clear cached plans
+		_planCache.clear();
 	}
 	
 	/**
@@ -634,4 +694,97 @@ public class Connection implements Closeable
 	public FrameBlock readTransformMetaDataFromPath(String spec, String metapath, String colDelim) throws IOException {
 		return TfMetaUtils.readTransformMetaDataFromPath(spec, metapath, colDelim);
 	}
+	
+	/**
+	 * Thread-safe LRU cache of compiled runtime programs.
+	 */
+	private static class PlanCache
+	{
+		private final int _capacity;
+		private final LinkedHashMap<PlanCacheKey, Program> _plans;
+		private long _hits = 0;
+		private long _misses = 0;
+		
+		@SuppressWarnings("serial")
+		public PlanCache(final int capacity) {
+			_capacity = capacity;
+			_plans = new LinkedHashMap<PlanCacheKey, Program>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<PlanCacheKey, Program> eldest) {
+					return size() > capacity;
+				}
+			};
+		}
+		
+		public int getCapacity() {
+			return _capacity;
+		}
+		
+		public synchronized Program getPlan(PlanCacheKey key) {
+			Program ret = _plans.get(key);
+			if( ret != null )
+				_hits++;
+			else
+				_misses++;
+			return ret;
+		}
+		
+		public synchronized long getHits() {
+			return _hits;
+		}
+		
+		public synchronized long getMisses() {
+			return _misses;
+		}
+		
+		public synchronized void putPlan(PlanCacheKey key, Program prog) {
+			_plans.put(key, prog);
+		}
+		
+		public synchronized void clear() {
+			_plans.clear();
+		}
+	}
+	
+	/**
+	 * Key of compiled plans, composed of the script text, its arguments, 
+	 * registered inputs and outputs, and the script type.
+	 */
+	private static class PlanCacheKey
+	{
+		private final String _script;
+		private final TreeMap<String, String> _args;
+		private final String[] _inputs;
+		private final String[] _outputs;
+		private final boolean _pydml;
+		private final int _hash;
+		
+		public PlanCacheKey(String script, Map<String, String> args, String[] inputs, String[] outputs, boolean pydml) {
+			_script = script;
+			_args = (args != null) ? new TreeMap<String, String>(args) : new TreeMap<String, String>();
+			_inputs = inputs.clone();
+			_outputs = outputs.clone();
+			_pydml = pydml;
+			_hash = Arrays.hashCode(new Object[]{_script, _args, 
+				Arrays.hashCode(_inputs), Arrays.hashCode(_outputs), _pydml});
+		}
+		
+		@Override
+		public int hashCode() {
+			return _hash;
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if( !(o instanceof PlanCacheKey) )
+				return false;
+			PlanCacheKey that = (PlanCacheKey) o;
+			return _hash == that._hash
+				&& _pydml == that._pydml
+				&& _script.equals(that._script)
+				&& _args.equals(that._args)
+				&& Arrays.equals(_inputs, that._inputs)
+				&& Arrays.equals(_outputs, that._outputs);
+		}
+	}
 }
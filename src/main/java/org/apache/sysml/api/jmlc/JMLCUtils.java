@@ -20,15 +20,19 @@
 package org.apache.sysml.api.jmlc;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.sysml.api.DMLException;
+import org.apache.sysml.parser.DMLProgram;
 import org.apache.sysml.runtime.controlprogram.ForProgramBlock;
 import org.apache.sysml.runtime.controlprogram.FunctionProgramBlock;
 import org.apache.sysml.runtime.controlprogram.IfProgramBlock;
 import org.apache.sysml.runtime.controlprogram.Program;
 import org.apache.sysml.runtime.controlprogram.ProgramBlock;
 import org.apache.sysml.runtime.controlprogram.WhileProgramBlock;
+import org.apache.sysml.runtime.controlprogram.parfor.ProgramConverter;
 import org.apache.sysml.runtime.instructions.Instruction;
 import org.apache.sysml.runtime.instructions.cp.VariableCPInstruction;
 
@@ -125,4 +129,38 @@ public class JMLCUtils
 		
 		return insts;
 	}
+	
+	/**
+	 * Creates a deep copy of the given runtime program, incl all program blocks,
+	 * instructions, and functions, but without renaming functions or variables.
+	 * 
+	 * @param prog
+	 * @return
+	 * @throws DMLException
+	 */
+	public static Program createDeepCopyProgram(Program prog) 
+		throws DMLException
+	{
+		try {
+			Program ret = new Program();
+			
+			//deep copy functions (w/o renaming)
+			for( Entry<String, FunctionProgramBlock> e : prog.getFunctionProgramBlocks().entrySet() ) {
+				String[] fkey = DMLProgram.splitFunctionKey(e.getKey());
+				FunctionProgramBlock fpb = ProgramConverter.createDeepCopyFunctionProgramBlock(
+					e.getValue(), new HashSet<String>(), new HashSet<String>());
+				ret.addFunctionProgramBlock(fkey[0], fkey[1], fpb);
+			}
+			
+			//deep copy program blocks (w/o renaming)
+			for( ProgramBlock pb : ProgramConverter.rcreateDeepCopyProgramBlocks(prog.getProgramBlocks(), 
+					0, -1, new HashSet<String>(), new HashSet<String>(), true, false) )
+				ret.addProgramBlock(pb);
+			
+			return ret;
+		}
+		catch(Exception ex) {
+			throw new DMLException(ex);
+		}
+	}
 }
@@ -19,7 +19,9 @@
 
 package org.apache.sysml.api.jmlc;
 
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -28,7 +30,9 @@ import java.util.List;
 import java.util.Map.Entry;
 
 import org.apache.sysml.api.DMLException;
+import org.apache.sysml.conf.CompilerConfig;
 import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.conf.DMLConfig;
 import org.apache.sysml.parser.Expression.ValueType;
 import org.apache.sysml.runtime.controlprogram.LocalVariableMap;
 import org.apache.sysml.runtime.controlprogram.Program;
@@ -48,6 +52,7 @@ import org.apache.sysml.runtime.matrix.data.FrameBlock;
 import org.apache.sysml.runtime.matrix.data.InputInfo;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.OutputInfo;
+import org.apache.sysml.runtime.matrix.data.SparseBlockCSR;
 import org.apache.sysml.runtime.util.DataConverter;
 import org.apache.sysml.utils.Explain;
 
@@ -65,6 +70,11 @@ public class PreparedScript
 	private Program _prog = null;
 	private LocalVariableMap _vars = null; 
 	
+	//thread-local configurations of the preparing connection
+	//(required for execution by other threads, e.g., via a script pool)
+	private DMLConfig _dmlconf = null;
+	private CompilerConfig _cconf = null;
+	
 	/**
 	 * Meant to be invoked only from Connection.
 	 * 
@@ -83,6 +93,44 @@ public class PreparedScript
 		_outVarnames = new HashSet<String>();
 		Collections.addAll(_outVarnames, outputs);
 		_inVarReuse = new HashMap<String, Data>();
+		
+		//obtain configurations of the current thread
+		_dmlconf = ConfigurationManager.getDMLConfig();
+		_cconf = ConfigurationManager.getCompilerConfig();
+	}
+	
+	/**
+	 * Copy constructor for cloning prepared scripts. A deep copy creates 
+	 * independent program blocks and instructions, which allows concurrent 
+	 * execution of the original script and its clones; inputs marked for 
+	 * reuse are shared.
+	 * 
+	 * @param that prepared script to copy
+	 * @param deep if {@code true}, deep copy of the runtime program
+	 * @throws DMLException
+	 */
+	private PreparedScript( PreparedScript that, boolean deep ) 
+		throws DMLException
+	{
+		_prog = deep ? JMLCUtils.createDeepCopyProgram(that._prog) : that._prog;
+		_vars = new LocalVariableMap();
+		_inVarnames = that._inVarnames;
+		_outVarnames = that._outVarnames;
+		_inVarReuse = new HashMap<String, Data>(that._inVarReuse);
+		_dmlconf = that._dmlconf;
+		_cconf = that._cconf;
+	}
+	
+	/**
+	 * Creates a copy of this prepared script, e.g., for concurrent scoring
+	 * via multiple threads (see {@link PreparedScriptPool}).
+	 * 
+	 * @param deep if {@code true}, deep copy of the runtime program
+	 * @return cloned prepared script
+	 * @throws DMLException
+	 */
+	public PreparedScript clone(boolean deep) throws DMLException {
+		return new PreparedScript(this, deep);
 	}
 	
 	/**
@@ -251,6 +299,158 @@ public class PreparedScript
 			_inVarReuse.put(varname, mo);
 		}
 	}
+	
+	/**
+	 * Binds a dense matrix, given as row-major double array, to a registered 
+	 * input variable without copy. The prepared script shares the given array,
+	 * which must not be modified by the caller until the binding is cleared or, 
+	 * if reused, for the lifetime of the prepared script. 
+	 * 
+	 * @param varname input variable name
+	 * @param matrix row-major dense matrix of length >= rows*cols
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @throws DMLException
+	 */
+	public void setMatrix(String varname, double[] matrix, int rows, int cols) throws DMLException {
+		setMatrix(varname, matrix, rows, cols, false);
+	}
+	
+	/**
+	 * Binds a dense matrix, given as row-major double array, to a registered 
+	 * input variable without copy (see {@link #setMatrix(String, double[], int, int)}).
+	 * 
+	 * @param varname input variable name
+	 * @param matrix row-major dense matrix of length >= rows*cols
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @param reuse if {@code true}, preserve value over multiple {@code executeScript} calls
+	 * @throws DMLException
+	 */
+	public void setMatrix(String varname, double[] matrix, int rows, int cols, boolean reuse) 
+		throws DMLException 
+	{
+		try {
+			setMatrix(varname, new MatrixBlock(rows, cols, matrix), reuse);
+		}
+		catch(RuntimeException ex) {
+			throw new DMLException(ex);
+		}
+	}
+	
+	/**
+	 * Binds a sparse matrix, given in compressed sparse row (CSR) format, to a 
+	 * registered input variable without copy. The column indexes per row must be 
+	 * sorted in ascending order. The prepared script shares the given arrays, which 
+	 * must not be modified by the caller until the binding is cleared or, if reused,
+	 * for the lifetime of the prepared script.
+	 * 
+	 * @param varname input variable name
+	 * @param rowPtr row pointer array of length rows+1
+	 * @param colIdx column index array of length >= nnz
+	 * @param vals value array of length >= nnz
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @throws DMLException if the CSR arrays are malformed
+	 */
+	public void setMatrix(String varname, int[] rowPtr, int[] colIdx, double[] vals, int rows, int cols) 
+		throws DMLException 
+	{
+		setMatrix(varname, rowPtr, colIdx, vals, rows, cols, false);
+	}
+	
+	/**
+	 * Binds a sparse matrix, given in compressed sparse row (CSR) format, to a
+	 * registered input variable without copy (see 
+	 * {@link #setMatrix(String, int[], int[], double[], int, int)}).
+	 * 
+	 * @param varname input variable name
+	 * @param rowPtr row pointer array of length rows+1
+	 * @param colIdx column index array of length >= nnz
+	 * @param vals value array of length >= nnz
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @param reuse if {@code true}, preserve value over multiple {@code executeScript} calls
+	 * @throws DMLException if the CSR arrays are malformed
+	 */
+	public void setMatrix(String varname, int[] rowPtr, int[] colIdx, double[] vals, int rows, int cols, boolean reuse) 
+		throws DMLException 
+	{
+		//validate CSR arrays (shared without copy, i.e., malformed 
+		//inputs would otherwise corrupt the matrix block)
+		if( rows < 0 || cols < 0 )
+			throw new DMLException("Invalid CSR matrix dimensions ("+rows+","+cols+").");
+		if( rowPtr.length != rows+1 )
+			throw new DMLException("Invalid CSR row pointer array of length "+rowPtr.length+" for "+rows+" rows.");
+		if( rowPtr[0] != 0 || rowPtr[rows] > colIdx.length || rowPtr[rows] > vals.length )
+			throw new DMLException("Invalid CSR row pointers [0:"+rowPtr[0]+", "+rows+":"+rowPtr[rows]+"] for "
+				+ colIdx.length+" column indexes and "+vals.length+" values.");
+		for( int i=0; i<rows; i++ ) {
+			if( rowPtr[i] > rowPtr[i+1] )
+				throw new DMLException("Invalid CSR row pointers, not monotonic in row "+i+".");
+			for( int k=rowPtr[i]; k<rowPtr[i+1]; k++ ) {
+				if( colIdx[k] < 0 || colIdx[k] >= cols )
+					throw new DMLException("Invalid CSR column index "+colIdx[k]+" in row "+i+" for "+cols+" columns.");
+				if( k > rowPtr[i] && colIdx[k] <= colIdx[k-1] )
+					throw new DMLException("Invalid CSR column indexes, not sorted in ascending order in row "+i+".");
+			}
+		}
+		
+		try {
+			int nnz = rowPtr[rows];
+			SparseBlockCSR sblock = new SparseBlockCSR(rowPtr, colIdx, vals, nnz);
+			setMatrix(varname, new MatrixBlock(rows, cols, nnz, sblock), reuse);
+		}
+		catch(RuntimeException ex) {
+			throw new DMLException(ex);
+		}
+	}
+	
+	/**
+	 * Binds a dense matrix, given as row-major double buffer, to a registered 
+	 * input variable. Array-backed buffers (with zero offset and position) are wrapped
+	 * without copy according to the ownership semantics of 
+	 * {@link #setMatrix(String, double[], int, int)}; direct buffers are copied 
+	 * once via a bulk get because matrix blocks are backed by heap arrays.
+	 * 
+	 * @param varname input variable name
+	 * @param matrix row-major dense matrix with rows*cols remaining values
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @throws DMLException
+	 */
+	public void setMatrix(String varname, DoubleBuffer matrix, int rows, int cols) throws DMLException {
+		setMatrix(varname, matrix, rows, cols, false);
+	}
+	
+	/**
+	 * Binds a dense matrix, given as row-major double buffer, to a registered 
+	 * input variable (see {@link #setMatrix(String, DoubleBuffer, int, int)}).
+	 * 
+	 * @param varname input variable name
+	 * @param matrix row-major dense matrix with rows*cols remaining values
+	 * @param rows number of rows
+	 * @param cols number of columns
+	 * @param reuse if {@code true}, preserve value over multiple {@code executeScript} calls
+	 * @throws DMLException
+	 */
+	public void setMatrix(String varname, DoubleBuffer matrix, int rows, int cols, boolean reuse) 
+		throws DMLException 
+	{
+		int len = rows * cols;
+		if( matrix.remaining() < len )
+			throw new DMLException("Insufficient buffer size "+matrix.remaining()+" for ("+rows+","+cols+").");
+		
+		double[] data = null;
+		if( matrix.hasArray() && matrix.arrayOffset()==0 && matrix.position()==0 ) {
+			data = matrix.array(); //zero-copy
+		}
+		else {
+			data = new double[len];
+			matrix.duplicate().get(data); //bulk copy w/o position change
+		}
+		setMatrix(varname, data, rows, cols, reuse);
+	}
 
 	/**
 	 * Binds a frame object to a registered input variable.
@@ -378,16 +578,34 @@ public class PreparedScript
 	public ResultVariables executeScript() 
 		throws DMLException
 	{
-		//add reused variables
-		for( Entry<String,Data> e : _inVarReuse.entrySet() )
-			_vars.put(e.getKey(), e.getValue());
-		
-		//create and populate execution context
-		ExecutionContext ec = ExecutionContextFactory.createContext(_prog);	
-		ec.setVariables(_vars);
+		//set configurations of preparing thread (if different thread),
+		//and keep the configurations of the calling thread for restore
+		DMLConfig dmlconfOld = ConfigurationManager.getDMLConfig();
+		CompilerConfig cconfOld = ConfigurationManager.getCompilerConfig();
+		if( _dmlconf != null )
+			ConfigurationManager.setLocalConfig(_dmlconf);
+		if( _cconf != null )
+			ConfigurationManager.setLocalConfig(_cconf);
 		
-		//core execute runtime program	
-		_prog.execute( ec );  
+		try
+		{
+			//add reused variables
+			for( Entry<String,Data> e : _inVarReuse.entrySet() )
+				_vars.put(e.getKey(), e.getValue());
+			
+			//create and populate execution context
+			ExecutionContext ec = ExecutionContextFactory.createContext(_prog);	
+			ec.setVariables(_vars);
+			
+			//core execute runtime program	
+			_prog.execute( ec );  
+		}
+		finally 
+		{
+			//restore configurations of calling thread
+			ConfigurationManager.setLocalConfig(dmlconfOld);
+			ConfigurationManager.setLocalConfig(cconfOld);
+		}
 		
 		//cleanup unnecessary outputs
 		Collection<String> tmpVars = new ArrayList<String>(_vars.keySet());
@@ -404,6 +622,178 @@ public class PreparedScript
 		return rvars;
 	}
 	
+	/**
+	 * Executes the prepared script once over a batch of requests. The per-request
+	 * inputs are row-wise concatenated into a single matrix, which is bound to the
+	 * given input variable. This method requires that all matrix and frame outputs 
+	 * are row-aligned with the batch input (i.e., have the total number of rows), 
+	 * and splits them back into per-request results, while scalar outputs are shared 
+	 * by all requests. Other inputs need to be bound beforehand.
+	 * 
+	 * @param varname input variable name
+	 * @param inputs per-request input matrices as two-dimensional double arrays
+	 * @return array of ResultVariables objects, one per request
+	 * @throws DMLException if an input has an incompatible number of columns or 
+	 *   a matrix or frame output is not row-aligned with the batch input
+	 */
+	public ResultVariables[] executeScriptBatch(String varname, double[][][] inputs) 
+		throws DMLException
+	{
+		return executeScriptBatch(varname, inputs, null);
+	}
+	
+	/**
+	 * Executes the prepared script once over a batch of requests (see 
+	 * {@link #executeScriptBatch(String, double[][][])}), where only the given 
+	 * row-aligned outputs are split into per-request results and all other 
+	 * outputs (e.g., scalars or aggregates) are shared by all requests.
+	 * 
+	 * @param varname input variable name
+	 * @param inputs per-request input matrices as two-dimensional double arrays
+	 * @param splitVars names of row-aligned outputs to split, or null for all matrix and frame outputs
+	 * @return array of ResultVariables objects, one per request
+	 * @throws DMLException
+	 */
+	public ResultVariables[] executeScriptBatch(String varname, double[][][] inputs, String[] splitVars) 
+		throws DMLException
+	{
+		//validate consistent number of columns
+		int[] rix = computeRowOffsets(inputs.length, inputs);
+		int clen = -1;
+		for( int i=0; i<inputs.length; i++ )
+			for( int j=0; j<inputs[i].length; j++ ) {
+				if( clen < 0 )
+					clen = inputs[i][j].length;
+				else if( inputs[i][j].length != clen )
+					throw new DMLException("Incompatible number of columns of request "+i+": "+inputs[i][j].length+" (expected: "+clen+")");
+			}
+		clen = Math.max(clen, 0);
+		
+		//vectorize requests into a single (dense) matrix block
+		MatrixBlock batch = new MatrixBlock(rix[inputs.length], clen, false);
+		if( batch.getNumRows() > 0 && clen > 0 ) {
+			batch.allocateDenseBlock();
+			double[] c = batch.getDenseBlock();
+			for( int i=0; i<inputs.length; i++ )
+				for( int j=0; j<inputs[i].length; j++ )
+					System.arraycopy(inputs[i][j], 0, c, (rix[i]+j)*clen, clen);
+			batch.recomputeNonZeros();
+			batch.examSparsity();
+		}
+		
+		//core execute and split results
+		setMatrix(varname, batch, false);
+		return splitResults(executeScript(), rix, splitVars);
+	}
+	
+	/**
+	 * Executes the prepared script once over a batch of requests, where the
+	 * per-request inputs are given as matrix blocks (see 
+	 * {@link #executeScriptBatch(String, double[][][])}).
+	 * 
+	 * @param varname input variable name
+	 * @param inputs per-request input matrices
+	 * @return array of ResultVariables objects, one per request
+	 * @throws DMLException
+	 */
+	public ResultVariables[] executeScriptBatch(String varname, MatrixBlock[] inputs) 
+		throws DMLException
+	{
+		return executeScriptBatch(varname, inputs, null);
+	}
+	
+	/**
+	 * Executes the prepared script once over a batch of requests, where the
+	 * per-request inputs are given as matrix blocks (see 
+	 * {@link #executeScriptBatch(String, double[][][], String[])}).
+	 * 
+	 * @param varname input variable name
+	 * @param inputs per-request input matrices
+	 * @param splitVars names of row-aligned outputs to split, or null for all matrix and frame outputs
+	 * @return array of ResultVariables objects, one per request
+	 * @throws DMLException
+	 */
+	public ResultVariables[] executeScriptBatch(String varname, MatrixBlock[] inputs, String[] splitVars) 
+		throws DMLException
+	{
+		//validate consistent number of columns
+		int[] rix = new int[inputs.length+1];
+		int clen = (inputs.length > 0) ? inputs[0].getNumColumns() : 0;
+		long nnz = 0;
+		for( int i=0; i<inputs.length; i++ ) {
+			if( inputs[i].getNumColumns() != clen )
+				throw new DMLException("Incompatible number of columns of request "+i+": "+inputs[i].getNumColumns()+" (expected: "+clen+")");
+			rix[i+1] = rix[i] + inputs[i].getNumRows();
+			nnz += inputs[i].getNonZeros();
+		}
+		
+		//vectorize requests into a single, once allocated matrix block
+		int rlen = rix[inputs.length];
+		MatrixBlock batch = new MatrixBlock(rlen, clen, 
+			MatrixBlock.evalSparseFormatInMemory(rlen, clen, nnz));
+		try {
+			for( int i=0; i<inputs.length; i++ )
+				if( rix[i+1] > rix[i] && clen > 0 )
+					batch.copy(rix[i], rix[i+1]-1, 0, clen-1, inputs[i], false);
+			batch.recomputeNonZeros();
+			batch.examSparsity();
+		}
+		catch(Exception ex) {
+			throw new DMLException(ex);
+		}
+		
+		//core execute and split results
+		setMatrix(varname, batch, false);
+		return splitResults(executeScript(), rix, splitVars);
+	}
+	
+	/**
+	 * Executes the prepared script once over a batch of requests, where the
+	 * per-request inputs are given as frames that are row-wise concatenated into 
+	 * a single frame of the given schema (see {@link #executeScriptBatch(String, double[][][])}).
+	 * 
+	 * @param varname input variable name
+	 * @param inputs per-request input frames as two-dimensional string arrays
+	 * @param schema list representing the types of the frame columns
+	 * @return array of ResultVariables objects, one per request
+	 * @throws DMLException
+	 */
+	public ResultVariables[] executeScriptBatch(String varname, String[][][] inputs, List<ValueType> schema) 
+		throws DMLException
+	{
+		return executeScriptBatch(varname, inputs, schema, null);
+	}
+	
+	/**
+	 * Executes the prepared script once over a batch of requests, where the
+	 * per-request inputs are given as frames that are row-wise concatenated into 
+	 * a single frame of the given schema (see {@link #executeScriptBatch(String, double[][][], String[])}).
+	 * 
+	 * @param varname input variable name
+	 * @param inputs per-request input frames as two-dimensional string arrays
+	 * @param schema list representing the types of the frame columns
+	 * @param splitVars names of row-aligned outputs to split, or null for all matrix and frame outputs
+	 * @return array of ResultVariables objects, one per request
+	 * @throws DMLException
+	 */
+	public ResultVariables[] executeScriptBatch(String varname, String[][][] inputs, List<ValueType> schema, String[] splitVars) 
+		throws DMLException
+	{
+		//vectorize requests into a single frame block
+		int[] rix = computeRowOffsets(inputs.length, inputs);
+		FrameBlock batch = new FrameBlock(schema);
+		for( int i=0; i<inputs.length; i++ )
+			for( int j=0; j<inputs[i].length; j++ ) {
+				if( inputs[i][j].length != schema.size() )
+					throw new DMLException("Incompatible number of columns of request "+i+": "+inputs[i][j].length+" (expected: "+schema.size()+")");
+				batch.appendRow(inputs[i][j]);
+			}
+		
+		//core execute and split results
+		setFrame(varname, batch, false);
+		return splitResults(executeScript(), rix, splitVars);
+	}
+	
 	/**
 	 * Explain the DML/PyDML program and view result as a string.
 	 * 
@@ -413,4 +803,123 @@ public class PreparedScript
 	public String explain() throws DMLException {
 		return Explain.explain(_prog);
 	}
+	
+	/**
+	 * 
+	 * @param len
+	 * @param inputs
+	 * @return
+	 */
+	private static int[] computeRowOffsets(int len, Object[][] inputs) {
+		int[] rix = new int[len+1];
+		for( int i=0; i<len; i++ )
+			rix[i+1] = rix[i] + inputs[i].length;
+		return rix;
+	}
+	
+	/**
+	 * Splits the given row-aligned outputs (or all matrix and frame outputs
+	 * if no names are given) of a batch into per-request results according 
+	 * to the given row offsets. All other outputs are shared by all requests.
+	 * 
+	 * @param rvars results of batch execution
+	 * @param rix row offsets per request (incl total number of rows)
+	 * @param splitVars names of outputs to split, or null for all matrix and frame outputs
+	 * @return array of per-request results
+	 * @throws DMLException if an output to split is not row-aligned with the batch
+	 */
+	private static ResultVariables[] splitResults(ResultVariables rvars, int[] rix, String[] splitVars) 
+		throws DMLException
+	{
+		int len = rix.length-1;
+		int rlen = rix[len];
+		ResultVariables[] ret = new ResultVariables[len];
+		for( int i=0; i<len; i++ )
+			ret[i] = new ResultVariables();
+		
+		//validate row alignment of outputs to split
+		HashSet<String> split = new HashSet<String>();
+		for( String ovar : (splitVars != null) ? Arrays.asList(splitVars) : rvars.getVariableNames() ) {
+			Data dat = rvars.getData(ovar);
+			if( splitVars == null && !(dat instanceof MatrixObject || dat instanceof FrameObject) )
+				continue;
+			long nrow = (dat instanceof MatrixObject) ? ((MatrixObject)dat).getNumRows() :
+				(dat instanceof FrameObject) ? ((FrameObject)dat).getNumRows() : -1;
+			if( nrow != rlen )
+				throw new DMLException("Batch output '"+ovar+"' is not row-aligned with the batch input: "
+					+ nrow + " rows (expected: "+rlen+").");
+			split.add(ovar);
+		}
+		
+		try
+		{
+			for( String ovar : rvars.getVariableNames() ) {
+				Data dat = rvars.getData(ovar);
+				if( dat instanceof MatrixObject && split.contains(ovar) && len > 1 ) {
+					MatrixObject mo = (MatrixObject)dat;
+					MatrixBlock mb = mo.acquireRead();
+					for( int i=0; i<len; i++ ) {
+						MatrixBlock tmp = (rix[i+1] > rix[i]) ? mb.sliceOperations(
+							rix[i], rix[i+1]-1, 0, mb.getNumColumns()-1, new MatrixBlock()) : 
+							new MatrixBlock(0, mb.getNumColumns(), false);
+						ret[i].addResult(ovar, createMatrixObject(ovar, tmp));
+					}
+					mo.release();
+				}
+				else if( dat instanceof FrameObject && split.contains(ovar) && len > 1 ) {
+					FrameObject fo = (FrameObject)dat;
+					FrameBlock fb = fo.acquireRead();
+					for( int i=0; i<len; i++ ) {
+						FrameBlock tmp = (rix[i+1] > rix[i]) ? fb.sliceOperations(
+							rix[i], rix[i+1]-1, 0, fb.getNumColumns()-1, new FrameBlock()) : 
+							new FrameBlock(fb.getSchema());
+						ret[i].addResult(ovar, createFrameObject(ovar, tmp));
+					}
+					fo.release();
+				}
+				else { //shared outputs
+					for( int i=0; i<len; i++ )
+						ret[i].addResult(ovar, dat);
+				}
+			}
+		}
+		catch(Exception ex) {
+			throw new DMLException(ex);
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * 
+	 * @param varname
+	 * @param mb
+	 * @return
+	 */
+	private static MatrixObject createMatrixObject(String varname, MatrixBlock mb) {
+		String scratch_space = ConfigurationManager.getScratchSpace();
+		int blocksize = ConfigurationManager.getBlocksize();
+		MatrixCharacteristics mc = new MatrixCharacteristics(mb.getNumRows(), mb.getNumColumns(), blocksize, blocksize);
+		MatrixFormatMetaData meta = new MatrixFormatMetaData(mc, OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo);
+		MatrixObject mo = new MatrixObject(ValueType.DOUBLE, scratch_space+"/"+varname, meta);
+		mo.acquireModify(mb); 
+		mo.release();
+		return mo;
+	}
+	
+	/**
+	 * 
+	 * @param varname
+	 * @param fb
+	 * @return
+	 */
+	private static FrameObject createFrameObject(String varname, FrameBlock fb) {
+		String scratch_space = ConfigurationManager.getScratchSpace();
+		MatrixCharacteristics mc = new MatrixCharacteristics(fb.getNumRows(), fb.getNumColumns(), -1, -1);
+		MatrixFormatMetaData meta = new MatrixFormatMetaData(mc, OutputInfo.BinaryCellOutputInfo, InputInfo.BinaryCellInputInfo);
+		FrameObject fo = new FrameObject(scratch_space+"/"+varname, meta);
+		fo.acquireModify(fb);
+		fo.release();
+		return fo;
+	}
 }
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.api.jmlc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.sysml.api.DMLException;
+
+/**
+ * Thread-safe pool of prepared scripts for concurrent scoring. All pooled 
+ * scripts are deep copies of a given prepared script (with independent runtime 
+ * programs and symbol tables), which allows multiple threads to borrow a script, 
+ * bind their inputs, execute, and return the script without synchronization 
+ * of the actual script execution. Inputs marked for reuse (e.g., model parameters) 
+ * are bound once before pool creation and shared by all pooled scripts.
+ * 
+ */
+public class PreparedScriptPool implements Closeable
+{
+	private final BlockingQueue<PreparedScript> _pool;
+	private final int _size;
+	
+	/**
+	 * Creates a pool of the given size, where the given prepared script 
+	 * is the first pool entry and all other entries are deep copies.
+	 * 
+	 * @param script prepared script (incl reused inputs)
+	 * @param size number of pooled scripts, i.e., max degree of parallelism
+	 * @throws DMLException
+	 */
+	public PreparedScriptPool(PreparedScript script, int size) 
+		throws DMLException
+	{
+		if( size < 1 )
+			throw new DMLException("Invalid pool size: "+size);
+		
+		_size = size;
+		_pool = new ArrayBlockingQueue<PreparedScript>(size);
+		_pool.add(script);
+		for( int i=1; i<size; i++ )
+			_pool.add(script.clone(true));
+	}
+	
+	/**
+	 * Obtains a prepared script from the pool, blocking until a script 
+	 * becomes available. The script needs to be returned via 
+	 * {@link #returnScript(PreparedScript)} after execution.
+	 * 
+	 * @return prepared script
+	 * @throws DMLException
+	 */
+	public PreparedScript borrowScript() 
+		throws DMLException
+	{
+		try {
+			return _pool.take();
+		}
+		catch(InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new DMLException(ex);
+		}
+	}
+	
+	/**
+	 * Returns a previously borrowed prepared script to the pool, 
+	 * after clearing all its non-reused input parameters.
+	 * 
+	 * @param script prepared script
+	 * @throws DMLException
+	 */
+	public void returnScript(PreparedScript script) 
+		throws DMLException
+	{
+		if( script == null )
+			return;
+		
+		script.clearParameters();
+		if( !_pool.offer(script) )
+			throw new DMLException("Failed to return script to pool (pool size: "+_size+").");
+	}
+	
+	/**
+	 * Obtain the total number of pooled scripts.
+	 * 
+	 * @return pool size
+	 */
+	public int size() {
+		return _size;
+	}
+	
+	/**
+	 * Obtain the number of currently available scripts.
+	 * 
+	 * @return number of available scripts
+	 */
+	public int getNumAvailable() {
+		return _pool.size();
+	}
+	
+	@Override
+	public void close() 
+		throws IOException 
+	{
+		_pool.clear();
+	}
+}
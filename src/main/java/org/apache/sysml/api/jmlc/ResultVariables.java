@@ -19,6 +19,7 @@
 
 package org.apache.sysml.api.jmlc;
 
+import java.nio.DoubleBuffer;
 import java.util.HashMap;
 import java.util.Set;
 
@@ -29,6 +30,7 @@ import org.apache.sysml.runtime.instructions.cp.Data;
 import org.apache.sysml.runtime.instructions.cp.ScalarObject;
 import org.apache.sysml.runtime.matrix.data.FrameBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
 import org.apache.sysml.runtime.util.DataConverter;
 
 /**
@@ -96,6 +98,106 @@ public class ResultVariables
 		return ret;
 	}
 	
+	/**
+	 * Obtain the matrix block represented by the given output variable without 
+	 * copy. The returned block is shared with the result and must be treated as 
+	 * read-only by the caller.
+	 * 
+	 * @param varname output variable name
+	 * @return matrix as a MatrixBlock
+	 * @throws DMLException
+	 */
+	public MatrixBlock getMatrixBlock(String varname) 
+		throws DMLException
+	{
+		MatrixObject mo = getMatrixObject(varname);
+		MatrixBlock ret = mo.acquireRead();
+		mo.release();
+		return ret;
+	}
+	
+	/**
+	 * Obtain the matrix represented by the given output variable as row-major 
+	 * double array. If the result is a dense matrix block with exact-sized
+	 * allocation, its underlying array is returned without copy, i.e., the 
+	 * returned array is shared with the result and must be treated as read-only.
+	 * 
+	 * @param varname output variable name
+	 * @return matrix as a row-major double array
+	 * @throws DMLException
+	 */
+	public double[] getMatrixRowMajor(String varname) 
+		throws DMLException
+	{
+		MatrixBlock mb = getMatrixBlock(varname);
+		double[] dblock = mb.getDenseBlock();
+		if( !mb.isInSparseFormat() && dblock != null 
+			&& dblock.length == mb.getNumRows()*mb.getNumColumns() )
+			return dblock; //zero-copy
+		return DataConverter.convertToDoubleVector(mb);
+	}
+	
+	/**
+	 * Copies the matrix represented by the given output variable in row-major 
+	 * order into the given (e.g., direct) double buffer, starting at its current
+	 * position. This avoids intermediate array allocations.
+	 * 
+	 * @param varname output variable name
+	 * @param out output buffer with at least rows*cols remaining values
+	 * @throws DMLException
+	 */
+	public void getMatrix(String varname, DoubleBuffer out) 
+		throws DMLException
+	{
+		MatrixBlock mb = getMatrixBlock(varname);
+		int rows = mb.getNumRows();
+		int cols = mb.getNumColumns();
+		if( out.remaining() < rows*cols )
+			throw new DMLException("Insufficient buffer size "+out.remaining()+" for ("+rows+","+cols+").");
+		
+		int pos = out.position();
+		if( !mb.isInSparseFormat() && mb.getDenseBlock() != null ) {
+			out.put(mb.getDenseBlock(), 0, rows*cols);
+		}
+		else {
+			//zero-initialize and scatter non-zeros
+			for( int i=0; i<rows*cols; i++ )
+				out.put(pos+i, 0);
+			if( !mb.isEmptyBlock(false) ) {
+				SparseBlock sblock = mb.getSparseBlock();
+				for( int i=0; i<rows; i++ ) {
+					if( sblock.isEmpty(i) ) continue;
+					int apos = sblock.pos(i);
+					int alen = sblock.size(i);
+					int[] aix = sblock.indexes(i);
+					double[] avals = sblock.values(i);
+					for( int k=apos; k<apos+alen; k++ )
+						out.put(pos+i*cols+aix[k], avals[k]);
+				}
+			}
+			out.position(pos+rows*cols);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param varname
+	 * @return
+	 * @throws DMLException
+	 */
+	private MatrixObject getMatrixObject(String varname) 
+		throws DMLException
+	{
+		if( !_out.containsKey(varname) )
+			throw new DMLException("Non-existent output variable: "+varname);
+		
+		Data dat = _out.get(varname);
+		if( !(dat instanceof MatrixObject) )
+			throw new DMLException("Expected matrix result '"+varname+"' not a matrix.");
+		
+		return (MatrixObject)dat;
+	}
+	
 	/**
 	 * Obtain the frame represented by the given output variable.
 	 * 
@@ -208,4 +310,17 @@ public class ResultVariables
 	{
 		_out.put(ovar, data);
 	}
+	
+	/**
+	 * Obtain the generated output data of the given output variable. Called
+	 * during batch execution via {@link PreparedScript}'s
+	 * {@link PreparedScript#executeScriptBatch executeScriptBatch} methods.
+	 * 
+	 * @param ovar output variable name
+	 * @return generated output data, or null if not existing
+	 */
+	protected Data getData(String ovar) 
+	{
+		return _out.get(ovar);
+	}
 }
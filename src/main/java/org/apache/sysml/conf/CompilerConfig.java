@@ -63,6 +63,12 @@ public class CompilerConfig
 		//filenames and other relevant read meta data. Disabled for jmlc to allow binding of 
 		//in-memory objects without specifying read properties.
 		ALLOW_CSE_PERSISTENT_READS,
+		//Enables compressed linear algebra, i.e., the compression of matrices after 
+		//persistent reads in CP and the execution of supported operations on them.
+		COMPRESSED_LINALG,
+		//Enables operator fusion via code generation, i.e., the compilation of 
+		//chains of cellwise operations into generated fused CP operators.
+		CODEGEN,
 		
 		//Global parser configuration (dml/pydml) to skip errors on unspecified args 
 		// (modified by mlcontext / jmlc)
@@ -93,6 +99,8 @@ public class CompilerConfig
 		_bmap.put(ConfigType.ALLOW_PARALLEL_DYN_RECOMPILATION, FLAG_DYN_RECOMPILE);
 		_bmap.put(ConfigType.ALLOW_INDIVIDUAL_SB_SPECIFIC_OPS, FLAG_DYN_RECOMPILE);
 		_bmap.put(ConfigType.ALLOW_CSE_PERSISTENT_READS, true);
+		_bmap.put(ConfigType.COMPRESSED_LINALG, false);
+		_bmap.put(ConfigType.CODEGEN, false);
 		_bmap.put(ConfigType.IGNORE_UNSPECIFIED_ARGS, false);
 		_bmap.put(ConfigType.IGNORE_READ_WRITE_METADATA, false);
 		_bmap.put(ConfigType.REJECT_READ_WRITE_UNKNOWNS, true);
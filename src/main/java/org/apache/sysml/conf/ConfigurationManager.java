@@ -186,6 +186,14 @@ public class ConfigurationManager
 		return getCompilerConfigFlag(ConfigType.PARALLEL_LOCAL_OR_REMOTE_PARFOR);
 	}
 	
+	public static boolean isCompressionEnabled() {
+		return getCompilerConfigFlag(ConfigType.COMPRESSED_LINALG);
+	}
+	
+	public static boolean isCodegenEnabled() {
+		return getCompilerConfigFlag(ConfigType.CODEGEN);
+	}
+	
 	
 	///////////////////////////////////////
 	// Thread-local classes
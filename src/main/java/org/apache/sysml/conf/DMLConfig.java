@@ -70,6 +70,11 @@ public class DMLConfig
 	public static final String YARN_APPQUEUE    	= "dml.yarn.app.queue"; 
 	public static final String CP_PARALLEL_MATRIXMULT = "cp.parallel.matrixmult";
 	public static final String CP_PARALLEL_TEXTIO   = "cp.parallel.textio";
+	public static final String COMPRESSED_LINALG    = "compressed.linalg";
+	public static final String CODEGEN              = "codegen.enabled";
+	public static final String CP_OFFHEAP_BUFFER    = "cp.offheap.buffer";
+	public static final String CP_BUFFER_POLICY     = "cp.buffer.policy";
+	public static final String CP_BUFFER_COMPRESS   = "cp.buffer.compress";
 
 	// supported prefixes for custom map/reduce configurations
 	public static final String PREFIX_MAPRED = "mapred";
@@ -100,6 +105,11 @@ public class DMLConfig
 		_defaultVals.put(YARN_APPQUEUE,    	     "default" );
 		_defaultVals.put(CP_PARALLEL_MATRIXMULT, "true" );
 		_defaultVals.put(CP_PARALLEL_TEXTIO,     "true" );
+		_defaultVals.put(COMPRESSED_LINALG,      "false" );
+		_defaultVals.put(CODEGEN,                "false" );
+		_defaultVals.put(CP_OFFHEAP_BUFFER,      "none" );
+		_defaultVals.put(CP_BUFFER_POLICY,       "fifo" );
+		_defaultVals.put(CP_BUFFER_COMPRESS,     "false" );
 	}
 	
 	public DMLConfig()
@@ -440,7 +450,8 @@ public class DMLConfig
 				LOCAL_TMP_DIR,SCRATCH_SPACE,OPTIMIZATION_LEVEL,
 				NUM_REDUCERS, DEFAULT_BLOCK_SIZE,
 				YARN_APPMASTER, YARN_APPMASTERMEM, YARN_MAPREDUCEMEM, 
-				CP_PARALLEL_MATRIXMULT, CP_PARALLEL_TEXTIO
+				CP_PARALLEL_MATRIXMULT, CP_PARALLEL_TEXTIO, COMPRESSED_LINALG, CODEGEN,
+				CP_OFFHEAP_BUFFER, CP_BUFFER_POLICY, CP_BUFFER_COMPRESS
 		}; 
 		
 		StringBuilder sb = new StringBuilder();
@@ -343,7 +343,10 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 				sparsity = OptimizerUtils.getSparsity(dim1, dim2, nnz);
 		}
 		*/
-		//currently always estimated as dense in order to account for dense intermediate without unnecessary overestimation 
+		//currently always estimated as dense in order to account for dense intermediate without unnecessary overestimation,
+		//except for sparse-sparse products with sparse output (hash-based SpGEMM w/o dense intermediate)
+		if( isSparseOutputMatrixMult() )
+			sparsity = getAverageCaseMatMultSparsity();
 		double ret = OptimizerUtils.estimateSizeExactSparsity(dim1, dim2, sparsity);
 		
 		return ret;
@@ -355,12 +358,50 @@ public class AggBinaryOp extends Hop implements MultiThreadedHop
 		double ret = 0;
 		
 		//account for potential final dense-sparse transformation (worst-case sparse representation)
-		if( dim2 >= 2 ) //vectors always dense
+		if( dim2 >= 2 && !isSparseOutputMatrixMult() ) //vectors always dense
 			ret = OptimizerUtils.estimateSizeExactSparsity(dim1, dim2, MatrixBlock.SPARSITY_TURN_POINT);
 		
 		return ret;
 	}
 	
+	/**
+	 * Indicates if this matrix multiply is executed as sparse-sparse matrix multiply 
+	 * with sparse output in CP, i.e., if both inputs are in sparse format and the
+	 * average-case output sparsity is sparse. The runtime decision uses the minimum of 
+	 * this estimate and an exact upper bound, and hence is consistent with this decision.
+	 * Note that the worst-case estimate is not applicable here, because it is dense for 
+	 * any input with at least one non-zero per row (e.g., graphs).
+	 * 
+	 * @return
+	 */
+	private boolean isSparseOutputMatrixMult()
+	{
+		if( !isMatrixMultiply() || checkTransposeSelf() != MMTSJType.NONE ) //tsmm w/ dense output
+			return false;
+		Hop input1 = getInput().get(0);
+		Hop input2 = getInput().get(1);
+		if( !input1.dimsKnown(true) || !input2.dimsKnown(true) || input2.getDim2() < 2 )
+			return false;
+		
+		return MatrixBlock.evalSparseFormatInMemory(input1.getDim1(), input1.getDim2(), input1.getNnz())
+			&& MatrixBlock.evalSparseFormatInMemory(input2.getDim1(), input2.getDim2(), input2.getNnz())
+			&& MatrixBlock.evalSparseFormatInMemory(input1.getDim1(), input2.getDim2(), 
+				(long)(getAverageCaseMatMultSparsity() * input1.getDim1() * input2.getDim2()));
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	private double getAverageCaseMatMultSparsity()
+	{
+		Hop input1 = getInput().get(0);
+		Hop input2 = getInput().get(1);
+		double sp1 = OptimizerUtils.getSparsity(input1.getDim1(), input1.getDim2(), input1.getNnz());
+		double sp2 = OptimizerUtils.getSparsity(input2.getDim1(), input2.getDim2(), input2.getNnz());
+		return OptimizerUtils.getMatMultSparsity(sp1, sp2, input1.getDim1(), input1.getDim2(), input2.getDim2(), false);
+	}
+	
 	@Override
 	protected long[] inferOutputCharacteristics( MemoTable memo )
 	{
@@ -27,8 +27,10 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.sysml.api.DMLScript;
 import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
 import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.hops.cost.CheckpointCostModel;
 import org.apache.sysml.lops.CSVReBlock;
 import org.apache.sysml.lops.Checkpoint;
+import org.apache.sysml.lops.Compression;
 import org.apache.sysml.lops.Data;
 import org.apache.sysml.lops.Lop;
 import org.apache.sysml.lops.LopsException;
@@ -39,11 +41,9 @@ import org.apache.sysml.parser.Expression.DataType;
 import org.apache.sysml.parser.Expression.ValueType;
 import org.apache.sysml.runtime.controlprogram.LocalVariableMap;
 import org.apache.sysml.runtime.controlprogram.caching.MatrixObject.UpdateType;
-import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
 import org.apache.sysml.runtime.controlprogram.parfor.ProgramConverter;
 import org.apache.sysml.runtime.controlprogram.parfor.util.IDSequence;
 import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
-import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.util.UtilFunctions;
 
 
@@ -112,6 +112,10 @@ public abstract class Hop
 	// (the default storage level for caching is not yet exposed here)
 	protected boolean _requiresCheckpoint = false;
 	
+	// indicates if the output of this hop needs to be compressed
+	// (this happens on persistent reads after reblock but before checkpoint)
+	protected boolean _requiresCompression = false;
+	
 	// indicates if the output of this hops needs to contain materialized empty blocks 
 	// if those exists; otherwise only blocks w/ non-zero values are materialized
 	protected boolean _outputEmptyBlocks = true;
@@ -274,6 +278,16 @@ public abstract class Hop
 		return _requiresCheckpoint;
 	}
 	
+	public void setRequiresCompression(boolean flag)
+	{
+		_requiresCompression = flag;
+	}
+	
+	public boolean requiresCompression()
+	{
+		return _requiresCompression;
+	}
+	
 	
 	/**
 	 * 
@@ -287,6 +301,9 @@ public abstract class Hop
 		
 		//Step 2: construct checkpoint lop if required (output of hop or reblock)
 		constructAndSetCheckpointLopIfRequired();
+		
+		//Step 3: construct compression lop if required (output of hop, reblock, or checkpoint)
+		constructAndSetCompressionLopIfRequired();
 	}
 	
 	/**
@@ -341,7 +358,33 @@ public abstract class Hop
 	 * 
 	 * @throws HopsException
 	 */
-	@SuppressWarnings("unused") //see CHECKPOINT_SPARSE_CSR
+	private void constructAndSetCompressionLopIfRequired() 
+		throws HopsException
+	{
+		//add compression lop to output if required, where we restrict
+		//compression to matrices that are known to fit in local memory
+		boolean inMemory = (DMLScript.rtplatform == RUNTIME_PLATFORM.SINGLE_NODE)
+			|| (dimsKnown() && _outputMemEstimate < OptimizerUtils.getLocalMemBudget());
+		if( _requiresCompression && inMemory && getDataType() == DataType.MATRIX )
+		{
+			try
+			{
+				Lop compress = new Compression(getLops(), getDataType(), getValueType(), 
+						ExecType.CP, OptimizerUtils.getConstrainedNumThreads(-1));
+				setOutputDimensions( compress );
+				setLineNumbers( compress );
+				setLops( compress );
+			}
+			catch( LopsException ex ) {
+				throw new HopsException(ex);
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * @throws HopsException
+	 */
 	private void constructAndSetCheckpointLopIfRequired() 
 		throws HopsException
 	{
@@ -371,14 +414,11 @@ public abstract class Hop
 		{
 			try
 			{
-				//investigate need for serialized storage of large sparse matrices
-				//(compile- instead of runtime-level for better debugging)
-				boolean serializedStorage = false;
-				if( getDataType()==DataType.MATRIX && dimsKnown(true) && !Checkpoint.CHECKPOINT_SPARSE_CSR ) {
-					double matrixPSize = OptimizerUtils.estimatePartitionedSizeExactSparsity(_dim1, _dim2, _rows_in_block, _cols_in_block, _nnz);
-					double dataCache = SparkExecutionContext.getDataMemoryBudget(true, true);
-					serializedStorage = (MatrixBlock.evalSparseFormatInMemory(_dim1, _dim2, _nnz)
-							             && matrixPSize > dataCache ); //sparse in-memory does not fit in agg mem 
+				//cost-based selection of storage level (serialized storage of matrices 
+				//that do not fit in agg mem, compile- instead of runtime-level for better debugging)
+				String level = Checkpoint.getDefaultStorageLevelString();
+				if( getDataType()==DataType.MATRIX && dimsKnown(true) ) {
+					level = CheckpointCostModel.selectStorageLevelString(this);
 				}
 				else if( !dimsKnown(true) ) {
 					setRequiresRecompile();
@@ -386,9 +426,7 @@ public abstract class Hop
 			
 				//construct checkpoint w/ right storage level
 				Lop input = getLops();			
-				Lop chkpoint = new Checkpoint(input, getDataType(), getValueType(), 
-						serializedStorage ? Checkpoint.getSerializeStorageLevelString() :
-								            Checkpoint.getDefaultStorageLevelString() );
+				Lop chkpoint = new Checkpoint(input, getDataType(), getValueType(), level);
 				
 				setOutputDimensions( chkpoint );
 				setLineNumbers( chkpoint );
@@ -1879,6 +1917,7 @@ public abstract class Hop
 		_requiresRecompile = that._requiresRecompile;
 		_requiresReblock = that._requiresReblock;
 		_requiresCheckpoint = that._requiresCheckpoint;
+		_requiresCompression = that._requiresCompression;
 		_outputEmptyBlocks = that._outputEmptyBlocks;
 		
 		_beginLine = that._beginLine;
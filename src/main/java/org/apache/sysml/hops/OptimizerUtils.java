@@ -176,6 +176,18 @@ public class OptimizerUtils
 	 */
 	public static boolean ALLOW_LOOP_UPDATE_IN_PLACE = true;
 	
+	/**
+	 * Enables the reuse of recompiled instructions of statement blocks for unchanged
+	 * sizes of live inputs (dims, nnz, and scalar values), e.g., in loops.
+	 */
+	public static boolean ALLOW_RECOMPILE_PLAN_CACHE = true;
+	
+	/**
+	 * Enables the cost-based injection of checkpoints for spark intermediates
+	 * with multiple consumers.
+	 */
+	public static boolean ALLOW_SPARK_INTERMEDIATE_CHECKPOINTING = true;
+	
 	
 	/**
 	 * Specifies a multiplier computing the degree of parallelism of parallel
@@ -306,6 +318,7 @@ public class OptimizerUtils
 				ALLOW_INTER_PROCEDURAL_ANALYSIS = false;
 				ALLOW_BRANCH_REMOVAL = false;
 				ALLOW_SUM_PRODUCT_REWRITES = false;
+				ALLOW_SPARK_INTERMEDIATE_CHECKPOINTING = false;
 				break;
 			// opt level 1: memory-based (no advanced rewrites)	
 			case 1:
@@ -318,6 +331,7 @@ public class OptimizerUtils
 				ALLOW_BRANCH_REMOVAL = false;
 				ALLOW_SUM_PRODUCT_REWRITES = false;
 				ALLOW_LOOP_UPDATE_IN_PLACE = false;
+				ALLOW_SPARK_INTERMEDIATE_CHECKPOINTING = false;
 				break;
 			// opt level 2: memory-based (all advanced rewrites)
 			case 2:
@@ -370,6 +384,16 @@ public class OptimizerUtils
 			cconf.set(ConfigType.PARALLEL_CP_MATRIX_OPERATIONS, false);
 		}	
 		
+		//handle compressed linear algebra
+		if (dmlconf.getBooleanValue(DMLConfig.COMPRESSED_LINALG)) {
+			cconf.set(ConfigType.COMPRESSED_LINALG, true);
+		}
+		
+		//handle operator fusion via code generation
+		if (dmlconf.getBooleanValue(DMLConfig.CODEGEN)) {
+			cconf.set(ConfigType.CODEGEN, true);
+		}
+		
 		return cconf;
 	}
 	
@@ -163,7 +163,7 @@ public class UnaryOp extends Hop implements MultiThreadedHop
 				}
 				else //default unary 
 				{
-					int k = isCumulativeUnaryOperation() ? OptimizerUtils.getConstrainedNumThreads( _maxNumThreads ) : 1;					
+					int k = isMultiThreadedOperation() ? OptimizerUtils.getConstrainedNumThreads( _maxNumThreads ) : 1;
 					Unary unary1 = new Unary(input.constructLops(), HopsOpOp1LopsU.get(_op), 
 							                 getDataType(), getValueType(), et, k);
 					setOutputDimensions(unary1);
@@ -229,7 +229,8 @@ public class UnaryOp extends Hop implements MultiThreadedHop
 			SortKeys sort = SortKeys.constructSortByValueLop(
 								getInput().get(0).constructLops(), 
 								SortKeys.OperationTypes.WithoutWeights, 
-								DataType.MATRIX, ValueType.DOUBLE, et );
+								DataType.MATRIX, ValueType.DOUBLE, et, 
+								OptimizerUtils.getConstrainedNumThreads(_maxNumThreads) );
 			sort.getOutputParameters().setDimensions(
 					getInput().get(0).getDim1(),
 					getInput().get(0).getDim2(),
@@ -338,7 +339,8 @@ public class UnaryOp extends Hop implements MultiThreadedHop
 			SortKeys sort = SortKeys.constructSortByValueLop(
 					input.constructLops(), 
 					SortKeys.OperationTypes.WithoutWeights, 
-					DataType.MATRIX, ValueType.DOUBLE, et );
+					DataType.MATRIX, ValueType.DOUBLE, et, 
+					OptimizerUtils.getConstrainedNumThreads(_maxNumThreads) );
 			sort.getOutputParameters().setDimensions(
 					input.getDim1(),
 					input.getDim2(),
@@ -626,6 +628,19 @@ public class UnaryOp extends Hop implements MultiThreadedHop
 				|| _op == OpOp1.CUMMAX  );
 	}
 	
+	/**
+	 * Indicates if this unary operation over a matrix is executed multi-threaded 
+	 * in CP, i.e., cumulative aggregates and cellwise builtins such as exp or log.
+	 * 
+	 * @return
+	 */
+	public boolean isMultiThreadedOperation()
+	{
+		return (getDataType() == DataType.MATRIX
+			&& Unary.isMultiThreadedOp(HopsOpOp1LopsU.get(_op)))
+			|| _op == OpOp1.MEDIAN || _op == OpOp1.IQM; //multi-threaded sort
+	}
+	
 	/**
 	 * 
 	 * @return
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.codegen;
+
+import java.util.ArrayList;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.Hop.VisitStatus;
+import org.apache.sysml.hops.HopsException;
+import org.apache.sysml.hops.codegen.cplan.CNodeCell;
+import org.apache.sysml.hops.rewrite.HopRewriteRule;
+import org.apache.sysml.hops.rewrite.HopRewriteUtils;
+import org.apache.sysml.hops.rewrite.ProgramRewriteStatus;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.codegen.CodegenUtils;
+import org.apache.sysml.utils.Statistics;
+
+/**
+ * Operator fusion via code generation: this rule identifies maximal cellwise
+ * templates (incl optional sum/rowSums aggregation) in a given HOP DAG, 
+ * generates the source code of specialized fused operators, compiles them 
+ * at runtime, and replaces the covered sub-DAGs by fused operators. This 
+ * avoids the materialization of intermediates for arbitrary cellwise chains.
+ * 
+ * The rule is applied after all static and dynamic rewrites, and during 
+ * dynamic recompilation (e.g., for initially unknown dimensions).
+ */
+public class SpoofCompiler extends HopRewriteRule
+{
+	private static final Log LOG = LogFactory.getLog(SpoofCompiler.class.getName());
+	
+	private static boolean _warned = false;
+	
+	@Override
+	public ArrayList<Hop> rewriteHopDAGs(ArrayList<Hop> roots, ProgramRewriteStatus state) 
+		throws HopsException 
+	{
+		if( roots == null || !isApplicable() )
+			return roots;
+		
+		for( int i=0; i<roots.size(); i++ )
+			roots.set(i, rFuseHops(roots.get(i)));
+		Hop.resetVisitStatus(roots);
+		
+		return roots;
+	}
+
+	@Override
+	public Hop rewriteHopDAG(Hop root, ProgramRewriteStatus state) 
+		throws HopsException 
+	{
+		if( root == null || !isApplicable() )
+			return root;
+		
+		Hop ret = rFuseHops(root);
+		ret.resetVisitStatus();
+		
+		return ret;
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	private static boolean isApplicable() {
+		//fused operators are CP-only
+		if( DMLScript.rtplatform == RUNTIME_PLATFORM.HADOOP 
+			|| DMLScript.rtplatform == RUNTIME_PLATFORM.SPARK )
+			return false;
+		
+		//code generation requires a java compiler at runtime
+		if( !CodegenUtils.isCompilerAvailable() ) {
+			if( !_warned ) {
+				LOG.warn("Code generation disabled: java compiler not available (requires JDK).");
+				_warned = true;
+			}
+			return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Top-down traversal that fuses maximal templates, where parents are
+	 * always processed before their inputs.
+	 * 
+	 * @param hop
+	 * @return
+	 * @throws HopsException
+	 */
+	private Hop rFuseHops(Hop hop) 
+		throws HopsException
+	{
+		if( hop.getVisited() == VisitStatus.DONE )
+			return hop;
+		
+		//try to fuse template rooted at current hop
+		Hop ret = hop;
+		TemplateCell tpl = new TemplateCell(hop);
+		if( tpl.construct() )
+			ret = createFusedOp(tpl, hop);
+		
+		//process inputs (which might be replaced in place)
+		for( int i=0; i<ret.getInput().size(); i++ )
+			rFuseHops(ret.getInput().get(i));
+		
+		ret.setVisited(VisitStatus.DONE);
+		return ret;
+	}
+	
+	/**
+	 * 
+	 * @param tpl
+	 * @param root
+	 * @return
+	 * @throws HopsException
+	 */
+	private Hop createFusedOp(TemplateCell tpl, Hop root) 
+		throws HopsException
+	{
+		//generate and compile fused operator (or reuse compiled class)
+		CNodeCell cplan = tpl.getCPlan();
+		Class<?> cla = null;
+		try {
+			String src = cplan.codegen();
+			cla = CodegenUtils.getOrCompileClass(src);
+			if( LOG.isDebugEnabled() )
+				LOG.debug("Generated fused operator "+cla.getName()+" for hop "+root.getHopID()+":\n"+src);
+		}
+		catch(DMLRuntimeException ex) {
+			throw new HopsException(ex);
+		}
+		
+		//create fused operator over template inputs
+		SpoofFusedOp fop = new SpoofFusedOp(root.getName(), root.getDataType(), root.getValueType(), 
+				cla, tpl.getCellType(), tpl.getInputHops());
+		HopRewriteUtils.setOutputBlocksizes(fop, root.getRowsInBlock(), root.getColsInBlock());
+		HopRewriteUtils.copyLineNumbers(root, fop);
+		fop.refreshSizeInformation();
+		
+		//rewire parents of root to fused operator
+		ArrayList<Hop> parents = new ArrayList<Hop>(root.getParent());
+		for( Hop p : parents ) {
+			int pos = HopRewriteUtils.getChildReferencePos(p, root);
+			HopRewriteUtils.removeChildReferenceByPos(p, root, pos);
+			HopRewriteUtils.addChildReference(p, fop, pos);
+		}
+		
+		//remove covered hops from the DAG
+		for( Hop h : tpl.getFusedHops() )
+			HopRewriteUtils.removeAllChildReferences(h);
+		
+		Statistics.incrementCodegenDAGCompile();
+		return fop;
+	}
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.codegen;
+
+import java.util.ArrayList;
+
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.HopsException;
+import org.apache.sysml.hops.MemoTable;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.hops.Hop.MultiThreadedHop;
+import org.apache.sysml.lops.Lop;
+import org.apache.sysml.lops.LopsException;
+import org.apache.sysml.lops.SpoofFused;
+import org.apache.sysml.lops.LopProperties.ExecType;
+import org.apache.sysml.parser.Expression.DataType;
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.codegen.SpoofCellwise.CellType;
+
+/**
+ * Hop of generated fused operators, which refers to the compiled class
+ * of the operator and its matrix and scalar inputs (CP only).
+ */
+public class SpoofFusedOp extends Hop implements MultiThreadedHop
+{
+	private Class<?> _class = null;
+	private CellType _type = null;
+	private int _maxNumThreads = -1; //-1 for unlimited
+	
+	private SpoofFusedOp() {
+		//default constructor for clone
+	}
+	
+	public SpoofFusedOp(String name, DataType dt, ValueType vt, Class<?> cla, CellType type, ArrayList<Hop> inputs) {
+		super(name, dt, vt);
+		_class = cla;
+		_type = type;
+		for( Hop in : inputs ) {
+			getInput().add(in);
+			in.getParent().add(this);
+		}
+	}
+	
+	public Class<?> getGeneratedClass() {
+		return _class;
+	}
+	
+	public CellType getCellType() {
+		return _type;
+	}
+
+	@Override
+	public void setMaxNumThreads( int k ) {
+		_maxNumThreads = k;
+	}
+	
+	@Override
+	public int getMaxNumThreads() {
+		return _maxNumThreads;
+	}
+
+	@Override
+	public boolean allowsAllExecTypes() {
+		return false;
+	}
+
+	@Override
+	protected double computeOutputMemEstimate(long dim1, long dim2, long nnz) {
+		if( getDataType() == DataType.SCALAR )
+			return OptimizerUtils.DOUBLE_SIZE;
+		double sp = OptimizerUtils.getSparsity(dim1, dim2, nnz);
+		return OptimizerUtils.estimateSizeExactSparsity(dim1, dim2, sp);
+	}
+
+	@Override
+	protected double computeIntermediateMemEstimate(long dim1, long dim2, long nnz) {
+		//side inputs might be converted to dense 
+		double ret = 0;
+		for( int i=1; i<getInput().size(); i++ ) {
+			Hop in = getInput().get(i);
+			if( in.getDataType() == DataType.MATRIX )
+				ret += OptimizerUtils.estimateSizeExactSparsity(in.getDim1(), in.getDim2(), 1.0);
+		}
+		return ret;
+	}
+
+	@Override
+	protected long[] inferOutputCharacteristics(MemoTable memo) {
+		//rely on refresh size information
+		return null;
+	}
+
+	@Override
+	public Lop constructLops() 
+		throws HopsException, LopsException 
+	{
+		//return already created lops
+		if( getLops() != null )
+			return getLops();
+		
+		ExecType et = optFindExecType();
+		
+		ArrayList<Lop> inputs = new ArrayList<Lop>();
+		for( Hop c : getInput() )
+			inputs.add(c.constructLops());
+		
+		int k = OptimizerUtils.getConstrainedNumThreads(_maxNumThreads);
+		SpoofFused lop = new SpoofFused(inputs, getDataType(), getValueType(), _class.getName(), et, k);
+		setOutputDimensions(lop);
+		setLineNumbers(lop);
+		setLops(lop);
+	
+		//add reblock/checkpoint lops if necessary
+		constructAndSetLopsDataFlowProperties();
+		
+		return lop;
+	}
+	
+	@Override
+	protected ExecType optFindExecType() 
+		throws HopsException 
+	{
+		checkAndSetForcedPlatform();
+		
+		//fused operators are only compiled if they fit into the 
+		//local memory budget, hence we always execute them in CP
+		_etype = ExecType.CP;
+		
+		return _etype;
+	}
+
+	@Override
+	public String getOpString() {
+		return "spoof("+_class.getSimpleName()+")";
+	}
+
+	@Override
+	public void refreshSizeInformation() 
+	{
+		Hop in = getInput().get(0);
+		switch( _type ) {
+			case NO_AGG:
+				setDim1( in.getDim1() );
+				setDim2( in.getDim2() );
+				break;
+			case ROW_AGG:
+				setDim1( in.getDim1() );
+				setDim2( 1 );
+				break;
+			case FULL_AGG:
+				//do nothing: always scalar
+				break;
+		}
+	}
+
+	@Override
+	public Object clone() throws CloneNotSupportedException 
+	{
+		SpoofFusedOp ret = new SpoofFusedOp();
+		
+		//copy generic attributes
+		ret.clone(this, false);
+		
+		//copy specific attributes
+		ret._class = _class;
+		ret._type = _type;
+		ret._maxNumThreads = _maxNumThreads;
+		
+		return ret;
+	}
+	
+	@Override
+	public boolean compare( Hop that )
+	{
+		if( !(that instanceof SpoofFusedOp) )
+			return false;
+		
+		SpoofFusedOp that2 = (SpoofFusedOp)that;
+		boolean ret = ( _class == that2._class
+				&& _type == that2._type
+				&& _maxNumThreads == that2._maxNumThreads
+				&& getInput().size() == that2.getInput().size());
+		
+		if( ret ) {
+			for( int i=0; i<getInput().size(); i++ )
+				ret &= (getInput().get(i) == that2.getInput().get(i));
+		}
+		
+		return ret;
+	}
+}
@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.codegen;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+import org.apache.sysml.hops.AggUnaryOp;
+import org.apache.sysml.hops.BinaryOp;
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.Hop.AggOp;
+import org.apache.sysml.hops.Hop.Direction;
+import org.apache.sysml.hops.Hop.OpOp1;
+import org.apache.sysml.hops.Hop.OpOp2;
+import org.apache.sysml.hops.HopsException;
+import org.apache.sysml.hops.LiteralOp;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.hops.UnaryOp;
+import org.apache.sysml.hops.codegen.cplan.CNode;
+import org.apache.sysml.hops.codegen.cplan.CNodeBinary;
+import org.apache.sysml.hops.codegen.cplan.CNodeBinary.BinType;
+import org.apache.sysml.hops.codegen.cplan.CNodeCell;
+import org.apache.sysml.hops.codegen.cplan.CNodeData;
+import org.apache.sysml.hops.codegen.cplan.CNodeUnary;
+import org.apache.sysml.hops.codegen.cplan.CNodeUnary.UnaryType;
+import org.apache.sysml.parser.Expression.DataType;
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.codegen.SpoofCellwise.CellType;
+
+/**
+ * Cellwise template, which covers a maximal chain of cellwise unary and binary 
+ * operations over equally-sized matrices and scalars, rooted at the given hop,
+ * with an optional sum or rowSums aggregation on top. Intermediates that are 
+ * consumed by multiple operations are not fused but become inputs.
+ */
+public class TemplateCell 
+{
+	private static final HashMap<OpOp1, UnaryType> SUPPORTED_UNARY = new HashMap<OpOp1, UnaryType>();
+	private static final HashMap<OpOp2, BinType> SUPPORTED_BINARY = new HashMap<OpOp2, BinType>();
+	static {
+		SUPPORTED_UNARY.put(OpOp1.EXP, UnaryType.EXP);
+		SUPPORTED_UNARY.put(OpOp1.LOG, UnaryType.LOG);
+		SUPPORTED_UNARY.put(OpOp1.LOG_NZ, UnaryType.LOG_NZ);
+		SUPPORTED_UNARY.put(OpOp1.ABS, UnaryType.ABS);
+		SUPPORTED_UNARY.put(OpOp1.SQRT, UnaryType.SQRT);
+		SUPPORTED_UNARY.put(OpOp1.ROUND, UnaryType.ROUND);
+		SUPPORTED_UNARY.put(OpOp1.CEIL, UnaryType.CEIL);
+		SUPPORTED_UNARY.put(OpOp1.FLOOR, UnaryType.FLOOR);
+		SUPPORTED_UNARY.put(OpOp1.SIGN, UnaryType.SIGN);
+		SUPPORTED_UNARY.put(OpOp1.SIN, UnaryType.SIN);
+		SUPPORTED_UNARY.put(OpOp1.COS, UnaryType.COS);
+		SUPPORTED_UNARY.put(OpOp1.TAN, UnaryType.TAN);
+		SUPPORTED_UNARY.put(OpOp1.ASIN, UnaryType.ASIN);
+		SUPPORTED_UNARY.put(OpOp1.ACOS, UnaryType.ACOS);
+		SUPPORTED_UNARY.put(OpOp1.ATAN, UnaryType.ATAN);
+		SUPPORTED_UNARY.put(OpOp1.SIGMOID, UnaryType.SIGMOID);
+		SUPPORTED_UNARY.put(OpOp1.SPROP, UnaryType.SPROP);
+		SUPPORTED_UNARY.put(OpOp1.SELP, UnaryType.SELP);
+		
+		SUPPORTED_BINARY.put(OpOp2.PLUS, BinType.PLUS);
+		SUPPORTED_BINARY.put(OpOp2.MINUS, BinType.MINUS);
+		SUPPORTED_BINARY.put(OpOp2.MULT, BinType.MULT);
+		SUPPORTED_BINARY.put(OpOp2.DIV, BinType.DIV);
+		SUPPORTED_BINARY.put(OpOp2.POW, BinType.POW);
+		SUPPORTED_BINARY.put(OpOp2.MIN, BinType.MIN);
+		SUPPORTED_BINARY.put(OpOp2.MAX, BinType.MAX);
+		SUPPORTED_BINARY.put(OpOp2.LESS, BinType.LESS);
+		SUPPORTED_BINARY.put(OpOp2.LESSEQUAL, BinType.LESSEQUAL);
+		SUPPORTED_BINARY.put(OpOp2.GREATER, BinType.GREATER);
+		SUPPORTED_BINARY.put(OpOp2.GREATEREQUAL, BinType.GREATEREQUAL);
+		SUPPORTED_BINARY.put(OpOp2.EQUAL, BinType.EQUAL);
+		SUPPORTED_BINARY.put(OpOp2.NOTEQUAL, BinType.NOTEQUAL);
+		SUPPORTED_BINARY.put(OpOp2.AND, BinType.AND);
+		SUPPORTED_BINARY.put(OpOp2.OR, BinType.OR);
+		SUPPORTED_BINARY.put(OpOp2.MINUS_NZ, BinType.MINUS_NZ);
+		SUPPORTED_BINARY.put(OpOp2.MINUS1_MULT, BinType.MINUS1_MULT);
+	}
+	
+	private final Hop _root;
+	private CellType _type = null;
+	private long _rows = -1;
+	private long _cols = -1;
+	private int _numOps = 0;
+	
+	//inputs and covered hops of the template
+	private LinkedHashMap<Long, Hop> _inHops = new LinkedHashMap<Long, Hop>();
+	private HashMap<Long, CNodeData> _inNodes = new HashMap<Long, CNodeData>();
+	private ArrayList<Hop> _fusedHops = new ArrayList<Hop>();
+	private Hop _mainHop = null;
+	private CNodeCell _cplan = null;
+	
+	public TemplateCell(Hop root) {
+		_root = root;
+	}
+	
+	public CellType getCellType() {
+		return _type;
+	}
+	
+	public CNodeCell getCPlan() {
+		return _cplan;
+	}
+	
+	/**
+	 * Obtains the input hops of the fused operator, in the order expected 
+	 * by the generated operator, i.e., main input, side inputs, scalars.
+	 * 
+	 * @return
+	 */
+	public ArrayList<Hop> getInputHops() {
+		ArrayList<Hop> ret = new ArrayList<Hop>();
+		ret.add(_mainHop);
+		for( Hop in : _inHops.values() )
+			if( in.getDataType()==DataType.MATRIX && in != _mainHop )
+				ret.add(in);
+		for( Hop in : _inHops.values() )
+			if( in.getDataType()==DataType.SCALAR )
+				ret.add(in);
+		return ret;
+	}
+	
+	/**
+	 * Obtains all hops covered by the template, including the root.
+	 * 
+	 * @return
+	 */
+	public ArrayList<Hop> getFusedHops() {
+		return _fusedHops;
+	}
+	
+	/**
+	 * Constructs the cplan of a maximal cellwise template rooted at the given 
+	 * hop, if valid and beneficial (at least two cellwise operations, or one 
+	 * cellwise operation with aggregation).
+	 * 
+	 * @return true if a valid cplan has been constructed
+	 * @throws HopsException
+	 */
+	public boolean construct() 
+		throws HopsException 
+	{
+		//determine cell type and root of cellwise operations
+		Hop cellRoot = null;
+		if( isSumAggregate(_root) && isCellOp(_root.getInput().get(0), 
+			_root.getInput().get(0).getDim1(), _root.getInput().get(0).getDim2()) ) {
+			_type = (((AggUnaryOp)_root).getDirection() == Direction.RowCol) ? 
+				CellType.FULL_AGG : CellType.ROW_AGG;
+			cellRoot = _root.getInput().get(0);
+			if( cellRoot.getParent().size() > 1 )
+				return false;
+		}
+		else if( isCellOp(_root, _root.getDim1(), _root.getDim2()) ) {
+			_type = CellType.NO_AGG;
+			cellRoot = _root;
+		}
+		else
+			return false;
+		
+		//check for known dimensions and valid memory requirements
+		_rows = cellRoot.getDim1();
+		_cols = cellRoot.getDim2();
+		if( _rows <= 0 || _cols <= 0 )
+			return false;
+		
+		//construct cplan of cellwise operations
+		if( _type != CellType.NO_AGG )
+			_fusedHops.add(_root);
+		CNode out = rConstructCPlan(cellRoot, true);
+		
+		//check for beneficial fusion (w/o intermediates) and inputs
+		if( _numOps < ((_type==CellType.NO_AGG) ? 2 : 1) || getNumMatrixInputs() < 1 )
+			return false;
+		double memIn = _inHops.size() * OptimizerUtils.estimateSizeExactSparsity(_rows, _cols, 1.0);
+		if( memIn + OptimizerUtils.estimateSizeExactSparsity(_rows, _cols, 1.0) > OptimizerUtils.getLocalMemBudget() )
+			return false;
+		
+		//choose main input (preferably sparse-safe) and create cplan
+		for( Hop in : _inHops.values() ) {
+			if( in.getDataType() != DataType.MATRIX )
+				continue;
+			if( _mainHop == null )
+				_mainHop = in;
+			if( out.isSparseSafe(_inNodes.get(in.getHopID())) ) {
+				_mainHop = in;
+				break;
+			}
+		}
+		CNodeData main = _inNodes.get(_mainHop.getHopID());
+		ArrayList<CNodeData> sides = new ArrayList<CNodeData>();
+		ArrayList<CNodeData> scalars = new ArrayList<CNodeData>();
+		for( Hop in : _inHops.values() ) {
+			CNodeData tmp = _inNodes.get(in.getHopID());
+			if( in.getDataType()==DataType.MATRIX && in != _mainHop )
+				sides.add(tmp);
+			else if( in.getDataType()==DataType.SCALAR )
+				scalars.add(tmp);
+		}
+		_cplan = new CNodeCell(out, _type, main, sides, scalars);
+		
+		return true;
+	}
+	
+	/**
+	 * 
+	 * @param hop
+	 * @param isRoot
+	 * @return
+	 * @throws HopsException
+	 */
+	private CNode rConstructCPlan(Hop hop, boolean isRoot) 
+		throws HopsException
+	{
+		//fuse cellwise operations with single consumer
+		if( isCellOp(hop, _rows, _cols) && (isRoot || hop.getParent().size()==1) )
+		{
+			_fusedHops.add(hop);
+			_numOps++;
+			
+			if( hop instanceof UnaryOp ) {
+				CNode in1 = rConstructCPlan(hop.getInput().get(0), false);
+				return new CNodeUnary(in1, SUPPORTED_UNARY.get(((UnaryOp)hop).getOp()));
+			}
+			else { //BinaryOp
+				Hop right = hop.getInput().get(1);
+				CNode in1 = rConstructCPlan(hop.getInput().get(0), false);
+				
+				//special case X^2 -> X*X
+				if( ((BinaryOp)hop).getOp()==OpOp2.POW && right instanceof LiteralOp 
+					&& ((LiteralOp)right).getDoubleValue()==2 ) {
+					return new CNodeBinary(in1, in1, BinType.POW2);
+				}
+				
+				CNode in2 = rConstructCPlan(right, false);
+				return new CNodeBinary(in1, in2, SUPPORTED_BINARY.get(((BinaryOp)hop).getOp()));
+			}
+		}
+		
+		//inline numeric literals 
+		if( hop instanceof LiteralOp )
+			return new CNodeData(((LiteralOp)hop).getDoubleValue());
+		
+		//create or reuse input node
+		if( !_inHops.containsKey(hop.getHopID()) ) {
+			_inHops.put(hop.getHopID(), hop);
+			_inNodes.put(hop.getHopID(), new CNodeData(hop.getHopID(), hop.getDataType()));
+		}
+		return _inNodes.get(hop.getHopID());
+	}
+	
+	/**
+	 * Indicates if the given hop is a supported cellwise operation, whose 
+	 * matrix inputs and output are of the given dimensions.
+	 * 
+	 * @param hop
+	 * @param rows
+	 * @param cols
+	 * @return
+	 */
+	private static boolean isCellOp(Hop hop, long rows, long cols) 
+	{
+		if( hop.getDataType() != DataType.MATRIX || hop.getDim1() != rows || hop.getDim2() != cols )
+			return false;
+		
+		boolean ret = false;
+		if( hop instanceof UnaryOp )
+			ret = SUPPORTED_UNARY.containsKey(((UnaryOp)hop).getOp());
+		else if( hop instanceof BinaryOp )
+			ret = SUPPORTED_BINARY.containsKey(((BinaryOp)hop).getOp());
+		
+		//check for equally-sized matrix inputs and numeric scalars
+		for( Hop in : hop.getInput() ) {
+			if( in.getDataType() == DataType.MATRIX )
+				ret &= (in.getDim1() == rows && in.getDim2() == cols);
+			else 
+				ret &= in.getDataType() == DataType.SCALAR 
+					&& (in.getValueType() == ValueType.DOUBLE || in.getValueType() == ValueType.INT);
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * 
+	 * @param hop
+	 * @return
+	 */
+	private static boolean isSumAggregate(Hop hop) {
+		return hop instanceof AggUnaryOp 
+			&& ((AggUnaryOp)hop).getOp() == AggOp.SUM
+			&& (((AggUnaryOp)hop).getDirection() == Direction.RowCol 
+				|| ((AggUnaryOp)hop).getDirection() == Direction.Row)
+			&& hop.getInput().get(0).getDataType() == DataType.MATRIX;
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	private int getNumMatrixInputs() {
+		int ret = 0;
+		for( Hop in : _inHops.values() )
+			ret += (in.getDataType()==DataType.MATRIX) ? 1 : 0;
+		return ret;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.codegen.cplan;
+
+import java.util.ArrayList;
+
+/**
+ * Base class of all nodes of code-generation plans (cplans), which are 
+ * small expression DAGs that are translated into java source code of 
+ * generated fused operators.
+ */
+public abstract class CNode
+{
+	protected ArrayList<CNode> _inputs = null;
+	protected String _genVar = null;
+	protected boolean _generated = false;
+	
+	public CNode() {
+		_inputs = new ArrayList<CNode>();
+	}
+	
+	public ArrayList<CNode> getInput() {
+		return _inputs;
+	}
+	
+	/**
+	 * Obtains the variable name or expression that refers to the 
+	 * result of this node in the generated code.
+	 * 
+	 * @return
+	 */
+	public String getVarname() {
+		return _genVar;
+	}
+	
+	/**
+	 * Recursively assigns deterministic variable names (TMP0, TMP1, ...) 
+	 * in order to obtain equal source codes for equal cplans, which
+	 * allows the reuse of compiled classes.
+	 * 
+	 * @param seq
+	 */
+	public void setVarnames(int[] seq) {
+		if( _generated )
+			return;
+		for( CNode c : _inputs )
+			c.setVarnames(seq);
+		_genVar = "TMP" + (seq[0]++);
+		_generated = true;
+	}
+	
+	/**
+	 * Recursively resets the generated flag of this node and its inputs.
+	 */
+	public void resetGenerated() {
+		if( !_generated )
+			return;
+		for( CNode c : _inputs )
+			c.resetGenerated();
+		_generated = false;
+	}
+	
+	/**
+	 * Generates the java statements that compute this node (and its 
+	 * not yet generated inputs), where the result is available via
+	 * the variable name of this node.
+	 * 
+	 * @return
+	 */
+	public abstract String codegen();
+	
+	/**
+	 * Indicates if this node evaluates to zero, if the given main input
+	 * is zero, which allows processing only the non-zeros of the main input.
+	 * 
+	 * @param main
+	 * @return
+	 */
+	public abstract boolean isSparseSafe(CNodeData main);
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.codegen.cplan;
+
+import java.util.ArrayList;
+
+import org.apache.sysml.runtime.codegen.CodegenUtils;
+import org.apache.sysml.runtime.codegen.SpoofCellwise.CellType;
+
+/**
+ * Root node of cellwise cplans, which generates the source code of 
+ * a SpoofCellwise operator for the given output node and inputs.
+ */
+public class CNodeCell extends CNode
+{
+	private static final String TEMPLATE = 
+			  "package " + CodegenUtils.PACKAGE + ";\n"
+			+ "\n"
+			+ "import org.apache.sysml.runtime.codegen.SpoofCellwise;\n"
+			+ "import org.apache.sysml.runtime.codegen.SpoofCellwise.CellType;\n"
+			+ "\n"
+			+ "public final class " + CodegenUtils.CLASSNAME_PLACEHOLDER + " extends SpoofCellwise {\n"
+			+ "  private static final long serialVersionUID = 1L;\n"
+			+ "\n"
+			+ "  public " + CodegenUtils.CLASSNAME_PLACEHOLDER + "() {\n"
+			+ "    super(CellType.%TYPE%, %SPARSE_SAFE%);\n"
+			+ "  }\n"
+			+ "\n"
+			+ "  @Override\n"
+			+ "  protected double genexec( double a, double[][] b, double[] scalars, int n, int rix, int cix ) {\n"
+			+ "%BODY%"
+			+ "    return %OUT%;\n"
+			+ "  }\n"
+			+ "}\n";
+	
+	private final CellType _type;
+	private final CNodeData _main;
+	private final ArrayList<CNodeData> _sides;
+	private final ArrayList<CNodeData> _scalars;
+	
+	public CNodeCell(CNode output, CellType type, CNodeData main, ArrayList<CNodeData> sides, ArrayList<CNodeData> scalars) {
+		_inputs.add(output);
+		_type = type;
+		_main = main;
+		_sides = sides;
+		_scalars = scalars;
+	}
+	
+	public CellType getCellType() {
+		return _type;
+	}
+	
+	public boolean isSparseSafe() {
+		return isSparseSafe(_main);
+	}
+	
+	@Override
+	public String codegen() {
+		//bind inputs and assign deterministic variable names
+		_main.setVarname("a");
+		for( int i=0; i<_sides.size(); i++ )
+			_sides.get(i).setVarname("b["+i+"][rix*n+cix]");
+		for( int i=0; i<_scalars.size(); i++ )
+			_scalars.get(i).setVarname("scalars["+i+"]");
+		CNode out = _inputs.get(0);
+		out.resetGenerated();
+		out.setVarnames(new int[]{0});
+		out.resetGenerated();
+		
+		//generate operator body and class
+		String body = out.codegen();
+		out.resetGenerated();
+		
+		return TEMPLATE
+			.replace("%TYPE%", _type.name())
+			.replace("%SPARSE_SAFE%", String.valueOf(isSparseSafe()))
+			.replace("%BODY%", body)
+			.replace("%OUT%", out.getVarname());
+	}
+
+	@Override
+	public boolean isSparseSafe(CNodeData main) {
+		//sparse-safe cell aggregation (sum) and no aggregation
+		return _inputs.get(0).isSparseSafe(main);
+	}
+}
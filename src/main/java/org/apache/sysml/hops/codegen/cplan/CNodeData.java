@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.codegen.cplan;
+
+import org.apache.sysml.parser.Expression.DataType;
+
+/**
+ * Leaf node of cplans that refers to a matrix or scalar input of the 
+ * fused operator, or a numeric literal that is inlined into the code.
+ */
+public class CNodeData extends CNode 
+{
+	private final long _hopID;
+	private final DataType _dt;
+	private final boolean _literal;
+	
+	public CNodeData(long hopID, DataType dt) {
+		_hopID = hopID;
+		_dt = dt;
+		_literal = false;
+	}
+	
+	public CNodeData(double value) {
+		_hopID = -1;
+		_dt = DataType.SCALAR;
+		_literal = true;
+		_genVar = getLiteralString(value);
+	}
+	
+	public long getHopID() {
+		return _hopID;
+	}
+	
+	public DataType getDataType() {
+		return _dt;
+	}
+	
+	public boolean isLiteral() {
+		return _literal;
+	}
+	
+	/**
+	 * Binds this input to its access expression in the generated code,
+	 * i.e., the main input, the i-th side input, or the i-th scalar.
+	 * 
+	 * @param varname
+	 */
+	public void setVarname(String varname) {
+		_genVar = varname;
+	}
+	
+	@Override
+	public void setVarnames(int[] seq) {
+		//keep bound input names
+	}
+	
+	@Override
+	public void resetGenerated() {
+		//nothing to reset
+	}
+	
+	@Override
+	public String codegen() {
+		//inputs are accessed inline, no statements required
+		return "";
+	}
+	
+	@Override
+	public boolean isSparseSafe(CNodeData main) {
+		return this == main;
+	}
+	
+	/**
+	 * 
+	 * @param value
+	 * @return
+	 */
+	private static String getLiteralString(double value) {
+		if( Double.isNaN(value) )
+			return "Double.NaN";
+		else if( Double.isInfinite(value) )
+			return (value > 0) ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+		else if( value < 0 )
+			return "(" + Double.toString(value) + ")";
+		else
+			return Double.toString(value);
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.codegen.cplan;
+
+/**
+ * Unary cellwise operation in cplans.
+ */
+public class CNodeUnary extends CNode
+{
+	public enum UnaryType {
+		EXP, LOG, LOG_NZ, ABS, SQRT, ROUND, CEIL, FLOOR, SIGN, 
+		SIN, COS, TAN, ASIN, ACOS, ATAN, SIGMOID, SPROP, SELP;
+		
+		public String getTemplate() {
+			switch( this ) {
+				case EXP:     return "Math.exp(%IN1%)";
+				case LOG:     return "Math.log(%IN1%)";
+				case LOG_NZ:  return "(%IN1% == 0) ? 0 : Math.log(%IN1%)";
+				case ABS:     return "Math.abs(%IN1%)";
+				case SQRT:    return "Math.sqrt(%IN1%)";
+				case ROUND:   return "Math.round(%IN1%)";
+				case CEIL:    return "Math.ceil(%IN1%)";
+				case FLOOR:   return "Math.floor(%IN1%)";
+				case SIGN:    return "Math.signum(%IN1%)";
+				case SIN:     return "Math.sin(%IN1%)";
+				case COS:     return "Math.cos(%IN1%)";
+				case TAN:     return "Math.tan(%IN1%)";
+				case ASIN:    return "Math.asin(%IN1%)";
+				case ACOS:    return "Math.acos(%IN1%)";
+				case ATAN:    return "Math.atan(%IN1%)";
+				case SIGMOID: return "1 / (1 + Math.exp(-%IN1%))";
+				case SPROP:   return "%IN1% * (1 - %IN1%)";
+				case SELP:    return "(%IN1% > 0) ? %IN1% : 0";
+				default: 
+					throw new RuntimeException("Invalid unary type: "+this.toString());
+			}
+		}
+		
+		public boolean isSparseSafe() {
+			return this!=EXP && this!=LOG && this!=COS 
+				&& this!=ACOS && this!=SIGMOID;
+		}
+	}
+	
+	private final UnaryType _type;
+	
+	public CNodeUnary( CNode in1, UnaryType type ) {
+		_inputs.add(in1);
+		_type = type;
+	}
+	
+	public UnaryType getType() {
+		return _type;
+	}
+	
+	@Override
+	public String codegen() {
+		if( _generated )
+			return "";
+		
+		StringBuilder sb = new StringBuilder();
+		sb.append(_inputs.get(0).codegen());
+		
+		//generate unary operation (input wrapped in parentheses)
+		String expr = _type.getTemplate().replace("%IN1%", "("+_inputs.get(0).getVarname()+")");
+		sb.append("    double "+_genVar+" = "+expr+";\n");
+		
+		_generated = true;
+		return sb.toString();
+	}
+	
+	@Override
+	public boolean isSparseSafe(CNodeData main) {
+		return _type.isSparseSafe() 
+			&& _inputs.get(0).isSparseSafe(main);
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.cost;
+
+import java.util.HashSet;
+
+import org.apache.sysml.hops.DataOp;
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.Hop.DataOpTypes;
+import org.apache.sysml.hops.LiteralOp;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.lops.Checkpoint;
+import org.apache.sysml.parser.Expression.DataType;
+import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
+
+/**
+ * Simple cost model for the placement of Spark checkpoints (persisted rdds) and
+ * the selection of their storage level. Costs are expressed in terms of bytes
+ * processed, where the recompute cost of an intermediate is the data touched by
+ * its lineage up to the next persistent read or already checkpointed input, and
+ * the checkpoint cost is the size of the intermediate that needs to be copied 
+ * and stored. 
+ */
+public class CheckpointCostModel 
+{
+	//relative cost of persisting an rdd (copy and storage) w.r.t. its size 
+	public static final double PERSIST_COST_FACTOR = 2.0;
+	
+	/**
+	 * Estimates the in-memory size of the given hop's output in bytes, or 0 if
+	 * the size cannot be estimated. For unknown nnz, we assume dense outputs.
+	 * 
+	 * @param hop
+	 * @return
+	 */
+	public static double estimateSize( Hop hop ) 
+	{
+		if( hop.getDataType() != DataType.MATRIX || !hop.dimsKnown() )
+			return 0;
+		return (hop.getNnz() >= 0) ?
+			OptimizerUtils.estimateSizeExactSparsity(hop.getDim1(), hop.getDim2(), hop.getNnz()) :
+			OptimizerUtils.estimateSizeExactSparsity(hop.getDim1(), hop.getDim2(), 1.0);
+	}
+	
+	/**
+	 * Estimates the partitioned size (in blocks of the hop's block size) of the
+	 * given hop's output in bytes, or 0 if the size cannot be estimated.
+	 * 
+	 * @param hop
+	 * @return
+	 */
+	public static double estimatePartitionedSize( Hop hop ) 
+	{
+		if( hop.getDataType() != DataType.MATRIX || !hop.dimsKnown() 
+			|| hop.getRowsInBlock() <= 0 || hop.getColsInBlock() <= 0 )
+			return estimateSize(hop);
+		return (hop.getNnz() >= 0) ?
+			OptimizerUtils.estimatePartitionedSizeExactSparsity(hop.getDim1(), hop.getDim2(), 
+				hop.getRowsInBlock(), hop.getColsInBlock(), hop.getNnz()) :
+			OptimizerUtils.estimatePartitionedSizeExactSparsity(hop.getDim1(), hop.getDim2(), 
+				hop.getRowsInBlock(), hop.getColsInBlock(), 1.0);
+	}
+	
+	/**
+	 * Estimates the cost of recomputing the given hop's output from its lineage,
+	 * which ends at literals, transient reads, and checkpointed intermediates.
+	 * Persistent reads that are not checkpointed are included with their size.
+	 * 
+	 * @param hop
+	 * @return
+	 */
+	public static double estimateRecomputeCost( Hop hop ) {
+		return rEstimateRecomputeCost(hop, new HashSet<Long>(), true);
+	}
+	
+	/**
+	 * Indicates if checkpointing the given hop is beneficial for the given number 
+	 * of accesses, i.e., if the saved recomputations exceed the checkpoint cost.
+	 * 
+	 * @param hop
+	 * @param numAccesses
+	 * @return
+	 */
+	public static boolean isCheckpointBeneficial( Hop hop, int numAccesses ) 
+	{
+		double size = estimateSize(hop);
+		if( size <= 0 || numAccesses < 2 )
+			return false;
+		double benefit = (numAccesses - 1) * estimateRecomputeCost(hop);
+		return benefit > PERSIST_COST_FACTOR * size;
+	}
+	
+	/**
+	 * Selects the storage level of a checkpoint for the given hop. Outputs that 
+	 * fit into the aggregate data cache are persisted deserialized for fast access.
+	 * Larger outputs are persisted serialized in order to reduce memory and garbage 
+	 * collection overhead, which also allows compression (spark.rdd.compress) and 
+	 * reduces the amount of data spilled to disk.
+	 * 
+	 * @param hop
+	 * @return
+	 */
+	public static String selectStorageLevelString( Hop hop ) 
+	{
+		if( hop.getDataType() != DataType.MATRIX || !hop.dimsKnown() )
+			return Checkpoint.getDefaultStorageLevelString();
+		
+		double psize = estimatePartitionedSize(hop);
+		double dataCache = SparkExecutionContext.getDataMemoryBudget(true, true);
+		return (psize > dataCache) ? 
+			Checkpoint.getSerializeStorageLevelString() :
+			Checkpoint.getDefaultStorageLevelString();
+	}
+	
+	/**
+	 * 
+	 * @param hop
+	 * @param memo
+	 * @param root
+	 * @return
+	 */
+	private static double rEstimateRecomputeCost( Hop hop, HashSet<Long> memo, boolean root ) 
+	{
+		//account for shared lineage only once
+		if( memo.contains(hop.getHopID()) )
+			return 0;
+		memo.add(hop.getHopID());
+		
+		//end of lineage (materialized inputs)
+		if( hop instanceof LiteralOp || (!root && hop.requiresCheckpoint()) )
+			return 0;
+		if( hop instanceof DataOp ) {
+			return (((DataOp)hop).getDataOpType() == DataOpTypes.PERSISTENTREAD) ? 
+				estimateSize(hop) : 0;
+		}
+		
+		//output size plus data touched and recomputed for inputs
+		double cost = estimateSize(hop);
+		for( Hop c : hop.getInput() )
+			cost += estimateSize(c) + rEstimateRecomputeCost(c, memo, false);
+		
+		return cost;
+	}
+}
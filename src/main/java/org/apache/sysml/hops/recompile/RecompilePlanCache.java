@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.hops.recompile;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.sysml.hops.AggUnaryOp;
+import org.apache.sysml.hops.DataOp;
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.Hop.DataOpTypes;
+import org.apache.sysml.hops.Hop.OpOp1;
+import org.apache.sysml.hops.IndexingOp;
+import org.apache.sysml.hops.UnaryOp;
+import org.apache.sysml.parser.Expression.DataType;
+import org.apache.sysml.runtime.controlprogram.LocalVariableMap;
+import org.apache.sysml.runtime.controlprogram.caching.FrameObject;
+import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
+import org.apache.sysml.runtime.instructions.Instruction;
+import org.apache.sysml.runtime.instructions.cp.Data;
+import org.apache.sysml.runtime.instructions.cp.ScalarObject;
+
+/**
+ * Small LRU cache of recompiled instruction lists of a single program block,
+ * keyed by the size signature of the live inputs of its HOP DAG. For unchanged
+ * input sizes (dims, nnz) and scalar values, the recompiled plan is fully 
+ * determined by the signature, which allows to reuse previously generated 
+ * instructions in loops instead of repeatedly recompiling the HOP DAG. 
+ * 
+ * Note: HOP DAGs whose recompilation depends on the actual data of matrix
+ * inputs (literal replacement of as.scalar or full aggregates over transient 
+ * reads) or on file metadata (persistent reads of unknown size) are not cacheable.
+ */
+public class RecompilePlanCache 
+{
+	public static final int DEFAULT_CAPACITY = 4;
+	
+	private final LinkedHashMap<String, ArrayList<Instruction>> _plans;
+	
+	public RecompilePlanCache() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	@SuppressWarnings("serial")
+	public RecompilePlanCache(final int capacity) {
+		_plans = new LinkedHashMap<String, ArrayList<Instruction>>(8, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ArrayList<Instruction>> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+	
+	public synchronized ArrayList<Instruction> getPlan(String signature) {
+		return _plans.get(signature);
+	}
+	
+	public synchronized void putPlan(String signature, ArrayList<Instruction> inst) {
+		_plans.put(signature, inst);
+	}
+	
+	public synchronized void clear() {
+		_plans.clear();
+	}
+	
+	/**
+	 * Creates the size signature of the given HOP DAG with regard to the current
+	 * symbol table, i.e., the dims and nnz of all matrix/frame transient reads and the 
+	 * values of all scalar transient reads (required due to literal replacement).
+	 * 
+	 * @param hops HOP DAG roots
+	 * @param vars symbol table
+	 * @return signature, or null if the HOP DAG is not cacheable
+	 */
+	public static String createSignature( ArrayList<Hop> hops, LocalVariableMap vars ) 
+	{
+		StringBuilder sb = new StringBuilder();
+		HashSet<Long> memo = new HashSet<Long>();
+		for( Hop hop : hops )
+			if( !rCreateSignature(hop, vars, memo, sb) )
+				return null;
+		return sb.toString();
+	}
+	
+	/**
+	 * 
+	 * @param hop
+	 * @param vars
+	 * @param memo
+	 * @param sb
+	 * @return false if the HOP DAG is not cacheable
+	 */
+	private static boolean rCreateSignature( Hop hop, LocalVariableMap vars, HashSet<Long> memo, StringBuilder sb ) 
+	{
+		if( !memo.add(hop.getHopID()) )
+			return true;
+		
+		//check for data-dependent recompilation
+		if( isDataDependentLiteralReplacement(hop) )
+			return false;
+		
+		if( hop instanceof DataOp ) 
+		{
+			DataOp dop = (DataOp) hop;
+			if( dop.getDataOpType() == DataOpTypes.PERSISTENTREAD && !dop.dimsKnown() )
+				return false;
+			
+			if( dop.getDataOpType() == DataOpTypes.TRANSIENTREAD ) {
+				String varname = dop.getName();
+				Data dat = vars.get(varname);
+				sb.append(varname);
+				if( dat instanceof MatrixObject ) {
+					MatrixObject mo = (MatrixObject) dat;
+					sb.append('[').append(mo.getNumRows()).append(',').append(mo.getNumColumns());
+					sb.append(',').append(mo.getNnz()).append(']');
+				}
+				else if( dat instanceof FrameObject ) {
+					FrameObject fo = (FrameObject) dat;
+					sb.append('[').append(fo.getNumRows()).append(',').append(fo.getNumColumns()).append(']');
+				}
+				else if( dat instanceof ScalarObject ) {
+					ScalarObject so = (ScalarObject) dat;
+					sb.append('=').append(so.getValueType()).append(':').append(so.getStringValue());
+				}
+				sb.append(';');
+			}
+		}
+		
+		if( hop.getInput() != null )
+			for( Hop c : hop.getInput() )
+				if( !rCreateSignature(c, vars, memo, sb) )
+					return false;
+		
+		return true;
+	}
+	
+	/**
+	 * Indicates if the given hop might be replaced by a literal computed
+	 * from the data of a matrix input during recompilation (see 
+	 * {@link LiteralReplacement}).
+	 * 
+	 * @param hop
+	 * @return
+	 */
+	private static boolean isDataDependentLiteralReplacement( Hop hop ) 
+	{
+		boolean castOrAgg = (hop instanceof UnaryOp && ((UnaryOp)hop).getOp()==OpOp1.CAST_AS_SCALAR)
+			|| (hop instanceof AggUnaryOp && hop.getDataType()==DataType.SCALAR);
+		if( !castOrAgg || hop.getInput().isEmpty() )
+			return false;
+		
+		Hop in = hop.getInput().get(0);
+		return (in instanceof DataOp)
+			|| (in instanceof IndexingOp && in.getInput().get(0) instanceof DataOp);
+	}
+}
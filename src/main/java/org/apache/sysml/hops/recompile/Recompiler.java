@@ -52,6 +52,7 @@ import org.apache.sysml.hops.MemoTable;
 import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.hops.ReorgOp;
 import org.apache.sysml.hops.UnaryOp;
+import org.apache.sysml.hops.codegen.SpoofCompiler;
 import org.apache.sysml.hops.rewrite.HopRewriteUtils;
 import org.apache.sysml.hops.rewrite.ProgramRewriter;
 import org.apache.sysml.lops.CSVReBlock;
@@ -195,6 +196,10 @@ public class Recompiler
 			if( !inplace )
 				_rewriter.get().rewriteHopDAGs( hops, null );
 			
+			// operator fusion via code generation
+			if( !inplace && ConfigurationManager.isCodegenEnabled() )
+				hops = new SpoofCompiler().rewriteHopDAGs( hops, null );
+			
 			// refresh memory estimates (based on updated stats,
 			// before: init memo table with propagated worst-case estimates,
 			// after: extract worst-case estimates from memo table 
@@ -290,6 +295,10 @@ public class Recompiler
 			if( !inplace )
 				_rewriter.get().rewriteHopDAG( hops, null );
 			
+			// operator fusion via code generation
+			if( !inplace && ConfigurationManager.isCodegenEnabled() )
+				hops = new SpoofCompiler().rewriteHopDAG( hops, null );
+			
 			// refresh memory estimates (based on updated stats)
 			MemoTable memo = new MemoTable();
 			hops.resetVisitStatus();
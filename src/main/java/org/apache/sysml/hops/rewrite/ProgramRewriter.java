@@ -104,6 +104,8 @@ public class ProgramRewriter
 			if( OptimizerUtils.ALLOW_AUTO_VECTORIZATION )
 				_dagRuleSet.add( new RewriteIndexingVectorization()              ); //dependency: cse, simplifications
 			_dagRuleSet.add( new RewriteInjectSparkPReadCheckpointing()          ); //dependency: reblock
+			if( ConfigurationManager.isCompressionEnabled() )
+				_dagRuleSet.add( new RewriteCompressedReblock()                  ); //dependency: reblock
 			
 			//add statment block rewrite rules
  			if( OptimizerUtils.ALLOW_BRANCH_REMOVAL )			
@@ -134,6 +136,8 @@ public class ProgramRewriter
 			//(2) newly introduced operators potentially created redundancy (incl leaf merge to allow for cse)
 			if( OptimizerUtils.ALLOW_COMMON_SUBEXPRESSION_ELIMINATION )             
 				_dagRuleSet.add( new RewriteCommonSubexpressionElimination(true) ); //dependency: simplifications 			
+			if( OptimizerUtils.ALLOW_SPARK_INTERMEDIATE_CHECKPOINTING )
+				_dagRuleSet.add( new RewriteInjectSparkIntermediateCheckpointing() ); //dependency: cse
 		}
 	}
 	
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.hops.rewrite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+import org.apache.sysml.hops.DataOp;
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.HopsException;
+import org.apache.sysml.hops.LiteralOp;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.hops.cost.CheckpointCostModel;
+import org.apache.sysml.parser.Expression.DataType;
+import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
+
+/**
+ * Rule: Inject checkpoints for Spark intermediates with multiple consumers. 
+ * Without a checkpoint, every consumer recomputes the entire lineage of the 
+ * intermediate. The placement is cost-based: we only checkpoint intermediates 
+ * whose saved recomputations exceed the checkpoint cost (see 
+ * {@link CheckpointCostModel}), and admit candidates in order of their relative
+ * benefit as long as they fit into the aggregate data cache of the cluster. 
+ * 
+ * Note: This rewrite requires size information and is hence applied as dynamic
+ * rewrite, i.e., also during dynamic recompilation.
+ */
+public class RewriteInjectSparkIntermediateCheckpointing extends HopRewriteRule
+{
+	@Override
+	public ArrayList<Hop> rewriteHopDAGs(ArrayList<Hop> roots, ProgramRewriteStatus state)
+		throws HopsException
+	{
+		//note: the decision for parfor bodies is deferred until parfor optimization
+		if( !OptimizerUtils.isSparkExecutionMode() || roots == null 
+			|| (state != null && state.isInParforContext()) )
+			return roots;
+		
+		//collect checkpoint candidates
+		ArrayList<Hop> cands = new ArrayList<Hop>();
+		Hop.resetVisitStatus(roots);
+		for( Hop h : roots ) 
+			rCollectCandidates(h, cands);
+		if( cands.isEmpty() )
+			return roots;
+		
+		//greedy selection by relative benefit under the data cache budget
+		Collections.sort(cands, new Comparator<Hop>() {
+			@Override
+			public int compare(Hop h1, Hop h2) {
+				return Double.compare(getRelativeBenefit(h2), getRelativeBenefit(h1));
+			}
+		});
+		double budget = SparkExecutionContext.getDataMemoryBudget(true, true);
+		for( Hop h : cands ) {
+			double size = CheckpointCostModel.estimatePartitionedSize(h);
+			if( size <= budget ) {
+				h.setRequiresCheckpoint(true);
+				budget -= size;
+			}
+		}
+		
+		return roots;
+	}
+
+	@Override
+	public Hop rewriteHopDAG(Hop root, ProgramRewriteStatus state) 
+		throws HopsException
+	{
+		//not applicable to predicates (single consumer)
+		return root;
+	}
+	
+	/**
+	 * 
+	 * @param hop
+	 * @param cands
+	 */
+	private void rCollectCandidates( Hop hop, ArrayList<Hop> cands ) 
+	{
+		if( hop.getVisited() == Hop.VisitStatus.DONE )
+			return;
+		
+		//candidates are spark matrix intermediates with multiple consumers 
+		//(reads are handled by the pread and loop checkpointing rewrites)
+		if( hop.getDataType() == DataType.MATRIX
+			&& !(hop instanceof DataOp || hop instanceof LiteralOp)
+			&& !hop.requiresCheckpoint() && hop.dimsKnown()
+			&& hop.getParent().size() > 1 && isSparkIntermediate(hop)
+			&& CheckpointCostModel.isCheckpointBeneficial(hop, hop.getParent().size()) )
+		{
+			cands.add(hop);
+		}
+		
+		for( Hop c : hop.getInput() )
+			rCollectCandidates(c, cands);
+		
+		hop.setVisited(Hop.VisitStatus.DONE);
+	}
+	
+	/**
+	 * 
+	 * @param hop
+	 * @return
+	 */
+	private static boolean isSparkIntermediate( Hop hop ) {
+		//in hybrid mode, outputs that fit in the local memory are computed in CP
+		return !OptimizerUtils.isHybridExecutionMode()
+			|| CheckpointCostModel.estimateSize(hop) >= OptimizerUtils.getLocalMemBudget();
+	}
+	
+	/**
+	 * 
+	 * @param hop
+	 * @return
+	 */
+	private static double getRelativeBenefit( Hop hop ) {
+		return (hop.getParent().size() - 1) * CheckpointCostModel.estimateRecomputeCost(hop) 
+			/ CheckpointCostModel.estimateSize(hop);
+	}
+}
@@ -36,10 +36,9 @@ import org.apache.sysml.parser.Expression.ValueType;
 
 /**
  * Rule: Insert checkpointing operations for caching purposes. Currently, we
- * follow a heuristic of checkpointing (1) all variables used read-only in loops,
- * and (2) intermediates used by multiple consumers.
- * 
- * TODO (2) implement injection for multiple consumers (local and global).
+ * follow a heuristic of checkpointing all variables used read-only in loops,
+ * except variables known to fit into local memory. Intermediates used by multiple 
+ * consumers are handled by the cost-based RewriteInjectSparkIntermediateCheckpointing.
  * 
  */
 public class RewriteInjectSparkLoopCheckpointing extends StatementBlockRewriteRule
@@ -81,7 +80,8 @@ public class RewriteInjectSparkLoopCheckpointing extends StatementBlockRewriteRu
 			VariableSet updated = sb.variablesUpdated();
 			
 			for( String rvar : read.getVariableNames() )
-				if( !updated.containsVariable(rvar) && read.getVariable(rvar).getDataType()==DataType.MATRIX )
+				if( !updated.containsVariable(rvar) && read.getVariable(rvar).getDataType()==DataType.MATRIX 
+					&& !isLocalVariable(read.getVariable(rvar)) )
 					candidates.add(rvar);
 			
 			//step 2: insert statement block with checkpointing operations
@@ -120,4 +120,22 @@ public class RewriteInjectSparkLoopCheckpointing extends StatementBlockRewriteRu
 		
 		return ret;
 	}
+	
+	/**
+	 * Indicates if the given variable is known to fit into the local memory
+	 * budget in hybrid execution mode, in which case a checkpoint would be
+	 * compiled to a no-op because the variable is processed in CP.
+	 * 
+	 * @param dat
+	 * @return
+	 */
+	private static boolean isLocalVariable( DataIdentifier dat ) 
+	{
+		if( !OptimizerUtils.isHybridExecutionMode() || dat.getDim1() <= 0 || dat.getDim2() <= 0 )
+			return false;
+		double size = (dat.getNnz() >= 0) ?
+			OptimizerUtils.estimateSizeExactSparsity(dat.getDim1(), dat.getDim2(), dat.getNnz()) :
+			OptimizerUtils.estimateSizeExactSparsity(dat.getDim1(), dat.getDim2(), 1.0);
+		return size < OptimizerUtils.getLocalMemBudget();
+	}
 }
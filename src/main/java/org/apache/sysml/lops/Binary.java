@@ -199,6 +199,12 @@ public class Binary extends Lop
 			sb.append( OPERAND_DELIMITOR );
 			sb.append( isRightTransposed );
 		}
+		//append degree of parallelism for cellwise matrix operations
+		else if( operation != OperationTypes.SOLVE && getExecType()==ExecType.CP 
+				&& getDataType()==DataType.MATRIX ) {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append( numThreads );
+		}
 		
 		return sb.toString();
 	}
@@ -59,6 +59,8 @@ public abstract class Lop
 		WeightedSquaredLoss, WeightedSigmoid, WeightedDivMM, WeightedCeMM, WeightedUMM,
 		SortKeys, PickValues,
 		Checkpoint, 										//Spark persist into storage level
+		Compression,                                        //CP compression of in-memory matrices
+		SpoofFused,                                         //CP generated fused operators
 	};
 
 	/**
@@ -40,6 +40,7 @@ public class SortKeys extends Lop
 	
 	private OperationTypes operation;
 	private boolean descending = false;
+	private int _numThreads = 1;
 	
 	public OperationTypes getOpType() {
 		return operation;
@@ -66,6 +67,10 @@ public class SortKeys extends Lop
 		init(input1, input2, op, et);
 	}
 	
+	public void setNumThreads(int k) {
+		_numThreads = k;
+	}
+	
 	private void init(Lop input1, Lop input2, OperationTypes op, ExecType et) {
 		this.addInput(input1);
 		input1.addOutput(this);
@@ -124,6 +129,10 @@ public class SortKeys extends Lop
 			sb.append( OPERAND_DELIMITOR );
 			sb.append( descending );
 		}
+		else if( getExecType() == ExecType.CP ) {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append( _numThreads );
+		}
 		
 		return sb.toString();
 	}
@@ -141,6 +150,11 @@ public class SortKeys extends Lop
 		sb.append( Lop.OPERAND_DELIMITOR );
 		sb.append( this.prepOutputOperand(output));
 		
+		if( getExecType() == ExecType.CP ) {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append( _numThreads );
+		}
+		
 		return sb.toString();
 	}
 	
@@ -149,6 +163,11 @@ public class SortKeys extends Lop
 	// 2) Unweighted SortKeys executes in CP
 	public static SortKeys constructSortByValueLop(Lop input1, OperationTypes op, 
 			DataType dt, ValueType vt, ExecType et) {
+		return constructSortByValueLop(input1, op, dt, vt, et, 1);
+	}
+	
+	public static SortKeys constructSortByValueLop(Lop input1, OperationTypes op, 
+			DataType dt, ValueType vt, ExecType et, int k) {
 		
 		for (Lop lop  : input1.getOutputs()) {
 			if ( lop.type == Lop.Type.SortKeys ) {
@@ -157,6 +176,7 @@ public class SortKeys extends Lop
 		}
 		
 		SortKeys retVal = new SortKeys(input1, op, dt, vt, et);
+		retVal.setNumThreads(k);
 		retVal.setAllPositions(input1.getBeginLine(), input1.getBeginColumn(), input1.getEndLine(), input1.getEndColumn());
 		return retVal;
 	}
@@ -164,6 +184,11 @@ public class SortKeys extends Lop
 	// This method is invoked ONLY for the case of Weighted SortKeys executing in CP
 	public static SortKeys constructSortByValueLop(Lop input1, Lop input2, OperationTypes op, 
 			DataType dt, ValueType vt, ExecType et) {
+		return constructSortByValueLop(input1, input2, op, dt, vt, et, 1);
+	}
+	
+	public static SortKeys constructSortByValueLop(Lop input1, Lop input2, OperationTypes op, 
+			DataType dt, ValueType vt, ExecType et, int k) {
 		
 		HashSet<Lop> set1 = new HashSet<Lop>();
 		set1.addAll(input1.getOutputs());
@@ -177,6 +202,7 @@ public class SortKeys extends Lop
 		}
 		
 		SortKeys retVal = new SortKeys(input1, input2, op, dt, vt, et);
+		retVal.setNumThreads(k);
 		retVal.setAllPositions(input1.getBeginLine(), input1.getBeginColumn(), input1.getEndLine(), input1.getEndColumn());
 		return retVal;
 	}
@@ -62,8 +62,13 @@ public class Unary extends Lop
 	 */
 
 	public Unary(Lop input1, Lop input2, OperationTypes op, DataType dt, ValueType vt, ExecType et) {
+		this(input1, input2, op, dt, vt, et, 1);
+	}
+	
+	public Unary(Lop input1, Lop input2, OperationTypes op, DataType dt, ValueType vt, ExecType et, int numThreads) {
 		super(Lop.Type.UNARY, dt, vt);
 		init(input1, input2, op, dt, vt, et);
+		_numThreads = numThreads;
 	}
 	
 	public Unary(Lop input1, Lop input2, OperationTypes op, DataType dt, ValueType vt) {
@@ -351,6 +356,35 @@ public class Unary extends Lop
 			|| op==OperationTypes.CUMMAX;
 	}
 	
+	/**
+	 * Indicates if the given unary operation over matrices is executed 
+	 * multi-threaded in CP, i.e., cumulative aggregates and cellwise builtins.
+	 * 
+	 * @param op
+	 * @return
+	 */
+	public static boolean isMultiThreadedOp(OperationTypes op) {
+		return isCumulativeOp(op)
+			|| op==OperationTypes.EXP
+			|| op==OperationTypes.LOG
+			|| op==OperationTypes.LOG_NZ
+			|| op==OperationTypes.SIGMOID
+			|| op==OperationTypes.SQRT
+			|| op==OperationTypes.ROUND
+			|| op==OperationTypes.CEIL
+			|| op==OperationTypes.FLOOR
+			|| op==OperationTypes.ABS
+			|| op==OperationTypes.SIGN
+			|| op==OperationTypes.SIN
+			|| op==OperationTypes.COS
+			|| op==OperationTypes.TAN
+			|| op==OperationTypes.ASIN
+			|| op==OperationTypes.ACOS
+			|| op==OperationTypes.ATAN
+			|| op==OperationTypes.SPROP
+			|| op==OperationTypes.SELP;
+	}
+	
 	@Override
 	public String getInstructions(String input1, String output) 
 		throws LopsException 
@@ -371,8 +405,9 @@ public class Unary extends Lop
 		sb.append( OPERAND_DELIMITOR );
 		sb.append( prepOutputOperand(output) );
 		
-		//num threads for cumulative cp ops
-		if( getExecType() == ExecType.CP && isCumulativeOp(operation) ) {
+		//num threads for cumulative and builtin cp ops over matrices
+		if( getExecType() == ExecType.CP && isMultiThreadedOp(operation) 
+			&& getDataType() == DataType.MATRIX ) {
 			sb.append( OPERAND_DELIMITOR );
 			sb.append( _numThreads );
 		}
@@ -414,6 +449,12 @@ public class Unary extends Lop
 		
 		sb.append( this.prepOutputOperand(output));
 		
+		//num threads for cp matrix-scalar ops
+		if( getExecType() == ExecType.CP && getDataType() == DataType.MATRIX ) {
+			sb.append( OPERAND_DELIMITOR );
+			sb.append( _numThreads );
+		}
+		
 		return sb.toString();
 	}
 	
@@ -1382,11 +1382,12 @@ public class Dag<N extends Lop>
 
 				String inst_string = "";
 
-				// Lops with arbitrary number of inputs (ParameterizedBuiltin, GroupedAggregate, DataGen)
+				// Lops with arbitrary number of inputs (ParameterizedBuiltin, GroupedAggregate, DataGen, SpoofFused)
 				// are handled separately, by simply passing ONLY the output variable to getInstructions()
 				if (node.getType() == Lop.Type.ParameterizedBuiltin
 						|| node.getType() == Lop.Type.GroupedAgg 
-						|| node.getType() == Lop.Type.DataGen ){ 
+						|| node.getType() == Lop.Type.DataGen
+						|| node.getType() == Lop.Type.SpoofFused ){ 
 					inst_string = node.getInstructions(node.getOutputParameters().getLabel());
 				} 
 				
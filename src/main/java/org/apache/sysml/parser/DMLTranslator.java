@@ -53,6 +53,7 @@ import org.apache.sysml.hops.ParameterizedBuiltinOp;
 import org.apache.sysml.hops.ReorgOp;
 import org.apache.sysml.hops.TernaryOp;
 import org.apache.sysml.hops.UnaryOp;
+import org.apache.sysml.hops.codegen.SpoofCompiler;
 import org.apache.sysml.hops.ipa.InterProceduralAnalysis;
 import org.apache.sysml.hops.rewrite.ProgramRewriter;
 import org.apache.sysml.hops.recompile.Recompiler;
@@ -273,6 +274,13 @@ public class DMLTranslator
 		rewriter2.rewriteProgramHopDAGs(dmlp);
 		resetHopsDAGVisitStatus(dmlp);
 		
+		//apply operator fusion via code generation (after all rewrites)
+		if( ConfigurationManager.isCodegenEnabled() ) {
+			ProgramRewriter rewriter3 = new ProgramRewriter(new SpoofCompiler());
+			rewriter3.rewriteProgramHopDAGs(dmlp);
+			resetHopsDAGVisitStatus(dmlp);
+		}
+		
 		// Compute memory estimates for all the hops. These estimates are used
 		// subsequently in various optimizations, e.g. CP vs. MR scheduling and parfor.
 		refreshMemEstimates(dmlp);
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.codegen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.controlprogram.parfor.util.IDSequence;
+import org.apache.sysml.utils.Statistics;
+
+/**
+ * Utilities for the runtime compilation of generated operators via the 
+ * in-memory java compiler (javax.tools), which requires a JDK at runtime.
+ * Compiled classes are cached by their source code (without class name) 
+ * in order to reuse operators of equivalent fusion plans across DAGs and
+ * recompilations.
+ */
+public class CodegenUtils 
+{
+	private static final Log LOG = LogFactory.getLog(CodegenUtils.class.getName());
+	
+	//package and class name placeholder of generated operators
+	public static final String PACKAGE = "codegen";
+	public static final String CLASSNAME_PLACEHOLDER = "%TMP%";
+	
+	//compiled classes by source code and by class name
+	private static ConcurrentHashMap<String, Class<?>> _srcCache = new ConcurrentHashMap<String, Class<?>>();
+	private static ConcurrentHashMap<String, Class<?>> _clsCache = new ConcurrentHashMap<String, Class<?>>();
+	private static IDSequence _clsID = new IDSequence();
+	
+	/**
+	 * Indicates if the java compiler is available, i.e., if we run on a JDK.
+	 * 
+	 * @return
+	 */
+	public static boolean isCompilerAvailable() {
+		return ToolProvider.getSystemJavaCompiler() != null;
+	}
+	
+	/**
+	 * Obtains the compiled class for the given source code, where the source
+	 * code uses the class name placeholder. Equivalent source codes are only
+	 * compiled once.
+	 * 
+	 * @param src
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public static synchronized Class<?> getOrCompileClass(String src) 
+		throws DMLRuntimeException
+	{
+		//probe class cache
+		Class<?> ret = _srcCache.get(src);
+		if( ret != null ) {
+			Statistics.incrementCodegenPlanCacheHits();
+			return ret;
+		}
+		
+		//compile new class w/ unique name
+		long t0 = System.nanoTime();
+		String name = "TMP"+_clsID.getNextID();
+		ret = compileClass(name, src.replace(CLASSNAME_PLACEHOLDER, name));
+		_srcCache.put(src, ret);
+		_clsCache.put(ret.getName(), ret);
+		Statistics.incrementCodegenClassCompile();
+		Statistics.incrementCodegenCompileTime(System.nanoTime()-t0);
+		
+		return ret;
+	}
+	
+	/**
+	 * Obtains a previously compiled class by its fully qualified name.
+	 * 
+	 * @param name
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public static Class<?> getClass(String name) 
+		throws DMLRuntimeException
+	{
+		Class<?> ret = _clsCache.get(name);
+		if( ret == null )
+			throw new DMLRuntimeException("Generated class not available: "+name);
+		return ret;
+	}
+	
+	/**
+	 * Creates a new operator instance of the given generated class.
+	 * 
+	 * @param cla
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public static SpoofOperator createInstance(Class<?> cla) 
+		throws DMLRuntimeException 
+	{
+		try {
+			return (SpoofOperator) cla.newInstance();
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * Clears the cache of compiled classes (e.g., for tests).
+	 */
+	public static synchronized void clearClassCache() {
+		_srcCache.clear();
+		_clsCache.clear();
+	}
+	
+	/**
+	 * 
+	 * @param name
+	 * @param src
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static Class<?> compileClass(String name, String src) 
+		throws DMLRuntimeException
+	{
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if( compiler == null )
+			throw new DMLRuntimeException("Java compiler not available (requires JDK).");
+		
+		String qname = PACKAGE + "." + name;
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		InMemoryFileManager fm = new InMemoryFileManager(
+				compiler.getStandardFileManager(diagnostics, null, null));
+		
+		try
+		{
+			//compile source code in-memory against the current classpath
+			JavaFileObject source = new SourceFileObject(qname, src);
+			Boolean success = compiler.getTask(null, fm, diagnostics, 
+					Arrays.asList("-classpath", System.getProperty("java.class.path")), 
+					null, Arrays.asList(source)).call();
+			if( !success ) {
+				StringBuilder sb = new StringBuilder();
+				for( Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics() )
+					sb.append(d.toString()+"\n");
+				throw new DMLRuntimeException("Failed to compile class "+qname+":\n"+sb.toString()+"\n"+src);
+			}
+			
+			if( LOG.isTraceEnabled() )
+				LOG.trace("Compiled generated class "+qname+":\n"+src);
+			
+			//load compiled class (and its nested classes)
+			ByteClassLoader loader = new ByteClassLoader(CodegenUtils.class.getClassLoader(), fm.getClassBytes());
+			return loader.loadClass(qname);
+		}
+		catch(DMLRuntimeException ex) {
+			throw ex;
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * In-memory java source file. 
+	 */
+	private static class SourceFileObject extends SimpleJavaFileObject 
+	{
+		private final String _src;
+		
+		protected SourceFileObject(String name, String src) {
+			super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+			_src = src;
+		}
+		
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return _src;
+		}
+	}
+	
+	/**
+	 * In-memory java class file.
+	 */
+	private static class ClassFileObject extends SimpleJavaFileObject 
+	{
+		private final ByteArrayOutputStream _bytes = new ByteArrayOutputStream();
+		
+		protected ClassFileObject(String name) {
+			super(URI.create("bytes:///" + name.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+		}
+		
+		@Override
+		public OutputStream openOutputStream() {
+			return _bytes;
+		}
+		
+		public byte[] getBytes() {
+			return _bytes.toByteArray();
+		}
+	}
+	
+	/**
+	 * File manager that keeps all compiled class files in memory.
+	 */
+	private static class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> 
+	{
+		private final HashMap<String, ClassFileObject> _classes = new HashMap<String, ClassFileObject>();
+		
+		protected InMemoryFileManager(StandardJavaFileManager fm) {
+			super(fm);
+		}
+		
+		@Override
+		public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, 
+				String className, Kind kind, FileObject sibling) 
+		{
+			ClassFileObject ret = new ClassFileObject(className);
+			_classes.put(className, ret);
+			return ret;
+		}
+		
+		public HashMap<String, byte[]> getClassBytes() {
+			HashMap<String, byte[]> ret = new HashMap<String, byte[]>();
+			for( Entry<String, ClassFileObject> e : _classes.entrySet() )
+				ret.put(e.getKey(), e.getValue().getBytes());
+			return ret;
+		}
+	}
+	
+	/**
+	 * Class loader for in-memory compiled classes.
+	 */
+	private static class ByteClassLoader extends ClassLoader 
+	{
+		private final HashMap<String, byte[]> _classes;
+		
+		protected ByteClassLoader(ClassLoader parent, HashMap<String, byte[]> classes) {
+			super(parent);
+			_classes = classes;
+		}
+		
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			byte[] bytes = _classes.get(name);
+			if( bytes == null )
+				return super.findClass(name);
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
@@ -0,0 +1,368 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.codegen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.functionobjects.KahanPlus;
+import org.apache.sysml.runtime.instructions.cp.DoubleObject;
+import org.apache.sysml.runtime.instructions.cp.KahanObject;
+import org.apache.sysml.runtime.instructions.cp.ScalarObject;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlockMCSR;
+
+/**
+ * Base class of generated cellwise operators, i.e., fused chains of cellwise 
+ * unary/binary operations over equally-sized matrices and scalars, with an 
+ * optional sum aggregation over all cells or rows. Generated subclasses only 
+ * implement the scalar cell function genexec, while this class provides the 
+ * (multi-threaded) dense and sparse skeletons. 
+ */
+public abstract class SpoofCellwise extends SpoofOperator
+{
+	private static final long serialVersionUID = 3442528770573293590L;
+	
+	//minimum number of cells for multi-threaded execution
+	private static final long PAR_NUMCELL_THRESHOLD = 1024*1024;
+	
+	public enum CellType {
+		NO_AGG,
+		FULL_AGG,
+		ROW_AGG,
+	}
+	
+	private final CellType _type;
+	private final boolean _sparseSafe;
+	
+	protected SpoofCellwise(CellType type, boolean sparseSafe) {
+		_type = type;
+		_sparseSafe = sparseSafe;
+	}
+	
+	public CellType getCellType() {
+		return _type;
+	}
+	
+	public boolean isSparseSafe() {
+		return _sparseSafe;
+	}
+	
+	@Override
+	public ScalarObject execute(ArrayList<MatrixBlock> inputs, ArrayList<ScalarObject> scalars, int k) 
+		throws DMLRuntimeException 
+	{
+		//sanity check
+		if( inputs==null || inputs.size() < 1 )
+			throw new RuntimeException("Invalid input arguments.");
+		if( _type != CellType.FULL_AGG )
+			throw new DMLRuntimeException("Invalid scalar output for cell type: "+_type);
+		
+		//input preparation
+		MatrixBlock a = inputs.get(0);
+		double[][] b = prepInputMatrices(inputs);
+		double[] scalars2 = prepInputScalars(scalars);
+		final int m = a.getNumRows();
+		final int n = a.getNumColumns();
+		
+		//core sequential or multi-threaded execution
+		double sum = 0;
+		if( k <= 1 || (long)m*n < PAR_NUMCELL_THRESHOLD || m <= k ) {
+			sum = executeRange(a, b, scalars2, null, m, n, 0, m);
+		}
+		else {
+			try {
+				ExecutorService pool = Executors.newFixedThreadPool( k );
+				ArrayList<ParExecTask> tasks = new ArrayList<ParExecTask>();
+				int blklen = (int)(Math.ceil((double)m/k));
+				for( int i=0; i<k & i*blklen<m; i++ )
+					tasks.add(new ParExecTask(a, b, scalars2, null, m, n, i*blklen, Math.min((i+1)*blklen, m)));
+				List<Future<Double>> taskret = pool.invokeAll(tasks);	
+				pool.shutdown();
+			
+				//aggregate partial results
+				KahanPlus kplus = KahanPlus.getKahanPlusFnObject();
+				KahanObject kbuff = new KahanObject(0, 0);
+				for( Future<Double> task : taskret )
+					kplus.execute2(kbuff, task.get());
+				sum = kbuff._sum;
+			}
+			catch(Exception ex) {
+				throw new DMLRuntimeException(ex);
+			}
+		}
+		
+		return new DoubleObject(sum);
+	}
+
+	@Override
+	public void execute(ArrayList<MatrixBlock> inputs, ArrayList<ScalarObject> scalars, MatrixBlock out, int k) 
+		throws DMLRuntimeException 
+	{
+		//sanity check
+		if( inputs==null || inputs.size() < 1 || out==null )
+			throw new RuntimeException("Invalid input arguments.");
+		if( _type == CellType.FULL_AGG )
+			throw new DMLRuntimeException("Invalid matrix output for cell type: "+_type);
+		
+		//input preparation
+		MatrixBlock a = inputs.get(0);
+		double[][] b = prepInputMatrices(inputs);
+		double[] scalars2 = prepInputScalars(scalars);
+		final int m = a.getNumRows();
+		final int n = a.getNumColumns();
+		
+		//output allocation (sparse output only for sparse-safe cellwise 
+		//operations over sparse main inputs, row-wise thread-safe)
+		boolean sparseOut = _type == CellType.NO_AGG && _sparseSafe && a.isInSparseFormat();
+		out.reset(m, (_type == CellType.NO_AGG) ? n : 1, sparseOut);
+		if( sparseOut ) 
+			out.allocateSparseRowsBlock();
+		else
+			out.allocateDenseBlock();
+		
+		//core sequential or multi-threaded execution
+		long lnnz = 0;
+		if( k <= 1 || (long)m*n < PAR_NUMCELL_THRESHOLD || m <= k 
+			|| (sparseOut && !(out.getSparseBlock() instanceof SparseBlockMCSR)) ) {
+			lnnz = (long) executeRange(a, b, scalars2, out, m, n, 0, m);
+		}
+		else {
+			try {
+				ExecutorService pool = Executors.newFixedThreadPool( k );
+				ArrayList<ParExecTask> tasks = new ArrayList<ParExecTask>();
+				int blklen = (int)(Math.ceil((double)m/k));
+				for( int i=0; i<k & i*blklen<m; i++ )
+					tasks.add(new ParExecTask(a, b, scalars2, out, m, n, i*blklen, Math.min((i+1)*blklen, m)));
+				List<Future<Double>> taskret = pool.invokeAll(tasks);	
+				pool.shutdown();
+				
+				//aggregate non-zeros of all partitions
+				for( Future<Double> task : taskret )
+					lnnz += task.get().longValue();
+			}
+			catch(Exception ex) {
+				throw new DMLRuntimeException(ex);
+			}
+		}
+		
+		//post-processing
+		out.setNonZeros(lnnz);
+		out.examSparsity();
+	}
+	
+	/**
+	 * Executes the cellwise operator over the given row range and returns
+	 * either the partial sum (full aggregation) or the number of non-zeros
+	 * of the output rows (no aggregation, row aggregation). 
+	 * 
+	 * @param a
+	 * @param b
+	 * @param scalars
+	 * @param out
+	 * @param m
+	 * @param n
+	 * @param rl
+	 * @param ru
+	 * @return
+	 */
+	private double executeRange(MatrixBlock a, double[][] b, double[] scalars, MatrixBlock out, int m, int n, int rl, int ru) 
+	{
+		if( !a.isInSparseFormat() )
+			return executeDense(a.getDenseBlock(), b, scalars, out, m, n, rl, ru);
+		else
+			return executeSparse(a.getSparseBlock(), b, scalars, out, m, n, rl, ru);
+	}
+	
+	/**
+	 * 
+	 * @param a
+	 * @param b
+	 * @param scalars
+	 * @param out
+	 * @param m
+	 * @param n
+	 * @param rl
+	 * @param ru
+	 * @return
+	 */
+	private double executeDense(double[] a, double[][] b, double[] scalars, MatrixBlock out, int m, int n, int rl, int ru) 
+	{
+		//note: a==null for empty dense main inputs
+		KahanPlus kplus = KahanPlus.getKahanPlusFnObject();
+		KahanObject kbuff = new KahanObject(0, 0);
+		double[] c = (out != null) ? out.getDenseBlock() : null;
+		long lnnz = 0;
+		
+		for( int i=rl, ix=rl*n; i<ru; i++ ) {
+			if( _type == CellType.ROW_AGG )
+				kbuff.set(0, 0);
+			for( int j=0; j<n; j++, ix++ ) {
+				double val = genexec((a!=null) ? a[ix] : 0, b, scalars, n, i, j);
+				if( _type == CellType.NO_AGG ) {
+					c[ix] = val;
+					lnnz += (val != 0) ? 1 : 0;
+				}
+				else 
+					kplus.execute2(kbuff, val);
+			}
+			if( _type == CellType.ROW_AGG ) {
+				c[i] = kbuff._sum;
+				lnnz += (kbuff._sum != 0) ? 1 : 0;
+			}
+		}
+		
+		return (_type == CellType.FULL_AGG) ? kbuff._sum : lnnz;
+	}
+	
+	/**
+	 * 
+	 * @param sblock
+	 * @param b
+	 * @param scalars
+	 * @param out
+	 * @param m
+	 * @param n
+	 * @param rl
+	 * @param ru
+	 * @return
+	 */
+	private double executeSparse(SparseBlock sblock, double[][] b, double[] scalars, MatrixBlock out, int m, int n, int rl, int ru) 
+	{
+		KahanPlus kplus = KahanPlus.getKahanPlusFnObject();
+		KahanObject kbuff = new KahanObject(0, 0);
+		long lnnz = 0;
+		
+		if( _sparseSafe ) //process non-zeros only
+		{
+			for( int i=rl; i<ru; i++ ) {
+				if( _type == CellType.ROW_AGG )
+					kbuff.set(0, 0);
+				if( sblock!=null && !sblock.isEmpty(i) ) {
+					int apos = sblock.pos(i);
+					int alen = sblock.size(i);
+					int[] aix = sblock.indexes(i);
+					double[] avals = sblock.values(i);
+					if( _type == CellType.NO_AGG )
+						out.getSparseBlock().allocate(i, alen);
+					for( int j=apos; j<apos+alen; j++ ) {
+						double val = genexec(avals[j], b, scalars, n, i, aix[j]);
+						if( _type == CellType.NO_AGG ) {
+							if( val != 0 ) {
+								out.getSparseBlock().append(i, aix[j], val);
+								lnnz++;
+							}
+						}
+						else
+							kplus.execute2(kbuff, val);
+					}
+				}
+				if( _type == CellType.ROW_AGG ) {
+					out.getDenseBlock()[i] = kbuff._sum;
+					lnnz += (kbuff._sum != 0) ? 1 : 0;
+				}
+			}
+		}
+		else //process all cells (dense output)
+		{
+			double[] c = (out != null) ? out.getDenseBlock() : null;
+			for( int i=rl, ix=rl*n; i<ru; i++ ) {
+				if( _type == CellType.ROW_AGG )
+					kbuff.set(0, 0);
+				boolean empty = (sblock==null || sblock.isEmpty(i));
+				int apos = empty ? 0 : sblock.pos(i);
+				int alen = empty ? 0 : sblock.size(i);
+				int[] aix = empty ? null : sblock.indexes(i);
+				double[] avals = empty ? null : sblock.values(i);
+				for( int j=0, k=apos; j<n; j++, ix++ ) {
+					//merge non-zeros of sparse row with zero cells
+					double aval = 0;
+					if( k < apos+alen && aix[k]==j )
+						aval = avals[k++];
+					double val = genexec(aval, b, scalars, n, i, j);
+					if( _type == CellType.NO_AGG ) {
+						c[ix] = val;
+						lnnz += (val != 0) ? 1 : 0;
+					}
+					else
+						kplus.execute2(kbuff, val);
+				}
+				if( _type == CellType.ROW_AGG ) {
+					c[i] = kbuff._sum;
+					lnnz += (kbuff._sum != 0) ? 1 : 0;
+				}
+			}
+		}
+		
+		return (_type == CellType.FULL_AGG) ? kbuff._sum : lnnz;
+	}
+	
+	/**
+	 * Generated cell function, evaluated for the cell (rix, cix), where a is the
+	 * value of the main input, b are the side inputs in row-major order (with n
+	 * columns), and scalars are the scalar inputs.
+	 * 
+	 * @param a
+	 * @param b
+	 * @param scalars
+	 * @param n
+	 * @param rix
+	 * @param cix
+	 * @return
+	 */
+	protected abstract double genexec( double a, double[][] b, double[] scalars, int n, int rix, int cix );
+	
+	/**
+	 * Task for multi-threaded execution over a row partition.
+	 */
+	private class ParExecTask implements Callable<Double> 
+	{
+		private final MatrixBlock _a;
+		private final double[][] _b;
+		private final double[] _scalars;
+		private final MatrixBlock _out;
+		private final int _rlen;
+		private final int _clen;
+		private final int _rl;
+		private final int _ru;
+
+		protected ParExecTask( MatrixBlock a, double[][] b, double[] scalars, MatrixBlock out, int rlen, int clen, int rl, int ru ) {
+			_a = a;
+			_b = b;
+			_scalars = scalars;
+			_out = out;
+			_rlen = rlen;
+			_clen = clen;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Double call() throws DMLRuntimeException {
+			return executeRange(_a, _b, _scalars, _out, _rlen, _clen, _rl, _ru);
+		}
+	}
+}
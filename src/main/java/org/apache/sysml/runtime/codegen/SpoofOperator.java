@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.codegen;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.instructions.cp.ScalarObject;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.util.DataConverter;
+
+/**
+ * Base class of all generated fused operators. Generated operators are 
+ * compiled at runtime from code-generation plans and operate on the main 
+ * input (first matrix), a list of side inputs (remaining matrices), and 
+ * a list of scalars.
+ */
+public abstract class SpoofOperator implements Serializable
+{
+	private static final long serialVersionUID = 3834006998853573319L;
+
+	/**
+	 * Executes the fused operator with a matrix output.
+	 * 
+	 * @param inputs
+	 * @param scalars
+	 * @param out
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public abstract void execute(ArrayList<MatrixBlock> inputs, ArrayList<ScalarObject> scalars, MatrixBlock out, int k) 
+		throws DMLRuntimeException;
+	
+	/**
+	 * Executes the fused operator with a scalar output.
+	 * 
+	 * @param inputs
+	 * @param scalars
+	 * @param k
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public ScalarObject execute(ArrayList<MatrixBlock> inputs, ArrayList<ScalarObject> scalars, int k) 
+		throws DMLRuntimeException 
+	{
+		throw new DMLRuntimeException("Invalid invocation in base class.");
+	}
+	
+	/**
+	 * Prepares the side inputs (all but the main input) as dense arrays
+	 * in row-major order, which are accessed by cell index. Sparse side 
+	 * inputs are converted and empty side inputs are represented as 
+	 * zero-filled arrays.
+	 * 
+	 * @param inputs
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	protected static double[][] prepInputMatrices(ArrayList<MatrixBlock> inputs) 
+		throws DMLRuntimeException
+	{
+		double[][] b = new double[inputs.size()-1][]; 
+		for( int i=1; i<inputs.size(); i++ ) {
+			MatrixBlock in = inputs.get(i);
+			if( !in.isInSparseFormat() && !in.isEmptyBlock(false) )
+				b[i-1] = in.getDenseBlock();
+			else
+				b[i-1] = DataConverter.convertToDoubleVector(in);
+		}
+		
+		return b;
+	}
+	
+	/**
+	 * Prepares the scalar inputs as a double array.
+	 * 
+	 * @param scalars
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	protected static double[] prepInputScalars(ArrayList<ScalarObject> scalars) 
+		throws DMLRuntimeException
+	{
+		double[] scalars2 = new double[scalars.size()];
+		for( int i=0; i<scalars.size(); i++ )
+			scalars2[i] = scalars.get(i).getDoubleValue();
+		
+		return scalars2;
+	}
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.compress;
+
+import java.util.Arrays;
+
+import org.apache.sysml.runtime.compress.utils.DoubleIntListHashMap;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
+
+/**
+ * Static functions for encoding bitmaps in various ways, i.e., extracting the
+ * distinct values and offset lists of a column (uncompressed bitmap), and 
+ * encoding offset lists as offset-list (OLE) or run-length (RLE) bitmaps.
+ */
+public class BitmapEncoder 
+{
+	/** Size of the blocks used in a blocked offset-list (OLE) bitmap. */
+	public static final int BITMAP_BLOCK_SZ = Character.MAX_VALUE;
+	
+	/**
+	 * Extracts the uncompressed bitmap (distinct values and their offsets)
+	 * of a single column, given the transposed input matrix block.
+	 * 
+	 * @param colIndex   column index in the original (row i of the transposed) block
+	 * @param rawblock   transposed input matrix block
+	 * @return uncompressed bitmap representation of the column
+	 */
+	public static UncompressedBitmap extractBitmap(int colIndex, MatrixBlock rawblock) 
+	{
+		DoubleIntListHashMap distinctVals = new DoubleIntListHashMap();
+		
+		if( rawblock.isInSparseFormat() ) {
+			SparseBlock a = rawblock.getSparseBlock();
+			if( a != null && !a.isEmpty(colIndex) ) {
+				int apos = a.pos(colIndex);
+				int alen = a.size(colIndex);
+				int[] aix = a.indexes(colIndex);
+				double[] avals = a.values(colIndex);
+				for( int j=apos; j<apos+alen; j++ )
+					if( avals[j] != 0 )
+						distinctVals.appendValue(avals[j], aix[j]);
+			}
+		}
+		else if( rawblock.getDenseBlock() != null ) {
+			double[] a = rawblock.getDenseBlock();
+			int n = rawblock.getNumColumns();
+			for( int i=0, aix=colIndex*n; i<n; i++, aix++ )
+				if( a[aix] != 0 )
+					distinctVals.appendValue(a[aix], i);
+		}
+		
+		return new UncompressedBitmap(distinctVals);
+	}
+	
+	/**
+	 * Encodes the given sorted list of offsets as blocked offset list, i.e., 
+	 * for each segment of BITMAP_BLOCK_SZ rows, the number of offsets 
+	 * followed by the offsets relative to the segment start. Trailing empty 
+	 * segments are omitted.
+	 * 
+	 * @param offsets  sorted row offsets
+	 * @param len      number of valid offsets
+	 * @return encoded bitmap
+	 */
+	public static char[] genOffsetBitmap(int[] offsets, int len) 
+	{
+		int lastOffset = offsets[len - 1];
+
+		// Build up the blocks
+		int numBlocks = (lastOffset / BITMAP_BLOCK_SZ) + 1;
+		// To simplify the logic, we make two passes.
+		// The first pass divides the offsets by block.
+		int[] blockLengths = new int[numBlocks];
+		Arrays.fill(blockLengths, 0);
+
+		for (int ix = 0; ix < len; ix++) {
+			int val = offsets[ix];
+			int blockForVal = val / BITMAP_BLOCK_SZ;
+			blockLengths[blockForVal]++;
+		}
+
+		// The second pass creates the blocks.
+		int totalSize = numBlocks;
+		for (int block = 0; block < numBlocks; block++) {
+			totalSize += blockLengths[block];
+		}
+		char[] encodedBlocks = new char[totalSize];
+
+		int inputIx = 0;
+		int blockStartIx = 0;
+		for (int block = 0; block < numBlocks; block++) {
+			int blockSz = blockLengths[block];
+
+			// First entry in the block is number of bits
+			encodedBlocks[blockStartIx] = (char) blockSz;
+
+			for (int i = 0; i < blockSz; i++) {
+				encodedBlocks[blockStartIx + i + 1] = (char) 
+						(offsets[inputIx+i] % BITMAP_BLOCK_SZ);
+			}
+
+			inputIx += blockSz;
+			blockStartIx += blockSz + 1;
+		}
+
+		return encodedBlocks;
+	}
+	
+	/**
+	 * Encodes the given sorted list of offsets as run-length encoded bitmap, 
+	 * i.e., a sequence of (start offset relative to the end of the previous 
+	 * run, run length) pairs. Runs and gaps that exceed the char range are 
+	 * split into multiple pairs.
+	 * 
+	 * @param offsets  sorted row offsets
+	 * @param len      number of valid offsets
+	 * @return encoded bitmap
+	 */
+	public static char[] genRLEBitmap(int[] offsets, int len) 
+	{
+		//note: we use a growing char buffer to avoid two passes over the offsets
+		char[] buf = new char[Math.max(8, 2*Math.min(len, 1024))];
+		int bufpos = 0;
+		
+		int lastRunEnd = 0;
+		int i = 0;
+		while( i < len ) {
+			//scan the current run
+			int runStart = offsets[i];
+			int runEnd = runStart + 1;
+			i++;
+			while( i < len && offsets[i] == runEnd ) {
+				runEnd++; i++;
+			}
+			
+			//emit pseudo runs of length zero for very large gaps
+			int gap = runStart - lastRunEnd;
+			while( gap > Character.MAX_VALUE ) {
+				buf = ensureCapacity(buf, bufpos + 2);
+				buf[bufpos++] = Character.MAX_VALUE;
+				buf[bufpos++] = 0;
+				gap -= Character.MAX_VALUE;
+			}
+			
+			//emit run, split if necessary
+			int runLen = runEnd - runStart;
+			while( runLen > 0 ) {
+				int clen = Math.min(runLen, Character.MAX_VALUE);
+				buf = ensureCapacity(buf, bufpos + 2);
+				buf[bufpos++] = (char) gap;
+				buf[bufpos++] = (char) clen;
+				runLen -= clen;
+				gap = 0;
+			}
+			
+			lastRunEnd = runEnd;
+		}
+		
+		return Arrays.copyOf(buf, bufpos);
+	}
+	
+	/**
+	 * Returns the exact number of chars of the OLE encoding of the given
+	 * sorted list of offsets, without materializing the encoding.
+	 * 
+	 * @param offsets
+	 * @param len
+	 * @return
+	 */
+	public static long getOffsetBitmapSize(int[] offsets, int len) {
+		return (offsets[len-1] / BITMAP_BLOCK_SZ) + 1 + len;
+	}
+	
+	/**
+	 * Returns the exact number of chars of the RLE encoding of the given
+	 * sorted list of offsets, without materializing the encoding.
+	 * 
+	 * @param offsets
+	 * @param len
+	 * @return
+	 */
+	public static long getRLEBitmapSize(int[] offsets, int len) 
+	{
+		long ret = 0;
+		int lastRunEnd = 0;
+		int i = 0;
+		while( i < len ) {
+			int runStart = offsets[i];
+			int runEnd = runStart + 1;
+			i++;
+			while( i < len && offsets[i] == runEnd ) {
+				runEnd++; i++;
+			}
+			int gap = runStart - lastRunEnd;
+			ret += (gap > 0) ? 2L * ((gap - 1) / Character.MAX_VALUE) : 0;
+			ret += 2L * ((runEnd - runStart + Character.MAX_VALUE - 1) / Character.MAX_VALUE);
+			lastRunEnd = runEnd;
+		}
+		return ret;
+	}
+	
+	/**
+	 * 
+	 * @param buf
+	 * @param len
+	 * @return
+	 */
+	private static char[] ensureCapacity(char[] buf, int len) {
+		return (len <= buf.length) ? buf : 
+			Arrays.copyOf(buf, Math.max(len, 2*buf.length));
+	}
+}
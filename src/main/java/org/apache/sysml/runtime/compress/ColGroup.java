@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.compress;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.operators.AggregateUnaryOperator;
+
+/**
+ * Class that stores information about a column group within a compressed matrix
+ * block. There are subclasses specific to each compression type.
+ *
+ * All column groups share the same number of rows (the number of rows of the
+ * compressed matrix block) but cover disjoint sets of columns.
+ */
+public abstract class ColGroup implements Serializable
+{
+	private static final long serialVersionUID = 2439785418908671481L;
+
+	public enum CompressionType  {
+		UNCOMPRESSED, //uncompressed sparse/dense
+		RLE_BITMAP,  //RLE bitmap
+		OLE_BITMAP;  //OLE bitmap
+	}
+
+	/**
+	 * Offsets of the columns that make up the column group. Zero-based, and
+	 * relative to the matrix block.
+	 */
+	protected int[] _colIndexes;
+
+	/** Number of rows in the matrix, for use by child classes. */
+	protected int _numRows;
+
+	/**
+	 * Empty constructor, used for serializing into an empty new object of ColGroup.
+	 */
+	protected ColGroup() {
+		this(null, -1);
+	}
+
+	/**
+	 * Main constructor.
+	 *
+	 * @param colIndices
+	 *            offsets of the columns in the matrix block that make up the
+	 *            group
+	 * @param numRows
+	 *            total number of rows in the parent block
+	 */
+	protected ColGroup(int[] colIndices, int numRows) {
+		_colIndexes = colIndices;
+		_numRows = numRows;
+	}
+
+	/**
+	 * Obtain the offsets of the columns in the matrix block that make up the group
+	 *
+	 * @return offsets of the columns in the matrix block that make up the group
+	 */
+	public int[] getColIndices() {
+		return _colIndexes;
+	}
+
+	/**
+	 * Obtain a column index value.
+	 *
+	 * @param colNum
+	 *            column number
+	 * @return column index value
+	 */
+	public int getColIndex(int colNum) {
+		return _colIndexes[colNum];
+	}
+
+	/**
+	 * Obtain the number of rows of the parent block.
+	 *
+	 * @return number of rows
+	 */
+	public int getNumRows() {
+		return _numRows;
+	}
+
+	/**
+	 * Obtain the number of columns in this column group.
+	 *
+	 * @return number of columns in this column group
+	 */
+	public int getNumCols() {
+		return _colIndexes.length;
+	}
+
+	/**
+	 * Obtain the compression type.
+	 *
+	 * @return How the elements of the column group are compressed.
+	 */
+	public abstract CompressionType getCompType();
+
+	/**
+	 * Note: Must be overridden by child classes to account for additional data
+	 * and metadata
+	 *
+	 * @return an upper bound on the number of bytes used to store this ColGroup
+	 *         in memory.
+	 */
+	public long estimateInMemorySize() {
+		//object header, array reference and int field, plus col indexes array
+		return 16 + 8 + 4 + 16 + 4L * _colIndexes.length;
+	}
+
+	/**
+	 * Decompress the contents of this column group into the specified full
+	 * matrix block, for all rows in the given row range. The target block is
+	 * expected to be a preallocated dense block of the dimensions of the
+	 * compressed matrix block.
+	 *
+	 * @param target
+	 *            a matrix block where the columns covered by this column group
+	 *            have not yet been filled in.
+	 * @param rl
+	 *            row lower bound, inclusive
+	 * @param ru
+	 *            row upper bound, exclusive
+	 */
+	public abstract void decompressToBlock(MatrixBlock target, int rl, int ru);
+
+	/**
+	 * Get the value at a specific cell of the column group.
+	 *
+	 * @param r
+	 *            row index
+	 * @param c
+	 *            column index (relative to the matrix block)
+	 * @return value at the specified cell
+	 */
+	public abstract double get(int r, int c);
+
+	/**
+	 * Multiply the slice of the matrix that this column group represents by a
+	 * vector on the right, i.e., c[rl:ru] += X[rl:ru, cols] %*% b[cols].
+	 *
+	 * @param b
+	 *            dense vector of length ncol(X) (in terms of all columns)
+	 * @param c
+	 *            dense output vector of length nrow(X), accumulated into
+	 * @param rl
+	 *            row lower bound, inclusive
+	 * @param ru
+	 *            row upper bound, exclusive
+	 */
+	public abstract void rightMultByVector(double[] b, double[] c, int rl, int ru);
+
+	/**
+	 * Multiply the slice of the matrix that this column group represents by a
+	 * row vector on the left, i.e., c[cols] += a %*% X[, cols].
+	 *
+	 * @param a
+	 *            dense row vector of length nrow(X)
+	 * @param c
+	 *            dense output row vector of length ncol(X), accumulated into
+	 */
+	public abstract void leftMultByRowVector(double[] a, double[] c);
+
+	/**
+	 * Unary aggregate operator (sum, sumsq, min, max) over the cells of this
+	 * column group. The results are accumulated into the given array, whose
+	 * layout depends on the index function of the operator: c[0] for full
+	 * aggregates, c[i] for row aggregates, and c[j] for column aggregates
+	 * (in terms of the column indexes of the matrix block). For min/max, the
+	 * output is expected to be initialized with the neutral element.
+	 *
+	 * @param op
+	 *            aggregation operator
+	 * @param c
+	 *            dense output array
+	 * @throws DMLRuntimeException
+	 */
+	public abstract void unaryAggregateOperations(AggregateUnaryOperator op, double[] c)
+		throws DMLRuntimeException;
+
+	/**
+	 * Obtain the number of non-zero values of this column group.
+	 *
+	 * @return number of non-zeros
+	 */
+	public abstract long getNumberNonZeros();
+
+	/**
+	 * Serializes column group to data output.
+	 *
+	 * @param out
+	 * @throws IOException
+	 */
+	public abstract void write(DataOutput out)
+		throws IOException;
+
+	/**
+	 * Deserializes column group from data input.
+	 *
+	 * @param in
+	 * @throws IOException
+	 */
+	public abstract void readFields(DataInput in)
+		throws IOException;
+
+	/**
+	 * Returns the exact serialized size of column group.
+	 * This can be used for example for buffer preallocation.
+	 *
+	 * @return
+	 */
+	public abstract long getExactSizeOnDisk();
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.compress;
+
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+
+/**
+ * Class to encapsulate information about a column group that is encoded with
+ * simple lists of offsets for each set of distinct values, blocked into 
+ * segments of BitmapEncoder.BITMAP_BLOCK_SZ rows (OLE).
+ */
+public class ColGroupOLE extends ColGroupOffset 
+{
+	private static final long serialVersionUID = -9157676271360528008L;
+
+	public ColGroupOLE() {
+		super();
+	}
+	
+	/**
+	 * Main constructor. Constructs and stores the necessary bitmaps.
+	 * 
+	 * @param colIndices  indices (within the block) of the columns included in this column group
+	 * @param numRows     total number of rows in the parent block
+	 * @param ubm         uncompressed bitmap representation of the block
+	 */
+	public ColGroupOLE(int[] colIndices, int numRows, UncompressedBitmap ubm) 
+	{
+		super(colIndices, numRows, ubm);
+
+		// compress the bitmaps
+		final int numVals = ubm.getNumValues();
+		char[][] lbitmaps = new char[numVals][];
+		int totalLen = 0;
+		for( int i=0; i<numVals; i++ ) {
+			lbitmaps[i] = BitmapEncoder.genOffsetBitmap(
+					ubm.getOffsetsList(i), ubm.getNumOffsets(i));
+			totalLen += lbitmaps[i].length;
+		}
+		
+		// compact bitmaps to linearized representation
+		createCompressedBitmaps(lbitmaps, totalLen);
+	}
+
+	@Override
+	public CompressionType getCompType() {
+		return CompressionType.OLE_BITMAP;
+	}
+
+	@Override
+	public void decompressToBlock(MatrixBlock target, int rl, int ru) 
+	{
+		final int blksz = BitmapEncoder.BITMAP_BLOCK_SZ;
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		final int tclen = target.getNumColumns();
+		double[] c = target.getDenseBlock();
+		
+		for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols ) {
+			int boff = _ptr[k];
+			int blen = _ptr[k+1] - boff;
+			for( int bix=0, off=0; bix < blen && off < ru; bix+=_data[boff+bix]+1, off+=blksz ) {
+				if( off + blksz <= rl ) 
+					continue; //skip segment before row range
+				int slen = _data[boff+bix];
+				for( int i=1; i<=slen; i++ ) {
+					int row = off + _data[boff+bix+i];
+					if( row >= rl && row < ru )
+						for( int j=0, cix=row*tclen; j<numCols; j++ )
+							c[cix+_colIndexes[j]] = _values[valOff+j];
+				}
+			}
+		}
+	}
+
+	@Override
+	public double get(int r, int c) 
+	{
+		final int blksz = BitmapEncoder.BITMAP_BLOCK_SZ;
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		int ix = getColPos(c);
+		int segIx = r / blksz;
+		char rOff = (char)(r % blksz);
+		
+		for( int k=0; k<numVals; k++ ) {
+			int boff = _ptr[k];
+			int blen = _ptr[k+1] - boff;
+			//find segment of row r
+			int bix = 0;
+			for( int s=0; s<segIx && bix<blen; s++ )
+				bix += _data[boff+bix] + 1;
+			if( bix >= blen )
+				continue;
+			//scan sorted offsets within segment
+			int slen = _data[boff+bix];
+			for( int i=1; i<=slen && _data[boff+bix+i]<=rOff; i++ )
+				if( _data[boff+bix+i] == rOff )
+					return _values[k*numCols+ix];
+		}
+		
+		return 0;
+	}
+
+	@Override
+	public int[] getCounts() 
+	{
+		final int numVals = getNumValues();
+		int[] ret = new int[numVals];
+		for( int k=0; k<numVals; k++ ) {
+			int boff = _ptr[k];
+			int blen = _ptr[k+1] - boff;
+			int count = 0;
+			for( int bix=0; bix < blen; bix+=_data[boff+bix]+1 )
+				count += _data[boff+bix];
+			ret[k] = count;
+		}
+		return ret;
+	}
+
+	@Override
+	protected void addToRows(double[] c, double[] vals, int rl, int ru) 
+	{
+		final int blksz = BitmapEncoder.BITMAP_BLOCK_SZ;
+		final int numVals = getNumValues();
+		
+		for( int k=0; k<numVals; k++ ) {
+			double val = vals[k];
+			if( val == 0 )
+				continue;
+			int boff = _ptr[k];
+			int blen = _ptr[k+1] - boff;
+			for( int bix=0, off=0; bix < blen && off < ru; bix+=_data[boff+bix]+1, off+=blksz ) {
+				if( off + blksz <= rl ) 
+					continue; //skip segment before row range
+				int slen = _data[boff+bix];
+				if( off >= rl && off + blksz <= ru ) {
+					//fast path: segment fully contained in row range
+					for( int i=1; i<=slen; i++ )
+						c[off + _data[boff+bix+i]] += val;
+				}
+				else {
+					for( int i=1; i<=slen; i++ ) {
+						int row = off + _data[boff+bix+i];
+						if( row >= rl && row < ru )
+							c[row] += val;
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	protected void sumRowsPerValue(double[] a, double[] ret) 
+	{
+		final int blksz = BitmapEncoder.BITMAP_BLOCK_SZ;
+		final int numVals = getNumValues();
+		
+		for( int k=0; k<numVals; k++ ) {
+			int boff = _ptr[k];
+			int blen = _ptr[k+1] - boff;
+			double sum = 0;
+			for( int bix=0, off=0; bix < blen; bix+=_data[boff+bix]+1, off+=blksz ) {
+				int slen = _data[boff+bix];
+				for( int i=1; i<=slen; i++ )
+					sum += a[off + _data[boff+bix+i]];
+			}
+			ret[k] = sum;
+		}
+	}
+}
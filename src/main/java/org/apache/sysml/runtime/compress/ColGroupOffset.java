@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.compress;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.functionobjects.Builtin;
+import org.apache.sysml.runtime.functionobjects.KahanPlus;
+import org.apache.sysml.runtime.functionobjects.KahanPlusSq;
+import org.apache.sysml.runtime.functionobjects.ReduceAll;
+import org.apache.sysml.runtime.functionobjects.ReduceCol;
+import org.apache.sysml.runtime.functionobjects.ReduceRow;
+import org.apache.sysml.runtime.matrix.operators.AggregateUnaryOperator;
+
+/**
+ * Base class for column groups encoded with a bitmap per distinct value,
+ * i.e., the distinct value tuples of the group, and for each distinct 
+ * value, an encoded list of the rows that contain it. The concrete 
+ * encoding of the bitmaps is defined by the subclasses (OLE, RLE).
+ */
+public abstract class ColGroupOffset extends ColGroup 
+{
+	private static final long serialVersionUID = -1635828933479403125L;
+
+	/** Distinct values associated with individual bitmaps, linearized as value tuples. */
+	protected double[] _values;
+
+	/** Bitmaps, one per distinct value; _ptr[k] is the start position of bitmap k in _data. */
+	protected int[] _ptr;
+
+	/** Linearized bitmaps (concatenated encoded bitmaps). */
+	protected char[] _data;
+
+	protected ColGroupOffset() {
+		super();
+	}
+
+	/**
+	 * Main constructor. Stores the distinct values of the bitmap, while 
+	 * the encoding of offsets is left to the subclasses.
+	 * 
+	 * @param colIndices  indices (within the block) of the columns included in this column group
+	 * @param numRows     total number of rows in the parent block
+	 * @param ubm         uncompressed bitmap of the column group
+	 */
+	protected ColGroupOffset(int[] colIndices, int numRows, UncompressedBitmap ubm) {
+		super(colIndices, numRows);
+		_values = ubm.getValues();
+	}
+
+	/**
+	 * Concatenates the given encoded bitmaps into the linearized representation.
+	 * 
+	 * @param lbitmaps
+	 * @param totalLen
+	 */
+	protected void createCompressedBitmaps(char[][] lbitmaps, int totalLen) {
+		_ptr = new int[lbitmaps.length + 1];
+		_data = new char[totalLen];
+		int pos = 0;
+		for( int k=0; k<lbitmaps.length; k++ ) {
+			System.arraycopy(lbitmaps[k], 0, _data, pos, lbitmaps[k].length);
+			_ptr[k] = pos;
+			pos += lbitmaps[k].length;
+		}
+		_ptr[lbitmaps.length] = pos;
+	}
+
+	public int getNumValues() {
+		return _values.length / _colIndexes.length;
+	}
+
+	public double[] getValues() {
+		return _values;
+	}
+
+	@Override
+	public long estimateInMemorySize() {
+		long size = super.estimateInMemorySize();
+		//values, pointers, and linearized bitmaps (incl array headers)
+		size += 8 + 16 + 8L * _values.length;
+		size += 8 + 16 + 4L * _ptr.length;
+		size += 8 + 16 + 2L * _data.length;
+		return size;
+	}
+
+	/**
+	 * Obtain the number of rows that contain each distinct value tuple.
+	 * 
+	 * @return counts per distinct value
+	 */
+	public abstract int[] getCounts();
+
+	/**
+	 * Adds the given value per distinct value tuple into all rows of 
+	 * the given row range that contain this distinct value tuple, i.e., 
+	 * c[i] += vals[k] for all rows i in [rl,ru) of bitmap k.
+	 * 
+	 * @param c     dense output vector of length nrow(X)
+	 * @param vals  value per distinct value tuple
+	 * @param rl    row lower bound, inclusive
+	 * @param ru    row upper bound, exclusive
+	 */
+	protected abstract void addToRows(double[] c, double[] vals, int rl, int ru);
+
+	/**
+	 * Sums the given row vector over the rows of each distinct value 
+	 * tuple, i.e., ret[k] = sum(a[i]) for all rows i of bitmap k.
+	 * 
+	 * @param a    dense row vector of length nrow(X)
+	 * @param ret  output array of length getNumValues()
+	 */
+	protected abstract void sumRowsPerValue(double[] a, double[] ret);
+
+	@Override
+	public long getNumberNonZeros() {
+		int[] counts = getCounts();
+		final int numCols = getNumCols();
+		long ret = 0;
+		for( int k=0, valOff=0; k<counts.length; k++, valOff+=numCols )
+			for( int j=0; j<numCols; j++ )
+				ret += (_values[valOff+j] != 0) ? counts[k] : 0;
+		return ret;
+	}
+
+	@Override
+	public void rightMultByVector(double[] b, double[] c, int rl, int ru) {
+		//pre-aggregate value tuples with vector b
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		double[] vals = new double[numVals];
+		for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols ) {
+			double tmp = 0;
+			for( int j=0; j<numCols; j++ )
+				tmp += _values[valOff+j] * b[_colIndexes[j]];
+			vals[k] = tmp;
+		}
+		
+		//scatter pre-aggregated values into output rows
+		addToRows(c, vals, rl, ru);
+	}
+
+	@Override
+	public void leftMultByRowVector(double[] a, double[] c) {
+		//pre-aggregate row vector a per distinct value tuple
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		double[] sums = new double[numVals];
+		sumRowsPerValue(a, sums);
+		
+		//multiply pre-aggregates with value tuples
+		for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols ) {
+			double sum = sums[k];
+			if( sum != 0 )
+				for( int j=0; j<numCols; j++ )
+					c[_colIndexes[j]] += sum * _values[valOff+j];
+		}
+	}
+
+	@Override
+	public void unaryAggregateOperations(AggregateUnaryOperator op, double[] c) 
+		throws DMLRuntimeException 
+	{
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		
+		if( op.aggOp.increOp.fn instanceof KahanPlus 
+			|| op.aggOp.increOp.fn instanceof KahanPlusSq ) 
+		{
+			boolean square = (op.aggOp.increOp.fn instanceof KahanPlusSq);
+			if( op.indexFn instanceof ReduceAll || op.indexFn instanceof ReduceRow ) {
+				int[] counts = getCounts();
+				for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols )
+					for( int j=0; j<numCols; j++ ) {
+						double v = _values[valOff+j];
+						double tmp = counts[k] * (square ? v*v : v);
+						c[(op.indexFn instanceof ReduceAll) ? 0 : _colIndexes[j]] += tmp;
+					}
+			}
+			else if( op.indexFn instanceof ReduceCol ) {
+				double[] vals = new double[numVals];
+				for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols )
+					for( int j=0; j<numCols; j++ ) {
+						double v = _values[valOff+j];
+						vals[k] += square ? v*v : v;
+					}
+				addToRows(c, vals, 0, _numRows);
+			}
+			else
+				throw new DMLRuntimeException("Unsupported index function: "+op.indexFn);
+		}
+		else if( op.aggOp.increOp.fn instanceof Builtin ) 
+		{
+			Builtin builtin = (Builtin) op.aggOp.increOp.fn;
+			int[] counts = getCounts();
+			long numNonEmpty = 0;
+			for( int cnt : counts )
+				numNonEmpty += cnt;
+			boolean containsZeros = (numNonEmpty < _numRows);
+			
+			if( op.indexFn instanceof ReduceAll || op.indexFn instanceof ReduceRow ) {
+				for( int j=0; j<numCols; j++ ) {
+					int cix = (op.indexFn instanceof ReduceAll) ? 0 : _colIndexes[j];
+					double tmp = containsZeros ? builtin.execute2(c[cix], 0) : c[cix];
+					for( int k=0; k<numVals; k++ )
+						tmp = builtin.execute2(tmp, _values[k*numCols+j]);
+					c[cix] = tmp;
+				}
+			}
+			else if( op.indexFn instanceof ReduceCol ) {
+				//aggregate value tuples, and scatter into a zero-initialized 
+				//temporary vector (rows without value tuple remain zero)
+				double[] vals = new double[numVals];
+				for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols ) {
+					double tmp = _values[valOff];
+					for( int j=1; j<numCols; j++ )
+						tmp = builtin.execute2(tmp, _values[valOff+j]);
+					vals[k] = tmp;
+				}
+				double[] tmp = new double[_numRows];
+				addToRows(tmp, vals, 0, _numRows);
+				for( int i=0; i<_numRows; i++ )
+					c[i] = builtin.execute2(c[i], tmp[i]);
+			}
+			else
+				throw new DMLRuntimeException("Unsupported index function: "+op.indexFn);
+		}
+		else
+			throw new DMLRuntimeException("Unsupported aggregate function: "+op.aggOp.increOp.fn);
+	}
+
+	@Override
+	public void write(DataOutput out) 
+		throws IOException 
+	{
+		int numCols = getNumCols();
+		int numVals = getNumValues();
+		out.writeInt(_numRows);
+		out.writeInt(numCols);
+		out.writeInt(numVals);
+		
+		//write col indices
+		for( int i=0; i<_colIndexes.length; i++ )
+			out.writeInt( _colIndexes[i] );
+		
+		//write distinct values
+		for( int i=0; i<_values.length; i++ )
+			out.writeDouble(_values[i]);
+
+		//write bitmaps (lens and data, offset later recreated)
+		for( int i=0; i<numVals; i++ )
+			out.writeInt(_ptr[i+1]-_ptr[i]);
+		for( int i=0; i<_data.length; i++ )
+			out.writeChar(_data[i]);
+	}
+
+	@Override
+	public void readFields(DataInput in) 
+		throws IOException 
+	{
+		_numRows = in.readInt();
+		int numCols = in.readInt();
+		int numVals = in.readInt();
+		
+		//read col indices
+		_colIndexes = new int[ numCols ];
+		for( int i=0; i<numCols; i++ )
+			_colIndexes[i] = in.readInt();
+		
+		//read distinct values
+		_values = new double[numVals*numCols];
+		for( int i=0; i<numVals*numCols; i++ )
+			_values[i] = in.readDouble();
+		
+		//read bitmaps
+		_ptr = new int[numVals+1];
+		for( int i=0; i<numVals; i++ )
+			_ptr[i+1] = _ptr[i] + in.readInt();
+		_data = new char[_ptr[numVals]];
+		for( int i=0; i<_data.length; i++ )
+			_data[i] = in.readChar();
+	}
+
+	@Override
+	public long getExactSizeOnDisk() {
+		long ret = 12; //header
+		//col indices
+		ret += 4L * _colIndexes.length; 
+		//distinct values (groups of values)
+		ret += 8L * _values.length;
+		//actual bitmaps
+		ret += 4L * getNumValues(); //total bitmap lengths
+		ret += 2L * _data.length;
+		return ret;
+	}
+	
+	/**
+	 * 
+	 * @param c
+	 * @return
+	 */
+	protected int getColPos(int c) {
+		int ix = Arrays.binarySearch(_colIndexes, c);
+		if( ix < 0 )
+			throw new RuntimeException("Column index "+c+" not in column group.");
+		return ix;
+	}
+}
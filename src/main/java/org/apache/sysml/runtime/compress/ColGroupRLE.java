@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.compress;
+
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+
+/**
+ * A group of columns compressed with a single run-length encoded bitmap 
+ * per distinct value tuple (RLE). Each run is encoded as a pair of 
+ * (offset of the run start relative to the end of the previous run, 
+ * run length).
+ */
+public class ColGroupRLE extends ColGroupOffset 
+{
+	private static final long serialVersionUID = 7450232907594748177L;
+
+	public ColGroupRLE() {
+		super();
+	}
+	
+	/**
+	 * Main constructor. Constructs and stores the necessary bitmaps.
+	 * 
+	 * @param colIndices  indices (within the block) of the columns included in this column group
+	 * @param numRows     total number of rows in the parent block
+	 * @param ubm         uncompressed bitmap representation of the block
+	 */
+	public ColGroupRLE(int[] colIndices, int numRows, UncompressedBitmap ubm) 
+	{
+		super(colIndices, numRows, ubm);
+		
+		// compress the bitmaps
+		final int numVals = ubm.getNumValues();
+		char[][] lbitmaps = new char[numVals][];
+		int totalLen = 0;
+		for( int k=0; k<numVals; k++ ) {
+			lbitmaps[k] = BitmapEncoder.genRLEBitmap(
+				ubm.getOffsetsList(k), ubm.getNumOffsets(k));
+			totalLen += lbitmaps[k].length;
+		}
+		
+		// compact bitmaps to linearized representation
+		createCompressedBitmaps(lbitmaps, totalLen);
+	}
+
+	@Override
+	public CompressionType getCompType() {
+		return CompressionType.RLE_BITMAP;
+	}
+	
+	@Override
+	public void decompressToBlock(MatrixBlock target, int rl, int ru) 
+	{
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		final int tclen = target.getNumColumns();
+		double[] c = target.getDenseBlock();
+		
+		for( int k=0, valOff=0; k<numVals; k++, valOff+=numCols ) {
+			int boff = _ptr[k];
+			int blen = _ptr[k+1] - boff;
+			int curRunEnd = 0;
+			for( int bix=0; bix < blen; bix+=2 ) {
+				int rstart = curRunEnd + _data[boff+bix];
+				int rend = rstart + _data[boff+bix+1];
+				if( rstart >= ru )
+					break;
+				for( int i=Math.max(rstart, rl); i<Math.min(rend, ru); i++ )
+					for( int j=0, cix=i*tclen; j<numCols; j++ )
+						c[cix+_colIndexes[j]] = _values[valOff+j];
+				curRunEnd = rend;
+			}
+		}
+	}
+
+	@Override
+	public double get(int r, int c) 
+	{
+		final int numCols = getNumCols();
+		final int numVals = getNumValues();
+		int ix = getColPos(c);
+		
+		for( int k=0; k<numVals; k++ ) {
+			int boff = _ptr[k];
+			int blen = _ptr[k+1] - boff;
+			int curRunEnd = 0;
+			for( int bix=0; bix < blen; bix+=2 ) {
+				int rstart = curRunEnd + _data[boff+bix];
+				int rend = rstart + _data[boff+bix+1];
+				if( rstart > r )
+					break;
+				if( r < rend )
+					return _values[k*numCols+ix];
+				curRunEnd = rend;
+			}
+		}
+		
+		return 0;
+	}
+
+	@Override
+	public int[] getCounts() 
+	{
+		final int numVals = getNumValues();
+		int[] ret = new int[numVals];
+		for( int k=0; k<numVals; k++ ) {
+			int boff = _ptr[k];
+			int blen = _ptr[k+1] - boff;
+			int count = 0;
+			for( int bix=0; bix < blen; bix+=2 )
+				count += _data[boff+bix+1];
+			ret[k] = count;
+		}
+		return ret;
+	}
+
+	@Override
+	protected void addToRows(double[] c, double[] vals, int rl, int ru) 
+	{
+		final int numVals = getNumValues();
+		
+		for( int k=0; k<numVals; k++ ) {
+			double val = vals[k];
+			if( val == 0 )
+				continue;
+			int boff = _ptr[k];
+			int blen = _ptr[k+1] - boff;
+			int curRunEnd = 0;
+			for( int bix=0; bix < blen; bix+=2 ) {
+				int rstart = curRunEnd + _data[boff+bix];
+				int rend = rstart + _data[boff+bix+1];
+				if( rstart >= ru )
+					break;
+				for( int i=Math.max(rstart, rl); i<Math.min(rend, ru); i++ )
+					c[i] += val;
+				curRunEnd = rend;
+			}
+		}
+	}
+
+	@Override
+	protected void sumRowsPerValue(double[] a, double[] ret) 
+	{
+		final int numVals = getNumValues();
+		
+		for( int k=0; k<numVals; k++ ) {
+			int boff = _ptr[k];
+			int blen = _ptr[k+1] - boff;
+			int curRunEnd = 0;
+			double sum = 0;
+			for( int bix=0; bix < blen; bix+=2 ) {
+				int rstart = curRunEnd + _data[boff+bix];
+				int rend = rstart + _data[boff+bix+1];
+				for( int i=rstart; i<rend; i++ )
+					sum += a[i];
+				curRunEnd = rend;
+			}
+			ret[k] = sum;
+		}
+	}
+}
@@ -0,0 +1,325 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.compress;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.functionobjects.Builtin;
+import org.apache.sysml.runtime.functionobjects.KahanPlus;
+import org.apache.sysml.runtime.functionobjects.KahanPlusSq;
+import org.apache.sysml.runtime.functionobjects.ReduceAll;
+import org.apache.sysml.runtime.functionobjects.ReduceCol;
+import org.apache.sysml.runtime.functionobjects.ReduceRow;
+import org.apache.sysml.runtime.functionobjects.SwapIndex;
+import org.apache.sysml.runtime.matrix.data.LibMatrixReorg;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
+import org.apache.sysml.runtime.matrix.operators.AggregateUnaryOperator;
+import org.apache.sysml.runtime.matrix.operators.ReorgOperator;
+
+/**
+ * Column group type for columns that are stored as dense or sparse 
+ * uncompressed matrix block, i.e., for columns with too many distinct
+ * values to benefit from bitmap compression.
+ */
+public class ColGroupUncompressed extends ColGroup 
+{
+	private static final long serialVersionUID = 4870546053280378891L;
+
+	/**
+	 * We store the contents of the columns as a MatrixBlock to take advantage
+	 * of high-performance routines available for this data structure.
+	 */
+	private MatrixBlock _data;
+
+	public ColGroupUncompressed() {
+		super();
+	}
+	
+	/**
+	 * Main constructor.
+	 * 
+	 * @param colIndices  indices (relative to the current block) of the columns that this column group represents.
+	 * @param rawblock    the transposed uncompressed block; only the rows given by colIndices are copied
+	 * @throws DMLRuntimeException 
+	 */
+	public ColGroupUncompressed(int[] colIndices, MatrixBlock rawblock) 
+		throws DMLRuntimeException 
+	{
+		super(colIndices, rawblock.getNumColumns());
+		
+		//collect the selected rows of the transposed input
+		final int numCols = colIndices.length;
+		final int numRows = rawblock.getNumColumns();
+		MatrixBlock tmp = new MatrixBlock(numCols, numRows, rawblock.isInSparseFormat());
+		if( rawblock.isInSparseFormat() ) {
+			SparseBlock a = rawblock.getSparseBlock();
+			for( int j=0; j<numCols && a!=null; j++ ) {
+				int r = colIndices[j];
+				if( a.isEmpty(r) ) 
+					continue;
+				int apos = a.pos(r);
+				int alen = a.size(r);
+				int[] aix = a.indexes(r);
+				double[] avals = a.values(r);
+				for( int k=apos; k<apos+alen; k++ )
+					tmp.appendValue(j, aix[k], avals[k]);
+			}
+		}
+		else if( rawblock.getDenseBlock() != null ) {
+			double[] a = rawblock.getDenseBlock();
+			tmp.allocateDenseBlock();
+			double[] c = tmp.getDenseBlock();
+			for( int j=0; j<numCols; j++ )
+				System.arraycopy(a, colIndices[j]*numRows, c, j*numRows, numRows);
+			tmp.recomputeNonZeros();
+		}
+		
+		//transpose back into column group layout
+		_data = new MatrixBlock(numRows, numCols, tmp.isInSparseFormat());
+		LibMatrixReorg.reorg(tmp, _data, new ReorgOperator(SwapIndex.getSwapIndexFnObject()));
+		_data.examSparsity();
+	}
+
+	@Override
+	public CompressionType getCompType() {
+		return CompressionType.UNCOMPRESSED;
+	}
+	
+	/**
+	 * Access for superclass
+	 * 
+	 * @return direct pointer to the internal representation of the columns
+	 */
+	public MatrixBlock getData() {
+		return _data;
+	}
+	
+	@Override
+	public long estimateInMemorySize() {
+		long size = super.estimateInMemorySize();
+		// adding the size of colContents
+		return size + 8 + _data.estimateSizeInMemory();
+	}
+
+	@Override
+	public void decompressToBlock(MatrixBlock target, int rl, int ru) 
+	{
+		final int numCols = getNumCols();
+		final int tclen = target.getNumColumns();
+		double[] c = target.getDenseBlock();
+		double[] tmp = new double[numCols];
+		
+		for( int i=rl, cix=rl*tclen; i<ru; i++, cix+=tclen ) {
+			getRow(i, tmp);
+			for( int j=0; j<numCols; j++ )
+				if( tmp[j] != 0 )
+					c[cix+_colIndexes[j]] = tmp[j];
+		}
+	}
+
+	@Override
+	public double get(int r, int c) {
+		int ix = Arrays.binarySearch(_colIndexes, c);
+		if( ix < 0 )
+			throw new RuntimeException("Column index "+c+" not in uncompressed group.");
+		return _data.quickGetValue(r, ix);
+	}
+	
+	@Override
+	public void rightMultByVector(double[] b, double[] c, int rl, int ru) 
+	{
+		final int numCols = getNumCols();
+		if( _data.isEmptyBlock(false) )
+			return;
+		
+		if( _data.isInSparseFormat() ) {
+			SparseBlock a = _data.getSparseBlock();
+			for( int i=rl; i<ru; i++ ) {
+				if( a.isEmpty(i) ) 
+					continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				double tmp = 0;
+				for( int k=apos; k<apos+alen; k++ )
+					tmp += avals[k] * b[_colIndexes[aix[k]]];
+				c[i] += tmp;
+			}
+		}
+		else {
+			double[] a = _data.getDenseBlock();
+			for( int i=rl, aix=rl*numCols; i<ru; i++, aix+=numCols ) {
+				double tmp = 0;
+				for( int j=0; j<numCols; j++ )
+					tmp += a[aix+j] * b[_colIndexes[j]];
+				c[i] += tmp;
+			}
+		}
+	}
+	
+	@Override
+	public void leftMultByRowVector(double[] a, double[] c) 
+	{
+		final int numCols = getNumCols();
+		if( _data.isEmptyBlock(false) )
+			return;
+		
+		if( _data.isInSparseFormat() ) {
+			SparseBlock b = _data.getSparseBlock();
+			for( int i=0; i<_numRows; i++ ) {
+				if( a[i] == 0 || b.isEmpty(i) ) 
+					continue;
+				int bpos = b.pos(i);
+				int blen = b.size(i);
+				int[] bix = b.indexes(i);
+				double[] bvals = b.values(i);
+				for( int k=bpos; k<bpos+blen; k++ )
+					c[_colIndexes[bix[k]]] += a[i] * bvals[k];
+			}
+		}
+		else {
+			double[] b = _data.getDenseBlock();
+			for( int i=0, bix=0; i<_numRows; i++, bix+=numCols ) {
+				if( a[i] == 0 ) 
+					continue;
+				for( int j=0; j<numCols; j++ )
+					c[_colIndexes[j]] += a[i] * b[bix+j];
+			}
+		}
+	}
+	
+	@Override
+	public void unaryAggregateOperations(AggregateUnaryOperator op, double[] c) 
+		throws DMLRuntimeException 
+	{
+		final int numCols = getNumCols();
+		double[] tmp = new double[numCols];
+		
+		if( op.aggOp.increOp.fn instanceof KahanPlus 
+			|| op.aggOp.increOp.fn instanceof KahanPlusSq ) 
+		{
+			boolean square = (op.aggOp.increOp.fn instanceof KahanPlusSq);
+			for( int i=0; i<_numRows; i++ ) {
+				getRow(i, tmp);
+				for( int j=0; j<numCols; j++ ) {
+					double v = square ? tmp[j]*tmp[j] : tmp[j];
+					if( op.indexFn instanceof ReduceAll )
+						c[0] += v;
+					else if( op.indexFn instanceof ReduceCol )
+						c[i] += v;
+					else if( op.indexFn instanceof ReduceRow )
+						c[_colIndexes[j]] += v;
+					else
+						throw new DMLRuntimeException("Unsupported index function: "+op.indexFn);
+				}
+			}
+		}
+		else if( op.aggOp.increOp.fn instanceof Builtin ) 
+		{
+			Builtin builtin = (Builtin) op.aggOp.increOp.fn;
+			for( int i=0; i<_numRows; i++ ) {
+				getRow(i, tmp);
+				for( int j=0; j<numCols; j++ ) {
+					if( op.indexFn instanceof ReduceAll )
+						c[0] = builtin.execute2(c[0], tmp[j]);
+					else if( op.indexFn instanceof ReduceCol )
+						c[i] = builtin.execute2(c[i], tmp[j]);
+					else if( op.indexFn instanceof ReduceRow )
+						c[_colIndexes[j]] = builtin.execute2(c[_colIndexes[j]], tmp[j]);
+					else
+						throw new DMLRuntimeException("Unsupported index function: "+op.indexFn);
+				}
+			}
+		}
+		else
+			throw new DMLRuntimeException("Unsupported aggregate function: "+op.aggOp.increOp.fn);
+	}
+
+	@Override
+	public long getNumberNonZeros() {
+		return _data.getNonZeros();
+	}
+
+	@Override
+	public void write(DataOutput out) 
+		throws IOException 
+	{
+		//write col contents first (w/ meta data)
+		_data.write(out);
+		
+		//write col indices
+		for( int i=0; i<_colIndexes.length; i++ )
+			out.writeInt( _colIndexes[i] );
+	}
+
+	@Override
+	public void readFields(DataInput in) 
+		throws IOException 
+	{
+		//read col contents (w/ meta data)
+		_data = new MatrixBlock();
+		_data.readFields(in);
+		_numRows = _data.getNumRows();
+		
+		//read col indices
+		_colIndexes = new int[ _data.getNumColumns() ];
+		for( int i=0; i<_colIndexes.length; i++ )
+			_colIndexes[i] = in.readInt();
+	}
+
+	@Override
+	public long getExactSizeOnDisk() {
+		return _data.getExactSizeOnDisk()
+			   + 4L * _colIndexes.length;
+	}
+	
+	/**
+	 * Extracts the given row of the column group into a dense buffer 
+	 * of length getNumCols().
+	 * 
+	 * @param r
+	 * @param buff
+	 */
+	private void getRow(int r, double[] buff) {
+		Arrays.fill(buff, 0);
+		if( _data.isEmptyBlock(false) )
+			return;
+		if( _data.isInSparseFormat() ) {
+			SparseBlock a = _data.getSparseBlock();
+			if( a.isEmpty(r) )
+				return;
+			int apos = a.pos(r);
+			int alen = a.size(r);
+			int[] aix = a.indexes(r);
+			double[] avals = a.values(r);
+			for( int k=apos; k<apos+alen; k++ )
+				buff[aix[k]] = avals[k];
+		}
+		else {
+			System.arraycopy(_data.getDenseBlock(), r*buff.length, buff, 0, buff.length);
+		}
+	}
+}
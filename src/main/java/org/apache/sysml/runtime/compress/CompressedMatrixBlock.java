@@ -0,0 +1,1036 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.compress;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.sysml.lops.MMTSJ.MMTSJType;
+import org.apache.sysml.lops.MapMultChain.ChainType;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.compress.ColGroup.CompressionType;
+import org.apache.sysml.runtime.functionobjects.Builtin;
+import org.apache.sysml.runtime.functionobjects.Builtin.BuiltinFunctionCode;
+import org.apache.sysml.runtime.functionobjects.KahanPlus;
+import org.apache.sysml.runtime.functionobjects.KahanPlusSq;
+import org.apache.sysml.runtime.functionobjects.Multiply;
+import org.apache.sysml.runtime.functionobjects.Plus;
+import org.apache.sysml.runtime.functionobjects.ReduceAll;
+import org.apache.sysml.runtime.functionobjects.ReduceCol;
+import org.apache.sysml.runtime.functionobjects.ReduceRow;
+import org.apache.sysml.runtime.functionobjects.SwapIndex;
+import org.apache.sysml.runtime.matrix.data.LibMatrixReorg;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
+import org.apache.sysml.runtime.matrix.data.MatrixValue;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
+import org.apache.sysml.runtime.matrix.operators.AggregateBinaryOperator;
+import org.apache.sysml.runtime.matrix.operators.AggregateUnaryOperator;
+import org.apache.sysml.runtime.matrix.operators.ReorgOperator;
+
+/**
+ * Experimental version of MatrixBlock that allows a compressed internal
+ * representation. The matrix is partitioned into column groups, which are 
+ * either compressed with offset lists (OLE), run-length encoded bitmaps 
+ * (RLE), or stored uncompressed. Matrix multiplications, mmchain, tsmm 
+ * and unary aggregates are executed directly on the compressed column 
+ * groups, while all other operations require a prior decompress().
+ * 
+ * Note that this block is only exposed to operations that explicitly 
+ * request compressed inputs; by default the buffer pool hands out a 
+ * decompressed copy.
+ */
+public class CompressedMatrixBlock extends MatrixBlock
+{
+	private static final long serialVersionUID = 7319372019143154058L;
+	
+	private static final Log LOG = LogFactory.getLog(CompressedMatrixBlock.class.getName());
+	
+	//minimum number of rows for compression (otherwise not beneficial)
+	public static final int MIN_COMPRESSION_ROWS = 1024;
+	
+	//minimum number of rows per thread for multi-threaded operations
+	public static final int MIN_PAR_AGG_ROWS = 16*1024;
+	
+	protected ArrayList<ColGroup> _colGroups = null;
+	
+	/**
+	 * Constructor for deserialization, i.e., empty compressed block.
+	 */
+	public CompressedMatrixBlock() {
+		super(0, 0, false);
+	}
+	
+	/**
+	 * 
+	 * @param rl
+	 * @param cl
+	 * @param nnz
+	 * @param colGroups
+	 */
+	protected CompressedMatrixBlock(int rl, int cl, long nnz, ArrayList<ColGroup> colGroups) {
+		super(rl, cl, false);
+		nonZeros = nnz;
+		_colGroups = colGroups;
+	}
+	
+	/**
+	 * Obtain the column groups of this compressed block.
+	 * 
+	 * @return
+	 */
+	public ArrayList<ColGroup> getColGroups() {
+		return _colGroups;
+	}
+	
+	/**
+	 * 
+	 * @param mb
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public static MatrixBlock compress(MatrixBlock mb) 
+		throws DMLRuntimeException 
+	{
+		return compress(mb, 1);
+	}
+	
+	/**
+	 * Compresses the given matrix block column by column, where each column 
+	 * is encoded with the smallest of OLE, RLE, or uncompressed representation.
+	 * If compression is not beneficial, the original block is returned.
+	 * 
+	 * @param mb   uncompressed input matrix block
+	 * @param k    degree of parallelism
+	 * @return compressed matrix block or the original block
+	 * @throws DMLRuntimeException
+	 */
+	public static MatrixBlock compress(MatrixBlock mb, int k) 
+		throws DMLRuntimeException 
+	{
+		//check for already compressed, empty or too small inputs
+		if( mb instanceof CompressedMatrixBlock )
+			return mb;
+		if( mb.isEmptyBlock(false) || mb.getNumRows() < MIN_COMPRESSION_ROWS )
+			return mb;
+		
+		final int m = mb.getNumRows();
+		final int n = mb.getNumColumns();
+		
+		//transpose input for efficient column extraction
+		MatrixBlock rawblock = new MatrixBlock(n, m, mb.isInSparseFormat());
+		LibMatrixReorg.reorg(mb, rawblock, new ReorgOperator(SwapIndex.getSwapIndexFnObject(), k));
+		
+		//classify and compress columns (in parallel if k>1)
+		ColGroup[] groups = new ColGroup[n];
+		try {
+			if( k > 1 ) {
+				ExecutorService pool = Executors.newFixedThreadPool( k );
+				ArrayList<CompressTask> tasks = new ArrayList<CompressTask>();
+				int blklen = (int)(Math.ceil((double)n/k));
+				for( int i=0; i<k & i*blklen<n; i++ )
+					tasks.add(new CompressTask(rawblock, groups, i*blklen, Math.min((i+1)*blklen, n), mb.isInSparseFormat()));
+				List<Future<Object>> ret = pool.invokeAll(tasks);
+				pool.shutdown();
+				for( Future<Object> rt : ret )
+					rt.get(); //error handling
+			}
+			else {
+				compressColumns(rawblock, groups, 0, n, mb.isInSparseFormat());
+			}
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		//collect compressed groups and remaining uncompressed columns
+		ArrayList<ColGroup> colGroups = new ArrayList<ColGroup>();
+		ArrayList<Integer> uncompressed = new ArrayList<Integer>();
+		long size = 0;
+		for( int j=0; j<n; j++ ) {
+			if( groups[j] != null ) {
+				colGroups.add(groups[j]);
+				size += groups[j].estimateInMemorySize();
+			}
+			else
+				uncompressed.add(j);
+		}
+		
+		//check for beneficial compression (before materializing uncompressed group)
+		if( uncompressed.size() == n || size >= mb.getInMemorySize() ) {
+			LOG.debug("Compression not beneficial ("+uncompressed.size()+"/"+n+" uncompressed columns).");
+			return mb;
+		}
+		
+		if( !uncompressed.isEmpty() ) {
+			int[] colIndices = new int[uncompressed.size()];
+			for( int j=0; j<colIndices.length; j++ )
+				colIndices[j] = uncompressed.get(j);
+			colGroups.add(new ColGroupUncompressed(colIndices, rawblock));
+		}
+		
+		CompressedMatrixBlock ret = new CompressedMatrixBlock(m, n, mb.getNonZeros(), colGroups);
+		ret.recomputeNonZeros();
+		
+		if( LOG.isDebugEnabled() )
+			LOG.debug("Compressed block "+m+"x"+n+": "+colGroups.size()+" column groups, "
+				+ "size "+mb.getInMemorySize()+" -> "+ret.getInMemorySize()+".");
+		
+		return ret;
+	}
+	
+	/**
+	 * Compresses the given range of columns of the transposed input, i.e., 
+	 * creates an OLE or RLE group per column, or null if the column 
+	 * is not compressible.
+	 * 
+	 * @param rawblock
+	 * @param groups
+	 * @param cl
+	 * @param cu
+	 * @param sparse
+	 */
+	private static void compressColumns(MatrixBlock rawblock, ColGroup[] groups, int cl, int cu, boolean sparse) 
+	{
+		final int m = rawblock.getNumColumns();
+		for( int j=cl; j<cu; j++ ) {
+			UncompressedBitmap ubm = BitmapEncoder.extractBitmap(j, rawblock);
+			
+			//exact sizes of compressed representations (values and bitmaps)
+			final int numVals = ubm.getNumValues();
+			long oleSize = 8L * numVals + 4L * numVals;
+			long rleSize = 8L * numVals + 4L * numVals;
+			for( int i=0; i<numVals; i++ ) {
+				oleSize += 2 * BitmapEncoder.getOffsetBitmapSize(ubm.getOffsetsList(i), ubm.getNumOffsets(i));
+				rleSize += 2 * BitmapEncoder.getRLEBitmapSize(ubm.getOffsetsList(i), ubm.getNumOffsets(i));
+			}
+			
+			//size of uncompressed column, according to input representation
+			long ucSize = sparse ? 12L * ubm.getNumOffsets() : 8L * m;
+			
+			//create compressed column group, if beneficial
+			int[] colIndices = new int[]{ j };
+			if( Math.min(oleSize, rleSize) < ucSize ) {
+				groups[j] = (rleSize < oleSize) ?
+					new ColGroupRLE(colIndices, m, ubm) :
+					new ColGroupOLE(colIndices, m, ubm);
+			}
+		}
+	}
+	
+	/**
+	 * Decompress block.
+	 * 
+	 * @return a new uncompressed matrix block containing the contents of this
+	 *         block
+	 * @throws DMLRuntimeException 
+	 */
+	public MatrixBlock decompress() 
+		throws DMLRuntimeException 
+	{
+		return decompress(1);
+	}
+	
+	/**
+	 * Decompress block (in parallel over row ranges if k>1).
+	 * 
+	 * @param k
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public MatrixBlock decompress(int k) 
+		throws DMLRuntimeException 
+	{
+		//prepare dense output block
+		MatrixBlock ret = new MatrixBlock(rlen, clen, false, nonZeros);
+		if( nonZeros == 0 || _colGroups == null )
+			return ret;
+		ret.allocateDenseBlock();
+		
+		//decompress row partitions
+		if( k > 1 && rlen >= 2*MIN_PAR_AGG_ROWS ) {
+			try {
+				ExecutorService pool = Executors.newFixedThreadPool( k );
+				ArrayList<DecompressTask> tasks = new ArrayList<DecompressTask>();
+				int blklen = getAlignedBlocksize((int)(Math.ceil((double)rlen/k)));
+				for( int i=0; i<k & i*blklen<rlen; i++ )
+					tasks.add(new DecompressTask(_colGroups, ret, i*blklen, Math.min((i+1)*blklen, rlen)));
+				List<Future<Object>> rtasks = pool.invokeAll(tasks);
+				pool.shutdown();
+				for( Future<Object> rt : rtasks )
+					rt.get(); //error handling
+			}
+			catch(Exception ex) {
+				throw new DMLRuntimeException(ex);
+			}
+		}
+		else {
+			for( ColGroup grp : _colGroups )
+				grp.decompressToBlock(ret, 0, rlen);
+		}
+		
+		//post-processing (representation-specific)
+		ret.setNonZeros(nonZeros);
+		ret.examSparsity();
+		
+		return ret;
+	}
+	
+	//////////////////////////////////////////
+	// Block meta data and access
+	
+	@Override
+	public boolean isAllocated() {
+		return (_colGroups != null);
+	}
+	
+	@Override
+	public boolean isEmptyBlock(boolean safe) {
+		return (_colGroups == null || nonZeros == 0);
+	}
+	
+	@Override
+	public double quickGetValue(int r, int c) {
+		//find column group of given column and probe value
+		for( ColGroup grp : _colGroups )
+			if( Arrays.binarySearch(grp.getColIndices(), c) >= 0 )
+				return grp.get(r, c);
+		return 0;
+	}
+	
+	@Override
+	public double getValue(int r, int c) {
+		return quickGetValue(r, c);
+	}
+	
+	@Override
+	public void recomputeNonZeros() {
+		long nnz = 0;
+		if( _colGroups != null )
+			for( ColGroup grp : _colGroups )
+				nnz += grp.getNumberNonZeros();
+		nonZeros = nnz;
+	}
+	
+	@Override
+	public void examSparsity() {
+		//do nothing, compressed representation is kept as is
+	}
+	
+	/**
+	 * Obtain an upper bound on the memory used to store the compressed block.
+	 * 
+	 * @return an upper bound on the memory used to store this compressed block
+	 *         considering class overhead.
+	 */
+	public long estimateCompressedSizeInMemory() {
+		//base matrix block header and list of column groups 
+		long total = 44 + 8 + 32 + 8L * ((_colGroups!=null) ? _colGroups.size() : 0);
+		if( _colGroups != null )
+			for( ColGroup grp : _colGroups )
+				total += grp.estimateInMemorySize();
+		return total;
+	}
+	
+	//////////////////////////////////////////
+	// Serialization / Deserialization
+	
+	@Override
+	public long getInMemorySize() {
+		return estimateCompressedSizeInMemory();
+	}
+	
+	@Override
+	public long getExactSizeOnDisk() {
+		//header information
+		long ret = 20; 
+		for( ColGroup grp : _colGroups ) {
+			ret += 1; //type info
+			ret += grp.getExactSizeOnDisk();
+		}
+		return ret;
+	}
+	
+	@Override
+	public boolean isShallowSerialize() {
+		//always shallow serialize compressed blocks in the buffer pool
+		return true;
+	}
+	
+	@Override
+	public void compactEmptyBlock() {
+		//do nothing
+	}
+	
+	@Override
+	public void readFields(DataInput in) 
+		throws IOException 
+	{
+		//deserialize meta data
+		rlen = in.readInt();
+		clen = in.readInt();
+		nonZeros = in.readLong();
+		int ncolGroups = in.readInt();
+		
+		//deserialize individual column groups
+		_colGroups = new ArrayList<ColGroup>(ncolGroups);
+		for( int i=0; i<ncolGroups; i++ ) {
+			CompressionType ctype = CompressionType.values()[in.readByte()];
+			ColGroup grp = null;
+			switch( ctype ) {
+				case UNCOMPRESSED: grp = new ColGroupUncompressed(); break;
+				case OLE_BITMAP:   grp = new ColGroupOLE(); break;
+				case RLE_BITMAP:   grp = new ColGroupRLE(); break;
+			}
+			grp.readFields(in);
+			_colGroups.add(grp);
+		}
+	}
+	
+	@Override
+	public void write(DataOutput out) 
+		throws IOException 
+	{
+		//serialize meta data
+		out.writeInt(rlen);
+		out.writeInt(clen);
+		out.writeLong(nonZeros);
+		out.writeInt(_colGroups.size());
+		
+		//serialize individual column groups
+		for( ColGroup grp : _colGroups ) {
+			out.writeByte( grp.getCompType().ordinal() );
+			grp.write(out);
+		}
+	}
+	
+	//////////////////////////////////////////
+	// Operations (compressed)
+	
+	@Override
+	public MatrixValue aggregateBinaryOperations(MatrixIndexes m1Index, MatrixValue m1Value, MatrixIndexes m2Index, MatrixValue m2Value, 
+			MatrixValue result, AggregateBinaryOperator op ) 
+		throws DMLRuntimeException
+	{
+		return aggregateBinaryOperations(m1Value, m2Value, result, op);
+	}
+	
+	@Override
+	public MatrixValue aggregateBinaryOperations(MatrixValue mv1, MatrixValue mv2, MatrixValue result, AggregateBinaryOperator op) 
+		throws DMLRuntimeException 
+	{
+		MatrixBlock m1 = (MatrixBlock) mv1;
+		MatrixBlock m2 = (MatrixBlock) mv2;
+		
+		//check dimensions and operator
+		if( m1.getNumColumns() != m2.getNumRows() )
+			throw new DMLRuntimeException("Dimensions do not match for matrix multiplication ("+m1.getNumColumns()+"!="+m2.getNumRows()+").");
+		if( !(op.binaryFn instanceof Multiply && op.aggOp.increOp.fn instanceof Plus) )
+			throw new DMLRuntimeException("Unsupported binary aggregate operation: ("+op.binaryFn+", "+op.aggOp+").");
+		
+		//decompress right-hand-side if both inputs are compressed
+		if( m1 == this && m2 instanceof CompressedMatrixBlock )
+			m2 = ((CompressedMatrixBlock)m2).decompress(op.getNumThreads());
+		
+		//prepare result
+		int rl = m1.getNumRows();
+		int cl = m2.getNumColumns();
+		MatrixBlock ret = (result==null) ? new MatrixBlock(rl, cl, false) : (MatrixBlock) result;
+		ret.reset(rl, cl, false);
+		if( m1.isEmptyBlock(false) || m2.isEmptyBlock(false) )
+			return ret;
+		ret.allocateDenseBlock();
+		double[] c = ret.getDenseBlock();
+		int k = op.getNumThreads();
+		
+		if( m1 == this ) {
+			//compressed matrix - uncompressed matrix/vector, via transposed 
+			//rhs for efficient column extraction, and column-major output
+			MatrixBlock m2t = new MatrixBlock(cl, m2.getNumRows(), m2.isInSparseFormat());
+			LibMatrixReorg.reorg(m2, m2t, new ReorgOperator(SwapIndex.getSwapIndexFnObject()));
+			double[][] tmp = new double[cl][rlen];
+			double[][] b = new double[cl][];
+			for( int j=0; j<cl; j++ )
+				b[j] = getDenseRow(m2t, j, new double[clen]);
+			rightMultByMatrix(b, tmp, k);
+			for( int j=0; j<cl; j++ )
+				for( int i=0, cix=j; i<rl; i++, cix+=cl )
+					c[cix] = tmp[j][i];
+		}
+		else {
+			//uncompressed row vector/matrix - compressed matrix, row by row 
+			//(multiple rows of the lhs are processed per group for locality)
+			double[][] a = new double[rl][];
+			double[][] tmp = new double[rl][clen];
+			for( int i=0; i<rl; i++ )
+				a[i] = getDenseRow(m1, i, new double[rlen]);
+			leftMultByMatrix(a, tmp, k);
+			for( int i=0; i<rl; i++ )
+				System.arraycopy(tmp[i], 0, c, i*cl, cl);
+		}
+		
+		//post-processing
+		ret.recomputeNonZeros();
+		ret.examSparsity();
+		return ret;
+	}
+	
+	@Override
+	public MatrixBlock chainMatrixMultOperations(MatrixBlock v, MatrixBlock w, MatrixBlock out, ChainType ctype, int k) 
+		throws DMLRuntimeException 
+	{
+		//check for supported types
+		if( !(ctype == ChainType.XtXv || ctype == ChainType.XtwXv || ctype == ChainType.XtXvy) )
+			throw new DMLRuntimeException("Invalid mmchain type '"+ctype.toString()+"'.");
+		
+		//check for matching dimensions
+		if( clen != v.getNumRows() )
+			throw new DMLRuntimeException("Dimensions mismatch on mmchain operation ("+clen+" != "+v.getNumRows()+")");
+		if( v.getNumColumns() != 1 )
+			throw new DMLRuntimeException("Invalid input vector (column vector expected, but ncol="+v.getNumColumns()+")");
+		if( w!=null && w.getNumColumns() != 1 )
+			throw new DMLRuntimeException("Invalid weight vector (column vector expected, but ncol="+w.getNumColumns()+")");
+		
+		//prepare result
+		if( out != null )
+			out.reset(clen, 1, false);
+		else 
+			out = new MatrixBlock(clen, 1, false);
+		
+		//empty block handling
+		if( isEmptyBlock(false) ) 
+			return out;
+		
+		//compute first matrix-vector product: tmp = X %*% v
+		double[] b = getDenseColumn(v, 0, new double[clen]);
+		double[][] tmp = new double[1][rlen];
+		rightMultByMatrix(new double[][]{b}, tmp, k);
+		
+		//multiply/subtract weights, if required
+		if( ctype == ChainType.XtwXv || ctype == ChainType.XtXvy ) {
+			double[] wvals = getDenseColumn(w, 0, new double[rlen]);
+			boolean weights = (ctype == ChainType.XtwXv);
+			for( int i=0; i<rlen; i++ )
+				tmp[0][i] = weights ? tmp[0][i] * wvals[i] : tmp[0][i] - wvals[i];
+		}
+		
+		//compute second matrix-vector product: out = t(X) %*% tmp
+		double[][] c = new double[1][clen];
+		leftMultByMatrix(tmp, c, k);
+		out.allocateDenseBlock();
+		System.arraycopy(c[0], 0, out.getDenseBlock(), 0, clen);
+		
+		//post-processing
+		out.recomputeNonZeros();
+		out.examSparsity();
+		return out;
+	}
+	
+	@Override
+	public MatrixBlock transposeSelfMatrixMultOperations(MatrixBlock out, MMTSJType tstype, int k) 
+		throws DMLRuntimeException 
+	{
+		//check for transpose type
+		if( !(tstype == MMTSJType.LEFT || tstype == MMTSJType.RIGHT) )
+			throw new DMLRuntimeException("Invalid MMTSJ type '"+tstype.toString()+"'.");
+		
+		//right transpose requires row access, so we fall back to uncompressed 
+		if( tstype == MMTSJType.RIGHT ) {
+			LOG.debug("Transpose-self matrix mult of type RIGHT on decompressed block.");
+			return decompress(k).transposeSelfMatrixMultOperations(out, tstype, k);
+		}
+		
+		//create output matrix block
+		if( out == null )
+			out = new MatrixBlock(clen, clen, false);
+		else
+			out.reset(clen, clen, false);
+		if( isEmptyBlock(false) )
+			return out;
+		out.allocateDenseBlock();
+		
+		//compute t(X) %*% X row by row, i.e., t(X[,i]) %*% X (in parallel over columns)
+		try {
+			if( k > 1 && clen > 1 ) {
+				ExecutorService pool = Executors.newFixedThreadPool( k );
+				ArrayList<MatrixMultTransposeTask> tasks = new ArrayList<MatrixMultTransposeTask>();
+				int blklen = (int)(Math.ceil((double)clen/k));
+				for( int i=0; i<k & i*blklen<clen; i++ )
+					tasks.add(new MatrixMultTransposeTask(this, out, i*blklen, Math.min((i+1)*blklen, clen)));
+				List<Future<Object>> ret = pool.invokeAll(tasks);
+				pool.shutdown();
+				for( Future<Object> rt : ret )
+					rt.get(); //error handling
+			}
+			else {
+				leftMultTransposeSelf(out, 0, clen);
+			}
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		//post-processing
+		out.recomputeNonZeros();
+		out.examSparsity();
+		return out;
+	}
+	
+	@Override
+	public MatrixValue aggregateUnaryOperations(AggregateUnaryOperator op, MatrixValue result, 
+			int blockingFactorRow, int blockingFactorCol, MatrixIndexes indexesIn, boolean inCP) 
+		throws DMLRuntimeException
+	{
+		//fall back to uncompressed for unsupported operations
+		if( !isSupportedUnaryAggregateOperator(op) ) {
+			LOG.debug("Unary aggregate "+op.aggOp.increOp.fn+" on decompressed block.");
+			return decompress(op.getNumThreads()).aggregateUnaryOperations(
+				op, result, blockingFactorRow, blockingFactorCol, indexesIn, inCP);
+		}
+		
+		//prepare output dimensions (incl correction column/row)
+		boolean rowAgg = (op.indexFn instanceof ReduceCol);
+		boolean colAgg = (op.indexFn instanceof ReduceRow);
+		int tlen = rowAgg ? rlen : colAgg ? clen : 1;
+		int rl = rowAgg ? rlen : 1;
+		int cl = colAgg ? clen : 1;
+		if( op.aggOp.correctionExists ) {
+			switch( op.aggOp.correctionLocation ) {
+				case LASTROW:    rl++; break;
+				case LASTCOLUMN: cl++; break;
+				default:
+					throw new DMLRuntimeException("Unsupported correction location: "+op.aggOp.correctionLocation);
+			}
+		}
+		
+		//aggregate column groups (in parallel over groups if k>1)
+		double[] tmp = new double[tlen];
+		if( op.aggOp.increOp.fn instanceof Builtin )
+			Arrays.fill(tmp, op.aggOp.initialValue);
+		int k = op.getNumThreads();
+		if( k > 1 && _colGroups.size() > 1 ) {
+			try {
+				ExecutorService pool = Executors.newFixedThreadPool( k );
+				ArrayList<UnaryAggregateTask> tasks = new ArrayList<UnaryAggregateTask>();
+				int blklen = (int)(Math.ceil((double)_colGroups.size()/k));
+				for( int i=0; i<k & i*blklen<_colGroups.size(); i++ ) {
+					List<ColGroup> grps = _colGroups.subList(i*blklen, Math.min((i+1)*blklen, _colGroups.size()));
+					tasks.add(new UnaryAggregateTask(grps, op, tlen));
+				}
+				List<Future<double[]>> rtasks = pool.invokeAll(tasks);
+				pool.shutdown();
+				
+				//aggregate partial results
+				for( Future<double[]> rtask : rtasks ) {
+					double[] partial = rtask.get();
+					if( op.aggOp.increOp.fn instanceof Builtin ) {
+						Builtin builtin = (Builtin) op.aggOp.increOp.fn;
+						for( int i=0; i<tlen; i++ )
+							tmp[i] = builtin.execute2(tmp[i], partial[i]);
+					}
+					else {
+						for( int i=0; i<tlen; i++ )
+							tmp[i] += partial[i];
+					}
+				}
+			}
+			catch(Exception ex) {
+				throw new DMLRuntimeException(ex);
+			}
+		}
+		else {
+			for( ColGroup grp : _colGroups )
+				grp.unaryAggregateOperations(op, tmp);
+		}
+		
+		//copy aggregates into output (correction remains zero)
+		MatrixBlock ret = (result==null) ? new MatrixBlock(rl, cl, false) : (MatrixBlock) result;
+		ret.reset(rl, cl, false);
+		ret.allocateDenseBlock();
+		double[] c = ret.getDenseBlock();
+		for( int i=0; i<tlen; i++ )
+			c[rowAgg ? i*cl : i] = tmp[i];
+		ret.recomputeNonZeros();
+		
+		//drop correction if necessary
+		if( op.aggOp.correctionExists && inCP )
+			ret.dropLastRowsOrColums(op.aggOp.correctionLocation);
+		
+		return ret;
+	}
+	
+	/**
+	 * 
+	 * @param op
+	 * @return
+	 */
+	private static boolean isSupportedUnaryAggregateOperator(AggregateUnaryOperator op) 
+	{
+		boolean validIx = (op.indexFn instanceof ReduceAll 
+			|| op.indexFn instanceof ReduceCol || op.indexFn instanceof ReduceRow);
+		boolean validFn = false;
+		if( op.aggOp.increOp.fn instanceof KahanPlus || op.aggOp.increOp.fn instanceof KahanPlusSq )
+			validFn = true;
+		else if( op.aggOp.increOp.fn instanceof Builtin && !op.aggOp.correctionExists ) {
+			BuiltinFunctionCode bfunc = ((Builtin) op.aggOp.increOp.fn).getBuiltinFunctionCode();
+			validFn = (bfunc == BuiltinFunctionCode.MIN || bfunc == BuiltinFunctionCode.MAX);
+		}
+		return validIx && validFn;
+	}
+	
+	//////////////////////////////////////////
+	// Internal matrix multiplication kernels
+	
+	/**
+	 * Computes c[j] = X %*% b[j] for all given dense vectors (in parallel 
+	 * over row partitions if k>1).
+	 * 
+	 * @param b   dense vectors of length ncol(X)
+	 * @param c   dense output vectors of length nrow(X)
+	 * @param k   degree of parallelism
+	 * @throws DMLRuntimeException
+	 */
+	private void rightMultByMatrix(double[][] b, double[][] c, int k) 
+		throws DMLRuntimeException 
+	{
+		if( k > 1 && rlen >= 2*MIN_PAR_AGG_ROWS ) {
+			try {
+				ExecutorService pool = Executors.newFixedThreadPool( k );
+				ArrayList<RightMatrixMultTask> tasks = new ArrayList<RightMatrixMultTask>();
+				int blklen = getAlignedBlocksize((int)(Math.ceil((double)rlen/k)));
+				for( int i=0; i<k & i*blklen<rlen; i++ )
+					tasks.add(new RightMatrixMultTask(_colGroups, b, c, i*blklen, Math.min((i+1)*blklen, rlen)));
+				List<Future<Object>> ret = pool.invokeAll(tasks);
+				pool.shutdown();
+				for( Future<Object> rt : ret )
+					rt.get(); //error handling
+			}
+			catch(Exception ex) {
+				throw new DMLRuntimeException(ex);
+			}
+		}
+		else {
+			rightMultByMatrix(_colGroups, b, c, 0, rlen);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param groups
+	 * @param b
+	 * @param c
+	 * @param rl
+	 * @param ru
+	 */
+	private static void rightMultByMatrix(List<ColGroup> groups, double[][] b, double[][] c, int rl, int ru) {
+		for( int j=0; j<b.length; j++ )
+			for( ColGroup grp : groups )
+				grp.rightMultByVector(b[j], c[j], rl, ru);
+	}
+	
+	/**
+	 * Computes c[i] = a[i] %*% X for all given dense row vectors (in parallel
+	 * over column groups if k>1, which write disjoint output columns).
+	 * 
+	 * @param a   dense row vectors of length nrow(X)
+	 * @param c   dense output row vectors of length ncol(X)
+	 * @param k   degree of parallelism
+	 * @throws DMLRuntimeException
+	 */
+	private void leftMultByMatrix(double[][] a, double[][] c, int k) 
+		throws DMLRuntimeException 
+	{
+		if( k > 1 && _colGroups.size() > 1 ) {
+			try {
+				ExecutorService pool = Executors.newFixedThreadPool( k );
+				ArrayList<LeftMatrixMultTask> tasks = new ArrayList<LeftMatrixMultTask>();
+				int blklen = (int)(Math.ceil((double)_colGroups.size()/k));
+				for( int i=0; i<k & i*blklen<_colGroups.size(); i++ ) {
+					List<ColGroup> grps = _colGroups.subList(i*blklen, Math.min((i+1)*blklen, _colGroups.size()));
+					tasks.add(new LeftMatrixMultTask(grps, a, c));
+				}
+				List<Future<Object>> ret = pool.invokeAll(tasks);
+				pool.shutdown();
+				for( Future<Object> rt : ret )
+					rt.get(); //error handling
+			}
+			catch(Exception ex) {
+				throw new DMLRuntimeException(ex);
+			}
+		}
+		else {
+			leftMultByMatrix(_colGroups, a, c);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param groups
+	 * @param a
+	 * @param c
+	 */
+	private static void leftMultByMatrix(List<ColGroup> groups, double[][] a, double[][] c) {
+		for( ColGroup grp : groups )
+			for( int i=0; i<a.length; i++ )
+				grp.leftMultByRowVector(a[i], c[i]);
+	}
+	
+	/**
+	 * Computes the rows [cl,cu) of t(X) %*% X, where each row i is computed 
+	 * as t(X[,i]) %*% X, with the column X[,i] obtained via a right mult with 
+	 * the i-th unit vector.
+	 * 
+	 * @param out
+	 * @param cl
+	 * @param cu
+	 */
+	private void leftMultTransposeSelf(MatrixBlock out, int cl, int cu) 
+	{
+		double[] c = out.getDenseBlock();
+		double[] e = new double[clen];
+		double[] a = new double[rlen];
+		double[] row = new double[clen];
+		
+		for( int i=cl; i<cu; i++ ) {
+			//extract column i
+			ColGroup grp = getColGroup(i);
+			Arrays.fill(a, 0);
+			e[i] = 1;
+			grp.rightMultByVector(e, a, 0, rlen);
+			e[i] = 0;
+			
+			//compute row i of output
+			Arrays.fill(row, 0);
+			for( ColGroup grp2 : _colGroups )
+				grp2.leftMultByRowVector(a, row);
+			System.arraycopy(row, 0, c, i*clen, clen);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param c
+	 * @return
+	 */
+	private ColGroup getColGroup(int c) {
+		for( ColGroup grp : _colGroups )
+			if( Arrays.binarySearch(grp.getColIndices(), c) >= 0 )
+				return grp;
+		throw new RuntimeException("Column "+c+" not covered by column groups.");
+	}
+	
+	/**
+	 * 
+	 * @param mb
+	 * @param r
+	 * @param buff
+	 * @return
+	 */
+	private static double[] getDenseRow(MatrixBlock mb, int r, double[] buff) 
+	{
+		if( mb.isEmptyBlock(false) )
+			return buff;
+		if( mb.isInSparseFormat() ) {
+			SparseBlock a = mb.getSparseBlock();
+			if( !a.isEmpty(r) ) {
+				int apos = a.pos(r);
+				int alen = a.size(r);
+				int[] aix = a.indexes(r);
+				double[] avals = a.values(r);
+				for( int k=apos; k<apos+alen; k++ )
+					buff[aix[k]] = avals[k];
+			}
+		}
+		else {
+			int n = mb.getNumColumns();
+			System.arraycopy(mb.getDenseBlock(), r*n, buff, 0, n);
+		}
+		return buff;
+	}
+	
+	/**
+	 * 
+	 * @param mb
+	 * @param c
+	 * @param buff
+	 * @return
+	 */
+	private static double[] getDenseColumn(MatrixBlock mb, int c, double[] buff) {
+		for( int i=0; i<mb.getNumRows(); i++ )
+			buff[i] = mb.quickGetValue(i, c);
+		return buff;
+	}
+	
+	/**
+	 * Aligns the given block size to the OLE segment size, in order 
+	 * to avoid redundant segment scans at row partition boundaries.
+	 * 
+	 * @param blklen
+	 * @return
+	 */
+	private static int getAlignedBlocksize(int blklen) {
+		return blklen + ((blklen % BitmapEncoder.BITMAP_BLOCK_SZ != 0) ? 
+			BitmapEncoder.BITMAP_BLOCK_SZ - blklen % BitmapEncoder.BITMAP_BLOCK_SZ : 0);
+	}
+	
+	//////////////////////////////////////////
+	// Task Implementations 
+	
+	private static class CompressTask implements Callable<Object> 
+	{
+		private final MatrixBlock _rawblock;
+		private final ColGroup[] _groups;
+		private final int _cl;
+		private final int _cu;
+		private final boolean _sparse;
+		
+		protected CompressTask( MatrixBlock rawblock, ColGroup[] groups, int cl, int cu, boolean sparse ) {
+			_rawblock = rawblock;
+			_groups = groups;
+			_cl = cl;
+			_cu = cu;
+			_sparse = sparse;
+		}
+		
+		@Override
+		public Object call() throws DMLRuntimeException {
+			compressColumns(_rawblock, _groups, _cl, _cu, _sparse);
+			return null;
+		}
+	}
+	
+	private static class DecompressTask implements Callable<Object> 
+	{
+		private final List<ColGroup> _colGroups;
+		private final MatrixBlock _ret;
+		private final int _rl;
+		private final int _ru;
+		
+		protected DecompressTask( List<ColGroup> colGroups, MatrixBlock ret, int rl, int ru ) {
+			_colGroups = colGroups;
+			_ret = ret;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Object call() throws DMLRuntimeException {
+			for( ColGroup grp : _colGroups )
+				grp.decompressToBlock(_ret, _rl, _ru);
+			return null;
+		}
+	}
+	
+	private static class RightMatrixMultTask implements Callable<Object> 
+	{
+		private final List<ColGroup> _groups;
+		private final double[][] _b;
+		private final double[][] _c;
+		private final int _rl;
+		private final int _ru;
+		
+		protected RightMatrixMultTask( List<ColGroup> groups, double[][] b, double[][] c, int rl, int ru ) {
+			_groups = groups;
+			_b = b;
+			_c = c;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Object call() throws DMLRuntimeException {
+			rightMultByMatrix(_groups, _b, _c, _rl, _ru);
+			return null;
+		}
+	}
+	
+	private static class LeftMatrixMultTask implements Callable<Object> 
+	{
+		private final List<ColGroup> _groups;
+		private final double[][] _a;
+		private final double[][] _c;
+		
+		protected LeftMatrixMultTask( List<ColGroup> groups, double[][] a, double[][] c ) {
+			_groups = groups;
+			_a = a;
+			_c = c;
+		}
+		
+		@Override
+		public Object call() throws DMLRuntimeException {
+			leftMultByMatrix(_groups, _a, _c);
+			return null;
+		}
+	}
+	
+	private static class MatrixMultTransposeTask implements Callable<Object> 
+	{
+		private final CompressedMatrixBlock _in;
+		private final MatrixBlock _out;
+		private final int _cl;
+		private final int _cu;
+		
+		protected MatrixMultTransposeTask( CompressedMatrixBlock in, MatrixBlock out, int cl, int cu ) {
+			_in = in;
+			_out = out;
+			_cl = cl;
+			_cu = cu;
+		}
+		
+		@Override
+		public Object call() throws DMLRuntimeException {
+			_in.leftMultTransposeSelf(_out, _cl, _cu);
+			return null;
+		}
+	}
+	
+	private static class UnaryAggregateTask implements Callable<double[]> 
+	{
+		private final List<ColGroup> _groups;
+		private final AggregateUnaryOperator _op;
+		private final int _len;
+		
+		protected UnaryAggregateTask( List<ColGroup> groups, AggregateUnaryOperator op, int len ) {
+			_groups = groups;
+			_op = op;
+			_len = len;
+		}
+		
+		@Override
+		public double[] call() throws DMLRuntimeException {
+			double[] ret = new double[_len];
+			if( _op.aggOp.increOp.fn instanceof Builtin )
+				Arrays.fill(ret, _op.aggOp.initialValue);
+			for( ColGroup grp : _groups )
+				grp.unaryAggregateOperations(_op, ret);
+			return ret;
+		}
+	}
+}
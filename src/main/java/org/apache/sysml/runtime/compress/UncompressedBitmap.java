@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.compress;
+
+import java.util.Arrays;
+
+import org.apache.sysml.runtime.compress.utils.DoubleIntListHashMap;
+import org.apache.sysml.runtime.compress.utils.DoubleIntListHashMap.DIListEntry;
+
+/** 
+ * Uncompressed representation of one or more columns in bitmap format, i.e., 
+ * the distinct non-zero values of a column and the sorted row offsets of 
+ * each distinct value. This is the intermediate format from which the 
+ * compressed column groups are constructed.
+ */
+public final class UncompressedBitmap 
+{
+	private final int _numCols;
+
+	/** Distinct values that appear in the column. Linearized as value groups <v11 v12> <v21 v22>.*/
+	private double[] _values;
+
+	/** Bitmaps (as lists of offsets) for each of the values. */
+	private int[][] _offsetsLists;
+
+	/** Number of valid offsets per value, i.e., the length of each offsets list. */
+	private int[] _offsetsLens;
+
+	public UncompressedBitmap( DoubleIntListHashMap distinctVals ) {
+		//prepare meta data
+		int numVals = distinctVals.size();
+		_numCols = 1;
+		_values = new double[numVals];
+		_offsetsLists = new int[numVals][];
+		_offsetsLens = new int[numVals];
+
+		//sort entries by value for deterministic order of column groups
+		DIListEntry[] entries = distinctVals.extractValues()
+				.toArray(new DIListEntry[numVals]);
+		Arrays.sort(entries, new java.util.Comparator<DIListEntry>() {
+			@Override
+			public int compare(DIListEntry o1, DIListEntry o2) {
+				return Double.compare(o1.key, o2.key);
+			}
+		});
+		
+		//materialize values and offset lists
+		for( int i=0; i<numVals; i++ ) {
+			_values[i] = entries[i].key;
+			_offsetsLists[i] = entries[i].value.extractValues();
+			_offsetsLens[i] = entries[i].value.size();
+		}
+	}
+
+	public int getNumColumns() {
+		return _numCols;
+	}
+
+	/**
+	 * @return all the distinct values that appear in the column, 
+	 *         linearized as value groups of length getNumColumns() 
+	 */
+	public double[] getValues() {
+		return _values;
+	}
+
+	/**
+	 * @param ix   index of a particular distinct value
+	 * @return the tuple of column values associated with the specified index
+	 */
+	public double[] getValues(int ix) {
+		return Arrays.copyOfRange(_values, ix * _numCols, (ix+1) * _numCols);
+	}
+
+	/**
+	 * @return number of distinct values in the column; this number is also the
+	 *         number of bitmaps, since there is one bitmap per value
+	 */
+	public int getNumValues() {
+		return _values.length / _numCols;
+	}
+
+	/**
+	 * @param ix   index of a particular distinct value
+	 * @return IMMUTABLE array of the offsets of the rows containing the value
+	 *         with the indicated index; might be physically larger than the 
+	 *         number of valid offsets, see getNumOffsets(ix)
+	 */
+	public int[] getOffsetsList(int ix) {
+		return _offsetsLists[ix];
+	}
+
+	/**
+	 * @param ix   index of a particular distinct value
+	 * @return number of valid offsets of the value with the indicated index
+	 */
+	public int getNumOffsets(int ix) {
+		return _offsetsLens[ix];
+	}
+	
+	/**
+	 * @return total number of offsets over all distinct values, i.e.,
+	 *         the number of non-zeros of the column
+	 */
+	public long getNumOffsets() {
+		long ret = 0;
+		for( int len : _offsetsLens )
+			ret += len;
+		return ret;
+	}
+}
@@ -136,6 +136,7 @@ public class ForProgramBlock extends ProgramBlock
 		{
 			// prepare update in-place variables
 			UpdateType[] flags = prepareUpdateInPlaceVariables(ec);
+			setLoopInvariantHints(ec, true);
 			
 			// run for loop body for each instance of predicate sequence 
 			SequenceIterator seqIter = new SequenceIterator(iterVarName, from, to, incr);
@@ -153,6 +154,7 @@ public class ForProgramBlock extends ProgramBlock
 			
 			// reset update-in-place variables
 			resetUpdateInPlaceVariableFlags(ec, flags);
+			setLoopInvariantHints(ec, false);
 		}
 		catch (DMLScriptException e) {
 			//propagate stop call
@@ -54,12 +54,15 @@ import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
 import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
 import org.apache.sysml.runtime.controlprogram.parfor.DataPartitioner;
 import org.apache.sysml.runtime.controlprogram.parfor.DataPartitionerLocal;
+import org.apache.sysml.runtime.controlprogram.parfor.DataPartitionerLocalMemory;
 import org.apache.sysml.runtime.controlprogram.parfor.DataPartitionerRemoteMR;
 import org.apache.sysml.runtime.controlprogram.parfor.DataPartitionerRemoteSpark;
 import org.apache.sysml.runtime.controlprogram.parfor.LocalParWorker;
 import org.apache.sysml.runtime.controlprogram.parfor.LocalTaskQueue;
+import org.apache.sysml.runtime.controlprogram.parfor.LocalTaskQueueWorkStealing;
 import org.apache.sysml.runtime.controlprogram.parfor.ParForBody;
 import org.apache.sysml.runtime.controlprogram.parfor.ProgramConverter;
+import org.apache.sysml.runtime.controlprogram.parfor.ProgramConverterBinary;
 import org.apache.sysml.runtime.controlprogram.parfor.RemoteDPParForMR;
 import org.apache.sysml.runtime.controlprogram.parfor.RemoteDPParForSpark;
 import org.apache.sysml.runtime.controlprogram.parfor.RemoteParForJobReturn;
@@ -79,6 +82,7 @@ import org.apache.sysml.runtime.controlprogram.parfor.TaskPartitionerFactoringCm
 import org.apache.sysml.runtime.controlprogram.parfor.TaskPartitionerFixedsize;
 import org.apache.sysml.runtime.controlprogram.parfor.TaskPartitionerNaive;
 import org.apache.sysml.runtime.controlprogram.parfor.TaskPartitionerStatic;
+import org.apache.sysml.runtime.controlprogram.parfor.TaskPartitionerWorkStealing;
 import org.apache.sysml.runtime.controlprogram.parfor.mqo.RuntimePiggybacking;
 import org.apache.sysml.runtime.controlprogram.parfor.opt.CostEstimator;
 import org.apache.sysml.runtime.controlprogram.parfor.opt.CostEstimatorHops;
@@ -136,6 +140,7 @@ public class ParForProgramBlock extends ForProgramBlock
 		FACTORING,  //factoring task partitioner  
 		FACTORING_CMIN,  //constrained factoring task partitioner, uses tasksize as min constraint
 		FACTORING_CMAX,  //constrained factoring task partitioner, uses tasksize as max constraint
+		WORK_STEALING,   //work-stealing task partitioner (local only, per-worker deques w/ range splitting), uses tasksize as chunk size
 		UNSPECIFIED
 	}
 	
@@ -180,6 +185,7 @@ public class ParForProgramBlock extends ForProgramBlock
 	public enum PDataPartitioner {
 		NONE,       // no data partitioning
 		LOCAL,      // local file based partition split on master node
+		LOCAL_MEM,  // local in-memory partitioning (partition reads sliced from in-memory input)
 		REMOTE_MR,  // remote partition split using a reblock MR job 
 		REMOTE_SPARK, // remote partition split using a spark job
 		UNSPECIFIED, 
@@ -212,8 +218,10 @@ public class ParForProgramBlock extends ForProgramBlock
 	public static final boolean ALLOW_NESTED_PARALLELISM	= true;    // if not, transparently change parfor to for on program conversions (local,remote)
 	public static       boolean ALLOW_REUSE_MR_JVMS         = true;    // potential benefits: less setup costs per task, NOTE> cannot be used MR4490 in Hadoop 1.0.3, still not fixed in 1.1.1
 	public static       boolean ALLOW_REUSE_MR_PAR_WORKER   = ALLOW_REUSE_MR_JVMS; //potential benefits: less initialization, reuse in-memory objects and result consolidation!
+	public static       boolean ALLOW_REUSE_SPARK_PAR_WORKER = true;   // reuse parsed parfor bodies and in-memory objects across tasks/jobs per spark executor
 	public static final boolean USE_PARALLEL_RESULT_MERGE   = false;    // if result merge is run in parallel or serial 
 	public static final boolean USE_PARALLEL_RESULT_MERGE_REMOTE = true; // if remote result merge should be run in parallel for multiple result vars
+	public static final boolean USE_PARALLEL_RESULT_MERGE_LOCAL_MEM = true; // if local in-memory result merge should run in parallel over disjoint row partitions
 	public static final boolean ALLOW_DATA_COLOCATION       = true;
 	public static final boolean CREATE_UNSCOPED_RESULTVARS  = true;
 	public static       boolean ALLOW_REUSE_PARTITION_VARS  = true; //reuse partition input matrices, applied only if read-only in surrounding loops
@@ -713,7 +721,8 @@ public class ParForProgramBlock extends ForProgramBlock
 		try
 		{
 			// Step 1) init parallel workers, task queue and threads
-			LocalTaskQueue<Task> queue = new LocalTaskQueue<Task>();
+			LocalTaskQueue<Task> queue = (_taskPartitioner == PTaskPartitioner.WORK_STEALING) ?
+				new LocalTaskQueueWorkStealing(_numThreads, _taskSize) : new LocalTaskQueue<Task>();
 			Thread[] threads         = new Thread[_numThreads];
 			LocalParWorker[] workers = new LocalParWorker[_numThreads];
 			for( int i=0; i<_numThreads; i++ )
@@ -721,6 +730,7 @@ public class ParForProgramBlock extends ForProgramBlock
 				//create parallel workers as (lazy) deep copies
 				//including preparation of update-in-place variables
 				workers[i] = createParallelWorker( _pwIDs[i], queue, ec ); 
+				workers[i].setWorkerIndex( i );
 				threads[i] = new Thread( workers[i] );
 				threads[i].setPriority(Thread.MAX_PRIORITY); 
 			}
@@ -764,6 +774,10 @@ public class ParForProgramBlock extends ForProgramBlock
 			for( Thread thread : threads )
 				thread.join();
 			
+			//work-stealing re-chunks tasks (executed tasks > created tasks)
+			if( queue instanceof LocalTaskQueueWorkStealing )
+				numCreatedTasks = ((LocalTaskQueueWorkStealing)queue).getNumDequeuedTasks();
+			
 			if( _monitor ) 
 				StatisticMonitor.putPFStat(_ID, Stat.PARFOR_WAIT_EXEC_T, time.stop());
 				
@@ -1017,7 +1031,7 @@ public class ParForProgramBlock extends ForProgramBlock
 		// NOTES: each mapper changes filenames with regard to his ID as we submit a single job,
 		//        cannot reuse serialized string, since variables are serialized as well.
 		ParForBody body = new ParForBody( _childBlocks, _resultVars, ec );
-		String program = ProgramConverter.serializeParForBody( body );
+		byte[] program = ProgramConverterBinary.serializeParForBody( body );
 		
 		if( _monitor ) 
 			StatisticMonitor.putPFStat(_ID, Stat.PARFOR_INIT_PARWRK_T, time.stop());
@@ -1080,7 +1094,7 @@ public class ParForProgramBlock extends ForProgramBlock
 		// NOTES: each mapper changes filenames with regard to his ID as we submit a single job,
 		//        cannot reuse serialized string, since variables are serialized as well.
 		ParForBody body = new ParForBody( _childBlocks, _resultVars, ec );
-		String program = ProgramConverter.serializeParForBody( body );
+		byte[] program = ProgramConverterBinary.serializeParForBody( body );
 		
 		if( _monitor ) 
 			StatisticMonitor.putPFStat(_ID, Stat.PARFOR_INIT_PARWRK_T, time.stop());
@@ -1185,6 +1199,7 @@ public class ParForProgramBlock extends ForProgramBlock
 						//store original and partitioned matrix (for reuse if applicable)
 						_variablesDPOriginal.put(var, moVar);
 						if(    ALLOW_REUSE_PARTITION_VARS 
+							&& !((MatrixObject)dpdatNew).isPartitionedInMemory() //cheap to recreate
 							&& ProgramRecompiler.isApplicableForReuseVariable(sb.getDMLProg(), sb, var) ) 
 						{
 							_variablesDPReuse.put(var, dpdatNew);
@@ -1483,6 +1498,11 @@ public class ParForProgramBlock extends ForProgramBlock
 				tp = new TaskPartitionerFactoringCmax( _taskSize,_numThreads, _taskSize, _iterablePredicateVars[0],
 							                       from, to, incr );
 				break;	
+			case WORK_STEALING:
+				//initial per-worker ranges, chunking and stealing by LocalTaskQueueWorkStealing
+				tp = new TaskPartitionerWorkStealing( _taskSize, _numThreads, _iterablePredicateVars[0],
+							                       from, to, incr );
+				break;
 			default:
 				throw new DMLRuntimeException("Undefined task partitioner: '"+_taskPartitioner+"'.");
 		}
@@ -1518,6 +1538,13 @@ public class ParForProgramBlock extends ForProgramBlock
 			case LOCAL:
 				dp = new DataPartitionerLocal(dpf, -1, _numThreads);
 				break;
+			case LOCAL_MEM:
+				//in-memory partitions only valid for local parworkers (fallback file-based)
+				if( _execMode == PExecMode.LOCAL )
+					dp = new DataPartitionerLocalMemory(dpf, -1);
+				else
+					dp = new DataPartitionerLocal(dpf, -1, _numThreads);
+				break;
 			case REMOTE_MR:
 				dp = new DataPartitionerRemoteMR( dpf, -1, _ID, numRed,
 						                          _replicationDP, 
@@ -1783,7 +1810,8 @@ public class ParForProgramBlock extends ForProgramBlock
 					String fname = constructResultMergeFileName();
 					ResultMerge rm = createResultMerge(_resultMerge, out, in, fname, ec);
 					MatrixObject outNew = null;
-					if( USE_PARALLEL_RESULT_MERGE )
+					if( USE_PARALLEL_RESULT_MERGE || (USE_PARALLEL_RESULT_MERGE_LOCAL_MEM 
+						&& rm instanceof ResultMergeLocalMemory && _numThreads > 1) )
 						outNew = rm.executeParallelMerge( _numThreads );
 					else
 						outNew = rm.executeSerialMerge(); 		
@@ -28,11 +28,16 @@ import org.apache.sysml.api.MLContextProxy;
 import org.apache.sysml.conf.ConfigurationManager;
 import org.apache.sysml.hops.Hop;
 import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.hops.recompile.RecompilePlanCache;
 import org.apache.sysml.hops.recompile.Recompiler;
 import org.apache.sysml.parser.StatementBlock;
+import org.apache.sysml.parser.VariableSet;
 import org.apache.sysml.parser.Expression.ValueType;
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.DMLScriptException;
+import org.apache.sysml.runtime.controlprogram.caching.CacheableData;
+import org.apache.sysml.runtime.controlprogram.caching.LazyWriteBuffer;
+import org.apache.sysml.runtime.controlprogram.caching.LazyWriteBuffer.RPolicy;
 import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
 import org.apache.sysml.runtime.controlprogram.caching.MatrixObject.UpdateType;
 import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
@@ -62,6 +67,9 @@ public class ProgramBlock
 	protected StatementBlock _sb = null;
 	protected long _tid = 0; //by default _t0
 	
+	//cache of recompiled instructions (keyed by size signature of inputs)
+	private RecompilePlanCache _recompileCache = null;
+	
 	
 	public ProgramBlock(Program prog) 
 		throws DMLRuntimeException 
@@ -89,6 +97,7 @@ public class ProgramBlock
 	
 	public void setStatementBlock( StatementBlock sb ){
 		_sb = sb;
+		_recompileCache = null;
 	}
 
 	public  ArrayList<Instruction> getInstructions() {
@@ -101,6 +110,7 @@ public class ProgramBlock
 	
 	public  void setInstructions( ArrayList<Instruction> inst ) {
 		_inst = inst;
+		_recompileCache = null; //invalidate recompiled plans
 	}
 	
 	public void addInstruction(Instruction inst) {
@@ -142,20 +152,46 @@ public class ProgramBlock
 				DMLAppMasterUtils.setupProgramBlockRemoteMaxMemory(this);
 			
 			long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
+			boolean cacheHit = false;
+			boolean cacheMiss = false;
 			if(    ConfigurationManager.isDynamicRecompilation() 
 				&& _sb != null 
 				&& _sb.requiresRecompilation() )
 			{
-				tmp = Recompiler.recompileHopsDag(_sb, _sb.get_hops(), ec.getVariables(), null, false, _tid);
+				//probe cache of recompiled plans for unchanged input sizes
+				String sig = OptimizerUtils.ALLOW_RECOMPILE_PLAN_CACHE ?
+					RecompilePlanCache.createSignature(_sb.get_hops(), ec.getVariables()) : null;
+				ArrayList<Instruction> cinst = (sig != null && _recompileCache != null) ? 
+					_recompileCache.getPlan(sig) : null;
 				
-				if( MLContextProxy.isActive() )
-					tmp = MLContextProxy.performCleanupAfterRecompilation(tmp);
+				if( cinst != null ) {
+					tmp = cinst;
+					cacheHit = true;
+				}
+				else {
+					tmp = Recompiler.recompileHopsDag(_sb, _sb.get_hops(), ec.getVariables(), null, false, _tid);
+					
+					if( MLContextProxy.isActive() )
+						tmp = MLContextProxy.performCleanupAfterRecompilation(tmp);
+					
+					if( sig != null ) {
+						cacheMiss = true;
+						if( _recompileCache == null )
+							_recompileCache = new RecompilePlanCache();
+						_recompileCache.putPlan(sig, tmp);
+					}
+				}
 			}
 			if( DMLScript.STATISTICS ){
 				long t1 = System.nanoTime();
 				Statistics.incrementHOPRecompileTime(t1-t0);
-				if( tmp!=_inst )
+				if( cacheHit )
+					Statistics.incrementHOPRecompileCacheHits();
+				else if( tmp!=_inst ) {
 					Statistics.incrementHOPRecompileSB();
+					if( cacheMiss )
+						Statistics.incrementHOPRecompileCacheMisses();
+				}
 			}
 		}
 		catch(Exception ex)
@@ -397,6 +433,26 @@ public class ProgramBlock
 			}
 	}
 	
+	/**
+	 * Sets or resets the buffer pool eviction hints of loop-invariant inputs,
+	 * i.e., matrices and frames that are read but not updated in the loop body.
+	 * 
+	 * @param ec
+	 * @param flag
+	 */
+	protected void setLoopInvariantHints(ExecutionContext ec, boolean flag) 
+	{
+		if( _sb == null || LazyWriteBuffer.getPolicy() != RPolicy.COST )
+			return;
+		
+		VariableSet updated = _sb.variablesUpdated();
+		for( String varname : _sb.variablesRead().getVariableNames() ) {
+			Data dat = ec.getVariable(varname);
+			if( dat instanceof CacheableData && !updated.containsVariable(varname) )
+				((CacheableData<?>)dat).setLoopInvariantHint(flag);
+		}
+	}
+	
 	/**
 	 * 
 	 * @param inst
@@ -159,6 +159,7 @@ public class WhileProgramBlock extends ProgramBlock
 		{
 			// prepare update in-place variables
 			UpdateType[] flags = prepareUpdateInPlaceVariables(ec);
+			setLoopInvariantHints(ec, true);
 			
 			//run loop body until predicate becomes false
 			while( executePredicate(ec).getBooleanValue() )
@@ -172,6 +173,7 @@ public class WhileProgramBlock extends ProgramBlock
 			
 			// reset update-in-place variables
 			resetUpdateInPlaceVariableFlags(ec, flags);
+			setLoopInvariantHints(ec, false);
 		}
 		catch (DMLScriptException e) {
 			//propagate stop call
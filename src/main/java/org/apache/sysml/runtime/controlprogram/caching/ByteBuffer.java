@@ -22,7 +22,10 @@ package org.apache.sysml.runtime.controlprogram.caching;
 import java.io.DataOutput;
 import java.io.IOException;
 
+import org.apache.sysml.runtime.compress.CompressedMatrixBlock;
+import org.apache.sysml.runtime.controlprogram.caching.LazyWriteBuffer.OffHeapType;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.OffHeapDenseBlock;
 import org.apache.sysml.runtime.util.LocalFileUtils;
 
 /**
@@ -32,16 +35,38 @@ import org.apache.sysml.runtime.util.LocalFileUtils;
  */
 public class ByteBuffer
 {
-	private boolean _serialized;	
+	private volatile boolean _serialized;
 	private boolean _shallow;
 	private long _size;
+	private String _fname;
 	
 	protected byte[]     _bdata = null; //sparse matrix
 	protected CacheBlock _cdata = null; //dense matrix/frame
 	
+	//off-heap dense matrix, incl meta data
+	protected OffHeapDenseBlock _odata = null; 
+	private int _code = -1;
+	private int _rlen = -1;
+	private int _clen = -1;
+	private long _nnz = -1;
+	
+	//access statistics and hints for cost-based eviction
+	private int _freq = 1;
+	private double _priority = 0;
+	private boolean _loopInvariant = false;
+	
+	//failed eviction (re-inserted into write buffer)
+	private boolean _evictFailed = false;
+	
 	public ByteBuffer( long size )
+	{
+		this(size, null);
+	}
+	
+	public ByteBuffer( long size, String fname )
 	{
 		_size = size;
+		_fname = fname;
 		_serialized = false;
 	}
 	
@@ -59,14 +84,28 @@ public class ByteBuffer
 		{
 			if( !_shallow ) //SPARSE/DENSE -> SPARSE
 			{
-				//deep serialize (for compression)
+				//deep serialize (for compression), incl type code
 				if( CacheableData.CACHING_BUFFER_PAGECACHE )
-					_bdata = PageCache.getPage((int)_size);
+					_bdata = PageCache.getPage((int)_size+1);
 				if( _bdata==null )
-					_bdata = new byte[(int)_size];
+					_bdata = new byte[(int)_size+1];
 				DataOutput dout = new CacheDataOutput(_bdata);
+				dout.writeByte(CacheBlockFactory.getCode(cb));
 				cb.write(dout);
 			}
+			else if( isOffHeapCandidate(cb) ) //DENSE -> OFF-HEAP DENSE
+			{
+				//copy dense block into off-heap buffers or mapped file
+				MatrixBlock mb = (MatrixBlock) cb;
+				_code = CacheBlockFactory.getCode(cb);
+				_rlen = mb.getNumRows();
+				_clen = mb.getNumColumns();
+				_nnz = mb.getNonZeros();
+				int len = _rlen * _clen;
+				_odata = (LazyWriteBuffer.getOffHeapType() == OffHeapType.MMAP) ?
+					new OffHeapDenseBlock(len, _fname+".mmap") : new OffHeapDenseBlock(len);
+				_odata.copyFrom(mb.getDenseBlock(), len);
+			}
 			else //SPARSE/DENSE -> DENSE
 			{
 				//shallow serialize
@@ -85,16 +124,26 @@ public class ByteBuffer
 	 * @return
 	 * @throws IOException
 	 */
-	public CacheBlock deserializeBlock() 
+	public synchronized CacheBlock deserializeBlock() 
 		throws IOException
 	{
 		CacheBlock ret = null;
 		
-		if( !_shallow ) { //sparse matrix 
+		if( isFreed() ) { //concurrently evicted and freed
+			return null;
+		}
+		else if( !_shallow ) { //sparse matrix 
 			CacheDataInput din = new CacheDataInput(_bdata);
-			ret = new MatrixBlock();
+			ret = CacheBlockFactory.newInstance(din.readByte());
 			ret.readFields(din);
 		}
+		else if( _odata != null ) { //off-heap dense matrix
+			MatrixBlock mb = new MatrixBlock(_rlen, _clen, false);
+			mb.allocateDenseBlock();
+			_odata.copyTo(mb.getDenseBlock(), _rlen*_clen);
+			mb.setNonZeros(_nnz);
+			ret = mb;
+		}
 		else { //dense matrix/frame
 			ret = _cdata;
 		}
@@ -112,11 +161,16 @@ public class ByteBuffer
 	{
 		if( !_shallow ) {
 			//write out byte serialized array
-			LocalFileUtils.writeByteArrayToLocal(fname, _bdata);
+			LocalFileUtils.writeByteArrayToLocal(fname, _bdata, LazyWriteBuffer.isCompressionEnabled());
+		}
+		else if( _odata != null ) {
+			//write off-heap dense block w/o heap materialization
+			LocalFileUtils.writeOffHeapDenseBlockToLocal(fname, _code, _rlen, _clen, _odata, 
+				LazyWriteBuffer.isCompressionEnabled());
 		}
 		else {
 			//serialize cache block to output stream
-			LocalFileUtils.writeCacheBlockToLocal(fname, _cdata);
+			LocalFileUtils.writeCacheBlockToLocal(fname, _cdata, LazyWriteBuffer.isCompressionEnabled());
 		}
 	}
 	
@@ -129,6 +183,38 @@ public class ByteBuffer
 		return _size;
 	}
 	
+	public int getAccessFrequency() {
+		return _freq;
+	}
+	
+	public void incrementAccessFrequency() {
+		_freq++;
+	}
+	
+	public double getPriority() {
+		return _priority;
+	}
+	
+	public void setPriority(double priority) {
+		_priority = priority;
+	}
+	
+	public boolean isLoopInvariant() {
+		return _loopInvariant;
+	}
+	
+	public void setLoopInvariant(boolean flag) {
+		_loopInvariant = flag;
+	}
+	
+	public boolean isEvictionFailed() {
+		return _evictFailed;
+	}
+	
+	public void setEvictionFailed(boolean flag) {
+		_evictFailed = flag;
+	}
+	
 	/**
 	 * 
 	 * @return
@@ -137,7 +223,7 @@ public class ByteBuffer
 		return _shallow;
 	}
 	
-	public void freeMemory()
+	public synchronized void freeMemory()
 	{
 		//clear strong references to buffer/matrix
 		if( !_shallow ) {
@@ -145,11 +231,26 @@ public class ByteBuffer
 				PageCache.putPage(_bdata);
 			_bdata = null;
 		}
+		else if( _odata != null ) {
+			_odata.free();
+			_odata = null;
+		}
 		else {
 			_cdata = null;
 		}
 	}
 	
+	/**
+	 * Indicates if the buffer memory has already been released,
+	 * which requires a read from the evicted local file.
+	 * 
+	 * @return
+	 */
+	public synchronized boolean isFreed() {
+		return _serialized && _bdata == null 
+			&& _cdata == null && _odata == null;
+	}
+	
 	/**
 	 * 
 	 */
@@ -165,6 +266,25 @@ public class ByteBuffer
 		}
 	}
 	
+	/**
+	 * Determines if the given shallow-serialized cache block is stored 
+	 * off-heap, which applies to non-empty, uncompressed dense matrix 
+	 * blocks if an off-heap write buffer is configured.
+	 * 
+	 * @param cb
+	 * @return
+	 */
+	private static boolean isOffHeapCandidate( CacheBlock cb )
+	{
+		if( LazyWriteBuffer.getOffHeapType() == OffHeapType.NONE 
+			|| !(cb instanceof MatrixBlock) || cb instanceof CompressedMatrixBlock )
+			return false;
+		
+		MatrixBlock mb = (MatrixBlock) cb;
+		return !mb.isInSparseFormat() && mb.getDenseBlock() != null
+			&& !mb.isEmptyBlock(false);
+	}
+	
 	/**
 	 * Determines if byte buffer can hold the given size given this specific cache block.
 	 * This call is consistent with 'serializeBlock' and allows for internal optimization
@@ -179,7 +299,7 @@ public class ByteBuffer
 		if( !cb.isShallowSerialize() ) { //SPARSE matrix blocks
 			// since cache blocks are serialized into a byte representation
 			// the buffer buffer can hold at most 2GB in size 
-			return ( size <= Integer.MAX_VALUE );	
+			return ( size < Integer.MAX_VALUE ); //incl type code	
 		}
 		else {//DENSE matrix / frame blocks
 			// since for dense matrix blocks we use a shallow serialize (strong reference), 
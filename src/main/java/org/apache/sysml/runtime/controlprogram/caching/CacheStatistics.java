@@ -62,6 +62,15 @@ public class CacheStatistics
 	private static AtomicLong _numWritesFS     = null;
 	private static AtomicLong _numWritesHDFS   = null;
 	
+	//eviction statistics write buffer
+	private static AtomicLong _numEvictsFSBuff = null;
+	
+	//compression statistics of evicted files
+	private static AtomicLong _compRawBytes    = null;
+	private static AtomicLong _compBytes       = null;
+	private static AtomicLong _ctimeCompress   = null; //in nano sec
+	private static AtomicLong _ctimeDecompress = null; //in nano sec
+	
 	//time statistics caching
 	private static AtomicLong _ctimeAcquireR   = null; //in nano sec
 	private static AtomicLong _ctimeAcquireM   = null; //in nano sec
@@ -85,6 +94,13 @@ public class CacheStatistics
 		_numWritesFS = new AtomicLong(0);
 		_numWritesHDFS = new AtomicLong(0);
 		
+		_numEvictsFSBuff = new AtomicLong(0);
+		
+		_compRawBytes = new AtomicLong(0);
+		_compBytes = new AtomicLong(0);
+		_ctimeCompress = new AtomicLong(0);
+		_ctimeDecompress = new AtomicLong(0);
+		
 		_ctimeAcquireR = new AtomicLong(0);
 		_ctimeAcquireM = new AtomicLong(0);
 		_ctimeRelease = new AtomicLong(0);
@@ -211,6 +227,34 @@ public class CacheStatistics
 		return _numWritesHDFS.get();
 	}
 	
+	public static void incrementFSBuffEvicts()
+	{
+		_numEvictsFSBuff.incrementAndGet();
+	}
+	
+	public static long getFSBuffEvicts()
+	{
+		return _numEvictsFSBuff.get();
+	}
+	
+	public static void incrementCompression(long rawBytes, long compBytes, long time)
+	{
+		_compRawBytes.addAndGet(rawBytes);
+		_compBytes.addAndGet(compBytes);
+		_ctimeCompress.addAndGet(time);
+	}
+	
+	public static void incrementDecompressionTime(long time)
+	{
+		_ctimeDecompress.addAndGet(time);
+	}
+	
+	public static double getCompressionRatio()
+	{
+		long comp = _compBytes.get();
+		return (comp > 0) ? (double)_compRawBytes.get() / comp : 1;
+	}
+	
 	public static void incrementAcquireRTime(long delta)
 	{
 		_ctimeAcquireR.addAndGet(delta);
@@ -281,6 +325,34 @@ public class CacheStatistics
 		return sb.toString();
 	}
 	
+	public static String displayWriteBuffer()
+	{	
+		//hits, misses (reads from local FS), and evictions
+		StringBuilder sb = new StringBuilder();
+		sb.append(LazyWriteBuffer.getPolicy().name());
+		sb.append(", ");
+		sb.append(_numHitsFSBuff.get());
+		sb.append("/");
+		sb.append(_numHitsFS.get());
+		sb.append("/");
+		sb.append(_numEvictsFSBuff.get());
+		
+		return sb.toString();
+	}
+	
+	public static String displayCompression()
+	{	
+		//compression ratio, compress and decompress time
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%.2f", getCompressionRatio()));
+		sb.append(", ");
+		sb.append(String.format("%.3f", ((double)_ctimeCompress.get())/1000000000)); //in sec
+		sb.append("/");
+		sb.append(String.format("%.3f", ((double)_ctimeDecompress.get())/1000000000)); //in sec
+		
+		return sb.toString();
+	}
+	
 	public static String displayTime()
 	{	
 		StringBuilder sb = new StringBuilder();
@@ -32,7 +32,6 @@ import org.apache.sysml.conf.ConfigurationManager;
 import org.apache.sysml.parser.Expression.DataType;
 import org.apache.sysml.parser.Expression.ValueType;
 import org.apache.sysml.runtime.DMLRuntimeException;
-import org.apache.sysml.runtime.controlprogram.caching.LazyWriteBuffer.RPolicy;
 import org.apache.sysml.runtime.controlprogram.context.GPUObject;
 import org.apache.sysml.runtime.controlprogram.parfor.util.IDSequence;
 import org.apache.sysml.runtime.instructions.cp.Data;
@@ -68,12 +67,13 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 	// global constant configuration parameters
 	public static final long 	CACHING_THRESHOLD = 4*1024; //obj not s.t. caching if below threshold [in bytes]
 	public static final double 	CACHING_BUFFER_SIZE = 0.15; 
-	public static final RPolicy CACHING_BUFFER_POLICY = RPolicy.FIFO; 
 	public static final boolean CACHING_BUFFER_PAGECACHE = false; 
 	public static final boolean CACHING_WRITE_CACHE_ON_READ = false;	
 	public static final String  CACHING_COUNTER_GROUP_NAME    = "SystemML Caching Counters";
 	public static final String  CACHING_EVICTION_FILEEXTENSION = ".dat";
 	public static final boolean CACHING_ASYNC_FILECLEANUP = true;
+	public static final boolean CACHING_ASYNC_EVICTION = true;
+	public static final int     CACHING_ASYNC_EVICTION_THREADS = 2;
     
 	/**
 	 * Defines all possible cache status types for a data blob.
@@ -173,6 +173,7 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 	private String  _cacheFileName = null; //local eviction file name
 	private boolean _requiresLocalWrite = false; //flag if local write for read obj
 	private boolean _isAcquireFromEmpty = false; //flag if read from status empty 
+	private int     _numLoopHints = 0;     //number of loops w/ obj as loop-invariant input
 	
 	//spark-specific handles
 	//note: we use the abstraction of LineageObjects for two reasons: (1) to keep track of cleanup
@@ -229,6 +230,27 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 		return _cleanupFlag;
 	}
 	
+	/**
+	 * Sets or resets the eviction hint for loop-invariant inputs, which
+	 * are read in every iteration of a surrounding loop. The hints of nested 
+	 * loops are counted and the hint is propagated to a buffered blob.
+	 * 
+	 * @param flag
+	 */
+	public synchronized void setLoopInvariantHint(boolean flag) {
+		_numLoopHints = Math.max(_numLoopHints + (flag ? 1 : -1), 0);
+		if( isCachingActive() )
+			LazyWriteBuffer.setLoopInvariantHint(getCacheFilePathAndName(), isLoopInvariant());
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	public synchronized boolean isLoopInvariant() {
+		return (_numLoopHints > 0);
+	}
+	
 	/**
 	 * 
 	 * @param s
@@ -634,7 +656,7 @@ public abstract class CacheableData<T extends CacheBlock> extends Data
 				//evict blob
 				String filePath = getCacheFilePathAndName();
 				try {
-					LazyWriteBuffer.writeBlock(filePath, _data);
+					LazyWriteBuffer.writeBlock(filePath, _data, isLoopInvariant());
 				}
 				catch (Exception e)
 				{
@@ -20,13 +20,25 @@
 package org.apache.sysml.runtime.controlprogram.caching;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map.Entry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.conf.DMLConfig;
 import org.apache.sysml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
 import org.apache.sysml.runtime.util.LocalFileUtils;
 
@@ -36,11 +48,26 @@ import org.apache.sysml.runtime.util.LocalFileUtils;
  */
 public class LazyWriteBuffer 
 {
+	private static final Log LOG = LogFactory.getLog(LazyWriteBuffer.class.getName());
+	
 	public enum RPolicy {
 		FIFO, //first-in, first-out eviction
-		LRU   //least recently used eviction
+		LRU,  //least recently used eviction
+		COST, //cost-based eviction (size, access frequency, re-read cost)
+	}
+	
+	public enum OffHeapType {
+		NONE,   //dense blocks as strong references on heap
+		DIRECT, //dense blocks in direct byte buffers
+		MMAP,   //dense blocks in memory-mapped files (localtmpdir)
 	}
 	
+	//cost model for cost-based eviction: estimated local read bandwidth 
+	//and latency, as well as weight of loop-invariant inputs
+	private static final double COST_READ_BANDWIDTH = 256d*1024*1024; //in bytes/s
+	private static final double COST_READ_LATENCY = 0.002; //in s
+	private static final double COST_LOOP_WEIGHT = 8;
+	
 	//global size limit in bytes
 	private static long _limit; 
 	
@@ -54,6 +81,26 @@ public class LazyWriteBuffer
 	//file cleaner for synchronous or asynchronous delete of evicted files
 	private static FileCleaner _fClean;
 	
+	//evictor for synchronous or asynchronous write of evicted buffers, and
+	//map of in-flight evictions (removed from queue, but not yet written)
+	private static BufferEvictor _fEvict;
+	private static HashMap<String, EvictionTask> _mPending;
+	
+	//map of failed evictions that could not be re-inserted into the write buffer
+	//without exceeding its limit (i.e., lost blocks, reads of these files fail)
+	private static HashMap<String, IOException> _mFailed;
+	
+	//storage of dense blocks in the buffer (on-heap, off-heap)
+	private static OffHeapType _offheap = OffHeapType.NONE;
+	
+	//eviction policy, and inflation value of cost-based eviction 
+	//(i.e., priority of last victim, which ages remaining entries)
+	private static RPolicy _policy = RPolicy.FIFO;
+	private static double _inflation = 0;
+	
+	//compression of evicted files
+	private static boolean _compress = false;
+	
 	static {
 		//obtain the logical buffer size in bytes
 		long maxMem = InfrastructureAnalyzer.getLocalMaxMemory();
@@ -68,51 +115,57 @@ public class LazyWriteBuffer
 	 */
 	public static void writeBlock( String fname, CacheBlock cb ) 
 		throws IOException
+	{
+		writeBlock(fname, cb, false);
+	}
+	
+	/**
+	 * 
+	 * @param fname
+	 * @param cb
+	 * @param loopInvariant
+	 * @throws IOException
+	 */
+	public static void writeBlock( String fname, CacheBlock cb, boolean loopInvariant ) 
+		throws IOException
 	{	
 		//obtain basic meta data of cache block
 		long lSize = cb.getExactSerializedSize();  
 		boolean requiresWrite = (   lSize > _limit  //global buffer limit
 			|| !ByteBuffer.isValidCapacity(lSize, cb) ); //local buffer limit
 	
+		//wait for in-flight eviction or delete of a previous version of this block
+		waitForPendingEviction(fname);
+		_fClean.waitForPendingDelete(fname);
+		
 		//handle caching/eviction if it fits in writebuffer
 		if( !requiresWrite ) 
 		{			
 			ByteBuffer bbuff = null;
+			ArrayList<EvictionTask> victims = new ArrayList<EvictionTask>();
 			
 			//modify buffer pool
 			synchronized( _mQueue )
 			{
-				//evict matrices to make room (by default FIFO)
-				while( _size+lSize >= _limit )
-				{
-					//remove first entry from eviction queue
-					Entry<String, ByteBuffer> entry = _mQueue.removeFirst();
-					String ftmp = entry.getKey();
-					ByteBuffer tmp = entry.getValue();
-					
-					if( tmp != null ) 
-					{
-						//wait for pending serialization
-						tmp.checkSerialized();
-						
-						//evict matrix
-						tmp.evictBuffer(ftmp);
-						tmp.freeMemory();
-						_size-=tmp.getSize();
-						
-						if( DMLScript.STATISTICS )
-							CacheStatistics.incrementFSWrites();
-					}
-				}
+				//select matrices to evict to make room (by default FIFO)
+				_mFailed.remove(fname);
+				makeSpace(lSize, false, victims);
 				
 				//create buffer (reserve mem), and lock
-				bbuff = new ByteBuffer( lSize );
+				bbuff = new ByteBuffer( lSize, fname );
+				bbuff.setLoopInvariant(loopInvariant);
+				if( _policy == RPolicy.COST )
+					bbuff.setPriority(computePriority(bbuff));
 				
 				//put placeholder into buffer pool 
 				_mQueue.addLast(fname, bbuff);
 				_size += lSize;	
 			}
 			
+			//evict matrices (outside synchronized critical path, async if configured)
+			for( EvictionTask task : victims )
+				_fEvict.evict(task);
+			
 			//serialize matrix (outside synchronized critical path)
 			bbuff.serializeBlock(cb); 
 			
@@ -122,7 +175,7 @@ public class LazyWriteBuffer
 		else
 		{
 			//write directly to local FS (bypass buffer if too large)
-			LocalFileUtils.writeCacheBlockToLocal(fname, cb);
+			LocalFileUtils.writeCacheBlockToLocal(fname, cb, _compress);
 			if( DMLScript.STATISTICS )
 				CacheStatistics.incrementFSWrites();
 		}	
@@ -139,12 +192,20 @@ public class LazyWriteBuffer
 		synchronized( _mQueue )
 		{
 			//remove queue entry 
+			_mFailed.remove(fname);
 			ByteBuffer ldata = _mQueue.remove(fname);
 			if( ldata != null ) {
 				_size -= ldata.getSize(); 
 				requiresDelete = false;
 				ldata.freeMemory(); //cleanup
 			}
+			
+			//mark in-flight eviction for delete after write
+			EvictionTask task = _mPending.get(fname);
+			if( task != null ) {
+				task.markDeleted();
+				requiresDelete = false;
+			}
 		}
 		
 		//delete from FS if required
@@ -158,37 +219,49 @@ public class LazyWriteBuffer
 	 * @return
 	 * @throws IOException
 	 */
-	public static CacheBlock readBlock( String fname, boolean matrix ) 
+	public static CacheBlock readBlock( String fname ) 
 		throws IOException
 	{
 		CacheBlock cb = null;
 		ByteBuffer ldata = null;
 		
-		//probe write buffer
+		//probe write buffer and in-flight evictions
 		synchronized( _mQueue )
 		{
+			if( _mFailed.containsKey(fname) )
+				throw new IOException("Failed eviction to local path "+fname+".", _mFailed.get(fname));
 			ldata = _mQueue.get(fname);
+			if( ldata == null && _mPending.containsKey(fname) )
+				ldata = _mPending.get(fname).getBuffer();
 			
 			//modify eviction order (accordingly to access)
-			if(    CacheableData.CACHING_BUFFER_POLICY == RPolicy.LRU 
-				&& ldata != null )
+			if( _policy == RPolicy.LRU && _mQueue.containsKey(fname) )
 			{
 				//reinsert entry at end of eviction queue
 				_mQueue.remove( fname );
 				_mQueue.addLast( fname, ldata );
 			}
+			else if( _policy == RPolicy.COST && _mQueue.containsKey(fname) ) 
+			{
+				//update access frequency and priority
+				ldata.incrementAccessFrequency();
+				ldata.setPriority(computePriority(ldata));
+			}
 		}
 		
 		//deserialize or read from FS if required
+		//(deserialize returns null if evicted and freed in the meantime)
 		if( ldata != null )
-		{
 			cb = ldata.deserializeBlock();
+		
+		if( cb != null )
+		{
 			if( DMLScript.STATISTICS )
 				CacheStatistics.incrementFSBuffHits();
 		}
 		else
 		{
-			cb = LocalFileUtils.readCacheBlockFromLocal(fname, matrix); 
+			cb = LocalFileUtils.readCacheBlockFromLocal(fname, _compress); 
 			if( DMLScript.STATISTICS )
 				CacheStatistics.incrementFSHits();
 		}
@@ -200,25 +273,241 @@ public class LazyWriteBuffer
 	 * 
 	 */
 	public static void init() {
+		//shutdown threadpools of previous initialization
+		if( _fEvict != null )
+			_fEvict.close();
+		if( _fClean != null )
+			_fClean.close();
+		
 		_mQueue = new EvictionQueue();
+		_mPending = new HashMap<String, EvictionTask>();
+		_mFailed = new HashMap<String, IOException>();
 		_fClean = new FileCleaner();
+		_fEvict = new BufferEvictor();
 		_size = 0;
 		if( CacheableData.CACHING_BUFFER_PAGECACHE )
 			PageCache.init();
+		
+		//obtain configured off-heap storage of dense blocks
+		DMLConfig conf = ConfigurationManager.getDMLConfig();
+		String offheap = (conf != null) ? conf.getTextValue(DMLConfig.CP_OFFHEAP_BUFFER) :
+			DMLConfig.getDefaultTextValue(DMLConfig.CP_OFFHEAP_BUFFER);
+		_offheap = OffHeapType.valueOf(offheap.trim().toUpperCase());
+		
+		//obtain configured eviction policy
+		String policy = (conf != null) ? conf.getTextValue(DMLConfig.CP_BUFFER_POLICY) :
+			DMLConfig.getDefaultTextValue(DMLConfig.CP_BUFFER_POLICY);
+		_policy = RPolicy.valueOf(policy.trim().toUpperCase());
+		_inflation = 0;
+		
+		//obtain configured compression of evicted files
+		_compress = (conf != null) ? conf.getBooleanValue(DMLConfig.CP_BUFFER_COMPRESS) :
+			Boolean.parseBoolean(DMLConfig.getDefaultTextValue(DMLConfig.CP_BUFFER_COMPRESS));
 	}
 	
 	/**
 	 * 
 	 */
 	public static void cleanup() {
-		if( _mQueue != null )
+		//wait for pending evictions to complete
+		if( _fEvict != null )
+			_fEvict.close();
+		if( _mPending != null )
+			_mPending.clear();
+		if( _mFailed != null )
+			_mFailed.clear();
+		if( _mQueue != null ) {
+			//release off-heap buffers and mapped files
+			if( _offheap != OffHeapType.NONE )
+				for( ByteBuffer bbuff : _mQueue.values() )
+					bbuff.freeMemory();
 			_mQueue.clear();
+		}
 		if( _fClean != null )
 			_fClean.close();
 		if( CacheableData.CACHING_BUFFER_PAGECACHE )
 			PageCache.clear();
 	}
 	
+	/**
+	 * Removes entries from the eviction queue (in order of the eviction policy) and
+	 * registers them as in-flight evictions until a buffer of the given size fits 
+	 * into the write buffer. If failed evictions are excluded and there is not enough
+	 * space to be freed, the eviction queue is left unchanged. This method requires
+	 * the caller to hold the queue lock.
+	 * 
+	 * @param lSize
+	 * @param excludeFailed
+	 * @param victims
+	 * @return true if the buffer fits after eviction
+	 */
+	private static boolean makeSpace( long lSize, boolean excludeFailed, ArrayList<EvictionTask> victims )
+	{
+		//probe for enough evictable entries
+		if( excludeFailed ) {
+			long size = _size;
+			for( ByteBuffer bbuff : _mQueue.values() )
+				if( !bbuff.isEvictionFailed() )
+					size -= bbuff.getSize();
+			if( size+lSize >= _limit )
+				return false;
+		}
+		
+		while( _size+lSize >= _limit && !_mQueue.isEmpty() )
+		{
+			//remove first or min-priority entry from eviction queue
+			Entry<String, ByteBuffer> entry = (_policy == RPolicy.COST) ? 
+				_mQueue.removeMinPriority(excludeFailed) : _mQueue.removeFirst(excludeFailed);
+			String ftmp = entry.getKey();
+			ByteBuffer tmp = entry.getValue();
+			
+			if( tmp != null ) 
+			{
+				//register in-flight eviction (pinned until written)
+				EvictionTask task = new EvictionTask(ftmp, tmp);
+				_mPending.put(ftmp, task);
+				victims.add(task);
+				_size-=tmp.getSize();
+				_inflation = Math.max(_inflation, tmp.getPriority());
+				
+				if( DMLScript.STATISTICS )
+					CacheStatistics.incrementFSBuffEvicts();
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Updates the loop-invariant hint of a buffered block, if it
+	 * is currently in the write buffer.
+	 * 
+	 * @param fname
+	 * @param flag
+	 */
+	public static void setLoopInvariantHint( String fname, boolean flag )
+	{
+		if( _mQueue == null )
+			return;
+		
+		synchronized( _mQueue ) {
+			ByteBuffer bbuff = _mQueue.get(fname);
+			if( bbuff != null && bbuff.isLoopInvariant() != flag ) {
+				bbuff.setLoopInvariant(flag);
+				if( _policy == RPolicy.COST )
+					bbuff.setPriority(computePriority(bbuff));
+			}
+		}
+	}
+	
+	/**
+	 * Computes the eviction priority of a buffer in the style of greedy-dual-
+	 * size-frequency, i.e., inflation + freq * cost / size, where the cost is
+	 * the estimated re-read time from local FS, weighted for loop-invariant 
+	 * inputs. Hence, small, frequently accessed, and loop-invariant blocks
+	 * are retained longer, while the inflation value prevents stale entries 
+	 * from staying in the buffer forever. 
+	 * 
+	 * @param bbuff
+	 * @return
+	 */
+	private static double computePriority( ByteBuffer bbuff )
+	{
+		double size = Math.max(bbuff.getSize(), 1);
+		double cost = (size / COST_READ_BANDWIDTH + COST_READ_LATENCY)
+			* (bbuff.isLoopInvariant() ? COST_LOOP_WEIGHT : 1);
+		return _inflation + bbuff.getAccessFrequency() * cost / size * 1e9; //ns per byte
+	}
+	
+	/**
+	 * Sets the global size limit of the write buffer in bytes 
+	 * (for testing purposes only).
+	 * 
+	 * @param limit
+	 */
+	public static void setWriteBufferLimit( long limit ) {
+		_limit = limit;
+	}
+	
+	/**
+	 * Gets the current size of the write buffer in bytes
+	 * (for testing purposes only).
+	 * 
+	 * @return
+	 */
+	public static long getWriteBufferUsage() {
+		synchronized( _mQueue ) {
+			return _size;
+		}
+	}
+	
+	/**
+	 * Blocks until all in-flight evictions have been written or failed
+	 * (for testing purposes only).
+	 * 
+	 * @throws IOException
+	 */
+	public static void waitForPendingEvictions() 
+		throws IOException
+	{
+		while( true ) {
+			ArrayList<EvictionTask> tasks = null;
+			synchronized( _mQueue ) {
+				tasks = new ArrayList<EvictionTask>(_mPending.values());
+			}
+			if( tasks.isEmpty() )
+				break;
+			for( EvictionTask task : tasks )
+				task.waitForCompletion();
+		}
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	public static boolean isCompressionEnabled() {
+		return _compress;
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	public static RPolicy getPolicy() {
+		return _policy;
+	}
+	
+	/**
+	 * Blocks until a pending asynchronous eviction of the given file
+	 * has been written, if any. If this eviction failed, the buffer has
+	 * been put back into the write buffer and the error is rethrown.
+	 * 
+	 * @param fname
+	 * @throws IOException
+	 */
+	private static void waitForPendingEviction( String fname ) 
+		throws IOException
+	{
+		EvictionTask task = null;
+		synchronized( _mQueue ) {
+			task = _mPending.get(fname);
+		}
+		if( task != null ) {
+			task.waitForCompletion();
+			if( task.getError() != null )
+				throw new IOException("Failed asynchronous eviction to local path "+fname+".", task.getError());
+		}
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	public static OffHeapType getOffHeapType() {
+		return _offheap;
+	}
+	
 	/**
 	 * 
 	 * @return
@@ -267,17 +556,233 @@ public class LazyWriteBuffer
 			put(fname, bbuff);
 		}
 		
-		public Entry<String, ByteBuffer> removeFirst() 
+		public Entry<String, ByteBuffer> removeFirst( boolean excludeFailed ) 
 		{
-			//move iterator to first entry
+			//move iterator to first (evictable) entry
 			Iterator<Entry<String, ByteBuffer>> iter = entrySet().iterator();
 			Entry<String, ByteBuffer> entry = iter.next();
+			while( excludeFailed && entry.getValue().isEvictionFailed() )
+				entry = iter.next();
 			
 			//remove current iterator entry
 			iter.remove();
 			
 			return entry;
 		}
+		
+		public Entry<String, ByteBuffer> removeMinPriority( boolean excludeFailed ) 
+		{
+			//scan for (evictable) entry with minimum priority (first one on ties)
+			Iterator<Entry<String, ByteBuffer>> iter = entrySet().iterator();
+			Entry<String, ByteBuffer> minEntry = null;
+			while( iter.hasNext() ) {
+				Entry<String, ByteBuffer> entry = iter.next();
+				if( excludeFailed && entry.getValue().isEvictionFailed() )
+					continue;
+				if( minEntry == null || entry.getValue().getPriority() 
+					< minEntry.getValue().getPriority() )
+					minEntry = entry;
+			}
+			
+			//remove min entry 
+			remove(minEntry.getKey());
+			
+			return minEntry;
+		}
+	}
+	
+	/**
+	 * Eviction service for abstraction of synchronous and asynchronous 
+	 * write of evicted buffers. The threadpool for asynchronous eviction
+	 * uses a bounded queue of pending tasks, where the calling thread runs 
+	 * the eviction if the queue is full. This bounds the memory of in-flight
+	 * evictions (beyond the buffer limit) while eviction I/O overlaps with
+	 * the execution of subsequent instructions. Evictions that are rejected
+	 * after shutdown (e.g., issued by failed evictions) run in the calling 
+	 * thread as well, in order to not leave them pending. Eviction threads are daemon
+	 * threads that terminate when idle, in order to prevent leaking threads
+	 * on repeated initialization (e.g., for multiple JMLC connections).
+	 */
+	private static class BufferEvictor
+	{
+		private static final long KEEP_ALIVE_MS = 10000;
+		
+		private ThreadPoolExecutor _pool = null;
+		
+		public BufferEvictor() {
+			//create new bounded threadpool for async eviction
+			if( CacheableData.CACHING_ASYNC_EVICTION ) {
+				int k = CacheableData.CACHING_ASYNC_EVICTION_THREADS;
+				_pool = new ThreadPoolExecutor(k, k, KEEP_ALIVE_MS, TimeUnit.MILLISECONDS, 
+					new ArrayBlockingQueue<Runnable>(2*k), new DaemonThreadFactory(), 
+					new CallerRunsAlwaysPolicy());
+				_pool.allowCoreThreadTimeOut(true);
+			}
+		}
+		
+		public void evict(EvictionTask task) {
+			//sync or async buffer eviction
+			if( CacheableData.CACHING_ASYNC_EVICTION )
+				_pool.execute(task);
+			else
+				task.run();
+		}
+		
+		public void close() {
+			//execute pending tasks and shutdown pool
+			if( CacheableData.CACHING_ASYNC_EVICTION ) {
+				_pool.shutdown();
+				try {
+					_pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+				}
+				catch(InterruptedException ex) {
+					LOG.warn("Interrupted while waiting for pending evictions.", ex);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Rejection handler that runs rejected tasks in the calling thread,
+	 * also after shutdown of the thread pool.
+	 */
+	private static class CallerRunsAlwaysPolicy implements RejectedExecutionHandler
+	{
+		@Override
+		public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+			r.run();
+		}
+	}
+	
+	/**
+	 * Thread factory for daemon eviction threads.
+	 */
+	private static class DaemonThreadFactory implements ThreadFactory
+	{
+		private final ThreadFactory _factory = Executors.defaultThreadFactory();
+		
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = _factory.newThread(r);
+			t.setDaemon(true);
+			return t;
+		}
+	}
+	
+	/**
+	 * Eviction task of a single buffer, which is registered as in-flight 
+	 * eviction until the buffer has been written to local FS. Reads of 
+	 * in-flight evictions are served from the buffer until it is freed,
+	 * deletes are deferred until the write completed. If the write fails,
+	 * the buffer is put back into the write buffer (i.e., no data loss) if 
+	 * other entries can be evicted to stay within the buffer limit. Entries of
+	 * failed evictions are not evicted for this purpose, which prevents repeated 
+	 * evictions between failing buffers (e.g., on a full local disk). Otherwise, 
+	 * the buffer is dropped and subsequent reads of this file fail. In both 
+	 * cases, the error is kept for threads waiting on this eviction.
+	 */
+	private static class EvictionTask implements Runnable
+	{
+		private final String _fname;
+		private final ByteBuffer _bbuff;
+		private final CountDownLatch _done;
+		private boolean _deleted = false;
+		private IOException _error = null;
+		
+		public EvictionTask( String fname, ByteBuffer bbuff ) {
+			_fname = fname;
+			_bbuff = bbuff;
+			_done = new CountDownLatch(1);
+		}
+		
+		public ByteBuffer getBuffer() {
+			return _bbuff;
+		}
+		
+		public IOException getError() {
+			return _error; //visible after completion
+		}
+		
+		public void markDeleted() {
+			_deleted = true; //protected by queue lock
+		}
+		
+		public void waitForCompletion() throws IOException {
+			try {
+				_done.await();
+			}
+			catch(InterruptedException ex) {
+				throw new IOException(ex);
+			}
+		}
+		
+		@Override
+		public void run() 
+		{
+			boolean deleted = false;
+			IOException error = null;
+			try
+			{
+				synchronized( _mQueue ) {
+					deleted = _deleted;
+				}
+				
+				//wait for pending serialization and evict matrix
+				if( !deleted ) {
+					_bbuff.checkSerialized();
+					_bbuff.evictBuffer(_fname);
+					if( DMLScript.STATISTICS )
+						CacheStatistics.incrementFSWrites();
+				}
+			}
+			catch(Exception ex) {
+				LOG.error("Failed to evict buffer to local path "+_fname+".", ex);
+				error = (ex instanceof IOException) ? (IOException)ex : new IOException(ex);
+				LocalFileUtils.deleteFileIfExists(_fname, true); //partially written file
+			}
+			finally {
+				boolean keep = false;
+				ArrayList<EvictionTask> victims = new ArrayList<EvictionTask>();
+				synchronized( _mQueue ) {
+					deleted = _deleted;
+					if( !deleted ) {
+						//unregister in-flight eviction (subsequent reads are served from
+						//local FS, or from the write buffer if the eviction failed)
+						_mPending.remove(_fname);
+						if( error != null ) {
+							_error = error;
+							if( makeSpace(_bbuff.getSize(), true, victims) ) {
+								_bbuff.setEvictionFailed(true);
+								_mQueue.addLast(_fname, _bbuff);
+								_size += _bbuff.getSize();
+								keep = true;
+							}
+							else {
+								LOG.error("Failed to re-insert buffer "+_fname+" into write buffer (limit="+_limit+").");
+								_mFailed.put(_fname, error);
+							}
+						}
+					}
+				}
+				if( !keep )
+					_bbuff.freeMemory();
+				
+				//evict entries to make room for re-inserted buffer
+				for( EvictionTask task : victims )
+					_fEvict.evict(task);
+				
+				//deferred delete of evicted file (synchronously, while still registered 
+				//as in-flight eviction, because a subsequent write of the same file waits
+				//for this eviction and would otherwise race with this delete)
+				if( deleted ) {
+					LocalFileUtils.deleteFileIfExists(_fname, true);
+					synchronized( _mQueue ) {
+						_mPending.remove(_fname);
+					}
+				}
+				_done.countDown();
+			}
+		}
 	}
 	
 	/**
@@ -285,41 +790,92 @@ public class LazyWriteBuffer
 	 * file cleanup on rmvar/cpvar. The threadpool for asynchronous cleanup
 	 * may increase the number of threads temporarily to the number of concurrent 
 	 * delete tasks (which is bounded to the parfor degree of parallelism).
+	 * Pending deletes are tracked by file name, such that subsequent writes 
+	 * of the same file can wait for the delete of the previous version.
 	 */
 	private static class FileCleaner
 	{
 		private ExecutorService _pool = null;
+		private HashMap<String, FileCleanerTask> _pending = null;
 		
 		public FileCleaner() {
 			//create new threadpool for async cleanup
-			if( CacheableData.CACHING_ASYNC_FILECLEANUP )
+			if( CacheableData.CACHING_ASYNC_FILECLEANUP ) {
 				_pool = Executors.newCachedThreadPool();
+				_pending = new HashMap<String, FileCleanerTask>();
+			}
 		}
 		
 		public void deleteFile(String fname) {
 			//sync or async file delete
-			if( CacheableData.CACHING_ASYNC_FILECLEANUP )
-				_pool.submit(new FileCleanerTask(fname));
+			if( CacheableData.CACHING_ASYNC_FILECLEANUP ) {
+				FileCleanerTask task = new FileCleanerTask(fname);
+				synchronized( _pending ) {
+					_pending.put(fname, task);
+				}
+				_pool.submit(task);
+			}
 			else
 				LocalFileUtils.deleteFileIfExists(fname, true);
 		}
 		
+		public void waitForPendingDelete(String fname) 
+			throws IOException 
+		{
+			if( !CacheableData.CACHING_ASYNC_FILECLEANUP )
+				return;
+			
+			FileCleanerTask task = null;
+			synchronized( _pending ) {
+				task = _pending.get(fname);
+			}
+			if( task != null )
+				task.waitForCompletion();
+		}
+		
 		public void close() {
 			//execute pending tasks and shutdown pool
-			if( CacheableData.CACHING_ASYNC_FILECLEANUP )
+			if( CacheableData.CACHING_ASYNC_FILECLEANUP ) {
 				_pool.shutdown();
+				try {
+					_pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+				}
+				catch(InterruptedException ex) {
+					LOG.warn("Interrupted while waiting for pending file deletes.", ex);
+				}
+			}
 		}
 		
 		private class FileCleanerTask implements Runnable {
 			private String _fname = null;
+			private CountDownLatch _done = null;
 			
 			public FileCleanerTask( String fname ) {
 				_fname = fname;
+				_done = new CountDownLatch(1);
+			}
+			
+			public void waitForCompletion() throws IOException {
+				try {
+					_done.await();
+				}
+				catch(InterruptedException ex) {
+					throw new IOException(ex);
+				}
 			}
 			
 			@Override
 			public void run() {
-				LocalFileUtils.deleteFileIfExists(_fname, true);
+				try {
+					LocalFileUtils.deleteFileIfExists(_fname, true);
+				}
+				finally {
+					synchronized( _pending ) {
+						if( _pending.get(_fname) == this )
+							_pending.remove(_fname);
+					}
+					_done.countDown();
+				}
 			}			
 		}
 	}
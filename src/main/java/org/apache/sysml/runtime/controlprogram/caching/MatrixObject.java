@@ -31,6 +31,7 @@ import org.apache.sysml.lops.Lop;
 import org.apache.sysml.parser.Expression.DataType;
 import org.apache.sysml.parser.Expression.ValueType;
 import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.compress.CompressedMatrixBlock;
 import org.apache.sysml.runtime.controlprogram.ParForProgramBlock.PDataPartitionFormat;
 import org.apache.sysml.runtime.controlprogram.context.GPUContext;
 import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
@@ -82,6 +83,7 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 	private int _partitionSize = -1; //indicates n for BLOCKWISE_N
 	private String _partitionCacheName = null; //name of cache block
 	private MatrixBlock _partitionInMemory = null;
+	private MatrixObject _partitionSource = null; //unpartitioned input of in-memory partitioning
 
 	/**
 	 * Constructor that takes only the HDFS filename.
@@ -124,6 +126,7 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 		_partitionFormat = mo._partitionFormat;
 		_partitionSize = mo._partitionSize;
 		_partitionCacheName = mo._partitionCacheName;
+		_partitionSource = mo._partitionSource;
 	}
 	
 
@@ -220,13 +223,76 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 		return ((double)mc.getNonZeros())/mc.getRows()/mc.getCols();
 	}
 	
+	/**
+	 * Acquires a read lock on the matrix block. Compressed matrix blocks are 
+	 * returned as decompressed copies, because general operations are not 
+	 * aware of the compressed representation (see acquireRead(boolean)).
+	 * 
+	 * @return
+	 * @throws CacheException
+	 */
+	@Override
+	public synchronized MatrixBlock acquireRead() 
+		throws CacheException 
+	{
+		return acquireRead(false);
+	}
+	
+	/**
+	 * Acquires a read lock on the matrix block, where compressed matrix
+	 * blocks are only passed through if explicitly allowed by the caller.
+	 * 
+	 * @param allowCompressed
+	 * @return
+	 * @throws CacheException
+	 */
+	public synchronized MatrixBlock acquireRead(boolean allowCompressed) 
+		throws CacheException 
+	{
+		MatrixBlock ret = super.acquireRead();
+		
+		if( !allowCompressed && ret instanceof CompressedMatrixBlock ) {
+			try {
+				ret = ((CompressedMatrixBlock) ret).decompress();
+			}
+			catch(DMLRuntimeException ex) {
+				throw new CacheException(ex);
+			}
+		}
+		
+		return ret;
+	}
+	
+	@Override
+	public synchronized MatrixBlock acquireModify() 
+		throws CacheException 
+	{
+		MatrixBlock ret = super.acquireModify();
+		
+		//replace compressed blocks by their decompressed form, because
+		//in-place updates are not supported on compressed blocks
+		if( ret instanceof CompressedMatrixBlock ) {
+			try {
+				updateStatusPinned(false);
+				_data = ((CompressedMatrixBlock) ret).decompress();
+				updateStatusPinned(true);
+				ret = _data;
+			}
+			catch(DMLRuntimeException ex) {
+				throw new CacheException(ex);
+			}
+		}
+		
+		return ret;
+	}
+	
 	@Override
 	protected void clearReusableData() {
 		if(DMLScript.REUSE_NONZEROED_OUTPUT) {
 			if(_data == null) {
 				getCache();
 			}
-			if(_data != null &&  
+			if(_data != null && !(_data instanceof CompressedMatrixBlock) &&
 					// Not a column vector
 					_data.getNumRows() != 1 && _data.getNumColumns() != 1) {
 				double[] arr = ((MatrixBlock)_data).getDenseBlock();
@@ -352,6 +418,7 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 		_partitioned = false;
 		_partitionFormat = null;
 		_partitionSize = -1;
+		_partitionSource = null;
 	}
 	
 	/**
@@ -378,6 +445,67 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 		_partitionInMemory = block;
 	}
 	
+	/**
+	 * Sets the unpartitioned source matrix of an in-memory partitioned matrix 
+	 * (see DataPartitionerLocalMemory). Partition reads are then served as slices 
+	 * of the source matrix, without any partition files.
+	 * 
+	 * @param mo
+	 */
+	public void setPartitionSource(MatrixObject mo)
+	{
+		_partitionSource = mo;
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	public boolean isPartitionedInMemory()
+	{
+		return _partitioned && _partitionSource != null;
+	}
+	
+	/**
+	 * Reads a partition of an in-memory partitioned matrix by slicing the pinned
+	 * source matrix. This read is intentionally not synchronized on the partitioned 
+	 * matrix object, in order to allow concurrent partition reads of parfor workers.
+	 * Note that the returned blocks are always copies because partitions might be 
+	 * updated in-place by the parfor body.
+	 * 
+	 * @param pred
+	 * @return
+	 * @throws CacheException
+	 */
+	private MatrixBlock readMatrixPartitionInMemory( IndexRange pred ) 
+		throws CacheException
+	{
+		long t0 = DMLScript.STATISTICS ? System.nanoTime() : 0;
+		MatrixObject src = _partitionSource;
+		MatrixBlock mb = null;
+		
+		try
+		{
+			//slice requested partition from pinned source
+			MatrixBlock in = src.acquireRead();
+			mb = in.sliceOperations((int)pred.rowStart-1, (int)pred.rowEnd-1, 
+					(int)pred.colStart-1, (int)pred.colEnd-1, new MatrixBlock());
+			src.release();
+			mb.examSparsity();
+		}
+		catch(Exception ex)
+		{
+			throw new CacheException(ex);
+		}
+		
+		if( DMLScript.STATISTICS ){
+			long t1 = System.nanoTime();
+			CacheStatistics.incrementAcquireRTime(t1-t0);
+		}
+		
+		return mb;
+	}
+	
 	/**
 	 * NOTE: for reading matrix partitions, we could cache (in its real sense) the read block
 	 * with soft references (no need for eviction, as partitioning only applied for read-only matrices).
@@ -390,7 +518,26 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 	 * @return
 	 * @throws CacheException
 	 */
-	public synchronized MatrixBlock readMatrixPartition( IndexRange pred ) 
+	public MatrixBlock readMatrixPartition( IndexRange pred ) 
+		throws CacheException
+	{
+		//in-memory partitioning (unsynchronized concurrent slicing)
+		if( _partitioned && _partitionSource != null ) {
+			if( LOG.isTraceEnabled() )
+				LOG.trace("Acquire in-memory partition "+getVarName()+" "+pred);
+			return readMatrixPartitionInMemory(pred);
+		}
+		
+		return readMatrixPartitionFromFile(pred);
+	}
+	
+	/**
+	 * 
+	 * @param pred
+	 * @return
+	 * @throws CacheException
+	 */
+	private synchronized MatrixBlock readMatrixPartitionFromFile( IndexRange pred ) 
 		throws CacheException
 	{
 		if( LOG.isTraceEnabled() )
@@ -557,7 +704,7 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 	
 	@Override
 	protected MatrixBlock readBlobFromCache(String fname) throws IOException {
-		return (MatrixBlock)LazyWriteBuffer.readBlock(fname, true);
+		return (MatrixBlock)LazyWriteBuffer.readBlock(fname);
 	}
 	
 
@@ -679,6 +826,10 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 
 		if (_data != null)
 		{
+			//decompress compressed blocks for existing writers
+			MatrixBlock data = (_data instanceof CompressedMatrixBlock) ? 
+				((CompressedMatrixBlock)_data).decompress() : _data;
+			
 			// Get the dimension information from the metadata stored within MatrixObject
 			MatrixCharacteristics mc = iimd.getMatrixCharacteristics ();
 			// Write the matrix to HDFS in requested format
@@ -690,10 +841,10 @@ public class MatrixObject extends CacheableData<MatrixBlock>
 			if ( oinfo == OutputInfo.BinaryBlockOutputInfo && DMLScript.rtplatform == RUNTIME_PLATFORM.SINGLE_NODE &&
 				(mc.getRowsPerBlock() != ConfigurationManager.getBlocksize() || mc.getColsPerBlock() != ConfigurationManager.getBlocksize()) ) 
 			{
-				DataConverter.writeMatrixToHDFS(_data, fname, oinfo, new MatrixCharacteristics(mc.getRows(), mc.getCols(), ConfigurationManager.getBlocksize(), ConfigurationManager.getBlocksize(), mc.getNonZeros()), rep, fprop);
+				DataConverter.writeMatrixToHDFS(data, fname, oinfo, new MatrixCharacteristics(mc.getRows(), mc.getCols(), ConfigurationManager.getBlocksize(), ConfigurationManager.getBlocksize(), mc.getNonZeros()), rep, fprop);
 			}
 			else {
-				DataConverter.writeMatrixToHDFS(_data, fname, oinfo, mc, rep, fprop);
+				DataConverter.writeMatrixToHDFS(data, fname, oinfo, mc, rep, fprop);
 			}
 
 			if( LOG.isTraceEnabled() )
@@ -239,6 +239,23 @@ public class ExecutionContext
 		return mo.acquireRead();
 	}
 	
+	/**
+	 * Pins a matrix variable into memory, where compressed matrix blocks 
+	 * are passed through as is if allowed by the caller, i.e., for 
+	 * operations that support compressed inputs.
+	 * 
+	 * @param varName
+	 * @param allowCompressed
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public MatrixBlock getMatrixInput(String varName, boolean allowCompressed) 
+		throws DMLRuntimeException 
+	{	
+		MatrixObject mo = getMatrixObject(varName);
+		return mo.acquireRead(allowCompressed);
+	}
+	
 	public void setMetaData(String varName, long nrows, long ncols) 
 		throws DMLRuntimeException  
 	{
@@ -55,6 +55,8 @@ import org.apache.sysml.runtime.instructions.cp.Data;
 import org.apache.sysml.runtime.instructions.spark.CheckpointSPInstruction;
 import org.apache.sysml.runtime.instructions.spark.SPInstruction;
 import org.apache.sysml.runtime.instructions.spark.data.BlockPartitioner;
+import org.apache.sysml.runtime.instructions.spark.data.BroadcastManager;
+import org.apache.sysml.runtime.instructions.spark.data.BroadcastManager.BroadcastKey;
 import org.apache.sysml.runtime.instructions.spark.data.BroadcastObject;
 import org.apache.sysml.runtime.instructions.spark.data.LineageObject;
 import org.apache.sysml.runtime.instructions.spark.data.PartitionedBroadcastMatrix;
@@ -91,6 +93,11 @@ public class SparkExecutionContext extends ExecutionContext
 	private static boolean LAZY_SPARKCTX_CREATION = true;
 	private static boolean ASYNCHRONOUS_VAR_DESTROY = true;
 	private static boolean FAIR_SCHEDULER_MODE = true;
+	private static boolean REUSE_BROADCASTS = true;
+	
+	//retain unreferenced broadcasts after rmvar for reuse in subsequent iterations until 
+	//evicted (disabled by default because retained broadcasts occupy executor memory)
+	public static boolean RETAIN_UNREFERENCED_BROADCASTS = false;
 	
 	//executor memory and relative fractions as obtained from the spark configuration
 	private static SparkClusterConfig _sconf = null;
@@ -99,6 +106,9 @@ public class SparkExecutionContext extends ExecutionContext
 	// This limitation may eventually be removed; see SPARK-2243 for more details.
 	private static JavaSparkContext _spctx = null; 
 	
+	//manager of reusable broadcasts across instructions, iterations, and execution contexts
+	private static BroadcastManager _bcManager = new BroadcastManager();
+	
 	static {
 		// for internal debugging only
 		if( LDEBUG ) {
@@ -159,6 +169,11 @@ public class SparkExecutionContext extends ExecutionContext
 		synchronized( SparkExecutionContext.class ) {
 			if( _spctx != null ) 
 			{
+				//destroy all managed broadcasts
+				for( PartitionedBroadcastMatrix pbm : _bcManager.clear() )
+					for( Broadcast<PartitionedMatrixBlock> bc : pbm.getBroadcasts() )
+						cleanupBroadcastVariable(bc);
+				
 				//stop the spark context if existing
 				_spctx.stop();
 				
@@ -446,10 +461,12 @@ public class SparkExecutionContext extends ExecutionContext
 	}
 	
 	/**
-	 * TODO So far we only create broadcast variables but never destroy
-	 * them. This is a memory leak which might lead to executor out-of-memory.
-	 * However, in order to handle this, we need to keep track when broadcast 
-	 * variables are no longer required.
+	 * Obtains the partitioned broadcast for the given matrix variable. Existing
+	 * broadcasts are reused via the broadcast handle of the matrix object, or via
+	 * the broadcast manager if another matrix object with equal data (e.g., from 
+	 * a previous loop iteration, verified against the retained source data) has 
+	 * already been broadcast. Broadcasts are
+	 * destroyed on rmvar, or if reused, on eviction from the broadcast manager.
 	 * 
 	 * @param varname
 	 * @return
@@ -479,8 +496,21 @@ public class SparkExecutionContext extends ExecutionContext
 			int brlen = (int) mo.getNumRowsPerBlock();
 			int bclen = (int) mo.getNumColumnsPerBlock();
 			
-			//create partitioned matrix block and release memory consumed by input
+			//probe broadcast manager for existing broadcast of equal data
 			MatrixBlock mb = mo.acquireRead();
+			BroadcastKey key = REUSE_BROADCASTS ? 
+				BroadcastManager.createKey(mb, brlen, bclen) : null;
+			if( REUSE_BROADCASTS && (bret = _bcManager.get(key, mb)) != null ) {
+				mo.release();
+				mo.setBroadcastHandle(new BroadcastObject(bret, varname));
+				if( DMLScript.STATISTICS ) {
+					Statistics.accSparkBroadCastTime(System.nanoTime() - t0);
+					Statistics.incSparkBroadcastReuseCount(1);
+				}
+				return bret;
+			}
+			
+			//create partitioned matrix block and release memory consumed by input
 			PartitionedMatrixBlock pmb = new PartitionedMatrixBlock(mb, brlen, bclen);
 			mo.release();
 			
@@ -505,6 +535,20 @@ public class SparkExecutionContext extends ExecutionContext
 			bret = new PartitionedBroadcastMatrix(ret);
 			BroadcastObject bchandle = new BroadcastObject(bret, varname);
 			mo.setBroadcastHandle(bchandle);
+			
+			//register broadcast for reuse and destroy evicted broadcasts
+			long size = pmb.estimateSizeInMemory();
+			if( REUSE_BROADCASTS ) {
+				List<PartitionedBroadcastMatrix> evicted = _bcManager.put(
+					key, bret, pmb, size, (long)getBroadcastMemoryBudget());
+				for( PartitionedBroadcastMatrix pbm : evicted )
+					for( Broadcast<PartitionedMatrixBlock> bc : pbm.getBroadcasts() )
+						cleanupBroadcastVariable(bc);
+				if( DMLScript.STATISTICS )
+					Statistics.incSparkBroadcastEvictCount(evicted.size());
+			}
+			if( DMLScript.STATISTICS )
+				Statistics.incSparkBroadcastBytes(size);
 		}
 		
 		if (DMLScript.STATISTICS) {
@@ -1072,7 +1116,8 @@ public class SparkExecutionContext extends ExecutionContext
 		}
 		else if( lob instanceof BroadcastObject ) {
 			PartitionedBroadcastMatrix pbm = ((BroadcastObject)lob).getBroadcast();
-			if( pbm != null ) //robustness for evictions
+			//destroy unless still referenced or retained for reuse until evicted
+			if( pbm != null && !_bcManager.release(pbm, RETAIN_UNREFERENCED_BROADCASTS) )
 				for( Broadcast<PartitionedMatrixBlock> bc : pbm.getBroadcasts() )
 					cleanupBroadcastVariable(bc);
 		}
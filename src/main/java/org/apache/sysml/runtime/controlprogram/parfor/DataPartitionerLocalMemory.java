@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.runtime.controlprogram.parfor;
+
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.controlprogram.ParForProgramBlock.PDataPartitionFormat;
+import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.MatrixFormatMetaData;
+import org.apache.sysml.runtime.matrix.data.InputInfo;
+import org.apache.sysml.runtime.matrix.data.OutputInfo;
+
+/**
+ * In-memory data partitioner for local parfor execution. Instead of writing
+ * the individual partitions to files, this partitioner creates a partitioned 
+ * matrix object that references the unpartitioned input matrix, and partition 
+ * reads of the local parworkers are served as slices of the in-memory input. 
+ * This removes the partitioning I/O from the parfor startup path but requires 
+ * that the input fits into the local memory budget (see OptimizerRuleBased).
+ * 
+ * NOTE: The resulting partitioned matrix is only valid within the local parfor
+ * (i.e., same JVM), and hence not applicable for remote parfor execution.
+ */
+public class DataPartitionerLocalMemory extends DataPartitioner
+{
+	/**
+	 * 
+	 * @param dpf
+	 * @param n
+	 * @throws DMLRuntimeException
+	 */
+	public DataPartitionerLocalMemory(PDataPartitionFormat dpf, int n) 
+		throws DMLRuntimeException 
+	{
+		super(dpf, n);
+		
+		if( dpf == PDataPartitionFormat.ROW_BLOCK_WISE_N || dpf == PDataPartitionFormat.COLUMN_BLOCK_WISE_N  )
+			throw new DMLRuntimeException("Data partitioning format '"+dpf+"' not supported by DataPartitionerLocalMemory" );
+	}
+
+	@Override
+	public MatrixObject createPartitionedMatrixObject( MatrixObject in, MatrixObject out, boolean force )
+		throws DMLRuntimeException
+	{
+		//check for naive partitioning
+		if( _format == PDataPartitionFormat.NONE )
+			return in;
+		
+		//analyze input matrix object
+		MatrixFormatMetaData meta = (MatrixFormatMetaData)in.getMetaData();
+		MatrixCharacteristics mc = meta.getMatrixCharacteristics();
+		
+		//check lower bound of useful data partitioning
+		if( !force && mc.getRows() < Hop.CPThreshold && mc.getCols() < Hop.CPThreshold )
+			return in;
+		
+		//create output matrix object (no partition files, reads served from input)
+		out.setPartitioned( _format, _n ); 
+		out.setPartitionSource( in );
+		
+		MatrixCharacteristics mcNew = new MatrixCharacteristics( mc.getRows(), mc.getCols(), 
+				mc.getRowsPerBlock(), mc.getColsPerBlock() ); 
+		mcNew.setNonZeros( mc.getNonZeros() );
+		out.setMetaData(new MatrixFormatMetaData(mcNew, meta.getOutputInfo(), meta.getInputInfo()));	 
+		
+		return out;
+	}
+	
+	@Override
+	protected void partitionMatrix(MatrixObject in, String fnameNew, InputInfo ii, OutputInfo oi, long rlen, long clen, int brlen, int bclen)
+		throws DMLRuntimeException 
+	{
+		throw new DMLRuntimeException("File-based partitioning not applicable for in-memory data partitioner.");
+	}
+}
@@ -40,6 +40,7 @@ import org.apache.sysml.runtime.controlprogram.parfor.stat.Timing;
 public class LocalParWorker extends ParWorker implements Runnable
 {
 	protected LocalTaskQueue<Task> _taskQueue   = null;
+	protected int _workerIx = 0; //index into worker-local task queues
 	
 	protected Collection<String> _fnNames = null;
 	
@@ -74,6 +75,16 @@ public class LocalParWorker extends ParWorker implements Runnable
 		return _fnNames;
 	}
 	
+	/**
+	 * Sets the index of this worker among all local workers of a parfor,
+	 * which is used for worker-local task queues (e.g., work-stealing).
+	 * 
+	 * @param ix
+	 */
+	public void setWorkerIndex(int ix) {
+		_workerIx = ix;
+	}
+	
 	@Override
 	public void run() 
 	{
@@ -91,13 +102,18 @@ public class LocalParWorker extends ParWorker implements Runnable
 		
 		// continuous execution (execute tasks until (1) stopped or (2) no more tasks)
 		Task lTask = null; 
+		double tbusy = 0, tidle = 0;
 		
 		while( !_stopped ) 
 		{
 			//dequeue the next task (abort on NO_MORE_TASKS or error)
+			Timing time2 = ( _monitor ? new Timing(true) : null ); 
 			try
 			{
-				lTask = _taskQueue.dequeueTask();
+				lTask = _taskQueue.dequeueTask( _workerIx );
+				
+				if( _monitor )
+					tidle += time2.stop();
 				
 				if( lTask == LocalTaskQueue.NO_MORE_TASKS ) // task queue closed (no more tasks)
 					break; //normal end of parallel worker
@@ -122,6 +138,9 @@ public class LocalParWorker extends ParWorker implements Runnable
 					//core execution (see ParWorker)
 					executeTask( lTask );
 					success = true;
+					
+					if( _monitor )
+						tbusy += time2.stop();
 				} 
 				catch (Exception ex) 
 				{
@@ -150,6 +169,11 @@ public class LocalParWorker extends ParWorker implements Runnable
 			StatisticMonitor.putPWStat(_workerID, Stat.PARWRK_NUMTASKS, _numTasks);
 			StatisticMonitor.putPWStat(_workerID, Stat.PARWRK_NUMITERS, _numIters);
 			StatisticMonitor.putPWStat(_workerID, Stat.PARWRK_EXEC_T, time1.stop());
+			StatisticMonitor.putPWStat(_workerID, Stat.PARWRK_BUSY_T, tbusy);
+			StatisticMonitor.putPWStat(_workerID, Stat.PARWRK_IDLE_T, tidle);
+			if( _taskQueue instanceof LocalTaskQueueWorkStealing )
+				StatisticMonitor.putPWStat(_workerID, Stat.PARWRK_NUMSTEALS, 
+					((LocalTaskQueueWorkStealing)_taskQueue).getNumSteals(_workerIx));
 		}
 	}
 }
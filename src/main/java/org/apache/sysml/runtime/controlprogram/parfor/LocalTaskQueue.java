@@ -97,6 +97,21 @@ public class LocalTaskQueue<T>
 		return t;
 	}
 	
+	/**
+	 * Read of the next task on behalf of the given worker. The central FIFO 
+	 * queue is shared by all workers and hence ignores the worker index, but
+	 * subclasses may maintain worker-local tasks (see LocalTaskQueueWorkStealing).
+	 * 
+	 * @param workerIx
+	 * @return
+	 * @throws InterruptedException
+	 */
+	public T dequeueTask( int workerIx ) 
+		throws InterruptedException
+	{
+		return dequeueTask();
+	}
+	
 	/**
 	 * Synchronized (logical) insert of a NO_MORE_TASKS symbol at the end of the FIFO queue in order to
 	 * mark that no more tasks will be inserted into the queue.
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.runtime.controlprogram.parfor;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.sysml.runtime.controlprogram.parfor.Task.TaskType;
+import org.apache.sysml.runtime.instructions.cp.IntObject;
+
+/**
+ * Work-stealing task queue for local parfor. In contrast to the central FIFO queue of 
+ * LocalTaskQueue, this queue maintains one deque per worker. Incoming tasks are assigned 
+ * to the worker deques in round-robin fashion. A worker takes small chunks of (at most) 
+ * the given chunk size from the head of its own deque, splitting range tasks as 
+ * necessary. If its own deque is empty, the worker steals from the tail of the deque 
+ * with most remaining iterations; if this deque holds only a single range task, the
+ * range is split and the second half is stolen (range splitting). 
+ * 
+ * Accordingly, contention is limited to short critical sections on individual deques,
+ * and skewed iteration costs are balanced without precomputed task boundaries. Note
+ * that tasks are re-chunked by this queue, i.e., the number of executed tasks is 
+ * available via getNumDequeuedTasks().
+ * 
+ */
+public class LocalTaskQueueWorkStealing extends LocalTaskQueue<Task>
+{
+	private final WorkerDeque[] _deques;
+	private final long _chunkSize;
+	private final AtomicLong _numDequeued = new AtomicLong(0);
+	private volatile boolean _closedInput = false;
+	private int _pos = 0; //next deque for enqueue
+	
+	public LocalTaskQueueWorkStealing( int numWorkers, long chunkSize )
+	{
+		_deques = new WorkerDeque[numWorkers];
+		for( int i=0; i<numWorkers; i++ )
+			_deques[i] = new WorkerDeque();
+		_chunkSize = Math.max(chunkSize, 1);
+	}
+	
+	/**
+	 * Insert of a new task to the tail of the next worker deque (round-robin).
+	 * 
+	 * @param t
+	 * @throws InterruptedException
+	 */
+	@Override
+	public void enqueueTask( Task t ) 
+		throws InterruptedException
+	{
+		WorkerDeque dq = null;
+		synchronized( this ) {
+			dq = _deques[_pos];
+			_pos = (_pos + 1) % _deques.length;
+		}
+		dq.addLast( t );
+		
+		synchronized( this ) {
+			notifyAll(); //notify waiting readers
+		}
+	}
+	
+	/**
+	 * Dequeue without worker context, which is treated as a request of the first worker.
+	 * 
+	 * @return
+	 * @throws InterruptedException
+	 */
+	@Override
+	public Task dequeueTask() 
+		throws InterruptedException
+	{
+		return dequeueTask( 0 );
+	}
+	
+	/**
+	 * Read of the next chunk from the deque of the given worker, or if empty, steal 
+	 * from other workers. Blocks until a task is available or the input is closed.
+	 * 
+	 * @param workerIx
+	 * @return
+	 * @throws InterruptedException
+	 */
+	@Override
+	public Task dequeueTask( int workerIx ) 
+		throws InterruptedException
+	{
+		final WorkerDeque own = _deques[workerIx % _deques.length];
+		
+		while( true )
+		{
+			//take next chunk from own deque
+			Task t = own.pollFirst(_chunkSize);
+			
+			//steal from deque with max remaining iterations
+			if( t == null ) {
+				Task stolen = steal(own);
+				if( stolen != null ) {
+					own.incrementSteals();
+					own.addLast(stolen);
+					t = own.pollFirst(_chunkSize);
+				}
+			}
+			
+			if( t != null ) {
+				_numDequeued.incrementAndGet();
+				return t;
+			}
+			
+			//wait for writers or signal end of tasks
+			synchronized( this ) {
+				if( _closedInput && isEmpty() )
+					return (Task)NO_MORE_TASKS;
+				else if( isEmpty() )
+					wait();
+			}
+		}
+	}
+	
+	/**
+	 * Marks the end of the task input stream.
+	 */
+	@Override
+	public synchronized void closeInput()
+	{
+		_closedInput = true;
+		notifyAll(); //notify all waiting readers
+	}
+	
+	/**
+	 * Read of the current number of tasks in all deques.
+	 * 
+	 * @return
+	 */
+	@Override
+	public int size()
+	{
+		int ret = 0;
+		for( WorkerDeque dq : _deques )
+			ret += dq.size();
+		return ret;
+	}
+	
+	/**
+	 * Returns the total number of dequeued tasks (after chunking and splitting).
+	 * 
+	 * @return
+	 */
+	public long getNumDequeuedTasks()
+	{
+		return _numDequeued.get();
+	}
+	
+	/**
+	 * Returns the number of successful steals of the given worker.
+	 * 
+	 * @param workerIx
+	 * @return
+	 */
+	public long getNumSteals( int workerIx )
+	{
+		return _deques[workerIx % _deques.length].getNumSteals();
+	}
+	
+	@Override
+	public String toString() 
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append("WORK-STEALING TASK QUEUE (workers=");
+		sb.append(_deques.length);
+		sb.append(",size=");
+		sb.append(size());
+		sb.append(",close=");
+		sb.append(_closedInput);
+		sb.append(")\n");
+		for( int i=0; i<_deques.length; i++ ) {
+			sb.append("  DEQUE #");
+			sb.append(i);
+			sb.append(": ");
+			sb.append(_deques[i].toString());
+			sb.append("\n");
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	private boolean isEmpty()
+	{
+		for( WorkerDeque dq : _deques )
+			if( dq.getNumIterations() > 0 )
+				return false;
+		return true;
+	}
+	
+	/**
+	 * 
+	 * @param own
+	 * @return
+	 */
+	private Task steal( WorkerDeque own )
+	{
+		//probe victims in order of remaining iterations (unsynchronized 
+		//read as heuristic, retry on concurrent modifications)
+		while( true ) {
+			WorkerDeque victim = null;
+			for( WorkerDeque dq : _deques )
+				if( dq != own && dq.getNumIterations() > 0 
+					&& (victim == null || dq.getNumIterations() > victim.getNumIterations()) )
+					victim = dq;
+			if( victim == null )
+				return null;
+			Task t = victim.pollLastOrSplit();
+			if( t != null )
+				return t;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param t
+	 * @return
+	 */
+	private static long getNumIterations( Task t )
+	{
+		if( t.getType() == TaskType.SET )
+			return t.size();
+		List<IntObject> tmp = t.getIterations();
+		long lFrom = tmp.get(0).getLongValue();
+		long lTo   = tmp.get(1).getLongValue();
+		long lIncr = tmp.get(2).getLongValue();
+		return (lTo >= lFrom) ? (lTo - lFrom) / lIncr + 1 : 0;
+	}
+	
+	/**
+	 * Deque of tasks owned by a single worker, with synchronized access
+	 * by the owner (head) and thieves (tail).
+	 */
+	private static class WorkerDeque
+	{
+		private final ArrayDeque<Task> _tasks = new ArrayDeque<Task>();
+		private volatile long _numIters = 0;
+		private long _numSteals = 0;
+		
+		public synchronized void addLast( Task t ) {
+			_tasks.addLast(t);
+			_numIters += LocalTaskQueueWorkStealing.getNumIterations(t);
+		}
+		
+		/**
+		 * Removes a chunk of at most the given number of iterations from
+		 * the head, where range tasks are split if necessary.
+		 * 
+		 * @param chunkSize
+		 * @return
+		 */
+		public synchronized Task pollFirst( long chunkSize ) {
+			Task t = _tasks.peekFirst();
+			if( t == null )
+				return null;
+			long niters = LocalTaskQueueWorkStealing.getNumIterations(t);
+			if( t.getType() == TaskType.RANGE && niters > chunkSize ) {
+				List<IntObject> tmp = t.getIterations();
+				String name = tmp.get(0).getName();
+				long lFrom = tmp.get(0).getLongValue();
+				long lTo   = tmp.get(1).getLongValue();
+				long lIncr = tmp.get(2).getLongValue();
+				long lSplit = lFrom + chunkSize * lIncr;
+				_tasks.pollFirst();
+				_tasks.addFirst(TaskPartitionerWorkStealing.createRangeTask(name, lSplit, lTo, lIncr));
+				_numIters -= chunkSize;
+				return TaskPartitionerWorkStealing.createRangeTask(name, lFrom, lSplit-lIncr, lIncr);
+			}
+			_tasks.pollFirst();
+			_numIters -= niters;
+			return t;
+		}
+		
+		/**
+		 * Removes the last task, or if only a single range task exists, 
+		 * splits it and removes the second half of its iterations.
+		 * 
+		 * @return
+		 */
+		public synchronized Task pollLastOrSplit() {
+			Task t = _tasks.peekLast();
+			if( t == null )
+				return null;
+			long niters = LocalTaskQueueWorkStealing.getNumIterations(t);
+			if( _tasks.size() == 1 && t.getType() == TaskType.RANGE && niters > 1 ) {
+				List<IntObject> tmp = t.getIterations();
+				String name = tmp.get(0).getName();
+				long lFrom = tmp.get(0).getLongValue();
+				long lTo   = tmp.get(1).getLongValue();
+				long lIncr = tmp.get(2).getLongValue();
+				long lSplit = lFrom + (niters/2) * lIncr;
+				_tasks.pollLast();
+				_tasks.addLast(TaskPartitionerWorkStealing.createRangeTask(name, lFrom, lSplit-lIncr, lIncr));
+				_numIters -= niters - niters/2;
+				return TaskPartitionerWorkStealing.createRangeTask(name, lSplit, lTo, lIncr);
+			}
+			_tasks.pollLast();
+			_numIters -= niters;
+			return t;
+		}
+		
+		public long getNumIterations() {
+			return _numIters;
+		}
+		
+		public synchronized int size() {
+			return _tasks.size();
+		}
+		
+		public synchronized void incrementSteals() {
+			_numSteals++;
+		}
+		
+		public synchronized long getNumSteals() {
+			return _numSteals;
+		}
+		
+		@Override
+		public synchronized String toString() {
+			return "deque (iters="+_numIters+", tasks="+_tasks.size()+", steals="+_numSteals+")";
+		}
+	}
+}
@@ -0,0 +1,1030 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.controlprogram.parfor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map.Entry;
+
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.conf.DMLConfig;
+import org.apache.sysml.parser.DataIdentifier;
+import org.apache.sysml.parser.ParForStatementBlock;
+import org.apache.sysml.parser.Expression.DataType;
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.controlprogram.ExternalFunctionProgramBlock;
+import org.apache.sysml.runtime.controlprogram.ExternalFunctionProgramBlockCP;
+import org.apache.sysml.runtime.controlprogram.ForProgramBlock;
+import org.apache.sysml.runtime.controlprogram.FunctionProgramBlock;
+import org.apache.sysml.runtime.controlprogram.IfProgramBlock;
+import org.apache.sysml.runtime.controlprogram.LocalVariableMap;
+import org.apache.sysml.runtime.controlprogram.ParForProgramBlock;
+import org.apache.sysml.runtime.controlprogram.Program;
+import org.apache.sysml.runtime.controlprogram.ProgramBlock;
+import org.apache.sysml.runtime.controlprogram.WhileProgramBlock;
+import org.apache.sysml.runtime.controlprogram.ParForProgramBlock.PDataPartitionFormat;
+import org.apache.sysml.runtime.controlprogram.ParForProgramBlock.PExecMode;
+import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
+import org.apache.sysml.runtime.controlprogram.caching.MatrixObject.UpdateType;
+import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
+import org.apache.sysml.runtime.controlprogram.context.ExecutionContextFactory;
+import org.apache.sysml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
+import org.apache.sysml.runtime.instructions.CPInstructionParser;
+import org.apache.sysml.runtime.instructions.Instruction;
+import org.apache.sysml.runtime.instructions.cp.BooleanObject;
+import org.apache.sysml.runtime.instructions.cp.CPInstruction;
+import org.apache.sysml.runtime.instructions.cp.Data;
+import org.apache.sysml.runtime.instructions.cp.DoubleObject;
+import org.apache.sysml.runtime.instructions.cp.IntObject;
+import org.apache.sysml.runtime.instructions.cp.ScalarObject;
+import org.apache.sysml.runtime.instructions.cp.StringObject;
+import org.apache.sysml.runtime.instructions.spark.SPInstruction;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.MatrixFormatMetaData;
+import org.apache.sysml.runtime.matrix.data.InputInfo;
+import org.apache.sysml.runtime.matrix.data.OutputInfo;
+import org.apache.sysml.udf.ExternalFunctionInvocationInstruction;
+
+/**
+ * Static functionalities for serializing and parsing parfor bodies (programs, program blocks,
+ * function program blocks, instructions, and symbol tables) into a compact binary format, as 
+ * an alternative to the string-based format of {@link ProgramConverter}. 
+ * 
+ * In contrast to the string-based format, all components are length-prefixed (with variable-length 
+ * integer encoding), which avoids the hierarchy-aware tokenization, the newline normalization, and 
+ * the replacement of special literal characters in instructions. Enumerations and numeric meta data
+ * are written as ordinals and variable-length integers instead of strings. Instructions are still 
+ * transferred as instruction strings because the remote side has to create fresh instruction objects
+ * (with replaced thread ids) via the instruction parser anyway. 
+ * 
+ * The serialized parfor body is organized into a program part (uuid, configurations, function program 
+ * blocks, result variables, program blocks) and a trailing execution context part, which allows to 
+ * efficiently probe if subsequent parfor jobs differ only in their symbol tables.
+ * 
+ * NOTE: This format is used for remote spark parfor only, where the program is shipped as byte array. 
+ * Remote MR parfor still relies on the string-based format because it is passed via the job configuration.
+ */
+public class ProgramConverterBinary 
+{
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+	
+	//program block types
+	private static final byte PB_GENERIC = 0;
+	private static final byte PB_WHILE   = 1;
+	private static final byte PB_FOR     = 2;
+	private static final byte PB_PARFOR  = 3;
+	private static final byte PB_IF      = 4;
+	private static final byte PB_FC      = 5;
+	private static final byte PB_EFC     = 6;
+	
+	private static final DataType[] DATA_TYPES = DataType.values();
+	private static final ValueType[] VALUE_TYPES = ValueType.values();
+	private static final PDataPartitionFormat[] PART_FORMATS = PDataPartitionFormat.values();
+	private static final UpdateType[] UPDATE_TYPES = UpdateType.values();
+	
+	
+	////////////////////////////////
+	// SERIALIZATION 
+	////////////////////////////////	
+	
+	/**
+	 * 
+	 * @param body
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public static byte[] serializeParForBody( ParForBody body ) 
+		throws DMLRuntimeException
+	{
+		ArrayList<ProgramBlock> pbs = body.getChildBlocks();
+		ArrayList<String> rVnames   = body.getResultVarNames();
+		ExecutionContext ec         = body.getEc();
+		
+		try
+		{
+			//serialize program part (everything except the execution context)
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			DataOutputStream dos = new DataOutputStream(bos);
+			
+			//handle DMLScript UUID (propagate original uuid for writing to scratch space)
+			writeString( dos, DMLScript.getUUID() );
+			
+			//handle DML config and additional configurations
+			writeString( dos, ConfigurationManager.getDMLConfig().serializeDMLConfig() );
+			dos.writeBoolean( DMLScript.STATISTICS );
+			
+			//handle program (function program blocks only)
+			if( !pbs.isEmpty() )
+				serializeProgram( dos, pbs.get(0).getProgram(), pbs );
+			else
+				writeVarLong( dos, 0 );
+			
+			//handle result variable names
+			serializeStringList( dos, rVnames );
+			
+			//handle program blocks -- ONLY instructions, not variables.
+			serializeProgramBlocks( dos, pbs );
+			dos.flush();
+			
+			//serialize complete body (length-prefixed program part, execution context)
+			ByteArrayOutputStream bos2 = new ByteArrayOutputStream(bos.size() + 1024);
+			DataOutputStream dos2 = new DataOutputStream(bos2);
+			dos2.writeInt( bos.size() );
+			bos.writeTo( dos2 );
+			
+			//handle execution context
+			//note: this includes also the symbol table (serialize only the top-level variable map,
+			//      (symbol tables for nested/child blocks are created at parse time, on the remote side)
+			dos2.writeBoolean( ec != null );
+			if( ec != null )
+				serializeVariables( dos2, ec.getVariables() );
+			dos2.flush();
+			
+			return bos2.toByteArray();
+		}
+		catch(IOException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param out
+	 * @param prog
+	 * @param pbs
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static void serializeProgram( DataOutput out, Program prog, ArrayList<ProgramBlock> pbs ) 
+		throws DMLRuntimeException, IOException
+	{
+		//note: in order to avoid redundancy, we only serialize function program blocks
+		//that are reachable from the given program blocks (see ProgramConverter)
+		HashMap<String, FunctionProgramBlock> fpbs = prog.getFunctionProgramBlocks();
+		HashSet<String> cand = new HashSet<String>();
+		ProgramConverter.rFindSerializationCandidates(pbs, cand);
+		
+		writeVarLong( out, cand.size() );
+		for( Entry<String,FunctionProgramBlock> e : fpbs.entrySet() )
+			if( cand.contains(e.getKey()) ) {
+				writeString( out, e.getKey() );
+				rSerializeProgramBlock( out, e.getValue() );
+			}
+	}
+	
+	/**
+	 * 
+	 * @param out
+	 * @param vars
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static void serializeVariables( DataOutput out, LocalVariableMap vars ) 
+		throws DMLRuntimeException, IOException
+	{
+		writeVarLong( out, vars.keySet().size() );
+		for( String key : vars.keySet() ) {
+			writeString( out, key );
+			serializeDataObject( out, vars.get(key) );
+		}
+	}
+	
+	/**
+	 * 
+	 * @param out
+	 * @param dat
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static void serializeDataObject( DataOutput out, Data dat ) 
+		throws DMLRuntimeException, IOException
+	{
+		// SCHEMA: <datatype><valuetype><value>
+		// (scalars are serialize by value, matrices by filename and meta data)
+		DataType datatype = dat.getDataType();
+		ValueType valuetype = dat.getValueType();
+		if( datatype != DataType.SCALAR && datatype != DataType.MATRIX )
+			throw new DMLRuntimeException("Unable to serialize datatype "+datatype);
+		
+		out.writeByte( datatype.ordinal() );
+		out.writeByte( valuetype.ordinal() );
+		
+		if( datatype == DataType.SCALAR )
+		{
+			ScalarObject so = (ScalarObject) dat;
+			switch( valuetype ) {
+				case INT:     writeVarLong( out, so.getLongValue() ); break;
+				case DOUBLE:  out.writeDouble( so.getDoubleValue() ); break;
+				case BOOLEAN: out.writeBoolean( so.getBooleanValue() ); break;
+				case STRING:  writeString( out, so.getStringValue() ); break;
+				default:
+					throw new DMLRuntimeException("Unable to serialize valuetype "+valuetype);
+			}
+		}
+		else //MATRIX
+		{
+			MatrixObject mo = (MatrixObject) dat;
+			MatrixFormatMetaData md = (MatrixFormatMetaData) dat.getMetaData();
+			MatrixCharacteristics mc = md.getMatrixCharacteristics();
+			PDataPartitionFormat partFormat = (mo.getPartitionFormat()!=null) ? mo.getPartitionFormat() : PDataPartitionFormat.NONE;
+			writeString( out, mo.getFileName() );
+			writeVarLong( out, mc.getRows() );
+			writeVarLong( out, mc.getCols() );
+			writeVarLong( out, mc.getRowsPerBlock() );
+			writeVarLong( out, mc.getColsPerBlock() );
+			writeVarLong( out, mc.getNonZeros() );
+			writeString( out, InputInfo.inputInfoToString(md.getInputInfo()) );
+			writeString( out, OutputInfo.outputInfoToString(md.getOutputInfo()) );
+			out.writeByte( partFormat.ordinal() );
+			out.writeByte( mo.getUpdateType().ordinal() );
+		}
+	}
+	
+	/**
+	 * 
+	 * @param out
+	 * @param inst
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static void serializeInstructions( DataOutput out, ArrayList<Instruction> inst ) 
+		throws DMLRuntimeException, IOException
+	{
+		writeVarLong( out, inst.size() );
+		for( Instruction linst : inst )
+		{
+			//check that only cp instruction are transmitted 
+			if( !(   linst instanceof CPInstruction
+				  || linst instanceof SPInstruction
+				  || linst instanceof ExternalFunctionInvocationInstruction ) )
+			{
+				throw new DMLRuntimeException( ProgramConverter.NOT_SUPPORTED_MR_INSTRUCTION 
+						+ " " +linst.getClass().getName()+"\n"+linst );
+			}
+			
+			//note: no replacement of literals required (length-prefixed strings)
+			writeString( out, linst.toString() );
+		}
+	}
+	
+	/**
+	 * 
+	 * @param out
+	 * @param pbs
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static void serializeProgramBlocks( DataOutput out, ArrayList<ProgramBlock> pbs ) 
+		throws DMLRuntimeException, IOException
+	{
+		writeVarLong( out, pbs.size() );
+		for( ProgramBlock pb : pbs )
+			rSerializeProgramBlock( out, pb );
+	}
+	
+	/**
+	 * 
+	 * @param out
+	 * @param pb
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static void rSerializeProgramBlock( DataOutput out, ProgramBlock pb ) 
+		throws DMLRuntimeException, IOException
+	{
+		if( pb instanceof WhileProgramBlock )
+		{
+			WhileProgramBlock wpb = (WhileProgramBlock) pb;
+			out.writeByte( PB_WHILE );
+			serializeInstructions( out, wpb.getPredicate() );
+			writeString( out, wpb.getPredicateResultVar() );
+			serializeInstructions( out, wpb.getExitInstructions() );
+			serializeProgramBlocks( out, wpb.getChildBlocks() );
+		}
+		else if ( pb instanceof ForProgramBlock && !(pb instanceof ParForProgramBlock ) )
+		{
+			ForProgramBlock fpb = (ForProgramBlock) pb; 
+			out.writeByte( PB_FOR );
+			serializeStringArray( out, fpb.getIterablePredicateVars() );
+			serializeInstructions( out, fpb.getFromInstructions() );
+			serializeInstructions( out, fpb.getToInstructions() );
+			serializeInstructions( out, fpb.getIncrementInstructions() );
+			serializeInstructions( out, fpb.getExitInstructions() );
+			serializeProgramBlocks( out, fpb.getChildBlocks() );
+		}
+		else if ( pb instanceof ParForProgramBlock )
+		{	
+			ParForProgramBlock pfpb = (ParForProgramBlock) pb; 
+			
+			//check for nested remote ParFOR
+			if( PExecMode.valueOf( pfpb.getParForParams().get( ParForStatementBlock.EXEC_MODE )) == PExecMode.REMOTE_MR )
+				throw new DMLRuntimeException( ProgramConverter.NOT_SUPPORTED_MR_PARFOR );
+			
+			out.writeByte( PB_PARFOR );
+			serializeStringArray( out, pfpb.getIterablePredicateVars() );
+			serializeStringList( out, pfpb.getResultVariables() );
+			serializeStringHashMap( out, pfpb.getParForParams() ); //parameters of nested parfor
+			serializeInstructions( out, pfpb.getFromInstructions() );
+			serializeInstructions( out, pfpb.getToInstructions() );
+			serializeInstructions( out, pfpb.getIncrementInstructions() );
+			serializeInstructions( out, pfpb.getExitInstructions() );
+			serializeProgramBlocks( out, pfpb.getChildBlocks() );
+		}
+		else if ( pb instanceof IfProgramBlock )
+		{
+			IfProgramBlock ipb = (IfProgramBlock) pb;
+			out.writeByte( PB_IF );
+			serializeInstructions( out, ipb.getPredicate() );
+			writeString( out, ipb.getPredicateResultVar() );
+			serializeInstructions( out, ipb.getExitInstructions() );
+			serializeProgramBlocks( out, ipb.getChildBlocksIfBody() );
+			serializeProgramBlocks( out, ipb.getChildBlocksElseBody() );
+		}
+		else if( pb instanceof FunctionProgramBlock && !(pb instanceof ExternalFunctionProgramBlock) )
+		{
+			FunctionProgramBlock fpb = (FunctionProgramBlock) pb;
+			out.writeByte( PB_FC );
+			serializeDataIdentifiers( out, fpb.getInputParams() );
+			serializeDataIdentifiers( out, fpb.getOutputParams() );
+			serializeInstructions( out, fpb.getInstructions() );
+			serializeProgramBlocks( out, fpb.getChildBlocks() );
+		}
+		else if( pb instanceof ExternalFunctionProgramBlock )
+		{
+			if( !(pb instanceof ExternalFunctionProgramBlockCP) ) 
+				throw new DMLRuntimeException( ProgramConverter.NOT_SUPPORTED_EXTERNALFUNCTION_PB );
+			
+			//note: instructions are created on construction anyway
+			ExternalFunctionProgramBlockCP fpb = (ExternalFunctionProgramBlockCP) pb;
+			out.writeByte( PB_EFC );
+			serializeDataIdentifiers( out, fpb.getInputParams() );
+			serializeDataIdentifiers( out, fpb.getOutputParams() );
+			serializeStringHashMap( out, fpb.getOtherParams() );
+			writeString( out, fpb.getBaseDir() );
+			serializeProgramBlocks( out, fpb.getChildBlocks() );
+		}
+		else //all generic program blocks
+		{
+			out.writeByte( PB_GENERIC );
+			serializeInstructions( out, pb.getInstructions() );
+		}
+	}
+	
+	/**
+	 * 
+	 * @param out
+	 * @param vars
+	 * @throws IOException
+	 */
+	private static void serializeStringList( DataOutput out, ArrayList<String> vars ) 
+		throws IOException
+	{
+		writeVarLong( out, vars.size() );
+		for( String s : vars )
+			writeString( out, s );
+	}
+	
+	/**
+	 * 
+	 * @param out
+	 * @param vars
+	 * @throws IOException
+	 */
+	private static void serializeStringArray( DataOutput out, String[] vars ) 
+		throws IOException
+	{
+		writeVarLong( out, vars.length );
+		for( String s : vars )
+			writeString( out, s );
+	}
+	
+	/**
+	 * 
+	 * @param out
+	 * @param vars
+	 * @throws IOException
+	 */
+	private static void serializeStringHashMap( DataOutput out, HashMap<String,String> vars ) 
+		throws IOException
+	{
+		writeVarLong( out, vars.size() );
+		for( Entry<String,String> e : vars.entrySet() ) {
+			writeString( out, e.getKey() );
+			writeString( out, e.getValue() );
+		}
+	}
+	
+	/**
+	 * 
+	 * @param out
+	 * @param vars
+	 * @throws IOException
+	 */
+	private static void serializeDataIdentifiers( DataOutput out, ArrayList<DataIdentifier> vars ) 
+		throws IOException
+	{
+		writeVarLong( out, vars.size() );
+		for( DataIdentifier dat : vars ) {
+			writeString( out, dat.getName() );
+			out.writeByte( dat.getDataType().ordinal() );
+			out.writeByte( dat.getValueType().ordinal() );
+		}
+	}
+	
+	
+	////////////////////////////////
+	// PARSING 
+	////////////////////////////////
+	
+	/**
+	 * 
+	 * @param in
+	 * @param id
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public static ParForBody parseParForBody( byte[] in, int id ) 
+		throws DMLRuntimeException
+	{
+		ParForBody body = new ParForBody();
+		
+		try
+		{
+			DataInputStream dis = new DataInputStream(new ByteArrayInputStream(in));
+			dis.readInt(); //length of program part
+			
+			//handle DMLScript UUID (NOTE: set directly in DMLScript)
+			//(master UUID is used for all nodes (in order to simply cleanup))
+			DMLScript.setUUID( readString(dis) );
+			
+			//handle DML config (NOTE: set directly in ConfigurationManager)
+			String confStr = readString(dis);
+			JobConf job = ConfigurationManager.getCachedJobConf();
+			if( !InfrastructureAnalyzer.isLocalMode(job) ) {
+				if( confStr != null && !confStr.trim().isEmpty() ) {
+					DMLConfig config = DMLConfig.parseDMLConfig(confStr);
+					ConfigurationManager.setLocalConfig(config);
+				}
+				//init internal configuration w/ parsed or default config
+				ParForProgramBlock.initInternalConfigurations(
+						ConfigurationManager.getDMLConfig());
+			}
+			
+			//handle additional configs
+			DMLScript.STATISTICS = dis.readBoolean();
+			
+			//handle program
+			Program prog = parseProgram( dis, id );
+			
+			//handle result variable names
+			body.setResultVarNames( parseStringList(dis) );
+			
+			//handle program blocks
+			body.setChildBlocks( parseProgramBlocks(dis, prog, id) );
+			
+			//handle execution context
+			body.setEc( parseExecutionContext(dis, prog) );
+		}
+		catch(IOException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		return body;
+	}
+	
+	/**
+	 * Parses the given serialized parfor body but reuses the program and program blocks of a
+	 * previously parsed body (with the same id) if both serialized bodies have an equal program
+	 * part, i.e., differ only in their execution contexts (symbol tables). Otherwise, this falls 
+	 * back to a full parse of the given parfor body (see {@link ProgramConverter} for the 
+	 * equivalent functionality of the string-based format).
+	 * 
+	 * @param in
+	 * @param id
+	 * @param inReuse serialized parfor body of body to reuse
+	 * @param bodyReuse previously parsed parfor body
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public static ParForBody parseParForBody( byte[] in, int id, byte[] inReuse, ParForBody bodyReuse ) 
+		throws DMLRuntimeException
+	{
+		//check for reusable program (existing execution context required for program)
+		if( inReuse == null || bodyReuse == null || bodyReuse.getEc() == null 
+			|| !equalsProgramPart(in, inReuse) )
+		{
+			return parseParForBody(in, id);
+		}
+		
+		//create body with reused program blocks and new execution context
+		ParForBody body = new ParForBody();
+		body.setResultVarNames( bodyReuse.getResultVarNames() );
+		body.setChildBlocks( bodyReuse.getChildBlocks() );
+		
+		try {
+			DataInputStream dis = new DataInputStream(new ByteArrayInputStream(in));
+			dis.skipBytes( 4 + dis.readInt() ); //skip program part
+			body.setEc( parseExecutionContext(dis, bodyReuse.getEc().getProgram()) );
+		}
+		catch(IOException ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		return body;
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @param id
+	 * @return
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static Program parseProgram( DataInput in, int id ) 
+		throws DMLRuntimeException, IOException
+	{
+		Program prog = new Program();
+		
+		int len = (int) readVarLong(in);
+		for( int i=0; i<len; i++ ) {
+			String fkey = readString(in);
+			String[] keypart = fkey.split( Program.KEY_DELIM );
+			FunctionProgramBlock fpb = (FunctionProgramBlock) rParseProgramBlock(in, prog, id);
+			prog.addFunctionProgramBlock(keypart[0], keypart[1], fpb);
+		}
+		
+		return prog;
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @return
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static LocalVariableMap parseVariables( DataInput in ) 
+		throws DMLRuntimeException, IOException
+	{
+		LocalVariableMap vars = new LocalVariableMap();
+		int len = (int) readVarLong(in);
+		for( int i=0; i<len; i++ ) {
+			String name = readString(in);
+			vars.put(name, parseDataObject(in, name));
+		}
+		
+		return vars;
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @param name
+	 * @return
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static Data parseDataObject( DataInput in, String name ) 
+		throws DMLRuntimeException, IOException
+	{
+		DataType datatype = DATA_TYPES[ in.readByte() ];
+		ValueType valuetype = VALUE_TYPES[ in.readByte() ];
+		Data dat = null;
+		
+		if( datatype == DataType.SCALAR )
+		{
+			switch( valuetype ) {
+				case INT:     dat = new IntObject(name, readVarLong(in)); break;
+				case DOUBLE:  dat = new DoubleObject(name, in.readDouble()); break;
+				case BOOLEAN: dat = new BooleanObject(name, in.readBoolean()); break;
+				case STRING:  dat = new StringObject(name, readString(in)); break;
+				default:
+					throw new DMLRuntimeException("Unable to parse valuetype "+valuetype);
+			}
+		}
+		else if( datatype == DataType.MATRIX )
+		{
+			MatrixObject mo = new MatrixObject(valuetype, readString(in));
+			long rows = readVarLong(in);
+			long cols = readVarLong(in);
+			int brows = (int) readVarLong(in);
+			int bcols = (int) readVarLong(in);
+			long nnz = readVarLong(in);
+			InputInfo iin = InputInfo.stringToInputInfo( readString(in) );
+			OutputInfo oin = OutputInfo.stringToOutputInfo( readString(in) );
+			PDataPartitionFormat partFormat = PART_FORMATS[ in.readByte() ];
+			UpdateType inplace = UPDATE_TYPES[ in.readByte() ];
+			MatrixCharacteristics mc = new MatrixCharacteristics(rows, cols, brows, bcols, nnz); 
+			mo.setMetaData( new MatrixFormatMetaData(mc, oin, iin) );
+			mo.setVarName( name );
+			if( partFormat!=PDataPartitionFormat.NONE )
+				mo.setPartitioned( partFormat, -1 );
+			mo.setUpdateType( inplace );
+			dat = mo;
+		}
+		else
+			throw new DMLRuntimeException("Unable to parse datatype "+datatype);
+		
+		return dat;
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @param prog
+	 * @return
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static ExecutionContext parseExecutionContext( DataInput in, Program prog ) 
+		throws DMLRuntimeException, IOException
+	{
+		ExecutionContext ec = null;
+		if( in.readBoolean() ) {
+			ec = ExecutionContextFactory.createContext( false, prog );
+			ec.setVariables( parseVariables(in) );
+		}
+		
+		return ec;
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @param id
+	 * @return
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static ArrayList<Instruction> parseInstructions( DataInput in, int id ) 
+		throws DMLRuntimeException, IOException
+	{
+		int len = (int) readVarLong(in);
+		ArrayList<Instruction> insts = new ArrayList<Instruction>(len);
+		for( int i=0; i<len; i++ )
+		{
+			//Note that at this point only CP instructions and External function instruction can occur
+			String instStr = readString(in); 
+			try {
+				Instruction tmpinst = CPInstructionParser.parseSingleInstruction(instStr);
+				tmpinst = ProgramConverter.saveReplaceThreadID(tmpinst, 
+						ProgramConverter.CP_ROOT_THREAD_ID, ProgramConverter.CP_CHILD_THREAD+id );
+				insts.add( tmpinst );
+			}
+			catch(Exception ex) {
+				throw new DMLRuntimeException("Failed to parse instruction: " + instStr, ex);
+			}
+		}
+		
+		return insts;
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @param prog
+	 * @param id
+	 * @return
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static ArrayList<ProgramBlock> parseProgramBlocks( DataInput in, Program prog, int id ) 
+		throws DMLRuntimeException, IOException
+	{
+		int len = (int) readVarLong(in);
+		ArrayList<ProgramBlock> pbs = new ArrayList<ProgramBlock>(len);
+		for( int i=0; i<len; i++ )
+			pbs.add( rParseProgramBlock(in, prog, id) );
+		
+		return pbs;
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @param prog
+	 * @param id
+	 * @return
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static ProgramBlock rParseProgramBlock( DataInput in, Program prog, int id ) 
+		throws DMLRuntimeException, IOException
+	{
+		byte type = in.readByte();
+		
+		switch( type )
+		{
+			case PB_WHILE: {
+				ArrayList<Instruction> inst = parseInstructions(in, id);
+				String var = readString(in);
+				ArrayList<Instruction> exit = parseInstructions(in, id);
+				ArrayList<ProgramBlock> pbs = parseProgramBlocks(in, prog, id);
+				
+				WhileProgramBlock wpb = new WhileProgramBlock(prog, inst);
+				wpb.setPredicateResultVar(var);
+				wpb.setExitInstructions2(exit);
+				wpb.setChildBlocks(pbs);
+				return wpb;
+			}
+			case PB_FOR: {
+				String[] iterPredVars = parseStringArray(in);
+				ArrayList<Instruction> from = parseInstructions(in, id);
+				ArrayList<Instruction> to = parseInstructions(in, id);
+				ArrayList<Instruction> incr = parseInstructions(in, id);
+				ArrayList<Instruction> exit = parseInstructions(in, id);
+				ArrayList<ProgramBlock> pbs = parseProgramBlocks(in, prog, id);
+				
+				ForProgramBlock fpb = new ForProgramBlock(prog, iterPredVars);
+				fpb.setFromInstructions(from);
+				fpb.setToInstructions(to);
+				fpb.setIncrementInstructions(incr);
+				fpb.setExitInstructions(exit);
+				fpb.setChildBlocks(pbs);
+				return fpb;
+			}
+			case PB_PARFOR: {
+				String[] iterPredVars = parseStringArray(in);
+				ArrayList<String> resultVars = parseStringList(in);
+				HashMap<String,String> params = parseStringHashMap(in);
+				ArrayList<Instruction> from = parseInstructions(in, 0);
+				ArrayList<Instruction> to = parseInstructions(in, 0);
+				ArrayList<Instruction> incr = parseInstructions(in, 0);
+				ArrayList<Instruction> exit = parseInstructions(in, 0);
+				//program blocks //reset id to preinit state, replaced during exec
+				ArrayList<ProgramBlock> pbs = parseProgramBlocks(in, prog, 0);
+				
+				ParForProgramBlock pfpb = new ParForProgramBlock(id, prog, iterPredVars, params);
+				pfpb.disableOptimization(); //already done in top-level parfor
+				pfpb.setResultVariables(resultVars);
+				pfpb.setFromInstructions(from);
+				pfpb.setToInstructions(to);
+				pfpb.setIncrementInstructions(incr);
+				pfpb.setExitInstructions(exit);
+				pfpb.setChildBlocks(pbs);
+				return pfpb;
+			}
+			case PB_IF: {
+				ArrayList<Instruction> inst = parseInstructions(in, id);
+				String var = readString(in);
+				ArrayList<Instruction> exit = parseInstructions(in, id);
+				ArrayList<ProgramBlock> pbs1 = parseProgramBlocks(in, prog, id);
+				ArrayList<ProgramBlock> pbs2 = parseProgramBlocks(in, prog, id);
+				
+				IfProgramBlock ipb = new IfProgramBlock(prog, inst);
+				ipb.setPredicateResultVar(var);
+				ipb.setExitInstructions2(exit);
+				ipb.setChildBlocksIfBody(pbs1);
+				ipb.setChildBlocksElseBody(pbs2);
+				return ipb;
+			}
+			case PB_FC: {
+				ArrayList<DataIdentifier> dat1 = parseDataIdentifiers(in);
+				ArrayList<DataIdentifier> dat2 = parseDataIdentifiers(in);
+				ArrayList<Instruction> inst = parseInstructions(in, id);
+				ArrayList<ProgramBlock> pbs = parseProgramBlocks(in, prog, id);
+				
+				FunctionProgramBlock fpb = new FunctionProgramBlock(prog, dat1, dat2);
+				fpb.setInstructions(inst);
+				fpb.setChildBlocks(pbs);
+				return fpb;
+			}
+			case PB_EFC: {
+				ArrayList<DataIdentifier> dat1 = parseDataIdentifiers(in);
+				ArrayList<DataIdentifier> dat2 = parseDataIdentifiers(in);
+				HashMap<String,String> dat3 = parseStringHashMap(in);
+				String basedir = readString(in);
+				ArrayList<ProgramBlock> pbs = parseProgramBlocks(in, prog, id);
+				
+				//only CP external functions, because no nested MR jobs for reblocks
+				ExternalFunctionProgramBlockCP efpb = new ExternalFunctionProgramBlockCP(prog, dat1, dat2, dat3, basedir);
+				efpb.setChildBlocks(pbs);
+				return efpb;
+			}
+			case PB_GENERIC: {
+				ProgramBlock pb = new ProgramBlock(prog);
+				pb.setInstructions( parseInstructions(in, id) );
+				return pb;
+			}
+			default:
+				throw new DMLRuntimeException( ProgramConverter.NOT_SUPPORTED_PB+" "+type );
+		}
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	private static ArrayList<String> parseStringList( DataInput in ) 
+		throws IOException
+	{
+		int len = (int) readVarLong(in);
+		ArrayList<String> vars = new ArrayList<String>(len);
+		for( int i=0; i<len; i++ )
+			vars.add( readString(in) );
+		return vars;
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	private static String[] parseStringArray( DataInput in ) 
+		throws IOException
+	{
+		String[] vars = new String[(int) readVarLong(in)];
+		for( int i=0; i<vars.length; i++ )
+			vars[i] = readString(in);
+		return vars;
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	private static HashMap<String,String> parseStringHashMap( DataInput in ) 
+		throws IOException
+	{
+		int len = (int) readVarLong(in);
+		HashMap<String,String> vars = new HashMap<String, String>();
+		for( int i=0; i<len; i++ ) {
+			String key = readString(in);
+			vars.put(key, readString(in));
+		}
+		return vars;
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	private static ArrayList<DataIdentifier> parseDataIdentifiers( DataInput in ) 
+		throws IOException
+	{
+		int len = (int) readVarLong(in);
+		ArrayList<DataIdentifier> vars = new ArrayList<DataIdentifier>(len);
+		for( int i=0; i<len; i++ ) {
+			DataIdentifier dat = new DataIdentifier( readString(in) );
+			dat.setDataType( DATA_TYPES[in.readByte()] );
+			dat.setValueType( VALUE_TYPES[in.readByte()] );
+			vars.add(dat);
+		}
+		return vars;
+	}
+	
+	/**
+	 * Indicates if both serialized parfor bodies have equal program parts, 
+	 * i.e., differ at most in their execution contexts.
+	 * 
+	 * @param in1
+	 * @param in2
+	 * @return
+	 */
+	private static boolean equalsProgramPart( byte[] in1, byte[] in2 )
+	{
+		if( in1.length < 4 || in2.length < 4 )
+			return false;
+		
+		//compare program part incl length prefix
+		int len = 4 + readInt(in1, 0);
+		if( len != 4 + readInt(in2, 0) || len > in1.length || len > in2.length )
+			return false;
+		for( int i=4; i<len; i++ )
+			if( in1[i] != in2[i] )
+				return false;
+		
+		return true;
+	}
+	
+	
+	////////////////////////////////
+	// PRIMITIVES 
+	////////////////////////////////
+	
+	/**
+	 * Writes a length-prefixed UTF-8 string, where null is encoded as length -1. 
+	 * In contrast to DataOutput.writeUTF, there is no restriction to 64KB strings.
+	 * 
+	 * @param out
+	 * @param str
+	 * @throws IOException
+	 */
+	private static void writeString( DataOutput out, String str ) 
+		throws IOException
+	{
+		if( str == null ) {
+			writeVarLong(out, -1);
+			return;
+		}
+		
+		byte[] tmp = str.getBytes(CHARSET);
+		writeVarLong(out, tmp.length);
+		out.write(tmp);
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	private static String readString( DataInput in ) 
+		throws IOException
+	{
+		int len = (int) readVarLong(in);
+		if( len < 0 )
+			return null;
+		
+		byte[] tmp = new byte[len];
+		in.readFully(tmp);
+		return new String(tmp, CHARSET);
+	}
+	
+	/**
+	 * Writes a zigzag- and variable-length encoded long, i.e., 1 byte for 
+	 * values in [-64,63], 2 bytes for values in [-8192,8191], etc.
+	 * 
+	 * @param out
+	 * @param val
+	 * @throws IOException
+	 */
+	private static void writeVarLong( DataOutput out, long val ) 
+		throws IOException
+	{
+		long tmp = (val << 1) ^ (val >> 63); //zigzag
+		while( (tmp & ~0x7FL) != 0 ) {
+			out.writeByte( (int)((tmp & 0x7F) | 0x80) );
+			tmp >>>= 7;
+		}
+		out.writeByte( (int)tmp );
+	}
+	
+	/**
+	 * 
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	private static long readVarLong( DataInput in ) 
+		throws IOException
+	{
+		long tmp = 0;
+		for( int shift=0; shift<64; shift+=7 ) {
+			byte b = in.readByte();
+			tmp |= (long)(b & 0x7F) << shift;
+			if( (b & 0x80) == 0 )
+				return (tmp >>> 1) ^ -(tmp & 1); //zigzag
+		}
+		throw new IOException("Malformed variable-length long.");
+	}
+	
+	/**
+	 * 
+	 * @param buff
+	 * @param off
+	 * @return
+	 */
+	private static int readInt( byte[] buff, int off )
+	{
+		return ((buff[off+0] & 0xFF) << 24) | ((buff[off+1] & 0xFF) << 16) 
+			 | ((buff[off+2] & 0xFF) <<  8) |  (buff[off+3] & 0xFF);
+	}
+}
@@ -68,7 +68,7 @@ public class RemoteDPParForSpark
 	 * @return
 	 * @throws DMLRuntimeException
 	 */
-	public static RemoteParForJobReturn runJob(long pfid, String itervar, String matrixvar, String program, String resultFile, MatrixObject input, 
+	public static RemoteParForJobReturn runJob(long pfid, String itervar, String matrixvar, byte[] program, String resultFile, MatrixObject input, 
 			                                   ExecutionContext ec,
 			                                   PDataPartitionFormat dpf, OutputInfo oi, boolean tSparseCol, //config params
 			                                   boolean enableCPCaching, int numReducers )  //opt params
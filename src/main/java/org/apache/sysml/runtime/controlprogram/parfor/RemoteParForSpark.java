@@ -25,6 +25,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.spark.Accumulator;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
 
 import scala.Tuple2;
 
@@ -33,6 +34,7 @@ import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.controlprogram.LocalVariableMap;
 import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
 import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
+import org.apache.sysml.runtime.controlprogram.parfor.util.IDSequence;
 import org.apache.sysml.utils.Statistics;
 
 /**
@@ -45,6 +47,9 @@ import org.apache.sysml.utils.Statistics;
  * pre-aggregation by overwriting partial task results with pre-paggregated results from subsequent
  * iterations)
  * 
+ * NOTE: the binary serialized parfor body (see ProgramConverterBinary) is broadcast once per job, and the parsed parfor body is cached
+ * per executor and reused across tasks and jobs of the same parfor (see RemoteParForSparkWorker).
+ * 
  * TODO broadcast variables if possible
  * TODO reducebykey on variable names
  */
@@ -53,6 +58,9 @@ public class RemoteParForSpark
 	
 	protected static final Log LOG = LogFactory.getLog(RemoteParForSpark.class.getName());
 	
+	//sequence of job IDs (to distinguish subsequent jobs of the same parfor)
+	private static IDSequence _jobID = new IDSequence();
+	
 	/**
 	 * 
 	 * @param pfid
@@ -64,7 +72,7 @@ public class RemoteParForSpark
 	 * @return
 	 * @throws DMLRuntimeException 
 	 */
-	public static RemoteParForJobReturn runJob(long pfid, String program, List<Task> tasks, ExecutionContext ec,
+	public static RemoteParForJobReturn runJob(long pfid, byte[] program, List<Task> tasks, ExecutionContext ec,
 			                                   boolean cpCaching, int numMappers) 
 		throws DMLRuntimeException  
 	{
@@ -80,12 +88,17 @@ public class RemoteParForSpark
 		
 		//run remote_spark parfor job 
 		//(w/o lazy evaluation to fit existing parfor framework, e.g., result merge)
-		RemoteParForSparkWorker func = new RemoteParForSparkWorker(program, cpCaching, aTasks, aIters);
+		//(broadcast program once per executor instead of shipping it with every task)
+		Broadcast<byte[]> bprog = sc.broadcast(program);
+		RemoteParForSparkWorker func = new RemoteParForSparkWorker(pfid, _jobID.getNextID(), bprog, cpCaching, aTasks, aIters);
 		List<Tuple2<Long,String>> out = 
 				sc.parallelize( tasks, numMappers )  //create rdd of parfor tasks
 		          .flatMapToPair( func )             //execute parfor tasks 
 		          .collect();                        //get output handles
 		
+		//cleanup broadcast of program (parsed program cached at executors)
+		sec.cleanupBroadcastVariable(bprog);
+		
 		//de-serialize results
 		LocalVariableMap[] results = RemoteParForUtils.getResults(out, LOG);
 		int numTasks = aTasks.value(); //get accumulator value
@@ -21,40 +21,79 @@ package org.apache.sysml.runtime.controlprogram.parfor;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map.Entry;
 
+import org.apache.hadoop.fs.Path;
 import org.apache.spark.Accumulator;
 import org.apache.spark.TaskContext;
 import org.apache.spark.api.java.function.PairFlatMapFunction;
+import org.apache.spark.broadcast.Broadcast;
 
 import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.controlprogram.LocalVariableMap;
+import org.apache.sysml.runtime.controlprogram.ParForProgramBlock;
 import org.apache.sysml.runtime.controlprogram.caching.CacheableData;
+import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
+import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
+import org.apache.sysml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
 import org.apache.sysml.runtime.controlprogram.parfor.util.IDHandler;
+import org.apache.sysml.runtime.instructions.cp.Data;
 import org.apache.sysml.runtime.util.LocalFileUtils;
+import org.apache.sysml.runtime.util.MapReduceTool;
 
 import scala.Tuple2;
 
 /**
+ * Remote ParWorker implementation, realized as Spark flatmap function.
  * 
- * 
+ * NOTE: Spark deserializes this function for every task. In order to avoid parsing the 
+ * parfor body per task, configured parworkers (parfor body program, symbol table, and 
+ * in-memory buffer pool state) are cached per executor JVM and reused across tasks of
+ * a job as well as across jobs of the same parfor. Concurrent tasks of one executor 
+ * obtain different parworkers from this cache. The number of idle parworkers is bounded 
+ * by the number of executor cores, and idle parworkers of other parfor loops are evicted
+ * once a new parfor runs on the executor. Dropped parworkers release the in-memory and
+ * evicted data of their symbol tables.
  */
 public class RemoteParForSparkWorker extends ParWorker implements PairFlatMapFunction<Task, Long, String> 
 {
 	
 	private static final long serialVersionUID = -3254950138084272296L;
 
-	private boolean _initialized = false;
-	private String  _prog = null;
+	//cache for future reuse (per executor JVM), keyed by parfor ID
+	//NOTE: pool of idle parworkers to support concurrent tasks per executor
+	private static HashMap<Long, LinkedList<RemoteParForSparkWorker>> _sCache = null; 
+	
+	private long    _pfid = -1;
+	private long    _jobID = -1;
+	private Broadcast<byte[]> _prog = null;
 	private boolean _caching = true;
 	
 	private Accumulator<Integer> _aTasks = null;
 	private Accumulator<Integer> _aIters = null;
 	
-	public RemoteParForSparkWorker(String program, boolean cpCaching, Accumulator<Integer> atasks, Accumulator<Integer> aiters) 
+	//state of configured parworkers (reused across tasks)
+	private transient byte[] _progBytes = null;
+	private transient HashMap<String, String> _rvarFnames = null;
+	private transient HashMap<String, long[]> _inputFstats = null;
+	
+	static
+	{
+		//init cache (once per JVM)
+		_sCache = new HashMap<Long, LinkedList<RemoteParForSparkWorker>>();
+	}
+	
+	public RemoteParForSparkWorker(long pfid, long jobID, Broadcast<byte[]> program, boolean cpCaching, Accumulator<Integer> atasks, Accumulator<Integer> aiters) 
 		throws DMLRuntimeException
 	{
 		//keep inputs (unfortunately, spark does not expose task ids and it would be implementation-dependent
 		//when this constructor is actually called; hence, we do lazy initialization on task execution)
-		_initialized = false;
+		_pfid = pfid;
+		_jobID = jobID;
 		_prog = program;
 		_caching = cpCaching;
 		
@@ -67,46 +106,191 @@ public class RemoteParForSparkWorker extends ParWorker implements PairFlatMapFun
 	public Iterable<Tuple2<Long, String>> call(Task arg0)
 		throws Exception 
 	{
-		//lazy parworker initialization
-		if( !_initialized )
-			configureWorker( TaskContext.get().taskAttemptId() ); //requires Spark 1.3
+		//obtain configured parworker (reuse or lazy initialization)
+		RemoteParForSparkWorker pw = getConfiguredWorker();
 		
 		//execute a single task
-		long numIter = getExecutedIterations();
-		super.executeTask( arg0 );
+		long numIter = pw.getExecutedIterations();
+		pw.executeTask( arg0 );
 		
 		//maintain accumulators
 		_aTasks.add( 1 );
-		_aIters.add( (int)(getExecutedIterations()-numIter) );
+		_aIters.add( (int)(pw.getExecutedIterations()-numIter) );
 		
 		//write output if required (matrix indexed write) 
+		//note: consistent filenames of reused parworkers allow pre-aggregation across tasks
 		//note: this copy is necessary for environments without spark libraries
 		ArrayList<Tuple2<Long,String>> ret = new ArrayList<Tuple2<Long,String>>();
-		ArrayList<String> tmp = RemoteParForUtils.exportResultVariables( _workerID, _ec.getVariables(), _resultVars );
+		ArrayList<String> tmp = RemoteParForUtils.exportResultVariables( 
+				pw._workerID, pw._ec.getVariables(), pw._resultVars, pw._rvarFnames );
 		for( String val : tmp )
-			ret.add(new Tuple2<Long,String>(_workerID, val));
-			
+			ret.add(new Tuple2<Long,String>(pw._workerID, val));
+		
+		//return parworker for reuse by subsequent tasks 
+		//(on errors, parworkers in undefined state are not reused; task retry via spark)
+		releaseConfiguredWorker( pw );
+		
 		return ret;
 	}
 	
+	/**
+	 * Obtains a configured parworker for the current task. If available, we reuse 
+	 * an idle cached parworker of the same parfor; for parworkers of previous jobs,
+	 * we reuse the parsed program blocks as well as the in-memory input matrices.
+	 * 
+	 * @return
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	private RemoteParForSparkWorker getConfiguredWorker() 
+		throws DMLRuntimeException, IOException
+	{
+		byte[] prog = _prog.value();
+		RemoteParForSparkWorker pw = null;
+		
+		//probe cache for idle parworker and evict idle parworkers of other parfors
+		if( ParForProgramBlock.ALLOW_REUSE_SPARK_PAR_WORKER ) {
+			LinkedList<RemoteParForSparkWorker> dropped = new LinkedList<RemoteParForSparkWorker>();
+			synchronized( _sCache ) {
+				Iterator<Entry<Long, LinkedList<RemoteParForSparkWorker>>> iter = _sCache.entrySet().iterator();
+				while( iter.hasNext() ) {
+					Entry<Long, LinkedList<RemoteParForSparkWorker>> e = iter.next();
+					if( e.getKey() != _pfid ) {
+						dropped.addAll(e.getValue());
+						iter.remove();
+					}
+				}
+				LinkedList<RemoteParForSparkWorker> pool = _sCache.get(_pfid);
+				if( pool != null && !pool.isEmpty() )
+					pw = pool.removeFirst();
+			}
+			for( RemoteParForSparkWorker tmp : dropped )
+				tmp.cleanupWorker();
+		}
+		
+		if( pw == null ) 
+		{
+			//create and configure new parworker
+			long ID = TaskContext.get().taskAttemptId(); //requires Spark 1.3
+			pw = this;
+			pw.configureWorker( ID, ProgramConverterBinary.parseParForBody(prog, (int)ID), prog, _caching );
+			LOG.trace("configure RemoteParForSparkWorker "+_workerID);
+		}
+		else if( pw._jobID != _jobID ) 
+		{
+			//refresh parworker of previous job (new symbol table, reused program blocks and inputs)
+			ParForBody body = ProgramConverterBinary.parseParForBody(prog, (int)pw._workerID, pw._progBytes, 
+					new ParForBody(pw._childBlocks, pw._resultVars, pw._ec));
+			ExecutionContext oldEc = pw._ec;
+			LocalVariableMap oldVars = (oldEc != null) ? oldEc.getVariables() : null;
+			HashMap<String, long[]> oldFstats = pw._inputFstats;
+			pw._jobID = _jobID;
+			pw.configureWorker(pw._workerID, body, prog, _caching);
+			if( pw._ec != null && oldVars != null && oldFstats != null )
+				reuseInputVariables(oldVars, oldFstats, pw._ec.getVariables(), pw._inputFstats, pw._resultVars);
+			if( oldVars != null && pw._ec != oldEc )
+				cleanupVariables(oldVars, (pw._ec != null) ? pw._ec.getVariables() : null);
+			LOG.trace("reuse configured RemoteParForSparkWorker "+pw._workerID+" of previous job");
+		}
+		else
+		{
+			LOG.trace("reuse configured RemoteParForSparkWorker "+pw._workerID);
+		}
+		
+		return pw;
+	}
+	
+	/**
+	 * Returns the given parworker to the pool of idle parworkers, where the
+	 * least recently used parworker is dropped if the pool exceeds the number
+	 * of executor cores.
+	 * 
+	 * @param pw
+	 */
+	private void releaseConfiguredWorker( RemoteParForSparkWorker pw )
+	{
+		if( !ParForProgramBlock.ALLOW_REUSE_SPARK_PAR_WORKER )
+			return;
+		
+		RemoteParForSparkWorker dropped = null;
+		synchronized( _sCache ) {
+			LinkedList<RemoteParForSparkWorker> pool = _sCache.get(_pfid);
+			if( pool == null ) {
+				pool = new LinkedList<RemoteParForSparkWorker>();
+				_sCache.put(_pfid, pool);
+			}
+			pool.addFirst(pw); //lifo for buffer pool locality
+			if( pool.size() > InfrastructureAnalyzer.getLocalParallelism() )
+				dropped = pool.removeLast();
+		}
+		
+		if( dropped != null )
+			dropped.cleanupWorker();
+	}
+	
+	/**
+	 * Releases the symbol table of a parworker that is dropped from the cache.
+	 */
+	private void cleanupWorker()
+	{
+		if( _ec != null )
+			cleanupVariables(_ec.getVariables(), null);
+		LOG.trace("drop configured RemoteParForSparkWorker "+_workerID);
+	}
+	
+	/**
+	 * Clears the in-memory and evicted data of all cacheable data objects of the
+	 * given symbol table, except objects that are reused by the given symbol table 
+	 * to keep. Result variables are included because they have already been exported.
+	 * 
+	 * @param vars
+	 * @param keep
+	 */
+	public static void cleanupVariables( LocalVariableMap vars, LocalVariableMap keep )
+	{
+		for( String var : vars.keySet() )
+		{
+			Data dat = vars.get(var);
+			if( !(dat instanceof CacheableData) || (keep != null && keep.get(var) == dat) )
+				continue;
+			
+			try {
+				CacheableData<?> cd = (CacheableData<?>) dat;
+				cd.enableCleanup(true);
+				cd.clearData();
+			}
+			catch(Exception ex) {
+				LOG.trace("failed to cleanup variable "+var+" of parworker.");
+			}
+		}
+	}
+	
 	/**
 	 * 
 	 * @param ID
+	 * @param body
+	 * @param prog
+	 * @param caching
 	 * @throws DMLRuntimeException 
 	 * @throws IOException 
 	 */
-	private void configureWorker( long ID ) 
+	private void configureWorker( long ID, ParForBody body, byte[] prog, boolean caching ) 
 		throws DMLRuntimeException, IOException
 	{
 		_workerID = ID;
+		_progBytes = prog;
+		_rvarFnames = new HashMap<String, String>();
 		
-		//parse and setup parfor body program
-		ParForBody body = ProgramConverter.parseParForBody(_prog, (int)_workerID);
+		//setup parfor body program
 		_childBlocks = body.getChildBlocks();
 		_ec          = body.getEc();				
 		_resultVars  = body.getResultVarNames();
 		_numTasks    = 0;
 		_numIters    = 0;
+		
+		//keep file status of inputs (for safe reuse of inputs by subsequent jobs)
+		if( ParForProgramBlock.ALLOW_REUSE_SPARK_PAR_WORKER && _ec != null )
+			_inputFstats = getInputFileStatus(_ec.getVariables(), _resultVars);
 
 		//init local cache manager 
 		if( !CacheableData.isCachingActive() ) {
@@ -122,10 +306,75 @@ public class RemoteParForSparkWorker extends ParWorker implements PairFlatMapFun
 		super.pinResultVariables();
 		
 		//enable/disable caching (if required)
-		if( !_caching )
+		if( !caching )
 			CacheableData.disableCaching();
+	}
+	
+	/**
+	 * Obtains the file status (modification time, size) of all input matrices of the 
+	 * given symbol table. Inputs whose file status cannot be obtained are excluded.
+	 * 
+	 * @param vars
+	 * @param resultVars
+	 * @return
+	 */
+	public static HashMap<String, long[]> getInputFileStatus( LocalVariableMap vars, ArrayList<String> resultVars )
+	{
+		HashMap<String, long[]> ret = new HashMap<String, long[]>();
+		for( String var : vars.keySet() )
+		{
+			Data dat = vars.get(var);
+			if( resultVars.contains(var) || !(dat instanceof MatrixObject) )
+				continue;
+			
+			try {
+				Path path = new Path(((MatrixObject)dat).getFileName());
+				ret.put(var, new long[]{ MapReduceTool.getModificationTimeOnHDFS(path), 
+					MapReduceTool.getFilesizeOnHDFS(path) });
+			}
+			catch(Exception ex) {
+				LOG.trace("failed to obtain file status of input "+var+", no reuse.");
+			}
+		}
 		
-		//make as lazily intialized
-		_initialized = true;
+		return ret;
+	}
+	
+	/**
+	 * Replaces input matrices of the new symbol table with the matrix objects of the
+	 * previous job, if they refer to the same unmodified file, in order to reuse the 
+	 * in-memory state of the buffer pool (if not evicted) across jobs. A file is only
+	 * considered unmodified if its name, matrix characteristics, modification time,
+	 * and size are unchanged, because the driver may overwrite an input file with 
+	 * modified data of equal characteristics.
+	 * 
+	 * @param oldVars
+	 * @param oldFstats
+	 * @param newVars
+	 * @param newFstats
+	 * @param resultVars
+	 */
+	public static void reuseInputVariables( LocalVariableMap oldVars, HashMap<String, long[]> oldFstats, 
+		LocalVariableMap newVars, HashMap<String, long[]> newFstats, ArrayList<String> resultVars )
+	{
+		for( String var : newVars.keySet() )
+		{
+			Data dnew = newVars.get(var);
+			Data dold = oldVars.get(var);
+			if( resultVars.contains(var) || !(dnew instanceof MatrixObject) || !(dold instanceof MatrixObject) )
+				continue;
+			
+			MatrixObject monew = (MatrixObject) dnew;
+			MatrixObject moold = (MatrixObject) dold;
+			long[] fsnew = newFstats.get(var);
+			long[] fsold = oldFstats.get(var);
+			if( !moold.isDirty() && !monew.isPartitioned() && !moold.isPartitioned()
+				&& monew.getFileName().equals(moold.getFileName())
+				&& monew.getMatrixCharacteristics().equals(moold.getMatrixCharacteristics())
+				&& fsnew != null && fsold != null && Arrays.equals(fsnew, fsold) )
+			{
+				newVars.put(var, moold);
+			}
+		}
 	}
 }
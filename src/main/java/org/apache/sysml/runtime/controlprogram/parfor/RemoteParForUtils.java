@@ -178,6 +178,24 @@ public class RemoteParForUtils
 	 */
 	public static ArrayList<String> exportResultVariables( long workerID, LocalVariableMap vars, ArrayList<String> resultVars) 
 		throws DMLRuntimeException, IOException
+	{
+		return exportResultVariables(workerID, vars, resultVars, (HashMap<String,String>)null);
+	}
+	
+	/**
+	 * For remote Spark parfor workers, with consistent output filenames across 
+	 * tasks of reused parworkers (see RemoteParForSparkWorker).
+	 * 
+	 * @param workerID
+	 * @param vars
+	 * @param resultVars
+	 * @param rvarFnames
+	 * @return
+	 * @throws DMLRuntimeException
+	 * @throws IOException
+	 */
+	public static ArrayList<String> exportResultVariables( long workerID, LocalVariableMap vars, ArrayList<String> resultVars, HashMap<String,String> rvarFnames ) 
+		throws DMLRuntimeException, IOException
 	{
 		ArrayList<String> ret = new ArrayList<String>();
 		
@@ -192,9 +210,21 @@ public class RemoteParForUtils
 				MatrixObject mo = (MatrixObject) dat;
 				if( mo.isDirty() )
 				{
-					//export result var (iff actually modified in parfor)
-					mo.exportData(); 
-					
+					if( ParForProgramBlock.ALLOW_REUSE_SPARK_PAR_WORKER && rvarFnames!=null )
+					{
+						String fname = rvarFnames.get( rvar );
+						if( fname!=null )
+							mo.setFileName( fname );
+						
+						//export result var (iff actually modified in parfor)
+						mo.exportData(); 
+						rvarFnames.put(rvar, mo.getFileName());
+					}
+					else
+					{
+						//export result var (iff actually modified in parfor)
+						mo.exportData(); 
+					}
 					
 					//pass output vars (scalars by value, matrix by ref) to result
 					//(only if actually exported, hence in check for dirty, otherwise potential problems in result merge)
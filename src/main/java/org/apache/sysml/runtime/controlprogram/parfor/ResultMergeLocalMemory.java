@@ -20,7 +20,14 @@
 package org.apache.sysml.runtime.controlprogram.parfor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.parser.Expression.DataType;
 import org.apache.sysml.parser.Expression.ValueType;
 import org.apache.sysml.runtime.DMLRuntimeException;
@@ -31,6 +38,7 @@ import org.apache.sysml.runtime.matrix.MatrixFormatMetaData;
 import org.apache.sysml.runtime.matrix.data.InputInfo;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.data.OutputInfo;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
 import org.apache.sysml.runtime.util.DataConverter;
 
 /**
@@ -38,7 +46,10 @@ import org.apache.sysml.runtime.util.DataConverter;
  * small enough to fit into the JVM memory, this class can be used for efficient 
  * serial or multi-threaded merge.
  * 
- * 
+ * The multi-threaded merge exploits that all parfor results are written disjointly
+ * (as ensured by the parfor dependency analysis): the output is split into disjoint
+ * row partitions, and each thread merges its rows of all inputs into the preallocated
+ * output without any synchronization. 
  */
 public class ResultMergeLocalMemory extends ResultMerge
 {	
@@ -46,6 +57,9 @@ public class ResultMergeLocalMemory extends ResultMerge
 	//internal comparison matrix
 	private double[][]        _compare     = null;
 	
+	//min number of rows per partition of parallel merge
+	private static final int MIN_ROWS_PER_PARTITION = 64;
+	
 	public ResultMergeLocalMemory( MatrixObject out, MatrixObject[] in, String outputFilename )
 	{
 		super( out, in, outputFilename );
@@ -145,12 +159,8 @@ public class ResultMergeLocalMemory extends ResultMerge
 	{		
 		MatrixObject moNew = null; //always create new matrix object (required for nested parallelism)
 	
-		//Timing time = null;
 		LOG.trace("ResultMerge (local, in-memory): Execute parallel (par="+par+") merge for output "+_output.getVarName()+" (fname="+_output.getFileName()+")");
-		//	time = new Timing();
-		//	time.start();
 		
-
 		try
 		{
 			//get matrix blocks through caching 
@@ -163,65 +173,97 @@ public class ResultMergeLocalMemory extends ResultMerge
 					inMO.add( in );
 			}
 			
-			if( !inMO.isEmpty() ) //if there exist something to merge
+			//determine degree of parallelism (number of disjoint row partitions)
+			int rows = outMB.getNumRows();
+			int cols = outMB.getNumColumns();
+			int k = Math.min(par, InfrastructureAnalyzer.getLocalParallelism()); //ensure robustness for remote exec
+			k = Math.min(k, (int)Math.ceil((double)rows/MIN_ROWS_PER_PARTITION));
+			
+			if( inMO.isEmpty() ) //nothing to merge
+			{
+				moNew = _output; //return old matrix, to prevent copy
+				_output.release();
+			}
+			else if( k <= 1 || !isParallelMergeInMemory(outMB, inMO) ) 
+			{
+				//fallback to serial merge (small output or memory constraints)
+				_output.release();
+				moNew = executeSerialMerge();
+			}
+			else
 			{
-				//get old output matrix from cache for compare
-				//NOTE: always in dense representation in order to allow for parallel unsynchronized access 
-				long rows = outMB.getNumRows();
-				long cols = outMB.getNumColumns();
-				MatrixBlock outMBNew = new MatrixBlock((int)rows, (int)cols, false);
-				outMBNew.allocateDenseBlockUnsafe((int)rows, (int)cols);
+				//pin all inputs (implicit read if evicted)
+				MatrixBlock[] inMB = new MatrixBlock[inMO.size()];
+				for( int i=0; i<inMO.size(); i++ ) {
+					LOG.trace("ResultMerge (local, in-memory): Merge input "+inMO.get(i).getVarName()+" (fname="+inMO.get(i).getFileName()+")");
+					inMB[i] = inMO.get(i).acquireRead();
+				}
 				
-				//create compare matrix if required (existing data in result)
-				_compare = createCompareMatrix(outMB);
-				if( _compare != null )
-					outMBNew.copy(outMB);
+				//preallocate dense output in order to allow for unsynchronized writes
+				//of disjoint row partitions (no compare matrix, compare against old output)
+				MatrixBlock outMBNew = new MatrixBlock(rows, cols, false);
+				outMBNew.allocateDenseBlock();
+				boolean compare = (outMB.getNonZeros() > 0);
 				
-				//parallel merge of all inputs
-
-				int numThreads = Math.min(par, inMO.size()); //number of inputs can be lower than par
-				numThreads = Math.min(numThreads, InfrastructureAnalyzer.getLocalParallelism()); //ensure robustness for remote exec
-				Thread[] threads = new Thread[ numThreads ];
-				for( int k=0; k<inMO.size(); k+=numThreads ) //multiple waves if necessary
-				{
-					//create and start threads
-					for( int i=0; i<threads.length; i++ )
-					{
-						ResultMergeWorker rmw = new ResultMergeWorker(inMO.get(k+i), outMBNew);
-						threads[i] = new Thread(rmw);
-						threads[i].setPriority(Thread.MAX_PRIORITY);
-						threads[i].start(); // start execution
-					}	
-					//wait for all workers to finish
-					for( int i=0; i<threads.length; i++ )
-					{
-						threads[i].join();
-					}
+				//parallel merge of disjoint row partitions over all inputs
+				ExecutorService pool = Executors.newFixedThreadPool( k );
+				ArrayList<ResultMergeTask> tasks = new ArrayList<ResultMergeTask>();
+				int blklen = (int)Math.ceil((double)rows/k);
+				for( int i=0; i<k & i*blklen<rows; i++ )
+					tasks.add(new ResultMergeTask(outMBNew, outMB, inMB, compare, i*blklen, Math.min((i+1)*blklen, rows)));
+				List<Future<Long>> rtasks = pool.invokeAll(tasks);
+				pool.shutdown();
+				long nnz = 0;
+				for( Future<Long> rtask : rtasks )
+					nnz += rtask.get();
+				outMBNew.setNonZeros(nnz);
+				
+				//unpin and clear in-memory inputs
+				for( MatrixObject in : inMO ) {
+					in.release();
+					in.clearData();
 				}
 				
 				//create new output matrix 
 				//(e.g., to prevent potential export<->read file access conflict in specific cases of 
 				// local-remote nested parfor))
 				moNew = createNewMatrixObject( outMBNew );	
+				
+				//release old output
+				_output.release();
 			}
-			else
-			{
-				moNew = _output; //return old matrix, to prevent copy
-			}
-			
-			//release old output, and all inputs
-			_output.release();			
-			//_output.clearData(); //save, since it respects pin/unpin  
 		}
 		catch(Exception ex)
 		{
 			throw new DMLRuntimeException(ex);
 		}
 		
-		//LOG.trace("ResultMerge (local, in-memory): Executed parallel (par="+par+") merge for output "+_output.getVarName()+" (fname="+_output.getFileName()+") in "+time.stop()+"ms");
-
 		return moNew;		
 	}
+	
+	/**
+	 * Checks if the parallel merge, which pins all inputs, the old output, and 
+	 * a dense output at a time, fits into the local memory budget.
+	 * 
+	 * @param outMB
+	 * @param inMO
+	 * @return
+	 */
+	private boolean isParallelMergeInMemory( MatrixBlock outMB, ArrayList<MatrixObject> inMO )
+	{
+		long rows = outMB.getNumRows();
+		long cols = outMB.getNumColumns();
+		
+		double mem = outMB.getInMemorySize() 
+			+ OptimizerUtils.estimateSizeExactSparsity(rows, cols, 1.0);
+		for( MatrixObject in : inMO ) {
+			long nnz = in.getNnz();
+			double sp = (nnz >= 0) ? OptimizerUtils.getSparsity(rows, cols, nnz) : 1.0;
+			mem += OptimizerUtils.estimateSizeExactSparsity(rows, cols, sp);
+		}
+		
+		return ( mem < OptimizerUtils.getLocalMemBudget() );
+	}
 
 	/**
 	 * 
@@ -304,37 +346,170 @@ public class ResultMergeLocalMemory extends ResultMerge
 	
 	
 	/**
-	 * NOTE: only used if matrix in dense
+	 * Merges a disjoint row partition [rl, ru) of all inputs into the preallocated 
+	 * dense output. Since all tasks write to disjoint rows, no synchronization is 
+	 * required. If the old output is non-empty, all cells of the partition are 
+	 * compared against the old output (incl. NaN awareness) because inputs might
+	 * contain values that have been set to zero.
 	 */
-	private class ResultMergeWorker implements Runnable
+	private static class ResultMergeTask implements Callable<Long>
 	{
-		private MatrixObject _inMO  = null;
-		private MatrixBlock  _outMB = null;
+		private MatrixBlock   _out = null;
+		private MatrixBlock   _old = null;
+		private MatrixBlock[] _in  = null;
+		private boolean _compare = false;
+		private int _rl = -1;
+		private int _ru = -1;
 		
-		public ResultMergeWorker(MatrixObject inMO, MatrixBlock outMB)
+		protected ResultMergeTask( MatrixBlock out, MatrixBlock old, MatrixBlock[] in, boolean compare, int rl, int ru )
 		{
-			_inMO  = inMO;
-			_outMB = outMB;
+			_out = out;
+			_old = old;
+			_in = in;
+			_compare = compare;
+			_rl = rl;
+			_ru = ru;
 		}
 
 		@Override
-		public void run() 
+		public Long call() 
+			throws DMLRuntimeException 
 		{
-			//read each input if required
-			try
+			double[] c = _out.getDenseBlock();
+			int n = _out.getNumColumns();
+			double[] oldRow = _compare ? new double[n] : null;
+			long nnz = 0;
+			
+			for( int i=_rl, cix=_rl*n; i<_ru; i++, cix+=n )
 			{
-				LOG.trace("ResultMerge (local, in-memory): Merge input "+_inMO.getVarName()+" (fname="+_inMO.getFileName()+")");
+				//copy old output row as base (and compare row)
+				if( _compare ) {
+					getDenseRow(_old, i, oldRow);
+					System.arraycopy(oldRow, 0, c, cix, n);
+				}
+				
+				//merge row of all inputs
+				for( MatrixBlock in : _in ) {
+					if( !_compare )
+						mergeRowWithoutComp(c, cix, in, i, n);
+					else
+						mergeRowWithComp(c, cix, in, i, n, oldRow);
+				}
 				
-				MatrixBlock inMB = _inMO.acquireRead(); //incl. implicit read from HDFS
-				merge( _outMB, inMB, false );
-				_inMO.release();
-				_inMO.clearData();
+				//maintain number of non-zeros
+				for( int j=0; j<n; j++ )
+					nnz += (c[cix+j] != 0) ? 1 : 0;
 			}
-			catch(Exception ex)
-			{
-				throw new RuntimeException("Failed to parallel merge result.", ex);
+			
+			return nnz;
+		}
+		
+		/**
+		 * 
+		 * @param c
+		 * @param cix
+		 * @param in
+		 * @param i
+		 * @param n
+		 */
+		private static void mergeRowWithoutComp( double[] c, int cix, MatrixBlock in, int i, int n )
+		{
+			if( in.isEmptyBlock(false) )
+				return;
+			
+			if( in.isInSparseFormat() ) { //DENSE <- SPARSE
+				SparseBlock b = in.getSparseBlock();
+				if( b == null || b.isEmpty(i) )
+					return;
+				int bpos = b.pos(i);
+				int blen = b.size(i);
+				int[] bix = b.indexes(i);
+				double[] bval = b.values(i);
+				for( int j=bpos; j<bpos+blen; j++ )
+					if( bval[j] != 0 )
+						c[ cix + bix[j] ] = bval[j];
+			}
+			else { //DENSE <- DENSE
+				double[] b = in.getDenseBlock();
+				for( int j=0, bix=i*n; j<n; j++ )
+					if( b[bix+j] != 0 )
+						c[ cix + j ] = b[bix+j];
 			}
 		}
 		
+		/**
+		 * 
+		 * @param c
+		 * @param cix
+		 * @param in
+		 * @param i
+		 * @param n
+		 * @param compare
+		 */
+		private static void mergeRowWithComp( double[] c, int cix, MatrixBlock in, int i, int n, double[] compare )
+		{
+			//note: empty inputs are still compared because they might have
+			//explicitly overwritten existing values with zeros
+			if( in.isInSparseFormat() && in.getSparseBlock() != null ) { //DENSE <- SPARSE
+				SparseBlock b = in.getSparseBlock();
+				boolean empty = b.isEmpty(i);
+				int bpos = empty ? 0 : b.pos(i);
+				int bend = empty ? 0 : bpos + b.size(i);
+				int[] bix = empty ? null : b.indexes(i);
+				double[] bval = empty ? null : b.values(i);
+				for( int j=0, k=bpos; j<n; j++ ) {
+					double value = (k<bend && bix[k]==j) ? bval[k++] : 0;
+					if( isNewValue(value, compare[j]) )
+						c[ cix + j ] = value;
+				}
+			}
+			else { //DENSE <- DENSE
+				double[] b = in.getDenseBlock();
+				for( int j=0, bix=i*n; j<n; j++ ) {
+					double value = (b != null) ? b[bix+j] : 0;
+					if( isNewValue(value, compare[j]) )
+						c[ cix + j ] = value;
+				}
+			}
+		}
+		
+		/**
+		 * 
+		 * @param value
+		 * @param compare
+		 * @return
+		 */
+		private static boolean isNewValue( double value, double compare )
+		{
+			return (value != compare && !Double.isNaN(value))     //for new values only (div)
+				|| Double.isNaN(value) != Double.isNaN(compare); //NaN awareness
+		}
+		
+		/**
+		 * 
+		 * @param mb
+		 * @param i
+		 * @param row
+		 */
+		private static void getDenseRow( MatrixBlock mb, int i, double[] row )
+		{
+			int n = row.length;
+			Arrays.fill(row, 0);
+			
+			if( mb.isInSparseFormat() ) {
+				SparseBlock a = mb.getSparseBlock();
+				if( a != null && !a.isEmpty(i) ) {
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
+					for( int j=apos; j<apos+alen; j++ )
+						row[aix[j]] = avals[j];
+				}
+			}
+			else if( mb.getDenseBlock() != null ) {
+				System.arraycopy(mb.getDenseBlock(), i*n, row, 0, n);
+			}
+		}
 	}
 }
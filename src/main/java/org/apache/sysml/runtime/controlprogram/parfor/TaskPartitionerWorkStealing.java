@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.runtime.controlprogram.parfor;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.controlprogram.parfor.Task.TaskType;
+import org.apache.sysml.runtime.instructions.cp.IntObject;
+
+/**
+ * This work-stealing task partitioner creates one contiguous range task per worker
+ * (numIterations/numWorkers, similar to the static task partitioner). Load balance 
+ * is achieved at runtime by LocalTaskQueueWorkStealing, where each worker consumes 
+ * small chunks (of the given task size) from its own range and idle workers steal
+ * and split the remaining ranges of other workers. In contrast to the factoring 
+ * task partitioners, this handles arbitrarily skewed iteration costs without 
+ * precomputed task boundaries.
+ * 
+ * If used with a regular task queue (e.g., for remote execution), this partitioner 
+ * degrades to static task partitioning.
+ * 
+ */
+public class TaskPartitionerWorkStealing extends TaskPartitioner
+{
+	
+	private int _numThreads = -1;
+	
+	public TaskPartitionerWorkStealing( long taskSize, int numThreads, String iterVarName, IntObject fromVal, IntObject toVal, IntObject incrVal ) 
+	{
+		super(taskSize, iterVarName, fromVal, toVal, incrVal);
+		
+		_numThreads = numThreads;
+	}
+
+	@Override
+	public List<Task> createTasks() 
+		throws DMLRuntimeException 
+	{
+		LinkedList<Task> tasks = new LinkedList<Task>();
+		
+		long lFrom  = _fromVal.getLongValue();
+		long lTo    = _toVal.getLongValue();
+		long lIncr  = _incrVal.getLongValue();
+		long lsize  = _numIter / _numThreads;
+		long lfnp1  = _numIter % _numThreads; 
+		
+		for( long i = lFrom; i<=lTo; lfnp1-- )
+		{
+			//create range task of numIter/numThreads iterations
+			//(the first numIter%numThreads tasks with one additional iteration)
+			long to = Math.min( i+(lsize-1+((lfnp1>0)?1:0))*lIncr, lTo );
+			tasks.addLast( createRangeTask(_iterVarName, i, to, lIncr) );
+			i = to + lIncr;
+		}
+		
+		return tasks;
+	}
+
+	@Override
+	public long createTasks(LocalTaskQueue<Task> queue) 
+		throws DMLRuntimeException 
+	{
+		long numCreatedTasks = 0;
+		
+		try
+		{
+			//add tasks to queue (with work-stealing queue, task i is 
+			//assigned to the deque of worker i in round-robin fashion)
+			for( Task lTask : createTasks() ) {
+				queue.enqueueTask( lTask );
+				numCreatedTasks++;
+			}
+			
+			// mark end of task input stream
+			queue.closeInput();	
+		}
+		catch(Exception ex)
+		{
+			throw new DMLRuntimeException(ex);
+		}
+		
+		return numCreatedTasks;
+	}
+	
+	/**
+	 * 
+	 * @param iterVarName
+	 * @param from
+	 * @param to
+	 * @param incr
+	 * @return
+	 */
+	protected static Task createRangeTask( String iterVarName, long from, long to, long incr )
+	{
+		Task lTask = new Task( TaskType.RANGE );
+		lTask.addIteration(new IntObject(iterVarName, from)); //from
+		lTask.addIteration(new IntObject(iterVarName, to));   //to
+		lTask.addIteration(new IntObject(iterVarName, incr)); //increment
+		return lTask;
+	}
+}
@@ -130,6 +130,9 @@ public class OptimizerConstrained extends OptimizerRuleBased
 		//exec-type-specific rewrites
 		if( pn.getExecType() == ExecType.MR || pn.getExecType() == ExecType.SPARK )
 		{
+			//fallback in-memory data partitioner (not applicable for remote parfor)
+			rewriteResetInMemoryDataPartitioner( pn );
+			
 			if( flagRecompMR ){
 				//rewrite 5: set operations exec type
 				rewriteSetOperationsExecType( pn, flagRecompMR );
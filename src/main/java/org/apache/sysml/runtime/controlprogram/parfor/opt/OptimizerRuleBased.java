@@ -152,6 +152,7 @@ public class OptimizerRuleBased extends Optimizer
 	public static final double PROB_SIZE_THRESHOLD_REMOTE = 100; //wrt # top-level iterations (min)
 	public static final double PROB_SIZE_THRESHOLD_PARTITIONING = 2; //wrt # top-level iterations (min)
 	public static final double PROB_SIZE_THRESHOLD_MB = 256*1024*1024; //wrt overall memory consumption (min)
+	public static final double MEM_FRACTION_INMEMORY_PARTITIONING = 0.5; //wrt local mem budget (max)
 	public static final int MAX_REPLICATION_FACTOR_PARTITIONING = 5;     
 	public static final int MAX_REPLICATION_FACTOR_EXPORT = 7;    
 	public static final boolean ALLOW_REMOTE_NESTED_PARALLELISM = false;
@@ -261,6 +262,9 @@ public class OptimizerRuleBased extends Optimizer
 		//exec-type-specific rewrites
 		if( pn.getExecType() == ExecType.MR || pn.getExecType()==ExecType.SPARK )
 		{
+			//fallback in-memory data partitioner (not applicable for remote parfor)
+			rewriteResetInMemoryDataPartitioner( pn );
+			
 			if( flagRecompMR ){
 				//rewrite 5: set operations exec type
 				rewriteSetOperationsExecType( pn, flagRecompMR );
@@ -444,7 +448,11 @@ public class OptimizerRuleBased extends Optimizer
 		PDataPartitioner pdp = (apply)? REMOTE : PDataPartitioner.NONE;		
 		//NOTE: since partitioning is only applied in case of MR index access, we assume a large
 		//      matrix and hence always apply REMOTE_MR (the benefit for large matrices outweigths
-		//      potentially unnecessary MR jobs for smaller matrices)
+		//      potentially unnecessary MR jobs for smaller matrices), except if all partitioned
+		//      inputs fit into the local memory budget, where we serve partitions from memory
+		//      (this decision is revisited if the parfor is executed remotely)
+		if( apply && fitsInMemoryDataPartitioning(partitionedMatrices, vars) )
+			pdp = PDataPartitioner.LOCAL_MEM;
 		
 		// modify rtprog 
 		pfpb.setDataPartitioner( pdp );
@@ -458,6 +466,65 @@ public class OptimizerRuleBased extends Optimizer
 		return blockwise;
 	}
 	
+	/**
+	 * Determines if all given partitioning candidates are known and fit 
+	 * (with headroom for the parfor body) into the local memory budget,
+	 * which makes them applicable for in-memory data partitioning.
+	 * 
+	 * @param partitionedMatrices
+	 * @param vars
+	 * @return
+	 */
+	protected boolean fitsInMemoryDataPartitioning( HashMap<String, PDataPartitionFormat> partitionedMatrices, LocalVariableMap vars )
+	{
+		double totalSize = 0;
+		
+		for( String var : partitionedMatrices.keySet() )
+		{
+			Data dat = vars.get( var );
+			if( dat == null || !(dat instanceof MatrixObject) )
+				return false;
+			
+			MatrixObject mo = (MatrixObject) dat;
+			long rows = mo.getNumRows();
+			long cols = mo.getNumColumns();
+			long nnz = mo.getNnz();
+			if( rows <= 0 || cols <= 0 ) //unknown dimensions
+				return false;
+			
+			double sp = (nnz >= 0) ? OptimizerUtils.getSparsity(rows, cols, nnz) : 1.0;
+			totalSize += OptimizerUtils.estimateSizeExactSparsity(rows, cols, sp);
+		}
+		
+		return ( totalSize < MEM_FRACTION_INMEMORY_PARTITIONING * _lm );
+	}
+	
+	/**
+	 * Resets an in-memory data partitioner to the remote data partitioner
+	 * because in-memory partitions are only valid for local parfor execution.
+	 * 
+	 * @param n
+	 */
+	protected void rewriteResetInMemoryDataPartitioner( OptNode n ) 
+	{
+		String partitioner = n.getParam(ParamType.DATA_PARTITIONER);
+		
+		if( partitioner!=null && partitioner.equals(PDataPartitioner.LOCAL_MEM.toString()) )
+		{
+			Object[] o = OptTreeConverter.getAbstractPlanMapping().getMappedProg(n.getID());
+			ParForProgramBlock pfpb = (ParForProgramBlock) o[1];
+			PDataPartitioner pdp = OptimizerUtils.isSparkExecutionMode() ? 
+					PDataPartitioner.REMOTE_SPARK : PDataPartitioner.REMOTE_MR;
+			
+			// modify rtprog 
+			pfpb.setDataPartitioner( pdp );
+			// modify plan
+			n.addParam(ParamType.DATA_PARTITIONER, pdp.toString());
+			
+			LOG.debug(getOptMode()+" OPT: rewrite 'reset in-memory data partitioner' - result="+pdp.toString() );
+		}
+	}
+	
 	/**
 	 * 
 	 * @param n
@@ -1538,10 +1605,11 @@ public class OptimizerRuleBased extends Optimizer
 						&& h instanceof MultiThreadedHop //abop, datagenop, qop, paramop
 						&& !( h instanceof ParameterizedBuiltinOp //only paramop-grpagg
 							 && ((ParameterizedBuiltinOp)h).getOp()!=ParamBuiltinOp.GROUPEDAGG)
-						&& !( h instanceof UnaryOp //only unaryop-cumulativeagg
-							 && !((UnaryOp)h).isCumulativeUnaryOperation() )
-						&& !( h instanceof ReorgOp //only reorgop-transpose
-							 && ((ReorgOp)h).getOp() != ReOrgOp.TRANSPOSE ))
+						&& !( h instanceof UnaryOp //only unaryop-cumulativeagg/builtins
+							 && !((UnaryOp)h).isMultiThreadedOperation() )
+						&& !( h instanceof ReorgOp //only reorgop-transpose/sort
+							 && ((ReorgOp)h).getOp() != ReOrgOp.TRANSPOSE 
+							 && ((ReorgOp)h).getOp() != ReOrgOp.SORT ))
 					{
 						MultiThreadedHop mhop = (MultiThreadedHop) h;
 						mhop.setMaxNumThreads(opsK); //set max constraint in hop
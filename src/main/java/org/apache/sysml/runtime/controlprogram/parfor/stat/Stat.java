@@ -56,7 +56,10 @@ public enum Stat
 	PARWRK_TASKSIZE,
 	PARWRK_ITER_T,
 	PARWRK_TASK_T,
-	PARWRK_EXEC_T;
+	PARWRK_EXEC_T,
+	PARWRK_BUSY_T,
+	PARWRK_IDLE_T,
+	PARWRK_NUMSTEALS;
 	
 
 }
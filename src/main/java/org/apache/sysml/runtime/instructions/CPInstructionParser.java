@@ -36,6 +36,7 @@ import org.apache.sysml.runtime.instructions.cp.BooleanUnaryCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.BuiltinBinaryCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.BuiltinUnaryCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.CPInstruction;
+import org.apache.sysml.runtime.instructions.cp.CompressionCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.CentralMomentCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.ConvolutionCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.CovarianceCPInstruction;
@@ -56,6 +57,7 @@ import org.apache.sysml.runtime.instructions.cp.QuantileSortCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.QuaternaryCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.RelationalBinaryCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.ReorgCPInstruction;
+import org.apache.sysml.runtime.instructions.cp.SpoofCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.StringInitCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.TernaryCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.UaggOuterChainCPInstruction;
@@ -63,6 +65,7 @@ import org.apache.sysml.runtime.instructions.cp.VariableCPInstruction;
 import org.apache.sysml.runtime.instructions.cp.CPInstruction.CPINSTRUCTION_TYPE;
 import org.apache.sysml.runtime.instructions.cpfile.MatrixIndexingCPFileInstruction;
 import org.apache.sysml.runtime.instructions.cpfile.ParameterizedBuiltinCPFileInstruction;
+import org.apache.sysml.runtime.util.UtilFunctions;
 
 public class CPInstructionParser extends InstructionParser 
 {
@@ -256,6 +259,10 @@ public class CPInstructionParser extends InstructionParser
 		String2CPInstructionType.put( "pmm"   , CPINSTRUCTION_TYPE.PMMJ);
 		String2CPInstructionType.put( "mmchain"   , CPINSTRUCTION_TYPE.MMChain);
 		
+		String2CPInstructionType.put( "compress"  , CPINSTRUCTION_TYPE.Compression);
+		
+		String2CPInstructionType.put( "spoof"     , CPINSTRUCTION_TYPE.SpoofFused);
+		
 		String2CPInstructionType.put( "qr",    CPINSTRUCTION_TYPE.MultiReturnBuiltin);
 		String2CPInstructionType.put( "lu",    CPINSTRUCTION_TYPE.MultiReturnBuiltin);
 		String2CPInstructionType.put( "eigen", CPINSTRUCTION_TYPE.MultiReturnBuiltin);
@@ -386,11 +393,11 @@ public class CPInstructionParser extends InstructionParser
 			case Builtin: 
 				String []parts = InstructionUtils.getInstructionPartsWithValueType(str);
 				if ( parts[0].equals("log") || parts[0].equals("log_nz") ) {
-					if ( parts.length == 3 ) {
-						// B=log(A), y=log(x)
+					if ( parts.length == 3 || (parts.length == 4 && UtilFunctions.isIntegerNumber(parts[3])) ) {
+						// B=log(A), y=log(x), optionally w/ num threads
 						return BuiltinUnaryCPInstruction.parseInstruction(str);
-					} else if ( parts.length == 4 ) {
-						// B=log(A,10), y=log(x,10)
+					} else if ( parts.length == 4 || parts.length == 5 ) {
+						// B=log(A,10), y=log(x,10), optionally w/ num threads
 						return BuiltinBinaryCPInstruction.parseInstruction(str);
 					}
 				}
@@ -406,6 +413,12 @@ public class CPInstructionParser extends InstructionParser
 			case MMChain:
 				return MMChainCPInstruction.parseInstruction(str);
 			
+			case Compression:
+				return CompressionCPInstruction.parseInstruction(str);
+			
+			case SpoofFused:
+				return SpoofCPInstruction.parseInstruction(str);
+			
 			case Partition:
 				return DataPartitionCPInstruction.parseInstruction(str);	
 	
@@ -138,8 +138,8 @@ public class AggregateUnaryCPInstruction extends UnaryCPInstruction
 		}
 		else 
 		{
-			/* Default behavior for AggregateUnary Instruction */
-			MatrixBlock matBlock = ec.getMatrixInput(input1.getName());		
+			/* Default behavior for AggregateUnary Instruction (incl compressed inputs) */
+			MatrixBlock matBlock = ec.getMatrixInput(input1.getName(), true);		
 			AggregateUnaryOperator au_op = (AggregateUnaryOperator) _optr;
 			
 			MatrixBlock resultBlock = (MatrixBlock) matBlock.aggregateUnaryOperations(au_op, new MatrixBlock(), matBlock.getNumRows(), matBlock.getNumColumns(), new MatrixIndexes(1, 1), true);
@@ -41,7 +41,7 @@ public abstract class BinaryCPInstruction extends ComputationCPInstruction
 		throws DMLRuntimeException
 	{	
 		String[] parts = InstructionUtils.getInstructionPartsWithValueType(instr);
-		InstructionUtils.checkNumFields ( parts, 3 );
+		InstructionUtils.checkNumFields ( parts, 3, 4 );
 		
 		String opcode = parts[0];
 		in1.split(parts[1]);
@@ -51,6 +51,19 @@ public abstract class BinaryCPInstruction extends ComputationCPInstruction
 		return opcode;
 	}
 	
+	/**
+	 * Obtains the optional degree of parallelism of binary matrix 
+	 * operations, which is appended as last field (default 1).
+	 * 
+	 * @param instr
+	 * @return
+	 */
+	protected static int parseNumThreads(String instr) 
+	{
+		String[] parts = InstructionUtils.getInstructionPartsWithValueType(instr);
+		return (parts.length == 5) ? Integer.parseInt(parts[4]) : 1;
+	}
+	
 	protected static String parseBinaryInstruction(String instr, CPOperand in1, CPOperand in2, CPOperand in3, CPOperand out)
 		throws DMLRuntimeException
 	{
@@ -84,8 +84,8 @@ public class MMChainCPInstruction extends UnaryCPInstruction
 	public void processInstruction(ExecutionContext ec)
 		throws DMLRuntimeException 
 	{
-		//get inputs
-		MatrixBlock X = ec.getMatrixInput(input1.getName());
+		//get inputs (incl compressed X)
+		MatrixBlock X = ec.getMatrixInput(input1.getName(), true);
 		MatrixBlock v = ec.getMatrixInput(input2.getName());
 		MatrixBlock w = (_type==ChainType.XtwXv || _type==ChainType.XtXvy) ? 
 				ec.getMatrixInput(input3.getName()) : null;
@@ -72,8 +72,8 @@ public class MMTSJCPInstruction extends UnaryCPInstruction
 	public void processInstruction(ExecutionContext ec)
 		throws DMLRuntimeException 
 	{
-		//get inputs
-		MatrixBlock matBlock1 = ec.getMatrixInput(input1.getName());
+		//get inputs (incl compressed inputs)
+		MatrixBlock matBlock1 = ec.getMatrixInput(input1.getName(), true);
 
 		//execute operations 
 		MatrixBlock ret = (MatrixBlock) matBlock1.transposeSelfMatrixMultOperations(new MatrixBlock(), _type, _numThreads );
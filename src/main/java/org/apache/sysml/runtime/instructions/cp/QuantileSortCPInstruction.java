@@ -28,6 +28,7 @@ import org.apache.sysml.runtime.instructions.InstructionUtils;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
 import org.apache.sysml.runtime.matrix.operators.Operator;
 import org.apache.sysml.runtime.matrix.operators.SimpleOperator;
+import org.apache.sysml.runtime.util.UtilFunctions;
 
 public class QuantileSortCPInstruction extends UnaryCPInstruction
 {
@@ -38,16 +39,24 @@ public class QuantileSortCPInstruction extends UnaryCPInstruction
 	 * Example instructions: 
 	 *     sort:mVar1:mVar2 (input=mVar1, output=mVar2)
 	 *     sort:mVar1:mVar2:mVar3 (input=mVar1, weights=mVar2, output=mVar3)
+	 * Both variants optionally carry a trailing degree of parallelism, e.g., sort:mVar1:mVar2:8
 	 *  
 	 */
 	
+	private int _numThreads = 1;
+	
 	public QuantileSortCPInstruction(Operator op, CPOperand in, CPOperand out, String opcode, String istr){
 		this(op, in, null, out, opcode, istr);
 	}
 	
 	public QuantileSortCPInstruction(Operator op, CPOperand in1, CPOperand in2, CPOperand out, String opcode, String istr){
+		this(op, in1, in2, out, 1, opcode, istr);
+	}
+	
+	public QuantileSortCPInstruction(Operator op, CPOperand in1, CPOperand in2, CPOperand out, int k, String opcode, String istr){
 		super(op, in1, in2, out, opcode, istr);
 		_cptype = CPINSTRUCTION_TYPE.QSort;
+		_numThreads = k;
 	}
 	
 	public static QuantileSortCPInstruction parseInstruction ( String str ) 
@@ -61,16 +70,25 @@ public class QuantileSortCPInstruction extends UnaryCPInstruction
 		String opcode = parts[0];
 		
 		if ( opcode.equalsIgnoreCase(SortKeys.OPCODE) ) {
-			if ( parts.length == 3 ) {
+			//strip optional trailing degree of parallelism
+			int numParts = parts.length;
+			int k = 1;
+			if( numParts >= 4 && UtilFunctions.isIntegerNumber(parts[numParts-1]) )
+				k = Integer.parseInt(parts[--numParts]);
+			
+			if ( numParts == 3 ) {
 				// Example: sort:mVar1:mVar2 (input=mVar1, output=mVar2)
-				parseUnaryInstruction(str, in1, out);
-				return new QuantileSortCPInstruction(new SimpleOperator(null), in1, out, opcode, str);
+				in1.split(parts[1]);
+				out.split(parts[2]);
+				return new QuantileSortCPInstruction(new SimpleOperator(null), in1, null, out, k, opcode, str);
 			}
-			else if ( parts.length == 4 ) {
+			else if ( numParts == 4 ) {
 				// Example: sort:mVar1:mVar2:mVar3 (input=mVar1, weights=mVar2, output=mVar3)
 				in2 = new CPOperand("", ValueType.UNKNOWN, DataType.UNKNOWN);
-				parseUnaryInstruction(str, in1, in2, out);
-				return new QuantileSortCPInstruction(new SimpleOperator(null), in1, in2, out, opcode, str);
+				in1.split(parts[1]);
+				in2.split(parts[2]);
+				out.split(parts[3]);
+				return new QuantileSortCPInstruction(new SimpleOperator(null), in1, in2, out, k, opcode, str);
 			}
 			else {
 				throw new DMLRuntimeException("Invalid number of operands in instruction: " + str);
@@ -93,7 +111,7 @@ public class QuantileSortCPInstruction extends UnaryCPInstruction
 		}
 		
  		//process core instruction
-		MatrixBlock resultBlock = (MatrixBlock) matBlock.sortOperations(wtBlock, new MatrixBlock());
+		MatrixBlock resultBlock = (MatrixBlock) matBlock.sortOperations(wtBlock, new MatrixBlock(), _numThreads);
 		
 		//release inputs
 		ec.releaseMatrixInput(input1.getName());
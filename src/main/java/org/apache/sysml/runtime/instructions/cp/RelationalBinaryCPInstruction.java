@@ -71,9 +71,10 @@ public abstract class RelationalBinaryCPInstruction extends BinaryCPInstruction
 										  + out.getName()
 										  + " is not");
 		
+		int k = parseNumThreads(str);
 		Operator operator = (dt1 != dt2) ?
-					InstructionUtils.parseScalarBinaryOperator(opcode, (dt1 == DataType.SCALAR)) : 
-					InstructionUtils.parseBinaryOperator(opcode);
+					InstructionUtils.parseScalarBinaryOperator(opcode, (dt1 == DataType.SCALAR), 0, k) : 
+					InstructionUtils.parseBinaryOperator(opcode, k);
 		
 		//for scalar relational operations we only allow boolean operands
 		//or when both operands are numeric (int or double)
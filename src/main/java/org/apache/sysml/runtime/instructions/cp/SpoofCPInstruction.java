@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.instructions.cp;
+
+import java.util.ArrayList;
+
+import org.apache.sysml.parser.Expression.DataType;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.codegen.CodegenUtils;
+import org.apache.sysml.runtime.codegen.SpoofOperator;
+import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
+import org.apache.sysml.runtime.instructions.InstructionUtils;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+
+/**
+ * CP instruction for generated fused operators, with an arbitrary 
+ * number of matrix and scalar inputs.
+ * 
+ * Format: CP spoof classname k in1 ... inN out
+ */
+public class SpoofCPInstruction extends ComputationCPInstruction
+{
+	private final Class<?> _class;
+	private final int _numThreads;
+	private final CPOperand[] _in;
+	
+	public SpoofCPInstruction(Class<?> cla, int k, CPOperand[] in, CPOperand out, String opcode, String str) {
+		super(null, null, null, out, opcode, str);
+		_cptype = CPINSTRUCTION_TYPE.SpoofFused;
+		_class = cla;
+		_numThreads = k;
+		_in = in;
+	}
+	
+	/**
+	 * 
+	 * @param str
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public static SpoofCPInstruction parseInstruction(String str) 
+		throws DMLRuntimeException 
+	{
+		String[] parts = InstructionUtils.getInstructionPartsWithValueType(str);
+		
+		String opcode = parts[0];
+		if( !opcode.equals("spoof") || parts.length < 5 )
+			throw new DMLRuntimeException("Invalid spoof instruction: " + str);
+		
+		Class<?> cla = CodegenUtils.getClass(parts[1]);
+		int k = Integer.parseInt(parts[2]);
+		CPOperand[] in = new CPOperand[parts.length-4];
+		for( int i=0; i<in.length; i++ )
+			in[i] = new CPOperand(parts[3+i]);
+		CPOperand out = new CPOperand(parts[parts.length-1]);
+		
+		return new SpoofCPInstruction(cla, k, in, out, opcode, str);
+	}
+
+	@Override
+	public void processInstruction(ExecutionContext ec) 
+		throws DMLRuntimeException 
+	{		
+		SpoofOperator op = CodegenUtils.createInstance(_class);
+		
+		//get matrix and scalar inputs (in order of appearance)
+		ArrayList<MatrixBlock> inputs = new ArrayList<MatrixBlock>();
+		ArrayList<ScalarObject> scalars = new ArrayList<ScalarObject>();
+		for( CPOperand input : _in ) {
+			if( input.getDataType() == DataType.MATRIX )
+				inputs.add(ec.getMatrixInput(input.getName()));
+			else if( input.getDataType() == DataType.SCALAR )
+				scalars.add(ec.getScalarInput(input.getName(), input.getValueType(), input.isLiteral()));
+		}
+		
+		//execute generated operator and set output
+		if( output.getDataType() == DataType.MATRIX ) {
+			MatrixBlock out = new MatrixBlock();
+			op.execute(inputs, scalars, out, _numThreads);
+			ec.setMatrixOutput(output.getName(), out);
+		}
+		else {
+			ScalarObject out = op.execute(inputs, scalars, _numThreads);
+			ec.setScalarOutput(output.getName(), out);
+		}
+		
+		//release matrix inputs
+		for( CPOperand input : _in )
+			if( input.getDataType() == DataType.MATRIX )
+				ec.releaseMatrixInput(input.getName());
+	}
+}
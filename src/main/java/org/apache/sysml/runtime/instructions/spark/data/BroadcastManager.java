@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.instructions.spark.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
+
+/**
+ * Manager of partitioned matrix broadcasts that allows the reuse of broadcasts
+ * across instructions and loop iterations (and hence across matrix objects) if
+ * the broadcast data is unchanged. Broadcasts are indexed by the matrix 
+ * characteristics and number of non-zeros, but only reused if the probed matrix 
+ * block is equal to the partitioned source block of a broadcast (which is held 
+ * by the driver anyway). This verification is only required for candidates of 
+ * equal characteristics and exits at the first mismatching value. Broadcasts are 
+ * reference counted by the broadcast handles (lineage objects) that use them. 
+ * By default, broadcasts are removed once they become unreferenced. If retention
+ * is requested on release, unreferenced broadcasts are kept for reuse until the 
+ * total size exceeds the given memory budget, in which case they are evicted in 
+ * LRU order and returned to the caller for deterministic cleanup. 
+ * 
+ * Note: Referenced broadcasts are never evicted, hence the budget is a soft
+ * limit if all broadcasts are still in use.
+ */
+public class BroadcastManager 
+{
+	//access-ordered map of managed broadcasts (for LRU eviction)
+	private final LinkedHashMap<PartitionedBroadcastMatrix, BroadcastEntry> _cache;
+	//candidate broadcasts by matrix characteristics
+	private final HashMap<BroadcastKey, List<BroadcastEntry>> _index;
+	private long _size = 0;
+	
+	public BroadcastManager() {
+		_cache = new LinkedHashMap<PartitionedBroadcastMatrix, BroadcastEntry>(16, 0.75f, true);
+		_index = new HashMap<BroadcastKey, List<BroadcastEntry>>();
+	}
+	
+	/**
+	 * Obtains an existing broadcast whose source data is equal to the given 
+	 * matrix block and increments its reference count, or returns null if no 
+	 * such broadcast exists.
+	 * 
+	 * @param key
+	 * @param mb
+	 * @return
+	 * @throws DMLRuntimeException 
+	 */
+	public synchronized PartitionedBroadcastMatrix get( BroadcastKey key, MatrixBlock mb ) 
+		throws DMLRuntimeException
+	{
+		List<BroadcastEntry> list = _index.get(key);
+		if( list == null )
+			return null;
+		for( BroadcastEntry e : list )
+			if( isEqual(mb, e.src, e.nnz) ) {
+				e.numRefs++;
+				_cache.get(e.pbm); //update LRU order
+				return e.pbm;
+			}
+		return null;
+	}
+	
+	/**
+	 * Adds a new broadcast with an initial reference count of one, and evicts
+	 * unreferenced broadcasts in LRU order until the memory budget is satisfied. 
+	 * 
+	 * @param key
+	 * @param pbm
+	 * @param src partitioned source block of the broadcast
+	 * @param size
+	 * @param budget
+	 * @return list of evicted broadcasts, which need to be destroyed by the caller
+	 * @throws DMLRuntimeException 
+	 */
+	public synchronized List<PartitionedBroadcastMatrix> put( BroadcastKey key, PartitionedBroadcastMatrix pbm, 
+		PartitionedMatrixBlock src, long size, long budget ) 
+		throws DMLRuntimeException
+	{
+		BroadcastEntry e = new BroadcastEntry(key, pbm, src, countNonZeros(src), size);
+		_cache.put(pbm, e);
+		List<BroadcastEntry> list = _index.get(key);
+		if( list == null ) {
+			list = new ArrayList<BroadcastEntry>();
+			_index.put(key, list);
+		}
+		list.add(e);
+		_size += size;
+		
+		//evict unreferenced broadcasts in LRU order
+		List<PartitionedBroadcastMatrix> ret = new ArrayList<PartitionedBroadcastMatrix>();
+		Iterator<Entry<PartitionedBroadcastMatrix, BroadcastEntry>> iter = _cache.entrySet().iterator();
+		while( _size > budget && iter.hasNext() ) {
+			BroadcastEntry tmp = iter.next().getValue();
+			if( tmp.numRefs <= 0 ) {
+				iter.remove();
+				removeFromIndex(tmp);
+				_size -= tmp.size;
+				ret.add(tmp.pbm);
+			}
+		}
+		
+		return ret;
+	}
+	
+	/**
+	 * Indicates if the given broadcast is managed by this broadcast manager.
+	 * 
+	 * @param pbm
+	 * @return
+	 */
+	public synchronized boolean contains( PartitionedBroadcastMatrix pbm ) {
+		return _cache.containsKey(pbm);
+	}
+	
+	/**
+	 * Decrements the reference count of the given broadcast. Unreferenced
+	 * broadcasts are either retained for reuse until evicted, or removed from
+	 * the manager. Broadcasts that are not managed by this broadcast manager 
+	 * (e.g., already evicted or never registered) are left untouched.
+	 * 
+	 * @param pbm
+	 * @param retain if true, retain the broadcast for reuse if unreferenced
+	 * @return true if the broadcast is still managed, false if it needs to be destroyed by the caller
+	 */
+	public synchronized boolean release( PartitionedBroadcastMatrix pbm, boolean retain ) 
+	{
+		BroadcastEntry e = _cache.get(pbm);
+		if( e == null )
+			return false;
+		if( --e.numRefs > 0 || retain )
+			return true;
+		
+		//remove unreferenced broadcast
+		_cache.remove(pbm);
+		removeFromIndex(e);
+		_size -= e.size;
+		return false;
+	}
+	
+	/**
+	 * Removes all broadcasts from the manager.
+	 * 
+	 * @return list of all managed broadcasts, which need to be destroyed by the caller
+	 */
+	public synchronized List<PartitionedBroadcastMatrix> clear() 
+	{
+		List<PartitionedBroadcastMatrix> ret = 
+			new ArrayList<PartitionedBroadcastMatrix>(_cache.keySet());
+		_cache.clear();
+		_index.clear();
+		_size = 0;
+		return ret;
+	}
+	
+	public synchronized int getNumBroadcasts() {
+		return _cache.size();
+	}
+	
+	public synchronized long getSize() {
+		return _size;
+	}
+	
+	/**
+	 * Creates the broadcast key of the given matrix block, which includes 
+	 * the matrix characteristics (dimensions, block sizes, and non-zeros).
+	 * 
+	 * @param mb
+	 * @param brlen
+	 * @param bclen
+	 * @return
+	 */
+	public static BroadcastKey createKey( MatrixBlock mb, int brlen, int bclen ) {
+		return new BroadcastKey(mb.getNumRows(), mb.getNumColumns(), 
+			brlen, bclen, mb.getNonZeros());
+	}
+	
+	/**
+	 * 
+	 * @param e
+	 */
+	private void removeFromIndex( BroadcastEntry e ) {
+		List<BroadcastEntry> list = _index.get(e.key);
+		list.remove(e);
+		if( list.isEmpty() )
+			_index.remove(e.key);
+	}
+	
+	/**
+	 * Compares all non-zero values of the given matrix block with the partitioned
+	 * source block of a broadcast, and the number of non-zero values.
+	 * 
+	 * @param mb matrix block
+	 * @param pmb partitioned source block
+	 * @param nnz number of non-zeros of the partitioned source block
+	 * @return true if both blocks contain equal values
+	 * @throws DMLRuntimeException
+	 */
+	private static boolean isEqual( MatrixBlock mb, PartitionedMatrixBlock pmb, long nnz ) 
+		throws DMLRuntimeException
+	{
+		int m = mb.getNumRows();
+		int n = mb.getNumColumns();
+		if( m != pmb.getNumRows() || n != pmb.getNumCols() )
+			return false;
+		
+		int brlen = (int)pmb.getNumRowsPerBlock();
+		int bclen = (int)pmb.getNumColumnsPerBlock();
+		long lnnz = 0;
+		if( mb.isInSparseFormat() && mb.getSparseBlock() != null ) {
+			SparseBlock a = mb.getSparseBlock();
+			for( int i=0; i<m; i++ ) {
+				if( a.isEmpty(i) ) continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				for( int j=apos; j<apos+alen; j++ )
+					if( avals[j] != 0 ) {
+						if( !isEqualValue(pmb, brlen, bclen, i, aix[j], avals[j]) )
+							return false;
+						lnnz++;
+					}
+			}
+		}
+		else if( !mb.isInSparseFormat() && mb.getDenseBlock() != null ) {
+			double[] a = mb.getDenseBlock();
+			for( int i=0, ix=0; i<m; i++ )
+				for( int j=0; j<n; j++, ix++ )
+					if( a[ix] != 0 ) {
+						if( !isEqualValue(pmb, brlen, bclen, i, j, a[ix]) )
+							return false;
+						lnnz++;
+					}
+		}
+		
+		//all non-zeros equal and no additional non-zeros
+		return lnnz == nnz;
+	}
+	
+	/**
+	 * 
+	 * @param pmb
+	 * @param brlen
+	 * @param bclen
+	 * @param i
+	 * @param j
+	 * @param val
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static boolean isEqualValue( PartitionedMatrixBlock pmb, int brlen, int bclen, int i, int j, double val ) 
+		throws DMLRuntimeException
+	{
+		MatrixBlock b = pmb.getMatrixBlock(i/brlen+1, j/bclen+1);
+		return Double.doubleToLongBits(b.quickGetValue(i%brlen, j%bclen)) 
+			== Double.doubleToLongBits(val);
+	}
+	
+	/**
+	 * Counts the non-zero values of all blocks of the given partitioned block
+	 * (w/o relying on or modifying the maintained number of non-zeros).
+	 * 
+	 * @param pmb
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static long countNonZeros( PartitionedMatrixBlock pmb ) 
+		throws DMLRuntimeException
+	{
+		long nnz = 0;
+		for( int bi=1; bi<=pmb.getNumRowBlocks(); bi++ )
+			for( int bj=1; bj<=pmb.getNumColumnBlocks(); bj++ ) {
+				MatrixBlock b = pmb.getMatrixBlock(bi, bj);
+				if( b.isInSparseFormat() && b.getSparseBlock() != null ) {
+					SparseBlock a = b.getSparseBlock();
+					for( int i=0; i<b.getNumRows(); i++ ) {
+						if( a.isEmpty(i) ) continue;
+						int apos = a.pos(i);
+						int alen = a.size(i);
+						double[] avals = a.values(i);
+						for( int j=apos; j<apos+alen; j++ )
+							nnz += (avals[j] != 0) ? 1 : 0;
+					}
+				}
+				else if( !b.isInSparseFormat() && b.getDenseBlock() != null ) {
+					double[] a = b.getDenseBlock();
+					int len = b.getNumRows() * b.getNumColumns();
+					for( int i=0; i<len; i++ )
+						nnz += (a[i] != 0) ? 1 : 0;
+				}
+			}
+		return nnz;
+	}
+	
+	/**
+	 * Key of broadcasts by matrix characteristics.
+	 */
+	public static class BroadcastKey 
+	{
+		private final long _rlen;
+		private final long _clen;
+		private final int _brlen;
+		private final int _bclen;
+		private final long _nnz;
+		
+		public BroadcastKey(long rlen, long clen, int brlen, int bclen, long nnz) {
+			_rlen = rlen;
+			_clen = clen;
+			_brlen = brlen;
+			_bclen = bclen;
+			_nnz = nnz;
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if( !(o instanceof BroadcastKey) )
+				return false;
+			BroadcastKey that = (BroadcastKey) o;
+			return _rlen == that._rlen && _clen == that._clen 
+				&& _brlen == that._brlen && _bclen == that._bclen
+				&& _nnz == that._nnz;
+		}
+		
+		@Override
+		public int hashCode() {
+			return (int)(_rlen * 31 + _clen) ^ (int)(_nnz ^ (_nnz >>> 32));
+		}
+	}
+	
+	/**
+	 * Cache entry of broadcast, its partitioned source block, size, and reference count.
+	 */
+	private static class BroadcastEntry 
+	{
+		private final BroadcastKey key;
+		private final PartitionedBroadcastMatrix pbm;
+		private final PartitionedMatrixBlock src;
+		private final long nnz;
+		private final long size;
+		private int numRefs = 1;
+		
+		public BroadcastEntry(BroadcastKey key, PartitionedBroadcastMatrix pbm, PartitionedMatrixBlock src, long nnz, long size) {
+			this.key = key;
+			this.pbm = pbm;
+			this.src = src;
+			this.nnz = nnz;
+			this.size = size;
+		}
+	}
+}
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.runtime.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalFileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Line reader over a byte range of a local file, which reads via positional NIO 
+ * file channel reads into a reusable byte buffer and exposes lines as byte ranges 
+ * of this buffer (no Text or String objects). A byte range [start, end) covers all 
+ * lines whose first byte lies within the range, i.e., the first partial line is 
+ * skipped and the last line is read beyond the end of the range. Hence, disjoint 
+ * byte ranges of a file partition its lines, similar to Hadoop's line record reader.
+ * 
+ */
+public class LocalByteRangeReader implements Closeable
+{
+	public static final int DEFAULT_BUFFER_SIZE = 256*1024; //256KB
+	
+	private final RandomAccessFile _file;
+	private final FileChannel _channel;
+	private final long _end;
+	
+	private byte[] _buf;
+	private long _boff = 0;     //file offset of buf[0]
+	private int _blen = 0;      //number of valid bytes in buf
+	private int _bpos = 0;      //current position in buf
+	private boolean _eof = false;
+	
+	//current line
+	private int _lstart = -1;
+	private int _lend = -1;
+	
+	public LocalByteRangeReader( File file, long start, long end ) 
+		throws IOException
+	{
+		_file = new RandomAccessFile(file, "r");
+		_channel = _file.getChannel();
+		_end = end;
+		_buf = new byte[DEFAULT_BUFFER_SIZE];
+		
+		//position at first line starting in [start, end)
+		_boff = Math.max(start-1, 0);
+		if( start > 0 ) {
+			int ix = findNewline();
+			_bpos = (ix >= 0) ? ix+1 : _blen;
+		}
+	}
+	
+	/**
+	 * Advances to the next line within the byte range.
+	 * 
+	 * @return true if a line is available
+	 * @throws IOException
+	 */
+	public boolean nextLine() 
+		throws IOException 
+	{
+		//check for end of range (line start) and end of file
+		if( _boff + _bpos >= _end || (_bpos >= _blen && !fill()) )
+			return false;
+		
+		int ix = findNewline();
+		_lstart = _bpos;
+		_lend = (ix >= 0) ? ix : _blen;
+		_bpos = (ix >= 0) ? ix+1 : _blen;
+		return true;
+	}
+	
+	public byte[] getBuffer() {
+		return _buf;
+	}
+	
+	public int getLineStart() {
+		return _lstart;
+	}
+	
+	public int getLineEnd() {
+		return _lend;
+	}
+	
+	/**
+	 * Indicates if the current line starts with the given byte.
+	 * 
+	 * @param b
+	 * @return
+	 */
+	public boolean startsWith( byte b ) {
+		return _lend > _lstart && _buf[_lstart] == b;
+	}
+	
+	@Override
+	public void close() 
+		throws IOException
+	{
+		_file.close();
+	}
+	
+	/**
+	 * Finds the next newline starting at the current position, 
+	 * reading further data (and compacting/growing the buffer) on demand.
+	 * 
+	 * @return buffer position of newline or -1 if end of file
+	 * @throws IOException
+	 */
+	private int findNewline() 
+		throws IOException 
+	{
+		int ix = _bpos;
+		while( true ) {
+			for( ; ix < _blen; ix++ )
+				if( _buf[ix] == '\n' )
+					return ix;
+			int off = ix - _bpos;
+			if( !fill() )
+				return -1;
+			ix = _bpos + off;
+		}
+	}
+	
+	/**
+	 * Compacts the buffer (keeping the bytes from the current position),
+	 * grows it if necessary, and reads the next chunk of the file.
+	 * 
+	 * @return false if end of file
+	 * @throws IOException
+	 */
+	private boolean fill() 
+		throws IOException 
+	{
+		if( _eof )
+			return false;
+		
+		//compact and grow buffer
+		if( _bpos > 0 ) {
+			System.arraycopy(_buf, _bpos, _buf, 0, _blen-_bpos);
+			_boff += _bpos;
+			_blen -= _bpos;
+			_lstart -= _bpos;
+			_lend -= _bpos;
+			_bpos = 0;
+		}
+		if( _blen == _buf.length )
+			_buf = Arrays.copyOf(_buf, 2*_buf.length);
+		
+		//positional read of next chunk
+		int len = _channel.read(ByteBuffer.wrap(_buf, _blen, _buf.length-_blen), _boff+_blen);
+		if( len <= 0 ) {
+			_eof = true;
+			return false;
+		}
+		_blen += len;
+		return true;
+	}
+	
+	/**
+	 * Indicates if the given file system is the local file system,
+	 * which allows direct NIO access to the underlying files.
+	 * 
+	 * @param fs
+	 * @return
+	 */
+	public static boolean isLocalFileSystem( FileSystem fs ) {
+		return fs instanceof LocalFileSystem;
+	}
+	
+	/**
+	 * Obtains the local files of a file or directory (excluding hidden 
+	 * files starting with '_' or '.' such as _SUCCESS or crc files).
+	 * 
+	 * @param fs
+	 * @param path
+	 * @return
+	 */
+	public static File[] getLocalFiles( FileSystem fs, Path path ) 
+	{
+		File file = new File(fs.makeQualified(path).toUri().getPath());
+		if( !file.isDirectory() )
+			return new File[]{file};
+		
+		ArrayList<File> ret = new ArrayList<File>();
+		File[] files = file.listFiles();
+		if( files != null ) {
+			Arrays.sort(files);
+			for( File f : files ) {
+				String name = f.getName();
+				if( f.isFile() && !name.startsWith("_") && !name.startsWith(".") )
+					ret.add(f);
+			}
+		}
+		return ret.toArray(new File[0]);
+	}
+	
+	/**
+	 * Splits the given files into byte ranges of roughly equal size
+	 * (w/o ranges spanning multiple files).
+	 * 
+	 * @param files
+	 * @param k
+	 * @return
+	 */
+	public static List<ByteRange> createByteRanges( File[] files, int k ) 
+	{
+		long total = 0;
+		for( File f : files )
+			total += f.length();
+		long blen = Math.max((long)Math.ceil((double)total/k), 1);
+		
+		ArrayList<ByteRange> ret = new ArrayList<ByteRange>();
+		for( File f : files ) {
+			long len = f.length();
+			for( long pos=0; pos < len; pos+=blen )
+				ret.add(new ByteRange(f, pos, Math.min(pos+blen, len)));
+		}
+		return ret;
+	}
+	
+	/**
+	 * Byte range [start, end) of a local file.
+	 */
+	public static class ByteRange
+	{
+		private final File _file;
+		private final long _start;
+		private final long _end;
+		
+		public ByteRange( File file, long start, long end ) {
+			_file = file;
+			_start = start;
+			_end = end;
+		}
+		
+		public File getFile() {
+			return _file;
+		}
+		
+		public long getStart() {
+			return _start;
+		}
+		
+		public long getEnd() {
+			return _end;
+		}
+	}
+}
@@ -0,0 +1,470 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.io;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlockCSR;
+
+/**
+ * Reader for the raw block format (see {@link WriterRawBlock}). On the local file 
+ * system, row blocks are memory-mapped and bulk copied into the output block, 
+ * without any deserialization or intermediate buffers. Other file systems fall 
+ * back to positioned reads of the individual blocks. Besides full reads, the block 
+ * index allows reading arbitrary row/column ranges by only touching the row blocks
+ * that overlap with the requested range.
+ */
+public class ReaderRawBlock extends MatrixReader
+{
+	//max size of a single mapping or positioned read (multiple of 8 bytes, non-final for tests)
+	public static long MAX_SEGMENT_SIZE = 1L << 30;
+	
+	protected boolean _localFS = false;
+	
+	public ReaderRawBlock( boolean localFS ) {
+		_localFS = localFS;
+	}
+	
+	@Override
+	public MatrixBlock readMatrixFromHDFS(String fname, long rlen, long clen, int brlen, int bclen, long estnnz) 
+		throws IOException, DMLRuntimeException 
+	{
+		RawBlockFile file = openRawBlockFile(fname);
+		try {
+			//check dimensions against meta data (if known)
+			if( (rlen > 0 && rlen != file.rlen) || (clen > 0 && clen != file.clen) ) {
+				throw new IOException("Matrix dimensions mismatch with metadata: "+file.rlen+"x"+file.clen
+						+ " vs "+rlen+"x"+clen+" ("+fname+").");
+			}
+			return readRawBlockMatrix(file, 0, (int)file.rlen-1, 0, (int)file.clen-1);
+		}
+		finally {
+			IOUtilFunctions.closeSilently(file);
+		}
+	}
+	
+	/**
+	 * Reads the given row and column range of a raw block matrix, where 
+	 * only the row blocks overlapping with the row range are accessed.
+	 * 
+	 * @param fname file name
+	 * @param rl row lower bound (0-based, inclusive)
+	 * @param ru row upper bound (0-based, inclusive)
+	 * @param cl column lower bound (0-based, inclusive)
+	 * @param cu column upper bound (0-based, inclusive)
+	 * @return
+	 * @throws IOException
+	 * @throws DMLRuntimeException
+	 */
+	public MatrixBlock readMatrixRangeFromHDFS(String fname, long rl, long ru, long cl, long cu) 
+		throws IOException, DMLRuntimeException 
+	{
+		RawBlockFile file = openRawBlockFile(fname);
+		try {
+			if( rl < 0 || ru >= file.rlen || rl > ru || cl < 0 || cu >= file.clen || cl > cu ) {
+				throw new DMLRuntimeException("Invalid range ["+rl+":"+ru+","+cl+":"+cu+"] "
+						+ "for raw block matrix of size "+file.rlen+"x"+file.clen+".");
+			}
+			return readRawBlockMatrix(file, (int)rl, (int)ru, (int)cl, (int)cu);
+		}
+		finally {
+			IOUtilFunctions.closeSilently(file);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param fname
+	 * @return
+	 * @throws IOException
+	 */
+	private RawBlockFile openRawBlockFile( String fname ) 
+		throws IOException
+	{
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		FileSystem fs = _localFS ? FileSystem.getLocal(job) : FileSystem.get(job);
+		Path path = new Path( (_localFS ? "file:///" : "") + fname );
+		
+		//check existence and non-empty file
+		checkValidInputFile(fs, path);
+		
+		return LocalByteRangeReader.isLocalFileSystem(fs) ?
+			new MappedRawBlockFile(new File(fs.makeQualified(path).toUri().getPath())) :
+			new StreamRawBlockFile(fs, path);
+	}
+	
+	/**
+	 * 
+	 * @param file
+	 * @param rl
+	 * @param ru
+	 * @param cl
+	 * @param cu
+	 * @return
+	 * @throws IOException
+	 * @throws DMLRuntimeException
+	 */
+	private static MatrixBlock readRawBlockMatrix( RawBlockFile file, int rl, int ru, int cl, int cu ) 
+		throws IOException, DMLRuntimeException
+	{
+		int rows = ru - rl + 1;
+		int cols = cu - cl + 1;
+		int clen = (int) file.clen;
+		boolean fullRows = (cl == 0 && cu == clen-1);
+		int bl = rl / file.blen;
+		int bu = (file.numBlocks > 0) ? ru / file.blen : -1;
+		
+		//estimate output nnz and check for direct csr construction
+		long estnnz = 0;
+		boolean allSparse = true;
+		for( int bi=bl; bi<=bu; bi++ ) {
+			estnnz += file.bnnz[bi];
+			allSparse &= (file.btype[bi] != WriterRawBlock.BLOCK_DENSE);
+		}
+		if( !fullRows )
+			estnnz = (long)Math.ceil((double)estnnz * cols / clen);
+		boolean sparse = MatrixBlock.evalSparseFormatInMemory(rows, cols, estnnz);
+		
+		//fast path: full read of sparse blocks into csr without any copy of row pointers per row
+		if( rows == file.rlen && fullRows && sparse && allSparse )
+			return readRawBlockMatrixCSR(file, bl, bu);
+		
+		//general path: bulk copy or append of overlapping row blocks
+		MatrixBlock ret = new MatrixBlock(rows, cols, sparse, estnnz);
+		if( estnnz == 0 )
+			return ret;
+		if( sparse )
+			ret.allocateSparseRowsBlock();
+		else
+			ret.allocateDenseBlock();
+		
+		for( int bi=bl; bi<=bu; bi++ ) {
+			int btype = file.btype[bi];
+			if( btype == WriterRawBlock.BLOCK_EMPTY )
+				continue;
+			int brl = bi * file.blen;
+			int bru = (int)Math.min(brl + file.blen, file.rlen);
+			int lrl = Math.max(rl, brl);
+			int lru = Math.min(ru + 1, bru);
+			RawBlockBuffer buff = file.readBlock(bi, WriterRawBlock.getBlockSize(btype, bru-brl, clen, file.bnnz[bi]));
+			
+			if( btype == WriterRawBlock.BLOCK_DENSE ) {
+				if( !sparse && fullRows ) {
+					//single bulk copy of contiguous row range
+					buff.getDoubles(8L*(lrl-brl)*clen, ret.getDenseBlock(), (lrl-rl)*cols, (lru-lrl)*cols);
+				}
+				else if( !sparse ) {
+					double[] c = ret.getDenseBlock();
+					for( int i=lrl; i<lru; i++ )
+						buff.getDoubles(8L*((long)(i-brl)*clen + cl), c, (i-rl)*cols, cols);
+				}
+				else {
+					for( int i=lrl; i<lru; i++ ) {
+						long aix = (long)(i-brl)*clen + cl;
+						for( int j=cl; j<=cu; j++, aix++ ) {
+							double val = buff.getDouble(8L*aix);
+							if( val != 0 )
+								ret.appendValue(i-rl, j-cl, val);
+						}
+					}
+				}
+			}
+			else { //BLOCK_SPARSE
+				long bnnz = file.bnnz[bi];
+				long ixoff = WriterRawBlock.align8(4L*(bru-brl+1));
+				long valoff = ixoff + WriterRawBlock.align8(4L*bnnz);
+				double[] c = sparse ? null : ret.getDenseBlock();
+				for( int i=lrl; i<lru; i++ ) {
+					int apos = buff.getInt(4L*(i-brl));
+					int aend = buff.getInt(4L*(i-brl+1));
+					for( int k=apos; k<aend; k++ ) {
+						int j = buff.getInt(ixoff + 4L*k);
+						if( j < cl ) continue;
+						if( j > cu ) break;
+						if( sparse )
+							ret.appendValue(i-rl, j-cl, buff.getDouble(valoff + 8L*k));
+						else
+							c[(i-rl)*cols+j-cl] = buff.getDouble(valoff + 8L*k);
+					}
+				}
+			}
+		}
+		
+		//finally check if change of sparse/dense block representation required
+		ret.recomputeNonZeros();
+		ret.examSparsity();
+		
+		return ret;
+	}
+	
+	/**
+	 * Reads a matrix with only sparse or empty blocks directly into 
+	 * a CSR sparse block, which avoids sparse row allocations and appends.
+	 * 
+	 * @param file
+	 * @param bl
+	 * @param bu
+	 * @return
+	 * @throws IOException
+	 * @throws DMLRuntimeException
+	 */
+	private static MatrixBlock readRawBlockMatrixCSR( RawBlockFile file, int bl, int bu ) 
+		throws IOException, DMLRuntimeException
+	{
+		int rlen = (int) file.rlen;
+		int clen = (int) file.clen;
+		if( file.nnz > Integer.MAX_VALUE )
+			throw new DMLRuntimeException("Raw block matrix nnz exceeds max capacity of CSR: "+file.nnz);
+		
+		int nnz = (int) file.nnz;
+		int[] rowptr = new int[rlen+1];
+		int[] colidx = new int[nnz];
+		double[] values = new double[nnz];
+		
+		int pos = 0;
+		for( int bi=bl; bi<=bu; bi++ ) {
+			int brl = bi * file.blen;
+			int bru = Math.min(brl + file.blen, rlen);
+			int bnnz = (int) file.bnnz[bi];
+			if( file.btype[bi] == WriterRawBlock.BLOCK_SPARSE ) {
+				RawBlockBuffer buff = file.readBlock(bi, WriterRawBlock.getBlockSize(
+					WriterRawBlock.BLOCK_SPARSE, bru-brl, clen, bnnz));
+				long ixoff = WriterRawBlock.align8(4L*(bru-brl+1));
+				for( int i=brl; i<bru; i++ )
+					rowptr[i+1] = pos + buff.getInt(4L*(i-brl+1));
+				buff.getInts(ixoff, colidx, pos, bnnz);
+				buff.getDoubles(ixoff + WriterRawBlock.align8(4L*bnnz), values, pos, bnnz);
+				pos += bnnz;
+			}
+			else {
+				for( int i=brl; i<bru; i++ )
+					rowptr[i+1] = pos;
+			}
+		}
+		
+		MatrixBlock ret = new MatrixBlock(rlen, clen, nnz, new SparseBlockCSR(rowptr, colidx, values, nnz));
+		ret.examSparsity();
+		return ret;
+	}
+	
+	/**
+	 * Parsed header and block index of a raw block file, with 
+	 * file-system-specific access to individual row blocks.
+	 */
+	private static abstract class RawBlockFile implements Closeable
+	{
+		protected long rlen = -1;
+		protected long clen = -1;
+		protected long nnz = -1;
+		protected int blen = -1;
+		protected int numBlocks = -1;
+		protected long[] boff = null;
+		protected long[] bnnz = null;
+		protected int[] btype = null;
+		
+		protected void readHeader(String fname) 
+			throws IOException
+		{
+			ByteBuffer buff = read(0, WriterRawBlock.HEADER_SIZE);
+			if( buff.getLong() != WriterRawBlock.MAGIC )
+				throw new IOException("Invalid raw block file (wrong magic number): "+fname);
+			int version = buff.getInt();
+			if( version != WriterRawBlock.VERSION )
+				throw new IOException("Unsupported raw block file version "+version+": "+fname);
+			blen = buff.getInt();
+			rlen = buff.getLong();
+			clen = buff.getLong();
+			nnz = buff.getLong();
+			numBlocks = buff.getInt();
+			if( rlen > Integer.MAX_VALUE || clen > Integer.MAX_VALUE )
+				throw new IOException("Raw block matrix dimensions exceed max capacity: "+rlen+"x"+clen);
+			
+			//read block index
+			boff = new long[numBlocks];
+			bnnz = new long[numBlocks];
+			btype = new int[numBlocks];
+			RawBlockBuffer index = new RawBlockBuffer(this, 
+				WriterRawBlock.HEADER_SIZE, (long)numBlocks * WriterRawBlock.INDEX_ENTRY_SIZE);
+			for( int bi=0; bi<numBlocks; bi++ ) {
+				long pos = (long)bi * WriterRawBlock.INDEX_ENTRY_SIZE;
+				boff[bi] = index.getLong(pos);
+				bnnz[bi] = index.getLong(pos + 8);
+				btype[bi] = index.getInt(pos + 16);
+			}
+		}
+		
+		public RawBlockBuffer readBlock(int bi, long len) {
+			return new RawBlockBuffer(this, boff[bi], len);
+		}
+		
+		/**
+		 * Reads the given byte range, where len is at most {@link #MAX_SEGMENT_SIZE}.
+		 * 
+		 * @param off
+		 * @param len
+		 * @return
+		 * @throws IOException
+		 */
+		protected abstract ByteBuffer read(long off, long len) 
+			throws IOException;
+	}
+	
+	/**
+	 * Accessor for a byte range of a raw block file (e.g., an individual row block), 
+	 * which might exceed the 2GB limit of a single byte buffer. The range is read 
+	 * lazily in aligned segments of at most {@link #MAX_SEGMENT_SIZE} bytes, where 
+	 * all positions are relative to the start of the range. Since all arrays of a 
+	 * row block are 8-byte aligned, no int or double value spans two segments.
+	 */
+	private static class RawBlockBuffer
+	{
+		private final RawBlockFile _file;
+		private final long _off;
+		private final long _len;
+		private ByteBuffer _seg = null;
+		private long _segoff = -1; //start of current segment
+		
+		public RawBlockBuffer(RawBlockFile file, long off, long len) {
+			_file = file;
+			_off = off;
+			_len = len;
+		}
+		
+		public int getInt(long pos) throws IOException {
+			return segment(pos).getInt((int)(pos - _segoff));
+		}
+		
+		public long getLong(long pos) throws IOException {
+			return segment(pos).getLong((int)(pos - _segoff));
+		}
+		
+		public double getDouble(long pos) throws IOException {
+			return segment(pos).getDouble((int)(pos - _segoff));
+		}
+		
+		public void getInts(long pos, int[] c, int cix, int len) 
+			throws IOException 
+		{
+			while( len > 0 ) {
+				ByteBuffer seg = segment(pos);
+				int n = (int)Math.min(len, (_segoff + seg.capacity() - pos) / 4);
+				seg.position((int)(pos - _segoff));
+				seg.slice().order(WriterRawBlock.BYTE_ORDER).asIntBuffer().get(c, cix, n);
+				pos += 4L*n; cix += n; len -= n;
+			}
+		}
+		
+		public void getDoubles(long pos, double[] c, int cix, int len) 
+			throws IOException 
+		{
+			while( len > 0 ) {
+				ByteBuffer seg = segment(pos);
+				int n = (int)Math.min(len, (_segoff + seg.capacity() - pos) / 8);
+				seg.position((int)(pos - _segoff));
+				seg.slice().order(WriterRawBlock.BYTE_ORDER).asDoubleBuffer().get(c, cix, n);
+				pos += 8L*n; cix += n; len -= n;
+			}
+		}
+		
+		private ByteBuffer segment(long pos) 
+			throws IOException 
+		{
+			if( _seg == null || pos < _segoff || pos >= _segoff + _seg.capacity() ) {
+				if( pos < 0 || pos >= _len )
+					throw new IOException("Read position "+pos+" out of range of block with "+_len+" bytes.");
+				_segoff = pos - pos % MAX_SEGMENT_SIZE;
+				_seg = _file.read(_off + _segoff, Math.min(MAX_SEGMENT_SIZE, _len - _segoff));
+			}
+			return _seg;
+		}
+	}
+	
+	/**
+	 * Local file access via read-only memory mappings of individual blocks.
+	 */
+	private static class MappedRawBlockFile extends RawBlockFile
+	{
+		private final RandomAccessFile _file;
+		private final FileChannel _channel;
+		
+		public MappedRawBlockFile(File file) 
+			throws IOException
+		{
+			_file = new RandomAccessFile(file, "r");
+			_channel = _file.getChannel();
+			readHeader(file.getPath());
+		}
+		
+		@Override
+		protected ByteBuffer read(long off, long len) 
+			throws IOException 
+		{
+			return _channel.map(FileChannel.MapMode.READ_ONLY, off, len)
+				.order(WriterRawBlock.BYTE_ORDER);
+		}
+		
+		@Override
+		public void close() throws IOException {
+			_channel.close();
+			_file.close();
+		}
+	}
+	
+	/**
+	 * Generic file system access via positioned reads of individual blocks.
+	 */
+	private static class StreamRawBlockFile extends RawBlockFile
+	{
+		private final FSDataInputStream _in;
+		
+		public StreamRawBlockFile(FileSystem fs, Path path) 
+			throws IOException
+		{
+			_in = fs.open(path);
+			readHeader(path.toString());
+		}
+		
+		@Override
+		protected ByteBuffer read(long off, long len) 
+			throws IOException 
+		{
+			byte[] buff = new byte[(int)len];
+			_in.readFully(off, buff);
+			return ByteBuffer.wrap(buff).order(WriterRawBlock.BYTE_ORDER);
+		}
+		
+		@Override
+		public void close() throws IOException {
+			_in.close();
+		}
+	}
+}
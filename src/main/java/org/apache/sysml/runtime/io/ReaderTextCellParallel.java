@@ -19,6 +19,7 @@
 
 package org.apache.sysml.runtime.io;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -40,8 +41,10 @@ import org.apache.hadoop.mapred.TextInputFormat;
 import org.apache.sysml.conf.ConfigurationManager;
 import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.io.LocalByteRangeReader.ByteRange;
 import org.apache.sysml.runtime.matrix.data.InputInfo;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.util.FastByteTokenizer;
 import org.apache.sysml.runtime.util.FastStringTokenizer;
 import org.apache.sysml.runtime.util.MapReduceTool;
 
@@ -62,6 +65,11 @@ import org.apache.sysml.runtime.util.MapReduceTool;
  * 3) However, we use MIN_FILESIZE_MM (8KB) to give guarantees for the common case of small headers
  *    in order the issue described in (2).
  * 
+ * Note local file system:
+ * For files on the local file system, we bypass the Hadoop input format and read disjoint
+ * byte ranges via NIO file channels, parsing cells directly from bytes (no Text or String 
+ * objects per line). The range boundaries follow the same line semantics as Hadoop splits.
+ * 
  */
 public class ReaderTextCellParallel extends MatrixReader
 {
@@ -91,8 +99,11 @@ public class ReaderTextCellParallel extends MatrixReader
 		//allocate output matrix block
 		MatrixBlock ret = createOutputMatrixBlock(rlen, clen, (int)rlen, (int)clen, estnnz, true, false);
 	
-		//core read 
-		readTextCellMatrixFromHDFS(path, job, ret, rlen, clen, brlen, bclen, _isMMFile);
+		//core read (direct byte-level read for local files)
+		if( LocalByteRangeReader.isLocalFileSystem(fs) )
+			readTextCellMatrixFromLocalFS(LocalByteRangeReader.getLocalFiles(fs, path), ret, rlen, clen, _isMMFile);
+		else
+			readTextCellMatrixFromHDFS(path, job, ret, rlen, clen, brlen, bclen, _isMMFile);
 
 		//finally check if change of sparse/dense block representation required
 		if( !AGGREGATE_BLOCK_NNZ )
@@ -162,6 +173,56 @@ public class ReaderTextCellParallel extends MatrixReader
 		}
 	}
 	
+	/**
+	 * 
+	 * @param files
+	 * @param dest
+	 * @param rlen
+	 * @param clen
+	 * @param matrixMarket
+	 * @throws IOException
+	 */
+	private void readTextCellMatrixFromLocalFS( File[] files, MatrixBlock dest, long rlen, long clen, boolean matrixMarket )
+		throws IOException
+	{
+		int par = _numThreads;
+		
+		//check for min file size for matrix market (adjust num splits if necessary)
+		if( _isMMFile ){
+			long len = 0;
+			for( File f : files )
+				len += f.length();
+			par = ( len < MIN_FILESIZE_MM ) ? 1: par; 
+		}
+		
+		try 
+		{
+			//create read tasks for all byte ranges
+			ExecutorService pool = Executors.newFixedThreadPool(par);
+			ArrayList<ReadTaskLocal> tasks = new ArrayList<ReadTaskLocal>();
+			for( ByteRange range : LocalByteRangeReader.createByteRanges(files, par) )
+				tasks.add(new ReadTaskLocal(range, dest, rlen, clen, matrixMarket));
+			
+			//wait until all tasks have been executed
+			List<Future<Long>> rt = pool.invokeAll(tasks);	
+			
+			//check for exceptions and aggregate nnz
+			long lnnz = 0;
+			for( Future<Long> task : rt )
+				lnnz += task.get();
+				
+			//post-processing
+			dest.setNonZeros( lnnz );
+			if( dest.isInSparseFormat() ) 
+				sortSparseRowsParallel(dest, rlen, _numThreads, pool);
+			
+			pool.shutdown();
+		} 
+		catch (Exception e) {
+			throw new IOException("Threadpool issue, while parallel read.", e);
+		}
+	}
+	
 	/**
 	 * 
 	 * 
@@ -283,6 +344,105 @@ public class ReaderTextCellParallel extends MatrixReader
 		}
 	}
 	
+	/**
+	 * Read task for a byte range of a local file, which parses text cells 
+	 * directly from the bytes of the read buffer.
+	 */
+	public static class ReadTaskLocal implements Callable<Long> 
+	{
+		private ByteRange _range = null;
+		private boolean _sparse = false;
+		private MatrixBlock _dest = null;
+		private long _rlen = -1;
+		private long _clen = -1;
+		private boolean _matrixMarket = false;
+		
+		public ReadTaskLocal( ByteRange range, MatrixBlock dest, long rlen, long clen, boolean matrixMarket )
+		{
+			_range = range;
+			_sparse = dest.isInSparseFormat();
+			_dest = dest;
+			_rlen = rlen;
+			_clen = clen;
+			_matrixMarket = matrixMarket;
+		}
+
+		@Override
+		public Long call() throws Exception 
+		{
+			long lnnz = 0; //aggregate block nnz
+			
+			//required for error handling
+			int row = -1; 
+			int col = -1; 
+			
+			FastByteTokenizer st = new FastByteTokenizer();
+			LocalByteRangeReader reader = new LocalByteRangeReader(
+				_range.getFile(), _range.getStart(), _range.getEnd());
+			CellBuffer buff = _sparse ? new CellBuffer() : null;
+			
+			try
+			{
+				// skip header lines, if reading from a matrixMarket file
+				// (until end-of-comments (%% or %), then skip meta data)
+				boolean hasLine = reader.nextLine();
+				if( _matrixMarket ) {
+					boolean foundComment = false;
+					while( hasLine && reader.startsWith((byte)'%') ) {
+						foundComment = true;
+						hasLine = reader.nextLine();
+					}
+					if( foundComment && hasLine )
+						hasLine = reader.nextLine();
+				}
+				
+				for( ; hasLine; hasLine = reader.nextLine() ) 
+				{
+					st.reset(reader.getBuffer(), reader.getLineStart(), reader.getLineEnd());
+					if( !st.hasMoreTokens() ) //skip empty lines
+						continue;
+					row = st.nextInt() - 1;
+					col = st.nextInt() - 1;
+					double lvalue = st.nextDouble();
+					
+					if( _sparse ) { //SPARSE<-value
+						buff.addCell(row, col, lvalue);
+						//capacity buffer flush on demand
+						if( buff.size()>=CellBuffer.CAPACITY ) 
+							synchronized( _dest ){ //sparse requires lock
+								lnnz += buff.size();
+								buff.flushCellBufferToMatrixBlock(_dest);
+							}
+					}
+					else { //DENSE<-value
+						_dest.setValueDenseUnsafe( row, col, lvalue );
+						lnnz += (lvalue!=0) ? 1 : 0;
+					}
+				}
+				
+				//final buffer flush 
+				if( _sparse )
+					synchronized( _dest ){ //sparse requires lock
+						lnnz += buff.size();
+						buff.flushCellBufferToMatrixBlock(_dest);
+					}
+			}
+			catch(Exception ex)	{
+				//post-mortem error handling and bounds checking
+				if( row < 0 || row + 1 > _rlen || col < 0 || col + 1 > _clen )
+					throw new RuntimeException("Matrix cell ["+(row+1)+","+(col+1)+"] " +
+							  "out of overall matrix range [1:"+_rlen+",1:"+_clen+"]. ", ex);
+				else
+					throw new RuntimeException("Unable to read matrix in text cell format. ", ex);
+			}
+			finally {
+				IOUtilFunctions.closeSilently(reader);
+			}
+			
+			return lnnz;
+		}
+	}
+	
 	/**
 	 * Useful class for buffering unordered cells before locking target onces and
 	 * appending all buffered cells.
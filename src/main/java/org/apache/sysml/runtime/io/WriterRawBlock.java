@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.io;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
+import org.apache.sysml.runtime.util.MapReduceTool;
+
+/**
+ * Writer for the raw block format, a single self-describing file of row blocks
+ * stored as raw little-endian arrays that can be directly memory-mapped on read.
+ * 
+ * File layout (all sections 8-byte aligned):
+ * <ul>
+ *   <li>header: magic, version, rows per block, rows, cols, nnz, number of blocks</li>
+ *   <li>block index: per block (offset, nnz, type)</li>
+ *   <li>blocks: dense (row-major double[rows*cols]) or 
+ *       sparse (CSR int[rows+1] row pointers, int[nnz] column indexes, double[nnz] values)</li>
+ * </ul>
+ */
+public class WriterRawBlock extends MatrixWriter
+{
+	public static final long MAGIC = 0x5359534D4C524157L; //"SYSMLRAW"
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 48;
+	public static final int INDEX_ENTRY_SIZE = 24;
+	public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+	
+	public static final int BLOCK_EMPTY = 0;
+	public static final int BLOCK_DENSE = 1;
+	public static final int BLOCK_SPARSE = 2;
+	
+	//max block size in bytes (for bounded write buffers and int-addressable mmap regions) 
+	private static final long MAX_BLOCK_SIZE = 128L*1024*1024; //128MB
+	
+	@Override
+	public void writeMatrixToHDFS(MatrixBlock src, String fname, long rlen, long clen, int brlen, int bclen, long nnz) 
+		throws IOException, DMLRuntimeException 
+	{
+		//validity check matrix dimensions
+		if( src.getNumRows() != rlen || src.getNumColumns() != clen ) {
+			throw new IOException("Matrix dimensions mismatch with metadata: "+src.getNumRows()+"x"+src.getNumColumns()+" vs "+rlen+"x"+clen+".");
+		}
+		
+		//prepare file access
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		FileSystem fs = FileSystem.get(job);
+		Path path = new Path( fname );
+
+		//if the file already exists on HDFS, remove it.
+		MapReduceTool.deleteFileIfExistOnHDFS( fname );
+		
+		//core write
+		writeRawBlockMatrixToHDFS(path, fs, src, (int)rlen, (int)clen, brlen);
+	}
+
+	@Override
+	public void writeEmptyMatrixToHDFS(String fname, long rlen, long clen, int brlen, int bclen) 
+		throws IOException, DMLRuntimeException 
+	{
+		JobConf job = new JobConf(ConfigurationManager.getCachedJobConf());
+		FileSystem fs = FileSystem.get(job);
+		Path path = new Path( fname );
+		
+		MapReduceTool.deleteFileIfExistOnHDFS( fname );
+		
+		//write header and index of empty blocks
+		MatrixBlock src = new MatrixBlock((int)Math.max(rlen,1), (int)Math.max(clen,1), true);
+		writeRawBlockMatrixToHDFS(path, fs, src, (int)rlen, (int)clen, brlen);
+	}
+	
+	/**
+	 * Computes the number of rows per block, which is the given row block size
+	 * but bounded such that a single block does not exceed 128MB.
+	 * 
+	 * @param clen
+	 * @param brlen
+	 * @return
+	 */
+	public static int computeRowsPerBlock( long clen, int brlen ) {
+		long maxRows = MAX_BLOCK_SIZE / (8 * Math.max(clen, 1));
+		return (int) Math.max(1, Math.min(Math.max(brlen, 1), maxRows));
+	}
+	
+	/**
+	 * 
+	 * @param path
+	 * @param fs
+	 * @param src
+	 * @param rlen
+	 * @param clen
+	 * @param brlen
+	 * @throws IOException
+	 */
+	protected void writeRawBlockMatrixToHDFS( Path path, FileSystem fs, MatrixBlock src, int rlen, int clen, int brlen ) 
+		throws IOException
+	{
+		int blen = computeRowsPerBlock(clen, brlen);
+		int numBlocks = (int)Math.ceil((double)rlen / blen);
+		
+		//compute block index (nnz, type, offset) before writing blocks
+		long[] bnnz = new long[numBlocks];
+		int[] btype = new int[numBlocks];
+		long[] boff = new long[numBlocks];
+		long off = align8(HEADER_SIZE + (long)numBlocks * INDEX_ENTRY_SIZE);
+		long nnz = 0;
+		for( int bi=0; bi<numBlocks; bi++ ) {
+			int rl = bi * blen;
+			int ru = Math.min(rl + blen, rlen);
+			bnnz[bi] = countNonZeros(src, rl, ru, clen);
+			btype[bi] = (bnnz[bi] == 0) ? BLOCK_EMPTY :
+				MatrixBlock.evalSparseFormatInMemory(ru-rl, clen, bnnz[bi]) ? BLOCK_SPARSE : BLOCK_DENSE;
+			boff[bi] = off;
+			off += getBlockSize(btype[bi], ru-rl, clen, bnnz[bi]);
+			nnz += bnnz[bi];
+		}
+		
+		OutputStream out = new BufferedOutputStream(fs.create(path, true));
+		try 
+		{
+			//write header and block index
+			ByteBuffer buff = ByteBuffer.allocate((int)align8(HEADER_SIZE + (long)numBlocks*INDEX_ENTRY_SIZE)).order(BYTE_ORDER);
+			buff.putLong(MAGIC).putInt(VERSION).putInt(blen);
+			buff.putLong(rlen).putLong(clen).putLong(nnz).putInt(numBlocks).putInt(0);
+			for( int bi=0; bi<numBlocks; bi++ )
+				buff.putLong(boff[bi]).putLong(bnnz[bi]).putInt(btype[bi]).putInt(0);
+			out.write(buff.array(), 0, buff.capacity());
+			
+			//write individual row blocks
+			for( int bi=0; bi<numBlocks; bi++ ) {
+				if( btype[bi] == BLOCK_EMPTY )
+					continue;
+				int rl = bi * blen;
+				int ru = Math.min(rl + blen, rlen);
+				buff = ByteBuffer.allocate((int)getBlockSize(btype[bi], ru-rl, clen, bnnz[bi])).order(BYTE_ORDER);
+				if( btype[bi] == BLOCK_DENSE )
+					writeDenseBlock(buff, src, rl, ru, clen);
+				else
+					writeSparseBlock(buff, src, rl, ru, clen, (int)bnnz[bi]);
+				out.write(buff.array(), 0, buff.capacity());
+			}
+		}
+		finally {
+			IOUtilFunctions.closeSilently(out);
+		}
+	}
+	
+	/**
+	 * Returns the size in bytes of a serialized block, including padding.
+	 * 
+	 * @param type
+	 * @param rows
+	 * @param cols
+	 * @param nnz
+	 * @return
+	 */
+	public static long getBlockSize( int type, int rows, int cols, long nnz ) {
+		switch( type ) {
+			case BLOCK_DENSE:  return 8L * rows * cols;
+			case BLOCK_SPARSE: return align8(4L*(rows+1)) + align8(4L*nnz) + 8L*nnz;
+			default:           return 0;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param len
+	 * @return
+	 */
+	public static long align8( long len ) {
+		return (len + 7) & ~7L;
+	}
+	
+	/**
+	 * 
+	 * @param src
+	 * @param rl
+	 * @param ru
+	 * @param clen
+	 * @return
+	 */
+	private static long countNonZeros( MatrixBlock src, int rl, int ru, int clen ) 
+	{
+		if( src.isEmptyBlock(false) )
+			return 0;
+		
+		long nnz = 0;
+		if( src.isInSparseFormat() ) {
+			SparseBlock a = src.getSparseBlock();
+			for( int i=rl; i<ru; i++ )
+				if( !a.isEmpty(i) )
+					nnz += a.size(i);
+		}
+		else {
+			double[] a = src.getDenseBlock();
+			for( int i=rl*clen; i<ru*clen; i++ )
+				nnz += (a[i] != 0) ? 1 : 0;
+		}
+		return nnz;
+	}
+	
+	/**
+	 * 
+	 * @param buff
+	 * @param src
+	 * @param rl
+	 * @param ru
+	 * @param clen
+	 */
+	private static void writeDenseBlock( ByteBuffer buff, MatrixBlock src, int rl, int ru, int clen ) 
+	{
+		if( src.isInSparseFormat() ) {
+			SparseBlock a = src.getSparseBlock();
+			for( int i=rl; i<ru; i++ ) {
+				if( a.isEmpty(i) ) continue;
+				int apos = a.pos(i);
+				int alen = a.size(i);
+				int[] aix = a.indexes(i);
+				double[] avals = a.values(i);
+				int rowoff = (i-rl) * clen * 8;
+				for( int j=apos; j<apos+alen; j++ )
+					buff.putDouble(rowoff + aix[j]*8, avals[j]);
+			}
+		}
+		else {
+			//bulk copy of contiguous row range
+			buff.asDoubleBuffer().put(src.getDenseBlock(), rl*clen, (ru-rl)*clen);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param buff
+	 * @param src
+	 * @param rl
+	 * @param ru
+	 * @param clen
+	 * @param nnz
+	 */
+	private static void writeSparseBlock( ByteBuffer buff, MatrixBlock src, int rl, int ru, int clen, int nnz ) 
+	{
+		int rows = ru - rl;
+		int ixoff = (int)align8(4L*(rows+1));
+		int valoff = ixoff + (int)align8(4L*nnz);
+		
+		int pos = 0;
+		buff.putInt(0, 0);
+		if( src.isInSparseFormat() ) {
+			SparseBlock a = src.getSparseBlock();
+			for( int i=rl; i<ru; i++ ) {
+				if( !a.isEmpty(i) ) {
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
+					for( int j=apos; j<apos+alen; j++, pos++ ) {
+						buff.putInt(ixoff + pos*4, aix[j]);
+						buff.putDouble(valoff + pos*8, avals[j]);
+					}
+				}
+				buff.putInt((i-rl+1)*4, pos);
+			}
+		}
+		else {
+			double[] a = src.getDenseBlock();
+			for( int i=rl, aix=rl*clen; i<ru; i++ ) {
+				for( int j=0; j<clen; j++, aix++ )
+					if( a[aix] != 0 ) {
+						buff.putInt(ixoff + pos*4, j);
+						buff.putDouble(valoff + pos*8, a[aix]);
+						pos++;
+					}
+				buff.putInt((i-rl+1)*4, pos);
+			}
+		}
+	}
+}
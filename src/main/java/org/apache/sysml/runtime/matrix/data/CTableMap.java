@@ -23,6 +23,7 @@ import java.util.ArrayList;
 
 import org.apache.sysml.runtime.util.LongLongDoubleHashMap;
 import org.apache.sysml.runtime.util.LongLongDoubleHashMap.LLDoubleEntry;
+import org.apache.sysml.runtime.util.LongLongDoubleHashMap.LLDoubleIterator;
 
 /**
  * Ctable map is an abstraction for the hashmap used for ctable's hash group-by
@@ -43,6 +44,12 @@ public class CTableMap
 		_maxCol = -1;
 	}
 	
+	public CTableMap(int capacity) {
+		_map = new LongLongDoubleHashMap(capacity);
+		_maxRow = -1;
+		_maxCol = -1;
+	}
+	
 	/**
 	 * 
 	 * @return
@@ -62,6 +69,15 @@ public class CTableMap
 		return _map.extractValues();
 	}
 	
+	/**
+	 * 
+	 * @return
+	 */
+	public LLDoubleIterator getIterator()
+	{
+		return _map.getIterator();
+	}
+	
 	/**
 	 * 
 	 * @return
@@ -94,6 +110,20 @@ public class CTableMap
 		_maxCol = Math.max(_maxCol, col);
 	}
 	
+	/**
+	 * Merges the given (e.g., thread-local) ctable map into this map.
+	 * 
+	 * @param that
+	 */
+	public void merge(CTableMap that)
+	{
+		_map.addAll(that._map);
+		
+		//maintain internal summaries 
+		_maxRow = Math.max(_maxRow, that._maxRow);
+		_maxCol = Math.max(_maxCol, that._maxCol);
+	}
+	
 	/**
 	 * 
 	 * @param rlen
@@ -111,11 +141,12 @@ public class CTableMap
 		if( sparse ) //SPARSE <- cells
 		{
 			//append cells to sparse target (prevent shifting)
-			for( LLDoubleEntry e : _map.extractValues() ) 
+			LLDoubleIterator it = _map.getIterator();
+			while( it.next() ) 
 			{
-				double value = e.value;
-				int rix = (int)e.key1;
-				int cix = (int)e.key2;
+				double value = it.getValue();
+				int rix = (int)it.getKey1();
+				int cix = (int)it.getKey2();
 				if( value != 0 && rix<=rlen && cix<=clen )
 					mb.appendValue( rix-1, cix-1, value );
 			}
@@ -126,11 +157,12 @@ public class CTableMap
 		else  //DENSE <- cells
 		{
 			//directly insert cells into dense target 
-			for( LLDoubleEntry e : _map.extractValues() ) 
+			LLDoubleIterator it = _map.getIterator();
+			while( it.next() ) 
 			{
-				double value = e.value;
-				int rix = (int)e.key1;
-				int cix = (int)e.key2;
+				double value = it.getValue();
+				int rix = (int)it.getKey1();
+				int cix = (int)it.getKey2();
 				if( value != 0 && rix<=rlen && cix<=clen )
 					mb.quickSetValue( rix-1, cix-1, value );
 			}
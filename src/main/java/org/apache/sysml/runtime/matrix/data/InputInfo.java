@@ -90,6 +90,11 @@ public class InputInfo implements Serializable
 	public static final InputInfo CSVInputInfo=new InputInfo(TextInputFormat.class, 
 			 LongWritable.class, Text.class);
 	
+	// Format that denotes raw single-file blocks for local, memory-mapped reads
+	// (CP-only, hence no input format for MR/Spark)
+	public static final InputInfo RawBlockInputInfo=new InputInfo(null, 
+			MatrixIndexes.class, MatrixBlock.class);
+	
 	public static OutputInfo getMatchingOutputInfo(InputInfo ii) throws DMLRuntimeException {
 		if ( ii == InputInfo.BinaryBlockInputInfo )
 			return OutputInfo.BinaryBlockOutputInfo;
@@ -107,6 +112,8 @@ public class InputInfo implements Serializable
 			return OutputInfo.WeightedPairOutputInfo;
 		else if ( ii == InputInfo.CSVInputInfo)
 			return OutputInfo.CSVOutputInfo;
+		else if ( ii == InputInfo.RawBlockInputInfo)
+			return OutputInfo.RawBlockOutputInfo;
 		else 
 			throw new DMLRuntimeException("Unrecognized output info: " + ii);
 	}
@@ -132,6 +139,8 @@ public class InputInfo implements Serializable
 			return WeightedPairInputInfo;
 		else if ( str.equalsIgnoreCase("csv"))
 			return CSVInputInfo;
+		else if ( str.equalsIgnoreCase("rawblock"))
+			return RawBlockInputInfo;
 		return null;
 	}
 	
@@ -171,6 +180,8 @@ public class InputInfo implements Serializable
 			return "matrixmarket";
 		else if ( ii == CSVInputInfo )
 			return "csv";
+		else if ( ii == RawBlockInputInfo )
+			return "rawblock";
 		else
 			throw new DMLRuntimeException("Unrecognized inputInfo: " + ii);
 	}
@@ -19,7 +19,13 @@
 
 package org.apache.sysml.runtime.matrix.data;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.functionobjects.Divide;
@@ -37,6 +43,7 @@ import org.apache.sysml.runtime.functionobjects.Plus;
 import org.apache.sysml.runtime.functionobjects.Power2;
 import org.apache.sysml.runtime.matrix.operators.BinaryOperator;
 import org.apache.sysml.runtime.matrix.operators.ScalarOperator;
+import org.apache.sysml.runtime.matrix.operators.UnaryOperator;
 import org.apache.sysml.runtime.util.DataConverter;
 import org.apache.sysml.runtime.util.SortUtils;
 
@@ -63,6 +70,9 @@ public class LibMatrixBincell
 		INVALID,
 	}
 	
+	//internal configuration parameters
+	private static final long PAR_NUMCELL_THRESHOLD = 1024*1024;   //Min 1M elements
+	
 	private LibMatrixBincell() {
 		//prevent instantiation via private constructor
 	}
@@ -100,6 +110,66 @@ public class LibMatrixBincell
 			ret.examSparsity();
 	}
 	
+	/**
+	 * Multi-threaded matrix-scalar, scalar-matrix binary operations. The
+	 * parallelization is over row partitions, where each task maintains
+	 * the number of non-zeros of its partition.
+	 * 
+	 * @param m1
+	 * @param ret
+	 * @param op
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public static void bincellOp(MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int k) 
+		throws DMLRuntimeException
+	{
+		//fall back to sequential version if necessary
+		if(    k <= 1 || (long)m1.rlen*m1.clen < PAR_NUMCELL_THRESHOLD || m1.rlen <= k 
+			|| m1.isEmptyBlock(false) || (ret.sparse && ret.sparseBlock!=null 
+			&& !(ret.sparseBlock instanceof SparseBlockMCSR)) ) {
+			bincellOp(m1, ret, op);
+			return;
+		}
+		
+		//check internal assumptions 
+		if(   (op.sparseSafe && m1.isInSparseFormat()!=ret.isInSparseFormat())
+			||(!op.sparseSafe && ret.isInSparseFormat()) ) {
+			throw new DMLRuntimeException("Wrong output representation for safe="+op.sparseSafe+": "+m1.isInSparseFormat()+", "+ret.isInSparseFormat());
+		}
+		
+		//allocate output once (thread-safe row-wise updates)
+		if( ret.sparse )
+			ret.allocateSparseRowsBlock();
+		else
+			ret.allocateDenseBlock();
+		
+		//execute binary cell operations on row partitions
+		try {
+			ExecutorService pool = Executors.newFixedThreadPool( k );
+			ArrayList<BincellScalarTask> tasks = new ArrayList<BincellScalarTask>();
+			int blklen = (int)(Math.ceil((double)m1.rlen/k));
+			for( int i=0; i<k & i*blklen<m1.rlen; i++ )
+				tasks.add(new BincellScalarTask(m1, ret, op, i*blklen, Math.min((i+1)*blklen, m1.rlen)));
+			List<Future<Long>> taskret = pool.invokeAll(tasks);	
+			pool.shutdown();
+			
+			//aggregate non-zeros of all partitions
+			long nnz = 0;
+			for( Future<Long> task : taskret )
+				nnz += task.get();
+			ret.setNonZeros(nnz);
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		//ensure empty results sparse representation 
+		//(no additional memory requirements)
+		if( ret.isEmptyBlock(false) )
+			ret.examSparsity();
+	}
+	
 	/**
 	 * matrix-matrix binary operations, MM, MV
 	 * 
@@ -123,6 +193,125 @@ public class LibMatrixBincell
 			ret.examSparsity();
 	}
 	
+	/**
+	 * Multi-threaded matrix-matrix binary operations, MM, MV. The parallelization
+	 * is over row partitions of dense outputs, where each task maintains the number
+	 * of non-zeros of its partition. Unsupported combinations of dense/sparse inputs
+	 * and outputs fall back to the sequential implementation.
+	 * 
+	 * @param m1
+	 * @param m2
+	 * @param ret
+	 * @param op
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public static void bincellOp(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int k) 
+		throws DMLRuntimeException
+	{
+		//fall back to sequential version if necessary
+		if(    k <= 1 || (long)m1.rlen*m1.clen < PAR_NUMCELL_THRESHOLD || m1.rlen <= k 
+			|| !isParallelizableBinary(m1, m2, ret, op) ) {
+			bincellOp(m1, m2, ret, op);
+			return;
+		}
+		
+		//allocate dense output once (thread-safe row-wise updates)
+		ret.allocateDenseBlock();
+		
+		//execute binary cell operations on row partitions
+		try {
+			ExecutorService pool = Executors.newFixedThreadPool( k );
+			ArrayList<BincellTask> tasks = new ArrayList<BincellTask>();
+			int blklen = (int)(Math.ceil((double)m1.rlen/k));
+			for( int i=0; i<k & i*blklen<m1.rlen; i++ )
+				tasks.add(new BincellTask(m1, m2, ret, op, i*blklen, Math.min((i+1)*blklen, m1.rlen)));
+			List<Future<Long>> taskret = pool.invokeAll(tasks);	
+			pool.shutdown();
+			
+			//aggregate non-zeros of all partitions
+			long nnz = 0;
+			for( Future<Long> task : taskret )
+				nnz += task.get();
+			ret.setNonZeros(nnz);
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+		
+		//ensure empty results sparse representation 
+		//(no additional memory requirements)
+		if( ret.isEmptyBlock(false) )
+			ret.examSparsity();
+	}
+	
+	/**
+	 * Multi-threaded unary cellwise operations (e.g., exp, log, sqrt, sigmoid, round)
+	 * over row partitions, where each task maintains the number of non-zeros of its 
+	 * partition. Sparse-safe operations only process the non-zero input cells, while
+	 * sparse-unsafe operations over sparse inputs initialize the dense output with 
+	 * the 0-value result. The output representation is expected to be sparse only 
+	 * for sparse-safe operations over sparse inputs.
+	 * 
+	 * @param m1
+	 * @param ret
+	 * @param op
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public static void unaryOp(MatrixBlock m1, MatrixBlock ret, UnaryOperator op, int k) 
+		throws DMLRuntimeException
+	{
+		//check internal assumptions 
+		if( ret.sparse && !(op.sparseSafe && m1.sparse) ) {
+			throw new DMLRuntimeException("Wrong output representation for safe="+op.sparseSafe+": "+m1.isInSparseFormat()+", "+ret.isInSparseFormat());
+		}
+		
+		//allocate output once (thread-safe row-wise updates)
+		if( ret.sparse )
+			ret.allocateSparseRowsBlock();
+		else
+			ret.allocateDenseBlock();
+		
+		//execute unary cell operations on row partitions
+		try {
+			ExecutorService pool = Executors.newFixedThreadPool( k );
+			ArrayList<UnaryTask> tasks = new ArrayList<UnaryTask>();
+			int blklen = (int)(Math.ceil((double)m1.rlen/k));
+			for( int i=0; i<k & i*blklen<m1.rlen; i++ )
+				tasks.add(new UnaryTask(m1, ret, op, i*blklen, Math.min((i+1)*blklen, m1.rlen)));
+			List<Future<Long>> taskret = pool.invokeAll(tasks);	
+			pool.shutdown();
+			
+			//aggregate non-zeros of all partitions
+			long nnz = 0;
+			for( Future<Long> task : taskret )
+				nnz += task.get();
+			ret.setNonZeros(nnz);
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * Indicates if the given unary operation qualifies for the multi-threaded
+	 * implementation, i.e., sufficiently large non-empty inputs and an output
+	 * that allows thread-safe row-wise updates.
+	 * 
+	 * @param m1
+	 * @param ret
+	 * @param k
+	 * @return
+	 */
+	public static boolean isParallelizableUnary(MatrixBlock m1, MatrixBlock ret, int k)
+	{
+		//empty inputs are handled via cheap early aborts
+		return k > 1 && (long)m1.rlen*m1.clen >= PAR_NUMCELL_THRESHOLD && m1.rlen > k 
+			&& !m1.isEmptyBlock(false) && !(ret.sparse && ret.sparseBlock!=null 
+			&& !(ret.sparseBlock instanceof SparseBlockMCSR));
+	}
+	
 	/**
 	 * NOTE: operations in place always require m1 and m2 to be of equal dimensions
 	 * 
@@ -210,6 +399,40 @@ public class LibMatrixBincell
 		return (op.fn instanceof Divide && rhs.getNonZeros()==(long)rhs.getNumRows()*rhs.getNumColumns());
 	}
 	
+	/**
+	 * Indicates if the given binary operation qualifies for the multi-threaded
+	 * row-partitioned implementation, i.e., dense output and non-empty inputs of
+	 * dense-dense MM, sparse-safe sparse-dense MM, or dense MV.
+	 * 
+	 * @param m1
+	 * @param m2
+	 * @param ret
+	 * @param op
+	 * @return
+	 */
+	private static boolean isParallelizableBinary(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op)
+	{
+		//empty inputs are handled via cheap early aborts
+		if( ret.sparse || m1.isEmptyBlock(false) || m2.isEmptyBlock(false) )
+			return false;
+		
+		BinaryAccessType atype = getBinaryAccessType(m1, m2);
+		if(    atype == BinaryAccessType.MATRIX_COL_VECTOR 
+			|| atype == BinaryAccessType.MATRIX_ROW_VECTOR ) 
+		{
+			return !m1.sparse && !m2.sparse;
+		}
+		else if( atype == BinaryAccessType.MATRIX_MATRIX )
+		{
+			boolean safe = op.sparseSafe || isSparseSafeDivide(op, m2);
+			return (!m1.sparse && !m2.sparse) 
+				|| (safe && !(m1.sparse && m2.sparse) && (op.fn instanceof Plus 
+				|| op.fn instanceof Minus || (op.fn instanceof Multiply && !m2.sparse)));
+		}
+		
+		return false;
+	}
+	
 	//////////////////////////////////////////////////////
 	// private sparse-safe/sparse-unsafe implementations
 	///////////////////////////////////
@@ -336,89 +559,14 @@ public class LibMatrixBincell
 			{
 				//specific case in order to prevent binary search on sparse inputs (see quickget and quickset)
 				ret.allocateDenseBlock();
-				final int m = ret.rlen;
-				final int n = ret.clen;
-				double[] c = ret.denseBlock;
-				
-				//1) process left input: assignment
-				
-				if( m1.sparse ) //SPARSE left
-				{
-					Arrays.fill(ret.denseBlock, 0, ret.denseBlock.length, 0); 
-					
-					if( m1.sparseBlock != null )
-					{
-						SparseBlock a = m1.sparseBlock;
-						
-						for( int i=0, ix=0; i<m; i++, ix+=n ) {
-							if( !a.isEmpty(i) )
-							{
-								int apos = a.pos(i);
-								int alen = a.size(i);
-								int[] aix = a.indexes(i);
-								double[] avals = a.values(i);
-								for(int k = apos; k < apos+alen; k++) 
-									c[ix+aix[k]] = avals[k];
-							}
-						}
-					}
-				}
-				else //DENSE left
-				{
-					if( !m1.isEmptyBlock(false) ) 
-						System.arraycopy(m1.denseBlock, 0, c, 0, m*n);
-					else
-						Arrays.fill(ret.denseBlock, 0, m*n, 0); 
-				}
-				
-				//2) process right input: op.fn (+,-,*), * only if dense
-				if( m2.sparse ) //SPARSE right
-				{				
-					if(m2.sparseBlock!=null)
-					{
-						SparseBlock a = m2.sparseBlock;
-						
-						for( int i=0, ix=0; i<m; i++, ix+=n ) {
-							if( !a.isEmpty(i) ) {
-								int apos = a.pos(i);
-								int alen = a.size(i);
-								int[] aix = a.indexes(i);
-								double[] avals = a.values(i);
-								for(int k = apos; k < apos+alen; k++) 
-									c[ix+aix[k]] = op.fn.execute(c[ix+aix[k]], avals[k]);
-							}
-						}	
-					}
-				}
-				else //DENSE right
-				{
-					if( !m2.isEmptyBlock(false) )
-						for( int i=0; i<m*n; i++ )
-							c[i] = op.fn.execute(c[i], m2.denseBlock[i]);
-					else if(op.fn instanceof Multiply)
-						Arrays.fill(ret.denseBlock, 0, m*n, 0); 
-				}
-	
-				//3) recompute nnz
-				ret.recomputeNonZeros();
+				long nnz = safeBinaryMMSparseDenseDense(m1, m2, ret, op, 0, rlen);
+				ret.setNonZeros(nnz);
 			}
 			else if( !ret.sparse && !m1.sparse && !m2.sparse && m1.denseBlock!=null && m2.denseBlock!=null )
 			{
 				ret.allocateDenseBlock();
-				final int m = ret.rlen;
-				final int n = ret.clen;
-				double[] c = ret.denseBlock;
-				
-				//int nnz = 0;
-				for( int i=0; i<m*n; i++ )
-				{
-					c[i] = op.fn.execute(m1.denseBlock[i], m2.denseBlock[i]);
-					//HotSpot JVM bug causes crash in presence of NaNs 
-					//nnz += (c[i]!=0)? 1 : 0;
-					if( c[i] != 0 )
-						ret.nonZeros++;
-				}
-				//result.nonZeros = nnz;
+				long nnz = safeBinaryMMDenseDenseDense(m1, m2, ret, op, 0, rlen);
+				ret.setNonZeros(nnz);
 			}
 			else //generic case
 			{
@@ -437,6 +585,120 @@ public class LibMatrixBincell
 		}
 	}
 	
+	/**
+	 * 
+	 * @param m1
+	 * @param m2
+	 * @param ret
+	 * @param op
+	 * @param rl
+	 * @param ru
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static long safeBinaryMMSparseDenseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) 
+		throws DMLRuntimeException 
+	{
+		final int n = ret.clen;
+		double[] c = ret.denseBlock;
+		
+		//1) process left input: assignment
+		
+		if( m1.sparse ) //SPARSE left
+		{
+			Arrays.fill(c, rl*n, ru*n, 0); 
+			
+			if( m1.sparseBlock != null )
+			{
+				SparseBlock a = m1.sparseBlock;
+				
+				for( int i=rl, ix=rl*n; i<ru; i++, ix+=n ) {
+					if( !a.isEmpty(i) )
+					{
+						int apos = a.pos(i);
+						int alen = a.size(i);
+						int[] aix = a.indexes(i);
+						double[] avals = a.values(i);
+						for(int k = apos; k < apos+alen; k++) 
+							c[ix+aix[k]] = avals[k];
+					}
+				}
+			}
+		}
+		else //DENSE left
+		{
+			if( !m1.isEmptyBlock(false) ) 
+				System.arraycopy(m1.denseBlock, rl*n, c, rl*n, (ru-rl)*n);
+			else
+				Arrays.fill(c, rl*n, ru*n, 0); 
+		}
+		
+		//2) process right input: op.fn (+,-,*), * only if dense
+		if( m2.sparse ) //SPARSE right
+		{				
+			if(m2.sparseBlock!=null)
+			{
+				SparseBlock a = m2.sparseBlock;
+				
+				for( int i=rl, ix=rl*n; i<ru; i++, ix+=n ) {
+					if( !a.isEmpty(i) ) {
+						int apos = a.pos(i);
+						int alen = a.size(i);
+						int[] aix = a.indexes(i);
+						double[] avals = a.values(i);
+						for(int k = apos; k < apos+alen; k++) 
+							c[ix+aix[k]] = op.fn.execute(c[ix+aix[k]], avals[k]);
+					}
+				}	
+			}
+		}
+		else //DENSE right
+		{
+			if( !m2.isEmptyBlock(false) ) {
+				double[] b = m2.denseBlock;
+				for( int i=rl*n; i<ru*n; i++ )
+					c[i] = op.fn.execute(c[i], b[i]);
+			}
+			else if(op.fn instanceof Multiply)
+				Arrays.fill(c, rl*n, ru*n, 0); 
+		}
+
+		//3) recompute nnz
+		return ret.recomputeNonZeros(rl, ru-1, 0, n-1);
+	}
+	
+	/**
+	 * 
+	 * @param m1
+	 * @param m2
+	 * @param ret
+	 * @param op
+	 * @param rl
+	 * @param ru
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static long safeBinaryMMDenseDenseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) 
+		throws DMLRuntimeException 
+	{
+		final int n = ret.clen;
+		double[] a = m1.denseBlock;
+		double[] b = m2.denseBlock;
+		double[] c = ret.denseBlock;
+		
+		long lnnz = 0;
+		for( int i=rl*n; i<ru*n; i++ )
+		{
+			c[i] = op.fn.execute(a[i], b[i]);
+			//HotSpot JVM bug causes crash in presence of NaNs 
+			//nnz += (c[i]!=0)? 1 : 0;
+			if( c[i] != 0 )
+				lnnz++;
+		}
+		
+		return lnnz;
+	}
+	
 	/**
 	 * 
 	 * @param m1
@@ -450,22 +712,42 @@ public class LibMatrixBincell
 	{
 		boolean isMultiply = (op.fn instanceof Multiply);
 		boolean skipEmpty = (isMultiply);
-		BinaryAccessType atype = getBinaryAccessType(m1, m2);
-		int rlen = m1.rlen;
-		int clen = m1.clen;
 		
 		//early abort on skip and empy
 		if( skipEmpty && (m1.isEmptyBlock(false) || m2.isEmptyBlock(false) ) )
 			return; // skip entire empty block
 		
 		ret.allocateDenseBlock();
+		long nnz = safeBinaryMVDense(m1, m2, ret, op, 0, m1.rlen);
+		ret.setNonZeros(nnz);
+	}
+	
+	/**
+	 * 
+	 * @param m1
+	 * @param m2
+	 * @param ret
+	 * @param op
+	 * @param rl
+	 * @param ru
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static long safeBinaryMVDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru) 
+		throws DMLRuntimeException 
+	{
+		boolean isMultiply = (op.fn instanceof Multiply);
+		boolean skipEmpty = (isMultiply);
+		BinaryAccessType atype = getBinaryAccessType(m1, m2);
+		int clen = m1.clen;
+		
 		double[] a = m1.denseBlock;
 		double[] b = m2.denseBlock;
 		double[] c = ret.denseBlock;
 
 		if( atype == BinaryAccessType.MATRIX_COL_VECTOR )
 		{
-			for( int i=0, ix=0; i<rlen; i++, ix+=clen )
+			for( int i=rl, ix=rl*clen; i<ru; i++, ix+=clen )
 			{
 				//replicate vector value
 				double v2 = (b==null) ? 0 : b[i];
@@ -492,26 +774,26 @@ public class LibMatrixBincell
 			if( a==null && b==null ) //both empty
 			{
 				double v = op.fn.execute( 0, 0 );
-				Arrays.fill(c, 0, rlen*clen, v);
+				Arrays.fill(c, rl*clen, ru*clen, v);
 			}
 			else if( a==null ) //left empty
 			{
 				//compute first row
-				for( int j=0; j<clen; j++ )
-					c[j] = op.fn.execute( 0, b[j] );
+				for( int j=0, ix=rl*clen; j<clen; j++ )
+					c[ix+j] = op.fn.execute( 0, b[j] );
 				//copy first to all other rows
-				for( int i=1, ix=clen; i<rlen; i++, ix+=clen )
-					System.arraycopy(c, 0, c, ix, clen);
+				for( int i=rl+1, ix=(rl+1)*clen; i<ru; i++, ix+=clen )
+					System.arraycopy(c, rl*clen, c, ix, clen);
 			}
 			else //default case (incl right empty) 
 			{
-				for( int i=0, ix=0; i<rlen; i++, ix+=clen )
+				for( int i=rl, ix=rl*clen; i<ru; i++, ix+=clen )
 					for( int j=0; j<clen; j++ )
 						c[ix+j] = op.fn.execute( a[ix+j], ((b!=null) ? b[j] : 0) );	
 			}
 		}
 		
-		ret.recomputeNonZeros();
+		return ret.recomputeNonZeros(rl, ru-1, 0, clen-1);
 	}
 	
 	/**
@@ -935,16 +1217,38 @@ public class LibMatrixBincell
 		if( m1.sparse != ret.sparse )
 			throw new DMLRuntimeException("Unsupported safe binary scalar operations over different input/output representation: "+m1.sparse+" "+ret.sparse);
 		
+		//allocate sparse row structure or dense block
+		if( m1.sparse )
+			ret.allocateSparseRowsBlock();
+		else
+			ret.allocateDenseBlock(true);
+		
+		long nnz = safeBinaryScalar(m1, ret, op, 0, m1.rlen);
+		ret.setNonZeros(nnz);
+	}
+	
+	/**
+	 * 
+	 * @param m1
+	 * @param ret
+	 * @param op
+	 * @param rl
+	 * @param ru
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static long safeBinaryScalar(MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int rl, int ru)
+		throws DMLRuntimeException
+	{
 		boolean copyOnes = (op.fn instanceof NotEquals && op.getConstant()==0);
+		long lnnz = 0;
 		
 		if( m1.sparse ) //SPARSE <- SPARSE
 		{	
-			//allocate sparse row structure
-			ret.allocateSparseRowsBlock();
 			SparseBlock a = m1.sparseBlock;
 			SparseBlock c = ret.sparseBlock;
 			
-			for(int r=0; r<Math.min(m1.rlen, a.numRows()); r++) {
+			for(int r=rl; r<Math.min(ru, a.numRows()); r++) {
 				if( !a.isEmpty(r) )
 				{
 					int apos = a.pos(r);
@@ -962,7 +1266,7 @@ public class LibMatrixBincell
 						System.arraycopy(aix, apos, crow.indexes(), 0, alen);
 						Arrays.fill(crow.values(), 0, alen, 1);
 						c.set(r, crow, false);
-						ret.nonZeros+=alen;
+						lnnz+=alen;
 					}
 					else //GENERAL CASE
 					{
@@ -975,7 +1279,10 @@ public class LibMatrixBincell
 						
 						for(int j=apos; j<apos+alen; j++) {
 							double val = op.executeScalar(avals[j]);
-							ret.appendValue(r, aix[j], val);
+							if( val != 0 ) {
+								c.append(r, aix[j], val);
+								lnnz++;
+							}
 						}
 					}
 				}
@@ -983,21 +1290,19 @@ public class LibMatrixBincell
 		}
 		else //DENSE <- DENSE
 		{
-			//allocate dense block
-			ret.allocateDenseBlock(true);
-		
 			double[] a = m1.denseBlock;
 			double[] c = ret.denseBlock;
 			
-			int limit = m1.rlen*m1.clen;
-			for( int i=0; i<limit; i++ )
+			int n = m1.clen;
+			for( int i=rl*n; i<ru*n; i++ )
 			{
 				c[i] = op.executeScalar( a[i] );
 				if( c[i] != 0 )
-					ret.nonZeros++;
+					lnnz++;
 			}
 		}
 		
+		return lnnz;
 	}
 	
 	/**
@@ -1024,21 +1329,39 @@ public class LibMatrixBincell
 		if( ret.sparse )
 			throw new DMLRuntimeException("Unsupported unsafe binary scalar operations over sparse output representation.");
 		
+		//allocate dense block (if necessary), incl clear nnz
+		ret.allocateDenseBlock(true);
+		
+		long nnz = unsafeBinaryScalar(m1, ret, op, 0, m1.rlen);
+		ret.setNonZeros(nnz);
+	}
+	
+	/**
+	 * 
+	 * @param m1
+	 * @param ret
+	 * @param op
+	 * @param rl
+	 * @param ru
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static long unsafeBinaryScalar(MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int rl, int ru)
+		throws DMLRuntimeException
+	{
+		int n = m1.clen;
+		double[] c = ret.denseBlock;
+		
 		if( m1.sparse ) //SPARSE MATRIX
 		{
-			ret.allocateDenseBlock();
-			
 			SparseBlock a = m1.sparseBlock;
-			double[] c = ret.denseBlock;			
-			int m = m1.rlen;
-			int n = m1.clen;
 			
 			//init dense result with unsafe 0-value
 			double cval0 = op.executeScalar(0);
-			Arrays.fill(c, cval0);
+			Arrays.fill(c, rl*n, ru*n, cval0);
 			
 			//compute non-zero input values
-			for(int i=0, cix=0; i<m; i++, cix+=n) 
+			for(int i=rl, cix=rl*n; i<ru; i++, cix+=n) 
 			{
 				if( !a.isEmpty(i) ) {
 					int apos = a.pos(i);
@@ -1053,27 +1376,100 @@ public class LibMatrixBincell
 			}
 		
 			//recompute non zeros 
-			ret.recomputeNonZeros();
+			return ret.recomputeNonZeros(rl, ru-1, 0, n-1);
 		}
 		else //DENSE MATRIX
 		{
-			//allocate dense block (if necessary), incl clear nnz
-			ret.allocateDenseBlock(true);
-			
 			double[] a = m1.denseBlock;
-			double[] c = ret.denseBlock;
 			
 			//compute scalar operation, incl nnz maintenance
-			int limit = m1.rlen*m1.clen;
-			for( int i=0; i<limit; i++ )
+			long lnnz = 0;
+			for( int i=rl*n; i<ru*n; i++ )
 			{
 				c[i] = op.executeScalar( a[i] );
 				if( c[i] != 0 )
-					ret.nonZeros++;
+					lnnz++;
 			}
+			return lnnz;
 		}
 	}
 
+	/**
+	 * 
+	 * @param m1
+	 * @param ret
+	 * @param op
+	 * @param rl
+	 * @param ru
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static long unaryOp(MatrixBlock m1, MatrixBlock ret, UnaryOperator op, int rl, int ru)
+		throws DMLRuntimeException
+	{
+		final int n = m1.clen;
+		long lnnz = 0;
+		
+		if( m1.sparse && ret.sparse ) //SPARSE <- SPARSE (sparse-safe)
+		{
+			SparseBlock a = m1.sparseBlock;
+			SparseBlock c = ret.sparseBlock;
+			
+			for( int i=rl; i<ru; i++ ) {
+				if( !a.isEmpty(i) ) {
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
+					c.allocate(i, alen);
+					for( int j=apos; j<apos+alen; j++ ) {
+						double val = op.fn.execute(avals[j]);
+						if( val != 0 ) {
+							c.append(i, aix[j], val);
+							lnnz++;
+						}
+					}
+				}
+			}
+		}
+		else if( m1.sparse ) //DENSE <- SPARSE
+		{
+			SparseBlock a = m1.sparseBlock;
+			double[] c = ret.denseBlock;
+			
+			//init dense result with 0-value (computed once)
+			double val0 = op.fn.execute(0);
+			Arrays.fill(c, rl*n, ru*n, val0);
+			
+			//compute non-zero input values
+			for( int i=rl, cix=rl*n; i<ru; i++, cix+=n ) {
+				if( !a.isEmpty(i) ) {
+					int apos = a.pos(i);
+					int alen = a.size(i);
+					int[] aix = a.indexes(i);
+					double[] avals = a.values(i);
+					for( int j=apos; j<apos+alen; j++ )
+						c[cix+aix[j]] = op.fn.execute(avals[j]);
+				}
+			}
+			
+			lnnz = ret.recomputeNonZeros(rl, ru-1, 0, n-1);
+		}
+		else //DENSE <- DENSE
+		{
+			double[] a = m1.denseBlock;
+			double[] c = ret.denseBlock;
+			
+			//unary op, incl nnz maintenance
+			for( int i=rl*n; i<ru*n; i++ ) {
+				c[i] = op.fn.execute(a[i]);
+				lnnz += (c[i] != 0) ? 1 : 0;
+			}
+		}
+		
+		return lnnz;
+	}
+	
 	/**
 	 * 
 	 * @param m1ret
@@ -1338,5 +1734,89 @@ public class LibMatrixBincell
 		}
 	}
 	
-}
+	/**
+	 * Task for multi-threaded matrix-matrix binary operations over a row partition.
+	 */
+	private static class BincellTask implements Callable<Long> 
+	{
+		private final MatrixBlock _m1;
+		private final MatrixBlock _m2;
+		private final MatrixBlock _ret;
+		private final BinaryOperator _op;
+		private final int _rl;
+		private final int _ru;
 
+		protected BincellTask( MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, BinaryOperator op, int rl, int ru ) {
+			_m1 = m1;
+			_m2 = m2;
+			_ret = ret;
+			_op = op;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Long call() throws DMLRuntimeException {
+			BinaryAccessType atype = getBinaryAccessType(_m1, _m2);
+			if(    atype == BinaryAccessType.MATRIX_COL_VECTOR 
+				|| atype == BinaryAccessType.MATRIX_ROW_VECTOR )
+				return safeBinaryMVDense(_m1, _m2, _ret, _op, _rl, _ru);
+			else if( _m1.sparse || _m2.sparse )
+				return safeBinaryMMSparseDenseDense(_m1, _m2, _ret, _op, _rl, _ru);
+			else
+				return safeBinaryMMDenseDenseDense(_m1, _m2, _ret, _op, _rl, _ru);
+		}
+	}
+	
+	/**
+	 * Task for multi-threaded matrix-scalar binary operations over a row partition.
+	 */
+	private static class BincellScalarTask implements Callable<Long> 
+	{
+		private final MatrixBlock _m1;
+		private final MatrixBlock _ret;
+		private final ScalarOperator _op;
+		private final int _rl;
+		private final int _ru;
+
+		protected BincellScalarTask( MatrixBlock m1, MatrixBlock ret, ScalarOperator op, int rl, int ru ) {
+			_m1 = m1;
+			_ret = ret;
+			_op = op;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Long call() throws DMLRuntimeException {
+			return _op.sparseSafe ?
+				safeBinaryScalar(_m1, _ret, _op, _rl, _ru) :
+				unsafeBinaryScalar(_m1, _ret, _op, _rl, _ru);
+		}
+	}
+	
+	/**
+	 * Task for multi-threaded unary operations over a row partition.
+	 */
+	private static class UnaryTask implements Callable<Long> 
+	{
+		private final MatrixBlock _m1;
+		private final MatrixBlock _ret;
+		private final UnaryOperator _op;
+		private final int _rl;
+		private final int _ru;
+
+		protected UnaryTask( MatrixBlock m1, MatrixBlock ret, UnaryOperator op, int rl, int ru ) {
+			_m1 = m1;
+			_ret = ret;
+			_op = op;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Long call() throws DMLRuntimeException {
+			return unaryOp(_m1, _ret, _op, _rl, _ru);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.runtime.matrix.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.sysml.runtime.DMLRuntimeException;
+import org.apache.sysml.runtime.functionobjects.CTable;
+
+/**
+ * Library for multi-threaded ctable operations with hash aggregation, i.e.,
+ * ctable(A,B,W), ctable(A,B,w), ctable(A,v2,W), and ctable(A,v2,w). Each 
+ * thread aggregates a disjoint range of input rows into a thread-local 
+ * ctable map; the partial maps are finally merged into the result map.
+ * Row ranges are processed in the same order as the single-threaded
+ * ctable, hence the semantics (incl error handling) are equivalent. 
+ */
+public class LibMatrixCTable 
+{
+	public static final long PAR_NUMCELL_THRESHOLD = 1024*1024;   //Min 1M elements
+	
+	private LibMatrixCTable() {
+		//prevent instantiation via private constructor
+	}
+	
+	/**
+	 * Indicates if the multi-threaded hash aggregation applies, i.e., if 
+	 * the input is sufficiently large and no dense result block is used.
+	 * 
+	 * @param in
+	 * @param resultBlock
+	 * @param k
+	 * @return
+	 */
+	public static boolean isParallelCTable(MatrixBlock in, MatrixBlock resultBlock, int k) {
+		return (k > 1 && resultBlock == null 
+			&& (long)in.getNumRows() * in.getNumColumns() >= PAR_NUMCELL_THRESHOLD);
+	}
+	
+	/**
+	 * Multi-threaded ctable with hash aggregation, where the second input and 
+	 * weights are given as either matrices or scalars (B/W=null). 
+	 * 
+	 * @param A
+	 * @param B
+	 * @param v2
+	 * @param W
+	 * @param w
+	 * @param ignoreZeros
+	 * @param resultMap
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public static void ctable(MatrixBlock A, MatrixBlock B, double v2, MatrixBlock W, double w, 
+			boolean ignoreZeros, CTableMap resultMap, int k) 
+		throws DMLRuntimeException
+	{
+		int rlen = A.getNumRows();
+		
+		try {
+			//compute thread-local ctable maps over row partitions
+			ExecutorService pool = Executors.newFixedThreadPool( k );
+			ArrayList<CTableTask> tasks = new ArrayList<CTableTask>();
+			int blklen = (int)(Math.ceil((double)rlen/k));
+			for( int i=0; i<k & i*blklen<rlen; i++ )
+				tasks.add(new CTableTask(A, B, v2, W, w, ignoreZeros, i*blklen, Math.min((i+1)*blklen, rlen)));
+			List<Future<CTableMap>> taskret = pool.invokeAll(tasks);	
+			pool.shutdown();
+			
+			//merge partial results in order of row partitions
+			for( Future<CTableMap> task : taskret )
+				resultMap.merge(task.get());
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * 
+	 */
+	private static class CTableTask implements Callable<CTableMap>
+	{
+		private MatrixBlock _A = null;
+		private MatrixBlock _B = null;
+		private double _v2 = -1;
+		private MatrixBlock _W = null;
+		private double _w = -1;
+		private boolean _ignoreZeros = false;
+		private int _rl = -1;
+		private int _ru = -1;
+		
+		protected CTableTask(MatrixBlock A, MatrixBlock B, double v2, MatrixBlock W, double w, boolean ignoreZeros, int rl, int ru) {
+			_A = A;
+			_B = B;
+			_v2 = v2;
+			_W = W;
+			_w = w;
+			_ignoreZeros = ignoreZeros;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public CTableMap call() throws DMLRuntimeException
+		{
+			CTable ctable = CTable.getCTableFnObject();
+			CTableMap map = new CTableMap();
+			int clen = _A.getNumColumns();
+			
+			//sparse-unsafe ctable execution
+			//(because input values of 0 are invalid and have to result in errors) 
+			for( int i=_rl; i<_ru; i++ )
+				for( int j=0; j<clen; j++ )
+				{
+					double v1 = _A.quickGetValue(i, j);
+					double v2 = (_B != null) ? _B.quickGetValue(i, j) : _v2;
+					double w = (_W != null) ? _W.quickGetValue(i, j) : _w;
+					ctable.execute(v1, v2, w, _ignoreZeros, map);
+				}
+			
+			return map;
+		}
+	}
+}
@@ -50,7 +50,8 @@ import org.apache.sysml.runtime.util.UtilFunctions;
  * 
  * In general all implementations use internally dense outputs
  * for direct access, but change the final result to sparse if necessary.
- * The only exceptions are ultra-sparse matrix mult, wsloss and wsigmoid.  
+ * The only exceptions are ultra-sparse matrix mult, sparse-sparse matrix mult
+ * with sparse output (hash-based row accumulation into CSR), wsloss and wsigmoid.  
  * 
  * NOTES on BLAS:
  * * Experiments in 04/2013 showed that even on dense-dense this implementation 
@@ -101,6 +102,12 @@ public class LibMatrixMult
 			return;
 		}
 		
+		//sparse-sparse with sparse output (no dense intermediate)
+		if( checkSparseOutputSparseSparse(m1, m2) ) {
+			matrixMultSparseSparseSparseOut(m1, m2, ret, 1);
+			return;
+		}
+		
 		//Timing time = new Timing(true);
 		
 		//pre-processing: output allocation
@@ -123,7 +130,7 @@ public class LibMatrixMult
 		else if(m1.sparse && m2.sparse)
 			matrixMultSparseSparse(m1, m2, ret, pm2, 0, ru);
 		else if(m1.sparse)
-			matrixMultSparseDense(m1, m2, ret, pm2, 0, ru);
+			matrixMultSparseDense(m1, m2, ret, tm2, pm2, 0, ru);
 		else
 			matrixMultDenseSparse(m1, m2, ret, pm2, 0, ru);
 		
@@ -164,6 +171,12 @@ public class LibMatrixMult
 			return;
 		}
 		
+		//sparse-sparse with sparse output (no dense intermediate)
+		if( checkSparseOutputSparseSparse(m1, m2) ) {
+			matrixMultSparseSparseSparseOut(m1, m2, ret, k);
+			return;
+		}
+		
 		//Timing time = new Timing(true);
 		
 		//pre-processing: output allocation (in contrast to single-threaded,
@@ -1244,22 +1257,52 @@ public class LibMatrixMult
 	 * @param m1
 	 * @param m2
 	 * @param ret
+	 * @param tm2 transposed rhs matrix (n x cd)
+	 * @param pm2
+	 * @param rl
+	 * @param ru
 	 * @throws DMLRuntimeException 
 	 */
-	private static void matrixMultSparseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, boolean pm2, int rl, int ru) 
+	private static void matrixMultSparseDense(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, boolean tm2, boolean pm2, int rl, int ru) 
 		throws DMLRuntimeException
 	{	
 		double[] b = m2.denseBlock;
 		double[] c = ret.denseBlock;
 		final int m = m1.rlen;
-		final int n = m2.clen;
-		final int cd = m2.rlen;
+		final int n = tm2 ? m2.rlen : m2.clen;
+		final int cd = tm2 ? m2.clen : m2.rlen;
 
 		if( LOW_LEVEL_OPTIMIZATION )
 		{
 			SparseBlock a = m1.sparseBlock;
 			
-			if( m==1 && n==1 )         //DOT PRODUCT
+			if( tm2 )                  //MATRIX-MATRIX (transposed rhs)
+			{
+				//blocksizes to fit a tile of rows of t(B) into L2 cache and several rows of A/C into L1,
+				//every output cell is computed by a single sparse-dense dot product (no read-modify-write 
+				//of the output per non-zero and no streaming of entire rows of B) 
+				final int blocksizeI = 32;
+				final int blocksizeJ = Math.max(8, 256*1024 / (8*cd));
+				
+				//blocked execution over IJ 
+				for( int bi = rl; bi < ru; bi+=blocksizeI ) {
+					int bimin = Math.min(ru, bi+blocksizeI);
+					for( int bj = 0; bj < n; bj+=blocksizeJ ) {
+						int bjmin = Math.min(n, bj+blocksizeJ);
+						for( int i=bi, cix=bi*n; i<bimin; i++, cix+=n ) {
+							if( a.isEmpty(i) ) 
+								continue;
+							int apos = a.pos(i);
+							int alen = a.size(i);
+							int[] aix = a.indexes(i);
+							double[] avals = a.values(i);
+							for( int j=bj, bix=bj*cd; j<bjmin; j++, bix+=cd )
+								c[cix+j] = dotProduct(avals, b, aix, apos, bix, alen);
+						}
+					}
+				}
+			}
+			else if( m==1 && n==1 )    //DOT PRODUCT
 			{
 				if( !a.isEmpty(0) ) {
 					c[0] = dotProduct(a.values(0), b, a.indexes(0), a.pos(0), 0, a.size(0));
@@ -1515,6 +1558,260 @@ public class LibMatrixMult
 		}
 	}
 
+	/**
+	 * Sparse-sparse matrix multiplication with sparse output (Gustavson's row-wise 
+	 * SpGEMM). For each row of the lhs, the partial products of the referenced rhs rows 
+	 * are accumulated in a reused open-addressing hash map, and the sorted row is 
+	 * directly appended to CSR output arrays. Hence, we neither allocate a dense 
+	 * intermediate of size m x n nor scan it for nnz, which makes very sparse 
+	 * products such as graph adjacency matrix powers feasible in memory.
+	 * 
+	 * The multi-threaded variant computes independent CSR parts for disjoint row 
+	 * ranges, which are finally concatenated into a single CSR block.
+	 * 
+	 * @param m1
+	 * @param m2
+	 * @param ret
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	private static void matrixMultSparseSparseSparseOut(MatrixBlock m1, MatrixBlock m2, MatrixBlock ret, int k) 
+		throws DMLRuntimeException
+	{
+		final int m = m1.rlen;
+		SparseBlockCSR[] parts = null;
+		ArrayList<Integer> blklens = null;
+		
+		//compute CSR parts for disjoint row ranges
+		if( k <= 1 || m < 64 ) {
+			parts = new SparseBlockCSR[]{ 
+				matrixMultSparseSparseHash(m1.sparseBlock, m2.sparseBlock, 0, m) };
+			blklens = new ArrayList<Integer>();
+			blklens.add(m);
+		}
+		else {
+			try {
+				ExecutorService pool = Executors.newFixedThreadPool( k );
+				ArrayList<MatrixMultSparseOutTask> tasks = new ArrayList<MatrixMultSparseOutTask>();
+				int nk = UtilFunctions.roundToNext(Math.min(8*k, m/32), k);
+				blklens = getBalancedBlockSizes(m, nk);
+				for( int i=0, lb=0; i<blklens.size(); lb+=blklens.get(i), i++ )
+					tasks.add(new MatrixMultSparseOutTask(m1, m2, lb, lb+blklens.get(i)));
+				List<Future<SparseBlockCSR>> taskret = pool.invokeAll(tasks);	
+				pool.shutdown();
+				parts = new SparseBlockCSR[taskret.size()];
+				for( int i=0; i<parts.length; i++ )
+					parts[i] = taskret.get(i).get();
+			}
+			catch(Exception ex) {
+				throw new DMLRuntimeException(ex);
+			}
+		}
+		
+		//concatenate partial results (no copy for single part)
+		SparseBlockCSR cblock = null;
+		long nnz = 0;
+		for( SparseBlockCSR part : parts )
+			nnz += part.size();
+		if( nnz > Integer.MAX_VALUE )
+			throw new DMLRuntimeException("Sparse matrix mult output exceeds CSR capacity: "+nnz+" non-zeros.");
+		if( parts.length == 1 ) {
+			cblock = parts[0];
+		}
+		else {
+			int[] rowptr = new int[m+1];
+			int[] colidx = new int[(int)nnz];
+			double[] values = new double[(int)nnz];
+			int off = 0;
+			for( int p=0, rl=0; p<parts.length; rl+=blklens.get(p), p++ ) {
+				SparseBlockCSR part = parts[p];
+				int len = blklens.get(p);
+				int plen = (int)part.size();
+				for( int i=0; i<len; i++ )
+					rowptr[rl+i] = off + part.pos(i);
+				if( plen > 0 ) {
+					System.arraycopy(part.indexes(0), 0, colidx, off, plen);
+					System.arraycopy(part.values(0), 0, values, off, plen);
+				}
+				off += plen;
+			}
+			rowptr[m] = off;
+			cblock = new SparseBlockCSR(rowptr, colidx, values, off);
+		}
+		
+		//set output and check final representation
+		ret.sparse = true;
+		ret.denseBlock = null;
+		ret.sparseBlock = cblock;
+		ret.nonZeros = nnz;
+		ret.examSparsity();
+	}
+	
+	/**
+	 * 
+	 * @param a
+	 * @param b
+	 * @param rl
+	 * @param ru
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static SparseBlockCSR matrixMultSparseSparseHash(SparseBlock a, SparseBlock b, int rl, int ru) 
+		throws DMLRuntimeException
+	{
+		final int len = ru - rl;
+		int[] rowptr = new int[len+1];
+		int[] cix = new int[(int)Math.max(16, Math.min(Integer.MAX_VALUE/2, a.size(rl, ru)))];
+		double[] cvals = new double[cix.length];
+		int cnnz = 0;
+		
+		//reused hash accumulator (open addressing w/ linear probing, -1 as empty key)
+		int[] hkeys = new int[0];
+		double[] hvals = new double[0];
+		int[] hslots = new int[0];
+		int[] tmpix = new int[0];
+		
+		for( int i=rl; i<ru; i++ ) {
+			rowptr[i-rl] = cnnz;
+			if( a.isEmpty(i) )
+				continue;
+			final int apos = a.pos(i);
+			final int alen = a.size(i);
+			int[] aix = a.indexes(i);
+			double[] avals = a.values(i);
+			
+			//special case: single lhs non-zero (scaled copy of rhs row, already sorted)
+			if( alen == 1 ) {
+				if( b.isEmpty(aix[apos]) )
+					continue;
+				int bpos = b.pos(aix[apos]);
+				int blen = b.size(aix[apos]);
+				int[] bix = b.indexes(aix[apos]);
+				double[] bvals = b.values(aix[apos]);
+				if( cnnz+blen > cix.length ) {
+					cix = growCSRIndexes(cix, cnnz+blen);
+					cvals = growCSRValues(cvals, cix.length);
+				}
+				double aval = avals[apos];
+				for( int j=bpos; j<bpos+blen; j++ ) {
+					double val = aval * bvals[j];
+					if( val != 0 ) {
+						cix[cnnz] = bix[j];
+						cvals[cnnz++] = val;
+					}
+				}
+				continue;
+			}
+			
+			//determine upper bound of row nnz (number of scalar products)
+			int flops = 0;
+			for( int k=apos; k<apos+alen; k++ )
+				flops += b.size(aix[k]);
+			if( flops == 0 )
+				continue;
+			
+			//prepare hash accumulator (load factor <= 0.5)
+			int cap = UtilFunctions.nextIntPow2(2*flops);
+			if( hkeys.length < cap ) {
+				hkeys = new int[cap];
+				hvals = new double[cap];
+				Arrays.fill(hkeys, -1);
+				hslots = new int[cap/2];
+				tmpix = new int[cap/2];
+			}
+			final int mask = cap - 1;
+			int hlen = 0;
+			
+			//accumulate partial products of all referenced rhs rows
+			for( int k=apos; k<apos+alen; k++ ) {
+				if( b.isEmpty(aix[k]) )
+					continue;
+				double aval = avals[k];
+				int bpos = b.pos(aix[k]);
+				int blen = b.size(aix[k]);
+				int[] bix = b.indexes(aix[k]);
+				double[] bvals = b.values(aix[k]);
+				for( int j=bpos; j<bpos+blen; j++ ) {
+					int key = bix[j];
+					int h = hashSlot(key, mask);
+					while( hkeys[h] != -1 && hkeys[h] != key )
+						h = (h+1) & mask;
+					if( hkeys[h] == -1 ) {
+						hkeys[h] = key;
+						hvals[h] = aval * bvals[j];
+						hslots[hlen++] = h;
+					}
+					else
+						hvals[h] += aval * bvals[j];
+				}
+			}
+			
+			//sort column indexes and append non-zeros to CSR output
+			for( int j=0; j<hlen; j++ )
+				tmpix[j] = hkeys[hslots[j]];
+			Arrays.sort(tmpix, 0, hlen);
+			if( cnnz+hlen > cix.length ) {
+				cix = growCSRIndexes(cix, cnnz+hlen);
+				cvals = growCSRValues(cvals, cix.length);
+			}
+			for( int j=0; j<hlen; j++ ) {
+				int key = tmpix[j];
+				int h = hashSlot(key, mask);
+				while( hkeys[h] != key )
+					h = (h+1) & mask;
+				if( hvals[h] != 0 ) {
+					cix[cnnz] = key;
+					cvals[cnnz++] = hvals[h];
+				}
+			}
+			
+			//reset used slots of hash accumulator
+			for( int j=0; j<hlen; j++ )
+				hkeys[hslots[j]] = -1;
+		}
+		rowptr[len] = cnnz;
+		
+		return new SparseBlockCSR(rowptr, cix, cvals, cnnz);
+	}
+	
+	/**
+	 * 
+	 * @param key
+	 * @param mask
+	 * @return
+	 */
+	private static int hashSlot( int key, int mask ) {
+		//multiplicative hashing to spread clustered column indexes
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+	
+	/**
+	 * 
+	 * @param ix
+	 * @param minlen
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	private static int[] growCSRIndexes( int[] ix, int minlen ) 
+		throws DMLRuntimeException
+	{
+		long newlen = Math.max(minlen, 2L*ix.length);
+		if( minlen < 0 || minlen > Integer.MAX_VALUE-8 )
+			throw new DMLRuntimeException("Sparse matrix mult output exceeds CSR capacity.");
+		return Arrays.copyOf(ix, (int)Math.min(newlen, Integer.MAX_VALUE-8));
+	}
+	
+	/**
+	 * 
+	 * @param vals
+	 * @param len
+	 * @return
+	 */
+	private static double[] growCSRValues( double[] vals, int len ) {
+		return Arrays.copyOf(vals, len);
+	}
+	
 	/**
 	 * This implementation applies to any combination of dense/sparse if at least one
 	 * input is ultrasparse (sparse and very few nnz). In that case, most importantly,
@@ -3953,7 +4250,61 @@ public class LibMatrixMult
 		//transpose if dense-dense, skinny rhs matrix (not vector), and memory guarded by output 
 		return (LOW_LEVEL_OPTIMIZATION && !m1.sparse && !m2.sparse 
 				&& m1.rlen > m2.clen && m2.rlen > 64 && m2.clen > 1 && m2.clen < 64
-				&& 8*m2.rlen*m2.clen < 256*1024 ); //rhs fits in L2 cache
+				&& 8*m2.rlen*m2.clen < 256*1024 ) //rhs fits in L2 cache
+			|| checkPrepMatrixMultRightInputSparseDense(m1, m2);
+	}
+	
+	/**
+	 * 
+	 * @param m1
+	 * @param m2
+	 * @return
+	 */
+	private static boolean checkPrepMatrixMultRightInputSparseDense( MatrixBlock m1, MatrixBlock m2 )
+	{
+		//transpose if sparse-dense, wide rhs matrix with few rows (rows of t(B) fit in L1 cache),
+		//many non-zeros per lhs row (reuse of rows of t(B)), and memory guarded by output
+		return (LOW_LEVEL_OPTIMIZATION && m1.sparse && !m2.sparse 
+				&& !m1.isUltraSparse() && m1.rlen > 64 && m2.clen > 64 
+				&& m2.rlen <= 2048 && m2.rlen <= 2L*m1.rlen    //rhs rows in L1, t(B) <= 2x output
+				&& m1.nonZeros >= 32L*m1.rlen );                //avg >= 32 nnz per lhs row
+	}
+	
+	/**
+	 * Decides for sparse-sparse matrix mult with sparse output, if the estimated 
+	 * output nnz (min of exact upper bound and average-case estimate) indicate a 
+	 * sparse output representation.
+	 * 
+	 * @param m1
+	 * @param m2
+	 * @return
+	 */
+	private static boolean checkSparseOutputSparseSparse( MatrixBlock m1, MatrixBlock m2 )
+	{
+		if( !LOW_LEVEL_OPTIMIZATION || !m1.sparse || !m2.sparse 
+			|| m1.sparseBlock == null || m2.sparseBlock == null
+			|| m1.isUltraSparse() || m2.isUltraSparse() || m2.clen == 1 )
+			return false;
+		
+		//exact upper bound of output nnz (number of scalar products)
+		SparseBlock a = m1.sparseBlock;
+		SparseBlock b = m2.sparseBlock;
+		long flops = 0;
+		for( int i=0; i<m1.rlen; i++ ) {
+			if( a.isEmpty(i) ) continue;
+			int apos = a.pos(i);
+			int alen = a.size(i);
+			int[] aix = a.indexes(i);
+			for( int k=apos; k<apos+alen; k++ )
+				flops += b.size(aix[k]);
+		}
+		
+		//average-case output nnz estimate (uniform non-zero distribution)
+		double sp1 = (double)m1.nonZeros/m1.rlen/m1.clen;
+		double sp2 = (double)m2.nonZeros/m2.rlen/m2.clen;
+		double estnnz = (1 - Math.pow(1-sp1*sp2, m1.clen)) * m1.rlen * m2.clen;
+		
+		return MatrixBlock.evalSparseFormatInMemory(m1.rlen, m2.clen, (long)Math.min(flops, estnnz));
 	}
 	
 	/**
@@ -4180,7 +4531,7 @@ public class LibMatrixMult
 			else if(_m1.sparse && _m2.sparse)
 				matrixMultSparseSparse(_m1, _m2, _ret, _pm2r, rl, ru);
 			else if(_m1.sparse)
-				matrixMultSparseDense(_m1, _m2, _ret, _pm2r, rl, ru);
+				matrixMultSparseDense(_m1, _m2, _ret, _tm2, _pm2r, rl, ru);
 			else
 				matrixMultDenseSparse(_m1, _m2, _ret, _pm2r, rl, ru);
 			
@@ -4192,6 +4543,30 @@ public class LibMatrixMult
 		}
 	}
 	
+	/**
+	 * 
+	 * 
+	 */
+	private static class MatrixMultSparseOutTask implements Callable<SparseBlockCSR> 
+	{
+		private MatrixBlock _m1  = null;
+		private MatrixBlock _m2  = null;
+		private int _rl = -1;
+		private int _ru = -1;
+
+		protected MatrixMultSparseOutTask( MatrixBlock m1, MatrixBlock m2, int rl, int ru ) {
+			_m1 = m1;
+			_m2 = m2;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public SparseBlockCSR call() throws DMLRuntimeException {
+			return matrixMultSparseSparseHash(_m1.sparseBlock, _m2.sparseBlock, _rl, _ru);
+		}
+	}
+	
 	/**
 	 * 
 	 * 
@@ -61,6 +61,7 @@ import org.apache.sysml.runtime.util.UtilFunctions;
 public class LibMatrixReorg 
 {
 	public static final long PAR_NUMCELL_THRESHOLD = 1024*1024;   //Min 1M elements
+	public static final int PAR_SORT_NUMROW_THRESHOLD = 64*1024;  //Min 64K rows
 	public static final boolean SHALLOW_DENSE_VECTOR_TRANSPOSE = true;
 	public static final boolean SHALLOW_DENSE_ROWWISE_RESHAPE = true;
 	public static final boolean ALLOW_BLOCK_REUSE = false;
@@ -117,7 +118,10 @@ public class LibMatrixReorg
 				return diag(in, out); 
 			case SORT:      
 				SortIndex ix = (SortIndex) op.fn;
-				return sort(in, out, ix.getCol(), ix.getDecreasing(), ix.getIndexReturn());
+				if( op.getNumThreads() > 1 )
+					return sort(in, out, ix.getCol(), ix.getDecreasing(), ix.getIndexReturn(), op.getNumThreads());
+				else
+					return sort(in, out, ix.getCol(), ix.getDecreasing(), ix.getIndexReturn());
 			
 			default:        
 				throw new DMLRuntimeException("Unsupported reorg operator: "+op.fn);
@@ -429,10 +433,115 @@ public class LibMatrixReorg
 		}
 
 		//step 4: create output matrix (guaranteed non-empty, see step 2)
+		sortCopyOutput(in, out, vix, ixret);
+		
+		return out;
+	}
+	
+	/**
+	 * Multi-threaded sort, which produces exactly the same (stable) output as 
+	 * the single-threaded sort. The orderby column is compacted to its non-zero 
+	 * values, which are sorted via a parallel stable merge sort; zeros are then 
+	 * placed in-between the negative and positive values in order of their row 
+	 * indexes. Descending order is realized by sorting negated values, which
+	 * preserves ascending row indexes for runs of equal values.
+	 * 
+	 * @param in
+	 * @param out
+	 * @param by
+	 * @param desc
+	 * @param ixret
+	 * @param k
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public static MatrixBlock sort(MatrixBlock in, MatrixBlock out, int by, boolean desc, boolean ixret, int k) 
+		throws DMLRuntimeException
+	{
+		//redirect small or special cases to sequential execution
+		if( k <= 1 || in.isEmptyBlock(false) || in.rlen < PAR_SORT_NUMROW_THRESHOLD 
+			|| by <= 0 || in.clen < by )
+		{
+			return sort(in, out, by, desc, ixret);
+		}
+		
+		//meta data gathering and preparation
+		int rlen = in.rlen;
+		out.sparse = (in.sparse && !ixret);
+		out.nonZeros = ixret ? rlen : in.nonZeros;
+		
+		//step 1: extract non-zero values of orderby column
+		int[] vix = new int[rlen];
+		double[] values = new double[rlen];
+		boolean[] nzflags = new boolean[rlen];
+		int nnz = 0;
+		if( !in.sparse && in.clen == 1 ) { //DENSE COLUMN VECTOR
+			double[] a = in.denseBlock;
+			for( int i=0; i<rlen; i++ )
+				if( a[i] != 0 ) {
+					vix[nnz] = i;
+					values[nnz++] = desc ? -a[i] : a[i];
+					nzflags[i] = true;
+				}
+		}
+		else { //GENERAL CASE
+			for( int i=0; i<rlen; i++ ) {
+				double val = in.quickGetValue(i, by-1);
+				if( val != 0 ) {
+					vix[nnz] = i;
+					values[nnz++] = desc ? -val : val;
+					nzflags[i] = true;
+				}
+			}
+		}
+		
+		//step 2: parallel stable sort of non-zero values
+		sortByValueStable(values, vix, nnz, k);
+		
+		//step 3: place zeros in-between negative and positive values
+		if( nnz < rlen ) {
+			int pos = 0;
+			while( pos < nnz && values[pos] < 0 )
+				pos++;
+			System.arraycopy(values, pos, values, pos+rlen-nnz, nnz-pos);
+			System.arraycopy(vix, pos, vix, pos+rlen-nnz, nnz-pos);
+			for( int i=0; i<rlen; i++ )
+				if( !nzflags[i] ) {
+					vix[pos] = i;
+					values[pos++] = 0;
+				}
+		}
+		
+		//step 4: create output matrix (guaranteed non-empty)
+		if( !ixret && !in.sparse && in.clen == 1 ) { //DENSE COLUMN VECTOR
+			out.allocateDenseBlock(false);
+			for( int i=0; i<rlen; i++ )
+				out.denseBlock[i] = desc ? -values[i] : values[i];
+		}
+		else
+			sortCopyOutput(in, out, vix, ixret);
+		
+		return out;
+	}
+	
+	/**
+	 * Copies the input rows (or 1-based row indexes) in the order 
+	 * of the given sorted index vector into the output. 
+	 * 
+	 * @param in
+	 * @param out
+	 * @param vix
+	 * @param ixret
+	 */
+	private static void sortCopyOutput(MatrixBlock in, MatrixBlock out, int[] vix, boolean ixret)
+	{
+		int rlen = in.rlen;
+		int clen = in.clen;
+		
 		if( !ixret )
 		{
 			//copy input data in sorted order into result
-			if( !sparse ) //DENSE
+			if( !in.sparse ) //DENSE
 			{
 				out.allocateDenseBlock(false);
 				for( int i=0; i<rlen; i++ ) {
@@ -457,8 +566,99 @@ public class LibMatrixReorg
 			for( int i=0; i<rlen; i++ )
 				out.setValueDenseUnsafe(i, 0, vix[i]+1);
 		}
-		
-		return out;
+	}
+	
+	/**
+	 * Parallel stable merge sort of values and their (initially ascending) 
+	 * indexes in the range [0, len). Every merge round is split into k 
+	 * independent partial merges via co-ranking, which keeps all threads 
+	 * busy even for the final merge of two large runs.
+	 * 
+	 * @param values
+	 * @param vix
+	 * @param len
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	private static void sortByValueStable(double[] values, int[] vix, int len, int k) 
+		throws DMLRuntimeException
+	{
+		try {
+			ExecutorService pool = Executors.newFixedThreadPool( k );
+			
+			//sort independent blocks
+			ArrayList<SortTask> tasks = new ArrayList<SortTask>();
+			int blklen = (int)(Math.ceil((double)len/k));
+			for( int i=0; i<k & i*blklen<len; i++ )
+				tasks.add(new SortTask(values, vix, i*blklen, Math.min((i+1)*blklen, len)));
+			List<Future<Object>> taskret = pool.invokeAll(tasks);	
+			for( Future<Object> task : taskret )
+				task.get();
+			
+			//merge sorted runs (double buffering between rounds)
+			double[] avals = values, bvals = null;
+			int[] aix = vix, bix = null;
+			for( int width=blklen; width<len; width*=2 ) {
+				if( bvals == null ) {
+					bvals = new double[len];
+					bix = new int[len];
+				}
+				int npairs = (int)Math.ceil((double)len/(2L*width));
+				int nparts = Math.max(1, k/npairs);
+				ArrayList<MergeTask> mtasks = new ArrayList<MergeTask>();
+				for( int lo=0; lo<len; lo+=2*width ) {
+					int mid = Math.min(lo+width, len);
+					int hi = Math.min(lo+2*width, len);
+					int plen = (int)(Math.ceil((double)(hi-lo)/nparts));
+					for( int d=0; d<hi-lo; d+=plen )
+						mtasks.add(new MergeTask(avals, aix, bvals, bix, lo, mid, hi, d, Math.min(d+plen, hi-lo)));
+				}
+				taskret = pool.invokeAll(mtasks);
+				for( Future<Object> task : taskret )
+					task.get();
+				double[] tvals = avals; avals = bvals; bvals = tvals;
+				int[] tix = aix; aix = bix; bix = tix;
+			}
+			pool.shutdown();
+			
+			//copy back final run if necessary
+			if( avals != values ) {
+				System.arraycopy(avals, 0, values, 0, len);
+				System.arraycopy(aix, 0, vix, 0, len);
+			}
+		}
+		catch(Exception ex) {
+			throw new DMLRuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * Determines the number of elements taken from the left run [l1, l2) 
+	 * for the first d outputs of a stable merge with the right run [l2, u2).
+	 * 
+	 * @param a
+	 * @param l1
+	 * @param l2
+	 * @param u2
+	 * @param d
+	 * @return
+	 */
+	private static int mergeCoRank(double[] a, int l1, int l2, int u2, int d)
+	{
+		int n1 = l2 - l1;
+		int n2 = u2 - l2;
+		int lo = Math.max(0, d-n2);
+		int hi = Math.min(d, n1);
+		while( lo < hi ) {
+			int i = (lo + hi) >>> 1;
+			int j = d - i;
+			//left element i precedes right element j-1 (ties from left first)
+			if( j > 0 && a[l1+i] <= a[l2+j-1] )
+				lo = i + 1;
+			else
+				hi = i;
+		}
+		return lo;
 	}
 	
 	/**
@@ -2321,6 +2521,97 @@ public class LibMatrixReorg
 		}		
 	}
 	
+	/**
+	 * 
+	 */
+	private static class SortTask implements Callable<Object>
+	{
+		private double[] _values = null;
+		private int[] _vix = null;
+		private int _rl = -1;
+		private int _ru = -1;
+
+		protected SortTask(double[] values, int[] vix, int rl, int ru) {
+			_values = values;
+			_vix = vix;
+			_rl = rl;
+			_ru = ru;
+		}
+		
+		@Override
+		public Object call() 
+		{
+			//sort index vector on extracted data (unstable)
+			SortUtils.sortByValue(_rl, _ru, _values, _vix);
+			
+			//local pass to ensure stable output
+			for( int i=_rl; i<_ru-1; i++ ) {
+				double tmp = _values[i];
+				int len = 0;
+				while( i+len+1<_ru && tmp==_values[i+len+1] )
+					len++;
+				if( len>0 ) {
+					Arrays.sort(_vix, i, i+len+1);
+					i += len; //skip processed run
+				}
+			}
+			
+			return null;
+		}
+	}
+	
+	/**
+	 * 
+	 */
+	private static class MergeTask implements Callable<Object>
+	{
+		private double[] _avals = null;
+		private int[] _aix = null;
+		private double[] _bvals = null;
+		private int[] _bix = null;
+		private int _l1 = -1;
+		private int _l2 = -1;
+		private int _u2 = -1;
+		private int _dl = -1;
+		private int _du = -1;
+
+		protected MergeTask(double[] avals, int[] aix, double[] bvals, int[] bix, int l1, int l2, int u2, int dl, int du) {
+			_avals = avals;
+			_aix = aix;
+			_bvals = bvals;
+			_bix = bix;
+			_l1 = l1;
+			_l2 = l2;
+			_u2 = u2;
+			_dl = dl;
+			_du = du;
+		}
+		
+		@Override
+		public Object call() 
+		{
+			//determine input ranges of output range [dl, du) via co-ranking
+			int i1 = mergeCoRank(_avals, _l1, _l2, _u2, _dl);
+			int i2 = mergeCoRank(_avals, _l1, _l2, _u2, _du);
+			int pl = _l1 + i1, pu = _l1 + i2;
+			int ql = _l2 + _dl - i1, qu = _l2 + _du - i2;
+			
+			//stable merge (ties from left run first)
+			for( int d=_l1+_dl; d<_l1+_du; d++ ) {
+				if( ql >= qu || (pl < pu && _avals[pl] <= _avals[ql]) ) {
+					_bvals[d] = _avals[pl];
+					_bix[d] = _aix[pl++];
+				}
+				else {
+					_bvals[d] = _avals[ql];
+					_bix[d] = _aix[ql++];
+				}
+			}
+			
+			return null;
+		}
+	}
+	
 	/**
 	 * 
 	 */
@@ -177,6 +177,43 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		this.copy(that);
 	}
 	
+	/**
+	 * Constructs a dense matrix block that wraps the given row-major 
+	 * array without copy, i.e., the matrix block takes ownership of the
+	 * array, which must not be modified while held by this block.
+	 * 
+	 * @param rl number of rows
+	 * @param cl number of columns
+	 * @param dblock row-major dense block of length >= rl*cl
+	 */
+	public MatrixBlock(int rl, int cl, double[] dblock)
+	{
+		this(rl, cl, false);
+		if( dblock.length < (long)rl*cl )
+			throw new RuntimeException("Dense block of length "+dblock.length+" too small for ("+rl+","+cl+").");
+		denseBlock = dblock;
+		recomputeNonZeros();
+	}
+	
+	/**
+	 * Constructs a sparse matrix block that wraps the given sparse
+	 * block without copy, i.e., the matrix block takes ownership of
+	 * the sparse block and its underlying arrays.
+	 * 
+	 * @param rl number of rows
+	 * @param cl number of columns
+	 * @param nnz number of non-zeros
+	 * @param sblock sparse block with rl rows
+	 */
+	public MatrixBlock(int rl, int cl, long nnz, SparseBlock sblock)
+	{
+		this(rl, cl, true);
+		if( sblock.numRows() != rl )
+			throw new RuntimeException("Sparse block with "+sblock.numRows()+" rows incompatible with ("+rl+","+cl+").");
+		sparseBlock = sblock;
+		nonZeros = nnz;
+	}
+	
 	public MatrixBlock(MatrixBlock that, SparseBlock.Type stype, boolean deep)
 	{
 		//sanity check sparse matrix block
@@ -2828,7 +2865,10 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 			ret.reset(rlen, clen, sp, this.nonZeros);
 		
 		//core scalar operations
-		LibMatrixBincell.bincellOp(this, ret, op);
+		if( op.getNumThreads() > 1 )
+			LibMatrixBincell.bincellOp(this, ret, op, op.getNumThreads());
+		else
+			LibMatrixBincell.bincellOp(this, ret, op);
 		
 		return ret;
 	}
@@ -2865,7 +2905,9 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		else
 		{
 			//default execute unary operations
-			if(op.sparseSafe)
+			if( op.getNumThreads() > 1 && LibMatrixBincell.isParallelizableUnary(this, ret, op.getNumThreads()) )
+				LibMatrixBincell.unaryOp(this, ret, op, op.getNumThreads());
+			else if(op.sparseSafe)
 				sparseUnaryOperations(op, ret);
 			else
 				denseUnaryOperations(op, ret);
@@ -3095,7 +3137,10 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 			ret.reset(rows, cols, resultSparse.sparse, resultSparse.estimatedNonZeros);
 		
 		//core binary cell operation
-		LibMatrixBincell.bincellOp( this, that, ret, op );
+		if( op.getNumThreads() > 1 )
+			LibMatrixBincell.bincellOp( this, that, ret, op, op.getNumThreads() );
+		else
+			LibMatrixBincell.bincellOp( this, that, ret, op );
 		
 		return ret;
 	}
@@ -4935,6 +4980,18 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 	}
 
 	public MatrixValue sortOperations(MatrixValue weights, MatrixValue result) throws DMLRuntimeException {
+		return sortOperations(weights, result, 1);
+	}
+	
+	/**
+	 * 
+	 * @param weights
+	 * @param result
+	 * @param k
+	 * @return
+	 * @throws DMLRuntimeException
+	 */
+	public MatrixValue sortOperations(MatrixValue weights, MatrixValue result, int k) throws DMLRuntimeException {
 		boolean wtflag = (weights!=null);
 		
 		MatrixBlock wts= (weights == null ? null : checkType(weights));
@@ -4992,7 +5049,7 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		
 		// Sort td and tw based on values inside td (ascending sort), incl copy into result
 		SortIndex sfn = SortIndex.getSortIndexFnObject(1, false, false);
-		ReorgOperator rop = new ReorgOperator(sfn);
+		ReorgOperator rop = new ReorgOperator(sfn, k);
 		LibMatrixReorg.reorg(tdw, (MatrixBlock)result, rop);
 		
 		return result;
@@ -5573,6 +5630,26 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 			resultBlock.recomputeNonZeros();
 		}
 	}
+	
+	/**
+	 * 
+	 * @param op
+	 * @param scalarThat
+	 * @param that2Val
+	 * @param resultMap
+	 * @param resultBlock
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public void ternaryOperations(Operator op, double scalarThat,
+			MatrixValue that2Val, CTableMap resultMap, MatrixBlock resultBlock, int k)
+		throws DMLRuntimeException 
+	{
+		if( LibMatrixCTable.isParallelCTable(this, resultBlock, k) )
+			LibMatrixCTable.ctable(this, null, scalarThat, checkType(that2Val), 0, false, resultMap, k);
+		else
+			ternaryOperations(op, scalarThat, that2Val, resultMap, resultBlock);
+	}
 
 	/**
 	 *  D = ctable(A,v2,w)
@@ -5612,6 +5689,26 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		}		
 	}
 	
+	/**
+	 * 
+	 * @param op
+	 * @param scalarThat
+	 * @param scalarThat2
+	 * @param resultMap
+	 * @param resultBlock
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public void ternaryOperations(Operator op, double scalarThat,
+			double scalarThat2, CTableMap resultMap, MatrixBlock resultBlock, int k)
+		throws DMLRuntimeException 
+	{
+		if( LibMatrixCTable.isParallelCTable(this, resultBlock, k) )
+			LibMatrixCTable.ctable(this, null, scalarThat, null, scalarThat2, false, resultMap, k);
+		else
+			ternaryOperations(op, scalarThat, scalarThat2, resultMap, resultBlock);
+	}
+	
 	/**
 	 * Specific ctable case of ctable(seq(...),X), where X is the only
 	 * matrix input. The 'left' input parameter specifies if the seq appeared
@@ -5729,6 +5826,27 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 			resultBlock.recomputeNonZeros();
 	}
 	
+	/**
+	 * 
+	 * @param op
+	 * @param thatVal
+	 * @param scalarThat2
+	 * @param ignoreZeros
+	 * @param resultMap
+	 * @param resultBlock
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public void ternaryOperations(Operator op, MatrixValue thatVal, double scalarThat2, boolean ignoreZeros,
+			     CTableMap resultMap, MatrixBlock resultBlock, int k)
+		throws DMLRuntimeException 
+	{
+		if( LibMatrixCTable.isParallelCTable(this, resultBlock, k) )
+			LibMatrixCTable.ctable(this, checkType(thatVal), 0, null, scalarThat2, ignoreZeros, resultMap, k);
+		else
+			ternaryOperations(op, thatVal, scalarThat2, ignoreZeros, resultMap, resultBlock);
+	}
+	
 	/**
 	 *  D = ctable(seq,A,w)
 	 *  this <- seq; thatMatrix <- A; thatScalar <- w; result <- D
@@ -5808,6 +5926,25 @@ public class MatrixBlock extends MatrixValue implements CacheBlock, Externalizab
 		}
 	}
 	
+	/**
+	 * 
+	 * @param op
+	 * @param thatVal
+	 * @param that2Val
+	 * @param resultMap
+	 * @param resultBlock
+	 * @param k
+	 * @throws DMLRuntimeException
+	 */
+	public void ternaryOperations(Operator op, MatrixValue thatVal, MatrixValue that2Val, CTableMap resultMap, MatrixBlock resultBlock, int k)
+		throws DMLRuntimeException
+	{
+		if( LibMatrixCTable.isParallelCTable(this, resultBlock, k) )
+			LibMatrixCTable.ctable(this, checkType(thatVal), 0, checkType(that2Val), 0, false, resultMap, k);
+		else
+			ternaryOperations(op, thatVal, that2Val, resultMap, resultBlock);
+	}
+	
 	@Override
 	public MatrixValue quaternaryOperations(QuaternaryOperator qop, MatrixValue um, MatrixValue vm, MatrixValue wm, MatrixValue out)
 		throws DMLRuntimeException
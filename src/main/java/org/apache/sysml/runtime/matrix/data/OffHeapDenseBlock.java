@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.runtime.matrix.data;
+
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import org.apache.sysml.runtime.io.IOUtilFunctions;
+
+/**
+ * Dense block of double values that is stored outside the java heap, 
+ * either in direct byte buffers or in memory-mapped files. The data is
+ * split into segments of at most SEGMENT_SIZE cells, which allows for 
+ * long indexing beyond the 2^31 cells of a single double array. 
+ * 
+ * This representation is used by the buffer pool to keep dense blocks
+ * in the write buffer without increasing the heap size and hence the 
+ * GC overhead of large dense intermediates.
+ * 
+ */
+public class OffHeapDenseBlock 
+{
+	//number of cells per segment (2^27 cells = 1GB)
+	public static final int SEGMENT_SHIFT = 27;
+	public static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+	
+	//chunk size for copy to output streams (64KB)
+	private static final int COPY_BUFFER_SIZE = 8 * 1024;
+	
+	private final long _len;
+	private final DoubleBuffer[] _segs;
+	private String _fname = null;
+	
+	/**
+	 * Creates an off-heap dense block backed by direct byte buffers.
+	 * 
+	 * @param len
+	 */
+	public OffHeapDenseBlock( long len ) 
+	{
+		_len = len;
+		_segs = new DoubleBuffer[getNumSegments(len)];
+		for( int i=0; i<_segs.length; i++ ) {
+			int slen = getSegmentLength(len, i);
+			_segs[i] = ByteBuffer.allocateDirect(slen*8)
+				.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+		}
+	}
+	
+	/**
+	 * Creates an off-heap dense block backed by a memory-mapped file.
+	 * An existing file of the same name is overwritten.
+	 * 
+	 * @param len
+	 * @param fname
+	 * @throws IOException
+	 */
+	public OffHeapDenseBlock( long len, String fname ) 
+		throws IOException
+	{
+		_len = len;
+		_segs = new DoubleBuffer[getNumSegments(len)];
+		_fname = fname;
+		
+		RandomAccessFile raf = new RandomAccessFile(fname, "rw");
+		try {
+			raf.setLength(len*8);
+			FileChannel channel = raf.getChannel();
+			for( int i=0; i<_segs.length; i++ ) {
+				int slen = getSegmentLength(len, i);
+				//note: mappings remain valid after the channel is closed
+				_segs[i] = channel.map(MapMode.READ_WRITE, ((long)i<<SEGMENT_SHIFT)*8, (long)slen*8)
+					.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+			}
+		}
+		finally {
+			IOUtilFunctions.closeSilently(raf);
+		}
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	public long length() {
+		return _len;
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	public boolean isMemoryMapped() {
+		return (_fname != null);
+	}
+	
+	/**
+	 * 
+	 * @param ix
+	 * @return
+	 */
+	public double get( long ix ) {
+		return _segs[(int)(ix >>> SEGMENT_SHIFT)].get((int)(ix & SEGMENT_MASK));
+	}
+	
+	/**
+	 * 
+	 * @param ix
+	 * @param v
+	 */
+	public void set( long ix, double v ) {
+		_segs[(int)(ix >>> SEGMENT_SHIFT)].put((int)(ix & SEGMENT_MASK), v);
+	}
+	
+	/**
+	 * Copies the first len values of the given heap array into 
+	 * this off-heap block, starting at cell 0.
+	 * 
+	 * @param src
+	 * @param len
+	 */
+	public void copyFrom( double[] src, int len ) 
+	{
+		for( int i=0, pos=0; pos<len; i++ ) {
+			int slen = Math.min(len-pos, SEGMENT_SIZE);
+			//duplicate to keep the segment position thread-local
+			DoubleBuffer seg = _segs[i].duplicate();
+			seg.put(src, pos, slen);
+			pos += slen;
+		}
+	}
+	
+	/**
+	 * Copies the first len values of this off-heap block into
+	 * the given heap array, starting at position 0.
+	 * 
+	 * @param dst
+	 * @param len
+	 */
+	public void copyTo( double[] dst, int len ) 
+	{
+		for( int i=0, pos=0; pos<len; i++ ) {
+			int slen = Math.min(len-pos, SEGMENT_SIZE);
+			DoubleBuffer seg = _segs[i].duplicate();
+			seg.get(dst, pos, slen);
+			pos += slen;
+		}
+	}
+	
+	/**
+	 * Writes all values of this off-heap block to the given data output,
+	 * using a small heap buffer in order to exploit fast serialization. 
+	 * 
+	 * @param out
+	 * @throws IOException
+	 */
+	public void write( DataOutput out ) 
+		throws IOException
+	{
+		double[] buff = new double[(int)Math.min(_len, COPY_BUFFER_SIZE)];
+		for( DoubleBuffer seg0 : _segs ) {
+			DoubleBuffer seg = seg0.duplicate();
+			seg.rewind();
+			while( seg.hasRemaining() ) {
+				int blen = Math.min(seg.remaining(), buff.length);
+				seg.get(buff, 0, blen);
+				if( out instanceof MatrixBlockDataOutput ) //fast serialize
+					((MatrixBlockDataOutput)out).writeDoubleArray(blen, buff);
+				else //general case
+					for( int j=0; j<blen; j++ )
+						out.writeDouble(buff[j]);
+			}
+		}
+	}
+	
+	/**
+	 * Releases all references to the underlying buffers and deletes 
+	 * the backing file of memory-mapped blocks. Note that the off-heap 
+	 * memory itself is released once the buffers are garbage collected.
+	 */
+	public void free() 
+	{
+		for( int i=0; i<_segs.length; i++ )
+			_segs[i] = null;
+		if( _fname != null ) {
+			new File(_fname).delete();
+			_fname = null;
+		}
+	}
+	
+	/**
+	 * Returns the number of required segments for the given number of cells.
+	 * 
+	 * @param len
+	 * @return
+	 */
+	public static int getNumSegments( long len ) {
+		return (int)((len + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+	}
+	
+	/**
+	 * 
+	 * @param len
+	 * @param seg
+	 * @return
+	 */
+	private static int getSegmentLength( long len, int seg ) {
+		return (int)Math.min(SEGMENT_SIZE, len - ((long)seg << SEGMENT_SHIFT));
+	}
+}
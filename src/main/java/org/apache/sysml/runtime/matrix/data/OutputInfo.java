@@ -71,6 +71,9 @@ public class OutputInfo implements Serializable
 			MatrixIndexes.class, WeightedPair.class);
 	public static final OutputInfo CSVOutputInfo=new OutputInfo(UnPaddedOutputFormat.class, 
 			NullWritable.class, RowBlockForTextOutput.class);
+	// CP-only, hence no output format for MR/Spark
+	public static final OutputInfo RawBlockOutputInfo=new OutputInfo(null, 
+			MatrixIndexes.class, MatrixBlock.class);
 
 	public static InputInfo getMatchingInputInfo(OutputInfo oi) throws DMLRuntimeException {
 		if ( oi == OutputInfo.BinaryBlockOutputInfo )
@@ -89,6 +92,8 @@ public class OutputInfo implements Serializable
 			return InputInfo.WeightedPairInputInfo;
 		else if ( oi == OutputInfo.CSVOutputInfo)
 			return InputInfo.CSVInputInfo;
+		else if ( oi == OutputInfo.RawBlockOutputInfo)
+			return InputInfo.RawBlockInputInfo;
 		else 
 			throw new DMLRuntimeException("Unrecognized output info: " + oi);
 	}
@@ -114,6 +119,8 @@ public class OutputInfo implements Serializable
 			return WeightedPairOutputInfo;
 		else if ( str.equalsIgnoreCase("csv") )
 			return CSVOutputInfo;
+		else if ( str.equalsIgnoreCase("rawblock") )
+			return RawBlockOutputInfo;
 		return null;
 	}
 	
@@ -136,6 +143,8 @@ public class OutputInfo implements Serializable
 			return "weightedpair";
 		else if ( oi == CSVOutputInfo )
 			return "csv";
+		else if ( oi == RawBlockOutputInfo )
+			return "rawblock";
 		else
 			throw new DMLRuntimeException("Unrecognized outputInfo: " + oi);
 	}
@@ -103,6 +103,31 @@ public class SparseBlockCSR extends SparseBlock
 		}
 	}
 	
+	/**
+	 * Wrapping constructor for existing CSR arrays (without copy). The column 
+	 * indexes per row are expected to be sorted in ascending order, and the
+	 * given arrays must not be modified while held by this sparse block.
+	 * 
+	 * @param rowPtr row pointer array (size: rlen+1)
+	 * @param colInd column index array (size: >=nnz)
+	 * @param values value array (size: >=nnz)
+	 * @param nnz number of non-zeros
+	 */
+	public SparseBlockCSR(int[] rowPtr, int[] colInd, double[] values, int nnz)
+	{
+		//basic input validation
+		if( rowPtr.length < 1 || rowPtr[0] != 0 || rowPtr[rowPtr.length-1] != nnz )
+			throw new RuntimeException("Invalid CSR row pointers for nnz="+nnz+".");
+		if( colInd.length < nnz || values.length < nnz )
+			throw new RuntimeException("Invalid CSR arrays of length "+colInd.length
+				+"/"+values.length+" for nnz="+nnz+".");
+		
+		_ptr = rowPtr;
+		_indexes = colInd;
+		_values = values;
+		_size = nnz;
+	}
+	
 	/**
 	 * Copy constructor old sparse row representation. 
 	 */
@@ -1171,6 +1171,9 @@ public class MRJobConfiguration
 				continue;
 			}
 			
+			if( inputInfos[i].inputFormatClass == null )
+				throw new Exception("Input format '"+InputInfo.inputInfoToString(inputInfos[i])+"' not supported in MR jobs.");
+			
 			lpaths.add(p);
 			liinfos.add(inputInfos[i]);
 		}
@@ -1259,6 +1262,8 @@ public class MRJobConfiguration
 				}
 			if(redundant)
 				continue;
+			if( inputInfos[i].inputFormatClass == null )
+				throw new Exception("Input format '"+InputInfo.inputInfoToString(inputInfos[i])+"' not supported in MR jobs.");
 			MultipleInputs.addInputPath(job, p, inputInfos[i].inputFormatClass);
 			paths.add(p);
 		}
@@ -1285,6 +1290,8 @@ public class MRJobConfiguration
 		
 		for(int i=0; i<outputs.length; i++)
 		{
+			if( outputInfos[i].outputFormatClass == null )
+				throw new Exception("Output format '"+OutputInfo.outputInfoToString(outputInfos[i])+"' not supported in MR jobs.");
 			MapReduceTool.deleteFileIfExistOnHDFS(new Path(outputs[i]), job);
 			if ( mayContainCtable && resultDimsUnknown[i] == (byte) 1 )  {
 				setOutputInfo(job, i, outputInfos[i], false);
@@ -44,11 +44,20 @@ public class ScalarOperator  extends Operator
 	
 	public ValueFunction fn;
 	protected double _constant;
+	private int _k; //num threads
 	
 	public ScalarOperator(ValueFunction p, double cst)
+	{
+		//default degree of parallelism is 1 
+		//(for example in MR/Spark because we parallelize over the number of blocks)
+		this(p, cst, 1);
+	}
+	
+	public ScalarOperator(ValueFunction p, double cst, int numThreads)
 	{
 		fn = p;
 		_constant = cst;
+		_k = numThreads;
 		
 		//as long as (0 op v)=0, then op is sparsesafe
 		//note: additional functionobjects might qualify according to constant
@@ -98,6 +107,10 @@ public class ScalarOperator  extends Operator
 		}
 	}
 	
+	public int getNumThreads() {
+		return _k;
+	}
+	
 	public double executeScalar(double in) throws DMLRuntimeException {
 		throw new DMLRuntimeException("executeScalar(): can not be invoked from base class.");
 	}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.runtime.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * Byte-level counterpart of {@link FastStringTokenizer} for parsing text lines 
+ * directly from byte buffers without intermediate string creation. Tokens are 
+ * separated by blanks or tabs. Doubles are parsed with a fast path for common 
+ * decimal numbers (at most 18 significant digits and a small decimal exponent), 
+ * for which a single exact floating point operation yields the correctly rounded 
+ * result; all other numbers (e.g., NaN, Infinity, or long mantissas) fall back to 
+ * {@link Double#parseDouble(String)}, which guarantees results identical to the 
+ * string-based readers.
+ */
+public class FastByteTokenizer 
+{
+	//exact powers of ten representable as doubles
+	private static final double[] POW10 = new double[] {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+	
+	private byte[] _buf = null;
+	private int _pos = -1;
+	private int _end = -1;
+	
+	/**
+	 * Resets the tokenizer to the given byte range.
+	 * 
+	 * @param buf byte buffer
+	 * @param pos begin position, inclusive
+	 * @param end end position, exclusive
+	 */
+	public void reset( byte[] buf, int pos, int end ) {
+		_buf = buf;
+		_pos = pos;
+		_end = end;
+	}
+	
+	/**
+	 * Indicates if there are remaining (non-delimiter) bytes.
+	 * 
+	 * @return
+	 */
+	public boolean hasMoreTokens() {
+		skipDelimiters();
+		return _pos < _end;
+	}
+	
+	/**
+	 * Returns the next token as a string (slow path).
+	 * 
+	 * @return
+	 */
+	public String nextToken() {
+		skipDelimiters();
+		if( _pos >= _end )
+			throw new NoSuchElementException();
+		int start = _pos;
+		while( _pos < _end && !isDelimiter(_buf[_pos]) )
+			_pos++;
+		return new String(_buf, start, _pos-start, StandardCharsets.UTF_8);
+	}
+	
+	public int nextInt() {
+		long ret = nextLong();
+		if( ret < Integer.MIN_VALUE || ret > Integer.MAX_VALUE )
+			throw new NumberFormatException("Integer overflow: "+ret);
+		return (int) ret;
+	}
+	
+	public long nextLong() {
+		skipDelimiters();
+		int start = _pos;
+		boolean neg = false;
+		if( _pos < _end && (_buf[_pos]=='-' || _buf[_pos]=='+') )
+			neg = (_buf[_pos++]=='-');
+		long ret = 0;
+		int ndigits = 0;
+		while( _pos < _end && isDigit(_buf[_pos]) ) {
+			ret = ret * 10 + (_buf[_pos++]-'0');
+			ndigits++;
+		}
+		
+		//fallback for unusual formats (e.g., 7.0, overflow)
+		if( ndigits == 0 || ndigits > 18 || (_pos < _end && !isDelimiter(_buf[_pos])) ) {
+			_pos = start;
+			String tok = nextToken();
+			return UtilFunctions.parseToLong(tok);
+		}
+		return neg ? -ret : ret;
+	}
+	
+	public double nextDouble() {
+		skipDelimiters();
+		int start = _pos;
+		
+		//parse sign, mantissa, and exponent
+		boolean neg = false;
+		if( _pos < _end && (_buf[_pos]=='-' || _buf[_pos]=='+') )
+			neg = (_buf[_pos++]=='-');
+		long mant = 0;
+		int ndigits = 0, nsig = 0, exp = 0;
+		while( _pos < _end && isDigit(_buf[_pos]) ) {
+			if( nsig > 0 || _buf[_pos]!='0' ) {
+				mant = mant * 10 + (_buf[_pos]-'0');
+				nsig++;
+			}
+			_pos++; ndigits++;
+		}
+		if( _pos < _end && _buf[_pos]=='.' ) {
+			_pos++;
+			while( _pos < _end && isDigit(_buf[_pos]) ) {
+				if( nsig > 0 || _buf[_pos]!='0' ) {
+					mant = mant * 10 + (_buf[_pos]-'0');
+					nsig++;
+				}
+				exp--;
+				_pos++; ndigits++;
+			}
+		}
+		if( ndigits > 0 && _pos < _end && (_buf[_pos]=='e' || _buf[_pos]=='E') ) {
+			_pos++;
+			boolean eneg = false;
+			if( _pos < _end && (_buf[_pos]=='-' || _buf[_pos]=='+') )
+				eneg = (_buf[_pos++]=='-');
+			int e = 0, edigits = 0;
+			while( _pos < _end && isDigit(_buf[_pos]) && edigits < 9 ) {
+				e = e * 10 + (_buf[_pos++]-'0');
+				edigits++;
+			}
+			if( edigits == 0 )
+				ndigits = 0; //invalid, use fallback
+			exp += eneg ? -e : e;
+		}
+		
+		//fast path: exact mantissa and exact power of ten
+		if( ndigits > 0 && nsig <= 18 && (_pos >= _end || isDelimiter(_buf[_pos]))
+			&& mant < (1L<<53) && exp >= -22 && exp <= 22 ) 
+		{
+			double ret = (exp >= 0) ? mant * POW10[exp] : mant / POW10[-exp];
+			return neg ? -ret : ret;
+		}
+		
+		//slow path: string-based parsing
+		_pos = start;
+		return Double.parseDouble(nextToken());
+	}
+	
+	private void skipDelimiters() {
+		while( _pos < _end && isDelimiter(_buf[_pos]) )
+			_pos++;
+	}
+	
+	private static boolean isDelimiter(byte b) {
+		return b==' ' || b=='\t' || b=='\r';
+	}
+	
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.runtime.util;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+
+/**
+ * Input stream for reading chunks written by LZ4BlockOutputStream, 
+ * including the verification of chunk checksums.
+ */
+public class LZ4BlockInputStream extends FilterInputStream
+{
+	private final CRC32 _crc = new CRC32();
+	private final byte[] _header = new byte[12];
+	private byte[] _buff = new byte[0];
+	private byte[] _cbuff = new byte[0];
+	private int _len = 0;
+	private int _pos = 0;
+	
+	//statistics of decompression time
+	private long _dtime = 0;
+	
+	public LZ4BlockInputStream( InputStream in ) {
+		super(in);
+	}
+	
+	@Override
+	public int read() 
+		throws IOException 
+	{
+		if( _pos == _len && !readChunk() )
+			return -1;
+		return _buff[_pos++] & 0xFF;
+	}
+	
+	@Override
+	public int read( byte[] b, int off, int len ) 
+		throws IOException 
+	{
+		if( len == 0 )
+			return 0;
+		if( _pos == _len && !readChunk() )
+			return -1;
+		int blen = Math.min(len, _len - _pos);
+		System.arraycopy(_buff, _pos, b, off, blen);
+		_pos += blen;
+		return blen;
+	}
+	
+	@Override
+	public long skip( long n ) 
+		throws IOException 
+	{
+		long count = 0;
+		while( count < n ) {
+			if( _pos == _len && !readChunk() )
+				break;
+			int blen = (int)Math.min(n - count, _len - _pos);
+			_pos += blen;
+			count += blen;
+		}
+		return count;
+	}
+	
+	@Override
+	public int available() {
+		return _len - _pos;
+	}
+	
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+	
+	/**
+	 * Returns the decompression time in nanoseconds.
+	 * 
+	 * @return
+	 */
+	public long getDecompressionTime() {
+		return _dtime;
+	}
+	
+	private boolean readChunk() 
+		throws IOException
+	{
+		//read chunk header (or detect end of stream)
+		int n = readFully(_header, 12, true);
+		if( n == 0 )
+			return false;
+		int len = readInt(_header, 0);
+		int clen = readInt(_header, 4);
+		int crc = readInt(_header, 8);
+		if( len < 0 || clen < 0 || clen > LZ4Codec.maxCompressedLength(len) )
+			throw new IOException("Corrupted chunk header (len="+len+", clen="+clen+").");
+		
+		//read and decompress payload
+		if( _buff.length < len )
+			_buff = new byte[len];
+		if( clen == len ) {
+			readFully(_buff, len, false);
+		}
+		else {
+			if( _cbuff.length < clen )
+				_cbuff = new byte[clen];
+			readFully(_cbuff, clen, false);
+			long t0 = System.nanoTime();
+			LZ4Codec.decompress(_cbuff, clen, _buff, len);
+			_dtime += System.nanoTime() - t0;
+		}
+		
+		//verify checksum of raw data
+		_crc.reset();
+		_crc.update(_buff, 0, len);
+		if( (int)_crc.getValue() != crc )
+			throw new IOException("Checksum mismatch of compressed chunk.");
+		
+		_len = len;
+		_pos = 0;
+		return true;
+	}
+	
+	private int readFully( byte[] b, int len, boolean allowEOF ) 
+		throws IOException
+	{
+		int n = 0;
+		while( n < len ) {
+			int count = in.read(b, n, len - n);
+			if( count < 0 ) {
+				if( allowEOF && n == 0 )
+					return 0;
+				throw new EOFException("Unexpected end of compressed stream.");
+			}
+			n += count;
+		}
+		return n;
+	}
+	
+	private static int readInt( byte[] buf, int pos ) {
+		return ((buf[pos] & 0xFF) << 24) | ((buf[pos+1] & 0xFF) << 16)
+			| ((buf[pos+2] & 0xFF) << 8) | (buf[pos+3] & 0xFF);
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.runtime.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+
+/**
+ * Output stream that splits the written data into chunks, which are
+ * compressed with the LZ4Codec and checksummed. Each chunk is written as
+ * header of raw length, compressed length, and CRC32 of the raw data 
+ * (3 ints, big endian), followed by the payload. Incompressible chunks 
+ * are stored raw (indicated by equal raw and compressed length). 
+ * 
+ * Note that this chunk framing is specific to SystemML and not compatible
+ * with the official LZ4 frame format.
+ */
+public class LZ4BlockOutputStream extends FilterOutputStream
+{
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+	
+	private final LZ4Codec _codec = new LZ4Codec();
+	private final CRC32 _crc = new CRC32();
+	private final byte[] _buff;
+	private final byte[] _cbuff;
+	private final byte[] _header = new byte[12];
+	private int _count = 0;
+	
+	//statistics of raw and compressed bytes, and compression time
+	private long _rawBytes = 0;
+	private long _compBytes = 0;
+	private long _ctime = 0;
+	
+	public LZ4BlockOutputStream( OutputStream out ) {
+		this(out, DEFAULT_CHUNK_SIZE);
+	}
+	
+	public LZ4BlockOutputStream( OutputStream out, int chunkSize ) {
+		super(out);
+		_buff = new byte[chunkSize];
+		_cbuff = new byte[LZ4Codec.maxCompressedLength(chunkSize)];
+	}
+	
+	@Override
+	public void write( int b ) 
+		throws IOException 
+	{
+		if( _count == _buff.length )
+			flushChunk();
+		_buff[_count++] = (byte) b;
+	}
+	
+	@Override
+	public void write( byte[] b, int off, int len ) 
+		throws IOException 
+	{
+		while( len > 0 ) {
+			if( _count == _buff.length )
+				flushChunk();
+			int blen = Math.min(len, _buff.length - _count);
+			System.arraycopy(b, off, _buff, _count, blen);
+			_count += blen;
+			off += blen;
+			len -= blen;
+		}
+	}
+	
+	@Override
+	public void flush() 
+		throws IOException 
+	{
+		flushChunk();
+		out.flush();
+	}
+	
+	@Override
+	public void close() 
+		throws IOException 
+	{
+		try {
+			flushChunk();
+		}
+		finally {
+			out.close();
+		}
+	}
+	
+	public long getRawBytes() {
+		return _rawBytes;
+	}
+	
+	public long getCompressedBytes() {
+		return _compBytes;
+	}
+	
+	/**
+	 * Returns the compression time in nanoseconds.
+	 * 
+	 * @return
+	 */
+	public long getCompressionTime() {
+		return _ctime;
+	}
+	
+	private void flushChunk() 
+		throws IOException
+	{
+		if( _count == 0 )
+			return;
+		
+		//compress and checksum current chunk
+		long t0 = System.nanoTime();
+		int clen = _codec.compress(_buff, _count, _cbuff);
+		_crc.reset();
+		_crc.update(_buff, 0, _count);
+		boolean raw = (clen >= _count);
+		_ctime += System.nanoTime() - t0;
+		
+		//write chunk header and payload
+		writeInt(_header, 0, _count);
+		writeInt(_header, 4, raw ? _count : clen);
+		writeInt(_header, 8, (int)_crc.getValue());
+		out.write(_header, 0, 12);
+		out.write(raw ? _buff : _cbuff, 0, raw ? _count : clen);
+		
+		_rawBytes += _count;
+		_compBytes += 12 + (raw ? _count : clen);
+		_count = 0;
+	}
+	
+	private static void writeInt( byte[] buf, int pos, int val ) {
+		buf[pos]   = (byte)(val >>> 24);
+		buf[pos+1] = (byte)(val >>> 16);
+		buf[pos+2] = (byte)(val >>> 8);
+		buf[pos+3] = (byte) val;
+	}
+}
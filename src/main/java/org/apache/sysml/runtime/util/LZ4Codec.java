@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.runtime.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Pure java block compressor in the LZ4 block format, which trades
+ * compression ratio for very fast compression and decompression. This
+ * codec is used for compressing evicted blocks of the buffer pool, where
+ * eviction and restore is otherwise bound by local disk bandwidth. 
+ * 
+ * The compressor uses a single-probe hash table of 4-byte sequences and 
+ * greedy matching, without backward match extension. A codec instance
+ * reuses its hash table and is hence not thread-safe.
+ */
+public class LZ4Codec 
+{
+	private static final int MIN_MATCH = 4;
+	private static final int MAX_OFFSET = 65535;
+	private static final int LAST_LITERALS = 5;
+	private static final int MF_LIMIT = 12;  //min distance of last match start to end
+	private static final int HASH_LOG = 12;
+	private static final int RUN_MASK = 15;
+	
+	private final int[] _htable = new int[1 << HASH_LOG];
+	
+	/**
+	 * Returns the maximum compressed size for the given input size.
+	 * 
+	 * @param len
+	 * @return
+	 */
+	public static int maxCompressedLength( int len ) {
+		return len + len/255 + 16;
+	}
+	
+	/**
+	 * Compresses len bytes of the source array into the destination array, 
+	 * which needs to have at least maxCompressedLength(len) bytes.
+	 * 
+	 * @param src
+	 * @param len
+	 * @param dst
+	 * @return number of compressed bytes
+	 */
+	public int compress( byte[] src, int len, byte[] dst )
+	{
+		//reset hash table (positions are stored +1, 0 indicates empty)
+		Arrays.fill(_htable, 0);
+		
+		int ip = 0, op = 0, anchor = 0;
+		int limit = len - MF_LIMIT;
+		int mlimit = len - LAST_LITERALS;
+		
+		while( ip < limit ) 
+		{
+			//probe hash table with current 4-byte sequence
+			int seq = readInt(src, ip);
+			int h = hash(seq);
+			int ref = _htable[h] - 1;
+			_htable[h] = ip + 1;
+			if( ref < 0 || ip - ref > MAX_OFFSET || readInt(src, ref) != seq ) {
+				ip++;
+				continue;
+			}
+			
+			//extend match forward
+			int mlen = MIN_MATCH;
+			while( ip + mlen < mlimit && src[ref + mlen] == src[ip + mlen] )
+				mlen++;
+			
+			//emit sequence of literals and match
+			op = writeSequence(src, anchor, ip - anchor, ip - ref, mlen, dst, op);
+			ip += mlen;
+			anchor = ip;
+		}
+		
+		//emit last literals
+		return writeLiterals(src, anchor, len - anchor, dst, op);
+	}
+	
+	/**
+	 * Decompresses clen bytes of the source array into the destination 
+	 * array, which is expected to decompress to exactly len bytes.
+	 * 
+	 * @param src
+	 * @param clen
+	 * @param dst
+	 * @param len
+	 * @throws IOException if the compressed input is corrupted
+	 */
+	public static void decompress( byte[] src, int clen, byte[] dst, int len ) 
+		throws IOException
+	{
+		int ip = 0, op = 0;
+		try
+		{
+			while( ip < clen ) 
+			{
+				int token = src[ip++] & 0xFF;
+				
+				//copy literals
+				int lit = token >>> 4;
+				if( lit == RUN_MASK ) {
+					int b = 255;
+					while( b == 255 ) {
+						b = src[ip++] & 0xFF;
+						lit += b;
+					}
+				}
+				System.arraycopy(src, ip, dst, op, lit);
+				ip += lit; 
+				op += lit;
+				if( ip >= clen ) //last literals
+					break;
+				
+				//copy match (potentially overlapping)
+				int off = (src[ip] & 0xFF) | ((src[ip+1] & 0xFF) << 8);
+				ip += 2;
+				int mlen = token & RUN_MASK;
+				if( mlen == RUN_MASK ) {
+					int b = 255;
+					while( b == 255 ) {
+						b = src[ip++] & 0xFF;
+						mlen += b;
+					}
+				}
+				mlen += MIN_MATCH;
+				int ref = op - off;
+				if( off == 0 || ref < 0 || op + mlen > len )
+					throw new IOException("Corrupted compressed block at position "+ip+".");
+				for( int i=0; i<mlen; i++ )
+					dst[op+i] = dst[ref+i];
+				op += mlen;
+			}
+		}
+		catch(IndexOutOfBoundsException ex) {
+			throw new IOException("Corrupted compressed block.", ex);
+		}
+		
+		if( op != len )
+			throw new IOException("Corrupted compressed block: decompressed "+op+" instead of "+len+" bytes.");
+	}
+	
+	private static int writeSequence( byte[] src, int lpos, int llen, int off, int mlen, byte[] dst, int op )
+	{
+		//write token and literals 
+		int tpos = op;
+		op = writeLiterals(src, lpos, llen, dst, op);
+		
+		//write offset (little endian) and match length
+		dst[op++] = (byte) off;
+		dst[op++] = (byte) (off >>> 8);
+		int mrem = mlen - MIN_MATCH;
+		if( mrem >= RUN_MASK ) {
+			dst[tpos] |= RUN_MASK;
+			op = writeLength(mrem - RUN_MASK, dst, op);
+		}
+		else
+			dst[tpos] |= mrem;
+		
+		return op;
+	}
+	
+	private static int writeLiterals( byte[] src, int lpos, int llen, byte[] dst, int op )
+	{
+		//write token (w/o match length) and literal length
+		if( llen >= RUN_MASK ) {
+			dst[op++] = (byte) (RUN_MASK << 4);
+			op = writeLength(llen - RUN_MASK, dst, op);
+		}
+		else
+			dst[op++] = (byte) (llen << 4);
+		
+		//copy literals
+		System.arraycopy(src, lpos, dst, op, llen);
+		return op + llen;
+	}
+	
+	private static int writeLength( int len, byte[] dst, int op ) {
+		while( len >= 255 ) {
+			dst[op++] = (byte) 255;
+			len -= 255;
+		}
+		dst[op++] = (byte) len;
+		return op;
+	}
+	
+	private static int readInt( byte[] buf, int pos ) {
+		return (buf[pos] & 0xFF) | ((buf[pos+1] & 0xFF) << 8)
+			| ((buf[pos+2] & 0xFF) << 16) | ((buf[pos+3] & 0xFF) << 24);
+	}
+	
+	private static int hash( int seq ) {
+		return (seq * -1640531535) >>> (32 - HASH_LOG);
+	}
+}
@@ -23,6 +23,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
@@ -37,13 +39,17 @@ import org.apache.sysml.conf.DMLConfig;
 import org.apache.sysml.lops.Lop;
 import org.apache.sysml.runtime.DMLRuntimeException;
 import org.apache.sysml.runtime.controlprogram.caching.CacheBlock;
+import org.apache.sysml.runtime.controlprogram.caching.CacheBlockFactory;
+import org.apache.sysml.runtime.controlprogram.caching.CacheStatistics;
 import org.apache.sysml.runtime.controlprogram.parfor.stat.InfrastructureAnalyzer;
 import org.apache.sysml.runtime.controlprogram.parfor.util.IDSequence;
 import org.apache.sysml.runtime.io.IOUtilFunctions;
 import org.apache.sysml.runtime.matrix.data.FrameBlock;
 import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock.BlockType;
 import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
 import org.apache.sysml.runtime.matrix.data.MatrixValue;
+import org.apache.sysml.runtime.matrix.data.OffHeapDenseBlock;
 import org.apache.sysml.runtime.matrix.data.Pair;
 
 public class LocalFileUtils 
@@ -84,9 +90,27 @@ public class LocalFileUtils
 		return (FrameBlock) readWritableFromLocal(filePathAndName, reuse);
 	}
 	
-	/** Reads a matrix/frame block from local file system. */
-	public static CacheBlock readCacheBlockFromLocal(String filePathAndName, boolean matrix) throws IOException {
-		return (CacheBlock) readWritableFromLocal(filePathAndName, matrix?new MatrixBlock():new FrameBlock());
+	/** Reads a matrix/frame block from local file system, incl its leading type code. */
+	public static CacheBlock readCacheBlockFromLocal(String filePathAndName) throws IOException {
+		return readCacheBlockFromLocal(filePathAndName, false);
+	}
+	
+	/** Reads a matrix/frame block from local file system, incl its leading type code, w/ optional decompression. */
+	public static CacheBlock readCacheBlockFromLocal(String filePathAndName, boolean compressed) throws IOException {
+		InputStream is = openLocalInputStream(filePathAndName, compressed);
+		FastBufferedDataInputStream in = new FastBufferedDataInputStream(is, BUFFER_SIZE);
+		
+		CacheBlock ret = null;
+		try {
+			ret = CacheBlockFactory.newInstance(in.readByte());
+			ret.readFields(in);
+		}
+		finally {
+			IOUtilFunctions.closeSilently(in);
+			maintainCompressionStatistics(is);
+		}
+		
+		return ret;
 	}
 	
 	/**
@@ -123,9 +147,75 @@ public class LocalFileUtils
 		writeWritableToLocal(filePathAndName, fb);
 	}
 	
-	/** Writes a matrix/frame block to local file system. */
+	/** Writes a matrix/frame block to local file system, incl a leading type code. */
 	public static void writeCacheBlockToLocal(String filePathAndName, CacheBlock cb) throws IOException {
-		writeWritableToLocal(filePathAndName, cb);
+		writeCacheBlockToLocal(filePathAndName, cb, false);
+	}
+	
+	/** Writes a matrix/frame block to local file system, incl a leading type code, w/ optional compression. */
+	public static void writeCacheBlockToLocal(String filePathAndName, CacheBlock cb, boolean compress) throws IOException {
+		OutputStream os = openLocalOutputStream(filePathAndName, compress);
+		FastBufferedDataOutputStream out = new FastBufferedDataOutputStream(os, BUFFER_SIZE);
+		
+		try {
+			out.writeByte(CacheBlockFactory.getCode(cb));
+			cb.write(out);
+			out.flush();
+		}
+		finally {
+			IOUtilFunctions.closeSilently(out);
+			maintainCompressionStatistics(os);
+		}
+	}
+	
+	/**
+	 * Writes an off-heap dense matrix block to local file system, incl a leading type code.
+	 * The written format is consistent with the serialized format of dense matrix blocks 
+	 * and hence can be read via readCacheBlockFromLocal.
+	 * 
+	 * @param filePathAndName
+	 * @param code
+	 * @param rlen
+	 * @param clen
+	 * @param data
+	 * @throws IOException
+	 */
+	public static void writeOffHeapDenseBlockToLocal(String filePathAndName, int code, int rlen, int clen, OffHeapDenseBlock data) 
+		throws IOException 
+	{
+		writeOffHeapDenseBlockToLocal(filePathAndName, code, rlen, clen, data, false);
+	}
+	
+	/**
+	 * Writes an off-heap dense matrix block to local file system, incl a leading type code,
+	 * w/ optional compression.
+	 * 
+	 * @param filePathAndName
+	 * @param code
+	 * @param rlen
+	 * @param clen
+	 * @param data
+	 * @param compress
+	 * @throws IOException
+	 */
+	public static void writeOffHeapDenseBlockToLocal(String filePathAndName, int code, int rlen, int clen, OffHeapDenseBlock data, boolean compress) 
+		throws IOException 
+	{
+		OutputStream os = openLocalOutputStream(filePathAndName, compress);
+		FastBufferedDataOutputStream out = new FastBufferedDataOutputStream(os, BUFFER_SIZE);
+		
+		try {
+			out.writeByte(code);
+			out.writeInt(rlen);
+			out.writeInt(clen);
+			out.writeByte(BlockType.DENSE_BLOCK.ordinal());
+			data.write(out);
+			out.flush();
+		}
+		finally {
+			IOUtilFunctions.closeSilently(out);
+			maintainCompressionStatistics(os);
+		}
 	}
 	
 	/**
@@ -151,6 +241,33 @@ public class LocalFileUtils
 	}
 	
 	
+	/**
+	 * 
+	 * @param filePathAndName
+	 * @param data
+	 * @param compress
+	 * @throws IOException
+	 */
+	public static void writeByteArrayToLocal( String filePathAndName, byte[] data, boolean compress )
+		throws IOException
+	{
+		if( !compress ) {
+			writeByteArrayToLocal(filePathAndName, data);
+			return;
+		}
+		
+		//compressed write of entire byte array 
+		OutputStream os = openLocalOutputStream(filePathAndName, true);
+		try {
+			os.write(data);
+			os.flush();
+		}
+		finally {
+			IOUtilFunctions.closeSilently(os);
+			maintainCompressionStatistics(os);
+		}
+	}
+	
 	/**
 	 * 
 	 * @param filePathAndName
@@ -173,6 +290,58 @@ public class LocalFileUtils
 		}
 	}
 
+	/**
+	 * Opens a local file output stream, optionally wrapped into a 
+	 * stream of compressed and checksummed chunks.
+	 * 
+	 * @param filePathAndName
+	 * @param compress
+	 * @return
+	 * @throws IOException
+	 */
+	private static OutputStream openLocalOutputStream( String filePathAndName, boolean compress ) 
+		throws IOException
+	{
+		FileOutputStream fos = new FileOutputStream( filePathAndName );
+		return compress ? new LZ4BlockOutputStream(fos) : fos;
+	}
+	
+	/**
+	 * Opens a local file input stream, optionally wrapped into a 
+	 * stream that decompresses and verifies chunks.
+	 * 
+	 * @param filePathAndName
+	 * @param compressed
+	 * @return
+	 * @throws IOException
+	 */
+	private static InputStream openLocalInputStream( String filePathAndName, boolean compressed ) 
+		throws IOException
+	{
+		FileInputStream fis = new FileInputStream( filePathAndName );
+		return compressed ? new LZ4BlockInputStream(fis) : fis;
+	}
+	
+	/**
+	 * 
+	 * @param stream
+	 */
+	private static void maintainCompressionStatistics( Object stream )
+	{
+		if( !DMLScript.STATISTICS )
+			return;
+		
+		if( stream instanceof LZ4BlockOutputStream ) {
+			LZ4BlockOutputStream os = (LZ4BlockOutputStream) stream;
+			CacheStatistics.incrementCompression(os.getRawBytes(), 
+				os.getCompressedBytes(), os.getCompressionTime());
+		}
+		else if( stream instanceof LZ4BlockInputStream ) {
+			LZ4BlockInputStream is = (LZ4BlockInputStream) stream;
+			CacheStatistics.incrementDecompressionTime(is.getDecompressionTime());
+		}
+	}
+	
 	/**
 	 * 
 	 * @param filePathAndName
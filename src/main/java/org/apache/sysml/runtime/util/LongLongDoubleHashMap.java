@@ -20,6 +20,7 @@
 package org.apache.sysml.runtime.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * This native long long - double hashmap is specifically designed for
@@ -28,19 +29,37 @@ import java.util.ArrayList;
  * to be more memory-efficient which is important for large maps in order
  * to keep data in the caches and prevent high-latency random memory access. 
  * 
+ * The map uses open addressing with linear probing over parallel primitive
+ * arrays of keys and values, i.e., adding values does not allocate any 
+ * objects except on resize. Note that Long.MIN_VALUE is reserved as marker
+ * of empty slots and hence cannot be used as first key.
+ * 
  */
 public class LongLongDoubleHashMap 
 {
 	private static final int INIT_CAPACITY = 8;
+	private static final int MAX_CAPACITY = 1 << 30;
 	private static final int RESIZE_FACTOR = 2;
 	private static final float LOAD_FACTOR = 0.75f;
+	private static final long EMPTY = Long.MIN_VALUE;
 
-	private LLDoubleEntry[] data = null;
+	private long[] keys1 = null;
+	private long[] keys2 = null;
+	private double[] values = null;
 	private int size = -1;
 	
 	public LongLongDoubleHashMap()
 	{
-		data = new LLDoubleEntry[INIT_CAPACITY];
+		this(INIT_CAPACITY);
+	}
+	
+	public LongLongDoubleHashMap(int capacity)
+	{
+		//determine power of two capacity w/ respect to load factor
+		int cap = INIT_CAPACITY;
+		while( cap < MAX_CAPACITY && cap*LOAD_FACTOR <= capacity )
+			cap *= RESIZE_FACTOR;
+		allocate(cap);
 		size = 0;
 	}
 
@@ -58,70 +77,102 @@ public class LongLongDoubleHashMap
 	{
 		//compute entry index position
 		int hash = hash(key1, key2);
-		int ix = indexFor(hash, data.length);
+		int mask = keys1.length-1;
+		int ix = indexFor(hash, keys1.length);
 
-		//find existing entry and add value
-		for( LLDoubleEntry e = data[ix]; e!=null; e = e.next ) {
-			if( e.key1==key1 && e.key2==key2 ) {
-				e.value += value;
+		//find existing entry and add value (linear probing)
+		while( keys1[ix] != EMPTY ) {
+			if( keys1[ix]==key1 && keys2[ix]==key2 ) {
+				values[ix] += value;
 				return; //no need to append or resize
 			}
+			ix = (ix + 1) & mask;
 		}
 		
-		//add non-existing entry (constant time)
-		LLDoubleEntry enew = new LLDoubleEntry(key1, key2, value);
-		enew.next = data[ix]; //colliding entries / null
-		data[ix] = enew;
+		//add non-existing entry into free slot
+		keys1[ix] = key1;
+		keys2[ix] = key2;
+		values[ix] = value;
 		size++;
 		
 		//resize if necessary
-		if( size >= LOAD_FACTOR*data.length )
+		if( size >= LOAD_FACTOR*keys1.length )
 			resize();
 	}
 	
 	/**
+	 * Adds all entries of the given map to this map, i.e., values 
+	 * of existing keys are aggregated. 
+	 * 
+	 * @param that
+	 */
+	public void addAll(LongLongDoubleHashMap that)
+	{
+		long[] tkeys1 = that.keys1;
+		long[] tkeys2 = that.keys2;
+		double[] tvalues = that.values;
+		for( int i=0; i<tkeys1.length; i++ )
+			if( tkeys1[i] != EMPTY )
+				addValue(tkeys1[i], tkeys2[i], tvalues[i]);
+	}
+	
+	/**
+	 * Obtains an allocation-free iterator over all entries of the map.
 	 * 
 	 * @return
 	 */
+	public LLDoubleIterator getIterator()
+	{
+		return new LLDoubleIterator();
+	}
+	
+	/**
+	 * 
+	 * @return
+	 */
+	@Deprecated
 	public ArrayList<LLDoubleEntry> extractValues()
 	{
-		ArrayList<LLDoubleEntry> ret = new ArrayList<LLDoubleEntry>();
-		for( LLDoubleEntry e : data ) {
-			if( e != null ) {
-				while( e.next!=null ) {
-					ret.add(e);
-					e = e.next;
-				}
-				ret.add(e);	
-			}
-		}
+		ArrayList<LLDoubleEntry> ret = new ArrayList<LLDoubleEntry>(size);
+		for( int i=0; i<keys1.length; i++ )
+			if( keys1[i] != EMPTY )
+				ret.add(new LLDoubleEntry(keys1[i], keys2[i], values[i]));
 
 		return ret;
 	}
 	
+	/**
+	 * 
+	 * @param cap
+	 */
+	private void allocate(int cap) {
+		keys1 = new long[cap];
+		keys2 = new long[cap];
+		values = new double[cap];
+		Arrays.fill(keys1, EMPTY);
+	}
+	
 	/**
 	 * 
 	 */
 	private void resize() {
 		//check for integer overflow on resize
-		if( data.length > Integer.MAX_VALUE/RESIZE_FACTOR )
+		if( keys1.length >= MAX_CAPACITY ) {
+			if( size >= keys1.length-1 )
+				throw new RuntimeException("Maximum capacity of ctable hash map exceeded: "+size);
 			return;
+		}
 		
-		//resize data array and copy existing contents
-		LLDoubleEntry[] olddata = data;
-		data = new LLDoubleEntry[data.length*RESIZE_FACTOR];
+		//resize data arrays and rehash existing contents
+		long[] okeys1 = keys1;
+		long[] okeys2 = keys2;
+		double[] ovalues = values;
+		allocate(keys1.length*RESIZE_FACTOR);
 		size = 0;
 		
-		//rehash all entries
-		for( LLDoubleEntry e : olddata ) {
-			if( e != null ) {
-				while( e.next!=null ) {
-					addValue(e.key1, e.key2, e.value);
-					e = e.next;
-				}
-				addValue(e.key1, e.key2, e.value);	
-			}
-		}
+		for( int i=0; i<okeys1.length; i++ )
+			if( okeys1[i] != EMPTY )
+				addValue(okeys1[i], okeys2[i], ovalues[i]);
 	}
 	
 	/**
@@ -131,15 +182,16 @@ public class LongLongDoubleHashMap
 	 * @return
 	 */
 	private static int hash(long key1, long key2) {
-		//basic hash mixing of two longs hashes (w/o object creation)
-		int h = (int)(key1 ^ (key1 >>> 32));
-		h = h*31 + (int)(key2 ^ (key2 >>> 32));
-		
-		// This function ensures that hashCodes that differ only by
-		// constant multiples at each bit position have a bounded
-		// number of collisions (approximately 8 at default load factor).
-		h ^= (h >>> 20) ^ (h >>> 12);
-		return h ^ (h >>> 7) ^ (h >>> 4);
+		//hash mixing of two longs (w/o object creation), where the 64bit
+		//finalizer of murmur3 avoids the collisions of small (row, col) 
+		//pairs that would otherwise create long probe sequences
+		long h = key1 * 0x9E3779B97F4A7C15L + key2;
+		h ^= (h >>> 33);
+		h *= 0xff51afd7ed558ccdL;
+		h ^= (h >>> 33);
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= (h >>> 33);
+		return (int)h;
 	}
 
 	/**
@@ -152,6 +204,33 @@ public class LongLongDoubleHashMap
 		return h & (length-1);
 	}
 	
+	/**
+	 * Cursor-style iterator (one object per scan instead of one object 
+	 * per entry), used as follows: while( it.next() ) { it.getKey1(); ... }
+	 */
+	public class LLDoubleIterator {
+		private int _pos = -1;
+		
+		public boolean next() {
+			while( ++_pos < keys1.length )
+				if( keys1[_pos] != EMPTY )
+					return true;
+			return false;
+		}
+		
+		public long getKey1() {
+			return keys1[_pos];
+		}
+		
+		public long getKey2() {
+			return keys2[_pos];
+		}
+		
+		public double getValue() {
+			return values[_pos];
+		}
+	}
+	
 	/**
 	 * 
 	 */
@@ -159,13 +238,11 @@ public class LongLongDoubleHashMap
 		public long key1 = Long.MAX_VALUE;
 		public long key2 = Long.MAX_VALUE;
 		public double value = Double.MAX_VALUE;
-		public LLDoubleEntry next = null;
 		
 		public LLDoubleEntry(long k1, long k2, double val) {
 			key1 = k1;
 			key2 = k2;
 			value = val;
-			next = null;
 		}
 	}
 }
@@ -289,6 +289,27 @@ public class MapReduceTool
 		return ret;
 	}
 	
+	/**
+	 * Returns the modification time of a file or directory on hdfs. For directories,
+	 * we return the max modification time of the directory and its contained files.
+	 * 
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static long getModificationTimeOnHDFS( Path path ) 
+		throws IOException
+	{
+		FileSystem fs = FileSystem.get(_rJob);
+		long ret = fs.getFileStatus(path).getModificationTime();
+		if( fs.isDirectory(path) ) {
+			for( FileStatus fstat : fs.listStatus(path) )
+				ret = Math.max(ret, fstat.getModificationTime());
+		}
+		
+		return ret;
+	}
+	
 	private static BufferedReader setupInputFile ( String filename ) throws IOException {
         Path pt=new Path(filename);
         FileSystem fs = FileSystem.get(_rJob);
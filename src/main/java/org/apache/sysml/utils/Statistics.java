@@ -31,8 +31,10 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.conf.ConfigurationManager;
 import org.apache.sysml.hops.OptimizerUtils;
 import org.apache.sysml.runtime.controlprogram.caching.CacheStatistics;
+import org.apache.sysml.runtime.controlprogram.caching.LazyWriteBuffer;
 import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
 import org.apache.sysml.runtime.instructions.Instruction;
 import org.apache.sysml.runtime.instructions.InstructionUtils;
@@ -72,11 +74,19 @@ public class Statistics
 	private static AtomicLong hopRecompileTime = new AtomicLong(0); //in nano sec
 	private static AtomicLong hopRecompilePred = new AtomicLong(0); //count
 	private static AtomicLong hopRecompileSB = new AtomicLong(0);   //count
+	private static AtomicLong hopRecompileCacheHits = new AtomicLong(0); //count
+	private static AtomicLong hopRecompileCacheMisses = new AtomicLong(0); //count
 
 	//Function recompile stats 
 	private static AtomicLong funRecompileTime = new AtomicLong(0); //in nano sec
 	private static AtomicLong funRecompiles = new AtomicLong(0); //count
 	
+	//Code generation stats (fused operators)
+	private static AtomicLong codegenDAGs = new AtomicLong(0); //count
+	private static AtomicLong codegenCompileTime = new AtomicLong(0); //in nano sec
+	private static AtomicLong codegenClassCompile = new AtomicLong(0); //count
+	private static AtomicLong codegenPlanCacheHits = new AtomicLong(0); //count
+	
 	//Spark-specific stats
 	private static long sparkCtxCreateTime = 0; 
 	private static AtomicLong sparkParallelize = new AtomicLong(0L);
@@ -85,6 +95,9 @@ public class Statistics
 	private static AtomicLong sparkCollectCount = new AtomicLong(0L);
 	private static AtomicLong sparkBroadcast = new AtomicLong(0L);
 	private static AtomicLong sparkBroadcastCount = new AtomicLong(0L);
+	private static AtomicLong sparkBroadcastReuseCount = new AtomicLong(0L);
+	private static AtomicLong sparkBroadcastEvictCount = new AtomicLong(0L);
+	private static AtomicLong sparkBroadcastBytes = new AtomicLong(0L);
 
 	//PARFOR optimization stats 
 	private static long parforOptTime = 0; //in milli sec
@@ -290,6 +303,16 @@ public class Statistics
 		//note: not synchronized due to use of atomics
 		hopRecompileSB.addAndGet(delta);
 	}
+	
+	public static void incrementHOPRecompileCacheHits() {
+		//note: not synchronized due to use of atomics
+		hopRecompileCacheHits.incrementAndGet();
+	}
+	
+	public static void incrementHOPRecompileCacheMisses() {
+		//note: not synchronized due to use of atomics
+		hopRecompileCacheMisses.incrementAndGet();
+	}
 
 	public static void incrementFunRecompileTime( long delta ) {
 		//note: not synchronized due to use of atomics
@@ -301,6 +324,22 @@ public class Statistics
 		funRecompiles.incrementAndGet();
 	}
 	
+	public static void incrementCodegenDAGCompile() {
+		codegenDAGs.incrementAndGet();
+	}
+	
+	public static void incrementCodegenClassCompile() {
+		codegenClassCompile.incrementAndGet();
+	}
+	
+	public static void incrementCodegenCompileTime( long delta ) {
+		codegenCompileTime.addAndGet(delta);
+	}
+	
+	public static void incrementCodegenPlanCacheHits() {
+		codegenPlanCacheHits.incrementAndGet();
+	}
+	
 	public static synchronized void incrementParForOptimCount(){
 		parforOptCount ++;
 	}
@@ -361,6 +400,13 @@ public class Statistics
 		hopRecompileTime.set(0);
 		hopRecompilePred.set(0);
 		hopRecompileSB.set(0);
+		hopRecompileCacheHits.set(0);
+		hopRecompileCacheMisses.set(0);
+		
+		codegenDAGs.set(0);
+		codegenCompileTime.set(0);
+		codegenClassCompile.set(0);
+		codegenPlanCacheHits.set(0);
 		
 		parforOptCount = 0;
 		parforOptTime = 0;
@@ -378,6 +424,10 @@ public class Statistics
 		
 		denseBlockAllocationTime.set(0);
 		sparseBlockAllocationTime.set(0);
+		
+		sparkBroadcastReuseCount.set(0);
+		sparkBroadcastEvictCount.set(0);
+		sparkBroadcastBytes.set(0);
 	}
 	
 	/**
@@ -435,6 +485,30 @@ public class Statistics
 		sparkBroadcastCount.addAndGet(c);
 	}
 	
+	public static void incSparkBroadcastReuseCount(long c) {
+		sparkBroadcastReuseCount.addAndGet(c);
+	}
+	
+	public static long getSparkBroadcastReuseCount() {
+		return sparkBroadcastReuseCount.get();
+	}
+	
+	public static void incSparkBroadcastEvictCount(long c) {
+		sparkBroadcastEvictCount.addAndGet(c);
+	}
+	
+	public static long getSparkBroadcastEvictCount() {
+		return sparkBroadcastEvictCount.get();
+	}
+	
+	public static void incSparkBroadcastBytes(long bytes) {
+		sparkBroadcastBytes.addAndGet(bytes);
+	}
+	
+	public static long getSparkBroadcastBytes() {
+		return sparkBroadcastBytes.get();
+	}
+	
 	
 	public static String getCPHeavyHitterCode( Instruction inst )
 	{
@@ -483,6 +557,12 @@ public class Statistics
 		return _cpInstTime.keySet();
 	}
 	
+	public synchronized static long getCPHeavyHitterCount( String opcode )
+	{
+		Long cnt = _cpInstCounts.get(opcode);
+		return (cnt != null) ? cnt : 0;
+	}
+	
 	/**
 	 * 
 	 * @param num
@@ -573,6 +653,14 @@ public class Statistics
 		return hopRecompileSB.get();
 	}
 	
+	public static long getHopRecompileCacheHits(){
+		return hopRecompileCacheHits.get();
+	}
+	
+	public static long getHopRecompileCacheMisses(){
+		return hopRecompileCacheMisses.get();
+	}
+	
 	public static long getFunRecompileTime(){
 		return funRecompileTime.get();
 	}
@@ -581,6 +669,22 @@ public class Statistics
 		return funRecompiles.get();
 	}
 		
+	public static long getCodegenDAGCompile(){
+		return codegenDAGs.get();
+	}
+	
+	public static long getCodegenClassCompile(){
+		return codegenClassCompile.get();
+	}
+	
+	public static long getCodegenCompileTime(){
+		return codegenCompileTime.get();
+	}
+	
+	public static long getCodegenPlanCacheHits(){
+		return codegenPlanCacheHits.get();
+	}
+	
 	public static long getParforOptCount(){
 		return parforOptCount;
 	}
@@ -644,6 +748,9 @@ public class Statistics
 		{
 			sb.append("Cache hits (Mem, WB, FS, HDFS):\t" + CacheStatistics.displayHits() + ".\n");
 			sb.append("Cache writes (WB, FS, HDFS):\t" + CacheStatistics.displayWrites() + ".\n");
+			sb.append("Cache WB policy (hit/miss/evict):\t" + CacheStatistics.displayWriteBuffer() + ".\n");
+			if( LazyWriteBuffer.isCompressionEnabled() )
+				sb.append("Cache FS compress (ratio, c/d):\t" + CacheStatistics.displayCompression() + " sec.\n");
 			sb.append("Cache times (ACQr/m, RLS, EXP):\t" + CacheStatistics.displayTime() + " sec.\n");
 			if(DMLScript.REUSE_NONZEROED_OUTPUT) {
 				sb.append("Allocation time (Dense/Sparse):\t" + String.format("%.3f", denseBlockAllocationTime.doubleValue()/1000000000) 
@@ -651,10 +758,17 @@ public class Statistics
 			}
 			sb.append("HOP DAGs recompiled (PRED, SB):\t" + getHopRecompiledPredDAGs() + "/" + getHopRecompiledSBDAGs() + ".\n");
 			sb.append("HOP DAGs recompile time:\t" + String.format("%.3f", ((double)getHopRecompileTime())/1000000000) + " sec.\n");
+			if( getHopRecompileCacheHits()>0 )
+				sb.append("HOP DAGs recompile cache (hits, misses):\t" + getHopRecompileCacheHits() + "/" + getHopRecompileCacheMisses() + ".\n");
 			if( getFunRecompiles()>0 ) {
 				sb.append("Functions recompiled:\t\t" + getFunRecompiles() + ".\n");
 				sb.append("Functions recompile time:\t" + String.format("%.3f", ((double)getFunRecompileTime())/1000000000) + " sec.\n");	
 			}
+			if( ConfigurationManager.isCodegenEnabled() ) {
+				sb.append("Codegen compile (DAG, CP):\t" + getCodegenDAGCompile() + "/" + getCodegenClassCompile() + ".\n");
+				sb.append("Codegen plan cache hits:\t" + getCodegenPlanCacheHits() + ".\n");
+				sb.append("Codegen compile time:\t\t" + String.format("%.3f", ((double)getCodegenCompileTime())/1000000000) + " sec.\n");
+			}
 			if( OptimizerUtils.isSparkExecutionMode() ){
 				String lazy = SparkExecutionContext.isLazySparkContextCreation() ? "(lazy)" : "(eager)";
 				sb.append("Spark ctx create time "+lazy+":\t"+
@@ -667,6 +781,9 @@ public class Statistics
 								 ((double)sparkParallelize.get())*1e-9,
 								 ((double)sparkBroadcast.get())*1e-9,
 								 ((double)sparkCollect.get())*1e-9));
+				sb.append("Spark bc reuse/evict/MB:\t" +
+						String.format("%d/%d/%.1f.\n", sparkBroadcastReuseCount.get(), 
+								sparkBroadcastEvictCount.get(), ((double)sparkBroadcastBytes.get())/(1024*1024)));
 			}
 			if( parforOptCount>0 ){
 				sb.append("ParFor loops optimized:\t\t" + getParforOptCount() + ".\n");
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.test.integration.functions.binary.matrix;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Test for sparse-sparse matrix multiplication with sparse output (hash-based
+ * row accumulation into CSR), for graph-like inputs with few non-zeros per row,
+ * covering both the multi-threaded and single-threaded (small lhs) code paths.
+ */
+public class SparseOutputMatrixMultiplicationTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "SparseOutputMatrixMultiplication";
+	private final static String TEST_DIR = "functions/binary/matrix/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + 
+		SparseOutputMatrixMultiplicationTest.class.getSimpleName() + "/";
+	private final static double eps = 1e-10;
+	
+	private final static int rows1 = 3000;
+	private final static int rows2 = 50; //single-threaded 
+	private final static int cols = 3000;
+	
+	private final static double sparsity1 = 0.001; //~3 nnz per row
+	private final static double sparsity2 = 0.003; //~9 nnz per row
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, 
+			new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] { "C" }) ); 
+	}
+
+	@Test
+	public void testGraphVeryFewNnzCP() 
+	{
+		runSparseOutputMatrixMultiplicationTest(rows1, sparsity1);
+	}
+	
+	@Test
+	public void testGraphFewNnzCP() 
+	{
+		runSparseOutputMatrixMultiplicationTest(rows1, sparsity2);
+	}
+	
+	@Test
+	public void testGraphSmallLhsCP() 
+	{
+		runSparseOutputMatrixMultiplicationTest(rows2, sparsity2);
+	}
+	
+	/**
+	 * 
+	 * @param rows
+	 * @param sparsity
+	 */
+	private void runSparseOutputMatrixMultiplicationTest( int rows, double sparsity )
+	{
+		RUNTIME_PLATFORM platformOld = rtplatform;
+		rtplatform = RUNTIME_PLATFORM.HYBRID;
+		
+		try
+		{
+			getAndLoadTestConfiguration(TEST_NAME);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{"-explain","-args", input("A"), input("B"), output("C") };
+			
+			fullRScriptName = HOME + TEST_NAME + ".R";
+			rCmd = "Rscript" + " " + fullRScriptName + " " + inputDir() + " " + expectedDir();
+	
+			//generate actual dataset (integer values for exact comparison)
+			double[][] A = getRandomMatrix(rows, cols, 1, 5, sparsity, 7); 
+			writeInputMatrixWithMTD("A", round(A), true);
+			double[][] B = getRandomMatrix(cols, cols, 1, 5, sparsity, 3); 
+			writeInputMatrixWithMTD("B", round(B), true);
+	
+			//run test w/o any MR jobs (sparse output fits in CP memory)
+			runTest(true, false, null, 0); 
+			runRScript(true); 
+			
+			//compare matrices 
+			HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("C");
+			HashMap<CellIndex, Double> rfile  = readRMatrixFromFS("C");
+			TestUtils.compareMatrices(dmlfile, rfile, eps, "Stat-DML", "Stat-R");
+		}
+		finally
+		{
+			rtplatform = platformOld;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param data
+	 * @return
+	 */
+	private double[][] round(double[][] data) {
+		for(int i=0; i<data.length; i++)
+			for(int j=0; j<data[i].length; j++)
+				data[i][j] = Math.round(data[i][j]);
+		return data;
+	}
+}
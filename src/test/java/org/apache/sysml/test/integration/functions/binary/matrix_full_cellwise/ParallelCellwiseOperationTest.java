@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.test.integration.functions.binary.matrix_full_cellwise;
+
+import org.junit.Test;
+
+import org.apache.sysml.runtime.functionobjects.Divide;
+import org.apache.sysml.runtime.functionobjects.GreaterThan;
+import org.apache.sysml.runtime.functionobjects.Minus;
+import org.apache.sysml.runtime.functionobjects.Multiply;
+import org.apache.sysml.runtime.functionobjects.Plus;
+import org.apache.sysml.runtime.functionobjects.ValueFunction;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.operators.BinaryOperator;
+import org.apache.sysml.runtime.matrix.operators.RightScalarOperator;
+import org.apache.sysml.runtime.matrix.operators.ScalarOperator;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Component tests comparing multi-threaded against single-threaded 
+ * cellwise matrix-matrix, matrix-vector and matrix-scalar operations.
+ */
+public class ParallelCellwiseOperationTest extends AutomatedTestBase 
+{
+	private final static int rows = 1201;
+	private final static int cols = 1001;
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.1;
+	private final static int k = 4;
+	private final static double eps = 1e-10;
+	
+	private enum InputType {
+		MATRIX,
+		COL_VECTOR,
+		ROW_VECTOR,
+		SCALAR,
+	}
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testPlusDenseDense() {
+		runParallelCellwiseTest(Plus.getPlusFnObject(), sparsity1, sparsity1, InputType.MATRIX);
+	}
+	
+	@Test
+	public void testMultDenseDense() {
+		runParallelCellwiseTest(Multiply.getMultiplyFnObject(), sparsity1, sparsity1, InputType.MATRIX);
+	}
+	
+	@Test
+	public void testDivDenseDense() {
+		runParallelCellwiseTest(Divide.getDivideFnObject(), sparsity1, sparsity1, InputType.MATRIX);
+	}
+	
+	@Test
+	public void testMinusSparseDense() {
+		runParallelCellwiseTest(Minus.getMinusFnObject(), sparsity2, sparsity1, InputType.MATRIX);
+	}
+	
+	@Test
+	public void testPlusDenseSparse() {
+		runParallelCellwiseTest(Plus.getPlusFnObject(), sparsity1, sparsity2, InputType.MATRIX);
+	}
+	
+	@Test
+	public void testMultSparseDense() {
+		runParallelCellwiseTest(Multiply.getMultiplyFnObject(), sparsity2, sparsity1, InputType.MATRIX);
+	}
+	
+	@Test
+	public void testMinusDenseColVector() {
+		runParallelCellwiseTest(Minus.getMinusFnObject(), sparsity1, 1.0, InputType.COL_VECTOR);
+	}
+	
+	@Test
+	public void testDivDenseRowVector() {
+		runParallelCellwiseTest(Divide.getDivideFnObject(), sparsity1, 1.0, InputType.ROW_VECTOR);
+	}
+	
+	@Test
+	public void testGreaterDenseRowVector() {
+		runParallelCellwiseTest(GreaterThan.getGreaterThanFnObject(), sparsity1, 1.0, InputType.ROW_VECTOR);
+	}
+	
+	@Test
+	public void testMultDenseScalar() {
+		runParallelCellwiseTest(Multiply.getMultiplyFnObject(), sparsity1, 1.0, InputType.SCALAR);
+	}
+	
+	@Test
+	public void testMultSparseScalar() {
+		runParallelCellwiseTest(Multiply.getMultiplyFnObject(), sparsity2, 1.0, InputType.SCALAR);
+	}
+	
+	@Test
+	public void testMinusDenseScalar() {
+		runParallelCellwiseTest(Minus.getMinusFnObject(), sparsity1, 1.0, InputType.SCALAR);
+	}
+	
+	@Test
+	public void testMinusSparseScalar() {
+		runParallelCellwiseTest(Minus.getMinusFnObject(), sparsity2, 1.0, InputType.SCALAR);
+	}
+	
+	/**
+	 * 
+	 * @param fn
+	 * @param sp1
+	 * @param sp2
+	 * @param type
+	 */
+	private void runParallelCellwiseTest( ValueFunction fn, double sp1, double sp2, InputType type )
+	{
+		try
+		{
+			//generate input data
+			MatrixBlock mb1 = DataConverter.convertToMatrixBlock(getRandomMatrix(rows, cols, -1, 1, sp1, 7));
+			mb1.examSparsity();
+			
+			MatrixBlock ret1 = null, ret2 = null;
+			if( type == InputType.SCALAR ) {
+				ScalarOperator sop1 = new RightScalarOperator(fn, 7);
+				ScalarOperator sop2 = new RightScalarOperator(fn, 7, k);
+				ret1 = (MatrixBlock) mb1.scalarOperations(sop1, new MatrixBlock());
+				ret2 = (MatrixBlock) mb1.scalarOperations(sop2, new MatrixBlock());
+			}
+			else {
+				int rows2 = (type==InputType.ROW_VECTOR) ? 1 : rows;
+				int cols2 = (type==InputType.COL_VECTOR) ? 1 : cols;
+				MatrixBlock mb2 = DataConverter.convertToMatrixBlock(getRandomMatrix(rows2, cols2, -1, 1, sp2, 3));
+				mb2.examSparsity();
+				ret1 = (MatrixBlock) mb1.binaryOperations(new BinaryOperator(fn), mb2, new MatrixBlock());
+				ret2 = (MatrixBlock) mb1.binaryOperations(new BinaryOperator(fn, k), mb2, new MatrixBlock());
+			}
+			
+			//compare results and number of non-zeros
+			TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ret1), 
+					DataConverter.convertToDoubleMatrix(ret2), rows, cols, eps);
+			TestUtils.compareScalars(ret1.getNonZeros(), ret2.getNonZeros(), 0);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+}
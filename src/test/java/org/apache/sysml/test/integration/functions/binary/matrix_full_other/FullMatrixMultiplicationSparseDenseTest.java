@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.test.integration.functions.binary.matrix_full_other;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.runtime.matrix.data.LibMatrixMult;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Tests the sparse-dense matrix multiplication with transposed rhs, which is used for 
+ * m > 64, wide rhs (n > 64) with few rows (cd <= 2048), and at least 32 non-zeros per 
+ * lhs row on average. The single- and multi-threaded results are compared against R.
+ */
+public class FullMatrixMultiplicationSparseDenseTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "FullMatrixMultiplication";
+	private final static String TEST_DIR = "functions/binary/matrix_full_other/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + FullMatrixMultiplicationSparseDenseTest.class.getSimpleName() + "/";
+	private final static double eps = 1e-10;
+	
+	//row and column blocks w/ remainder (blocksizes 32 and max(8, 32K/cd))
+	private final static int rowsA = 733;
+	private final static int colsA = 1011;
+	private final static int colsB = 517;
+	
+	private final static double sparsityA = 0.1; //~101 nnz per row
+	private final static double sparsityB = 0.7;
+	
+	private final static int k = 4;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] { "C" })); 
+	}
+	
+	@Test
+	public void testMMSparseDenseTransposedRhsSingleThreaded() {
+		runMatrixMultSparseDenseTest(false, false);
+	}
+	
+	@Test
+	public void testMMSparseDenseTransposedRhsMultiThreaded() {
+		runMatrixMultSparseDenseTest(true, false);
+	}
+	
+	@Test
+	public void testMMSparseDenseTransposedRhsEmptyRowsSingleThreaded() {
+		runMatrixMultSparseDenseTest(false, true);
+	}
+	
+	@Test
+	public void testMMSparseDenseTransposedRhsEmptyRowsMultiThreaded() {
+		runMatrixMultSparseDenseTest(true, true);
+	}
+	
+	/**
+	 * 
+	 * @param multiThreaded
+	 * @param emptyRows
+	 */
+	private void runMatrixMultSparseDenseTest( boolean multiThreaded, boolean emptyRows )
+	{
+		try
+		{
+			TestConfiguration config = getTestConfiguration(TEST_NAME);
+			loadTestConfiguration(config);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullRScriptName = HOME + TEST_NAME + ".R";
+			rCmd = getRCmd(inputDir(), expectedDir());
+			
+			//generate actual dataset (w/ empty lhs rows if required)
+			double[][] A = getRandomMatrix(rowsA, colsA, 0, 1, sparsityA, 7); 
+			if( emptyRows ) {
+				for( int i=0; i<rowsA; i+=7 )
+					A[i] = new double[colsA];
+			}
+			writeInputMatrixWithMTD("A", A, true);
+			double[][] B = getRandomMatrix(colsA, colsB, 0, 1, sparsityB, 3); 
+			writeInputMatrixWithMTD("B", B, true);
+			
+			//check preconditions of sparse-dense kernel w/ transposed rhs
+			MatrixBlock mbA = DataConverter.convertToMatrixBlock(A);
+			MatrixBlock mbB = DataConverter.convertToMatrixBlock(B);
+			mbA.examSparsity();
+			mbB.examSparsity();
+			Assert.assertTrue(mbA.isInSparseFormat() && !mbA.isUltraSparse());
+			Assert.assertFalse(mbB.isInSparseFormat());
+			Assert.assertTrue(mbA.getNonZeros() >= 32L * rowsA);
+			
+			//single- or multi-threaded matrix multiplication
+			MatrixBlock mbC = new MatrixBlock(rowsA, colsB, false);
+			if( multiThreaded )
+				LibMatrixMult.matrixMult(mbA, mbB, mbC, k);
+			else
+				LibMatrixMult.matrixMult(mbA, mbB, mbC);
+			
+			//inputs are not modified by the rhs transpose
+			Assert.assertFalse(mbB.isInSparseFormat());
+			Assert.assertEquals(colsA, mbB.getNumRows());
+			Assert.assertEquals(colsB, mbB.getNumColumns());
+			
+			//compare matrices 
+			runRScript(true); 
+			HashMap<CellIndex, Double> rfile = readRMatrixFromFS("C");
+			double[][] C = TestUtils.convertHashMapToDoubleArray(rfile, rowsA, colsB);
+			TestUtils.compareMatrices(C, DataConverter.convertToDoubleMatrix(mbC), rowsA, colsB, eps);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+}
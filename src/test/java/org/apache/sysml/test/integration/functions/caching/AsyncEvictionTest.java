@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.caching;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.runtime.controlprogram.caching.LazyWriteBuffer;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.runtime.util.LocalFileUtils;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Tests the asynchronous eviction of write buffer entries, incl reads, deletes, 
+ * and rewrites of blocks with in-flight evictions as well as failing evictions.
+ * The write buffer limit is set such that every write evicts the previous block.
+ */
+public class AsyncEvictionTest extends AutomatedTestBase 
+{
+	private final static String TEST_DIR = "functions/caching/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + AsyncEvictionTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 500;
+	private final static int cols = 500;
+	private final static double eps = 1e-15;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testReadDuringEviction() {
+		runAsyncEvictionTest(1);
+	}
+	
+	@Test
+	public void testDeleteDuringEviction() {
+		runAsyncEvictionTest(2);
+	}
+	
+	@Test
+	public void testRewriteAfterEviction() {
+		runAsyncEvictionTest(3);
+	}
+	
+	@Test
+	public void testFailingEviction() {
+		runAsyncEvictionTest(4);
+	}
+	
+	@Test
+	public void testFailingEvictionBufferLimit() {
+		runAsyncEvictionTest(5);
+	}
+	
+	/**
+	 * 
+	 * @param testNum
+	 */
+	private void runAsyncEvictionTest( int testNum )
+	{
+		String dir = TEST_DATA_DIR + TEST_CLASS_DIR;
+		String fname1 = dir + "evict1.dat";
+		String fname2 = dir + "evict2.dat";
+		String fname3 = dir + "evict3.dat";
+		
+		try
+		{
+			new File(dir).mkdirs();
+			MatrixBlock A = createBlock(1);
+			MatrixBlock B = createBlock(2);
+			MatrixBlock C = createBlock(3);
+			
+			long limit = 3 * A.getExactSerializedSize() / 2;
+			LazyWriteBuffer.init();
+			LazyWriteBuffer.setWriteBufferLimit(limit);
+			
+			switch( testNum )
+			{
+				case 1: { //read while eviction of A in flight (or completed)
+					LazyWriteBuffer.writeBlock(fname1, A);
+					LazyWriteBuffer.writeBlock(fname2, B); //evicts A
+					compareBlocks(A, LazyWriteBuffer.readBlock(fname1));
+					LazyWriteBuffer.cleanup(); //wait for evictions
+					compareBlocks(A, LazyWriteBuffer.readBlock(fname1));
+					break;
+				}
+				case 2: { //delete while eviction of A in flight (or completed)
+					LazyWriteBuffer.writeBlock(fname1, A);
+					LazyWriteBuffer.writeBlock(fname2, B); //evicts A
+					LazyWriteBuffer.deleteBlock(fname1);
+					LazyWriteBuffer.cleanup(); //wait for evictions and deletes
+					Assert.assertFalse("Orphaned evicted file.", new File(fname1).exists());
+					break;
+				}
+				case 3: { //rewrite of A's file name right after eviction
+					LazyWriteBuffer.writeBlock(fname1, A);
+					LazyWriteBuffer.writeBlock(fname2, B); //evicts A
+					LazyWriteBuffer.deleteBlock(fname1);
+					LazyWriteBuffer.writeBlock(fname1, C); //evicts B
+					LazyWriteBuffer.writeBlock(fname3, B); //evicts C
+					compareBlocks(C, LazyWriteBuffer.readBlock(fname1));
+					LazyWriteBuffer.cleanup(); //wait for evictions and deletes
+					Assert.assertTrue("Deleted file of subsequent write.", new File(fname1).exists());
+					compareBlocks(C, LazyWriteBuffer.readBlock(fname1));
+					break;
+				}
+				case 4: { //failing eviction (parent of target file is a file)
+					String fnameErr = fname1 + "/evict.dat";
+					LocalFileUtils.writeCacheBlockToLocal(fname1, B);
+					LazyWriteBuffer.writeBlock(fnameErr, A);
+					LazyWriteBuffer.writeBlock(fname2, B); //evicts A (fails)
+					compareBlocks(A, LazyWriteBuffer.readBlock(fnameErr));
+					LazyWriteBuffer.writeBlock(fname3, C); //evicts B
+					compareBlocks(A, LazyWriteBuffer.readBlock(fnameErr));
+					LazyWriteBuffer.deleteBlock(fnameErr);
+					LazyWriteBuffer.cleanup();
+					break;
+				}
+				case 5: { //repeatedly failing evictions (buffer limit not exceeded)
+					String fnameErr1 = fname1 + "/evict.dat";
+					String fnameErr2 = fname2 + "/evict.dat";
+					LocalFileUtils.writeCacheBlockToLocal(fname1, C);
+					LocalFileUtils.writeCacheBlockToLocal(fname2, C);
+					LazyWriteBuffer.writeBlock(fnameErr1, A);
+					LazyWriteBuffer.writeBlock(fnameErr2, B); //evicts A (fails, evicts B, fails)
+					LazyWriteBuffer.waitForPendingEvictions();
+					Assert.assertTrue("Write buffer limit exceeded.", 
+						LazyWriteBuffer.getWriteBufferUsage() < limit);
+					compareBlocks(A, LazyWriteBuffer.readBlock(fnameErr1));
+					try {
+						LazyWriteBuffer.readBlock(fnameErr2);
+						Assert.fail("Read of failed eviction did not fail.");
+					}
+					catch(IOException ex) {
+						//expected (buffer dropped)
+					}
+					LazyWriteBuffer.deleteBlock(fnameErr1);
+					LazyWriteBuffer.deleteBlock(fnameErr2);
+					Assert.assertEquals(0, LazyWriteBuffer.getWriteBufferUsage());
+					LazyWriteBuffer.cleanup();
+					break;
+				}
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			LazyWriteBuffer.setWriteBufferLimit(LazyWriteBuffer.getWriteBufferSize());
+			LazyWriteBuffer.init();
+			LocalFileUtils.deleteFileIfExists(fname1);
+			LocalFileUtils.deleteFileIfExists(fname2);
+			LocalFileUtils.deleteFileIfExists(fname3);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param seed
+	 * @return
+	 */
+	private MatrixBlock createBlock( long seed ) {
+		return DataConverter.convertToMatrixBlock(
+			getRandomMatrix(rows, cols, -1, 1, 1.0, seed));
+	}
+	
+	/**
+	 * 
+	 * @param expected
+	 * @param actual
+	 */
+	private static void compareBlocks( MatrixBlock expected, Object actual ) {
+		MatrixBlock ret = (MatrixBlock) actual;
+		Assert.assertEquals(expected.getNonZeros(), ret.getNonZeros());
+		TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(expected), 
+			DataConverter.convertToDoubleMatrix(ret), rows, cols, eps);
+	}
+}
@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.test.integration.functions.caching;
+
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.runtime.controlprogram.context.SparkExecutionContext;
+import org.apache.sysml.runtime.instructions.spark.data.BroadcastManager;
+import org.apache.sysml.runtime.instructions.spark.data.BroadcastManager.BroadcastKey;
+import org.apache.sysml.runtime.instructions.spark.data.PartitionedBroadcastMatrix;
+import org.apache.sysml.runtime.instructions.spark.data.PartitionedMatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+import org.apache.sysml.utils.Statistics;
+
+/**
+ * Tests the reuse of partitioned broadcasts via the broadcast manager, incl
+ * reuse for equal data, no reuse for different data of equal shape and number 
+ * of non-zeros, reference counted release w/ and w/o retention, and LRU eviction
+ * of retained broadcasts, as well as end-to-end results of Spark matrix 
+ * multiplications with recreated broadcast inputs.
+ */
+public class BroadcastReuseTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "BroadcastReuse";
+	private final static String TEST_DIR = "functions/caching/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + BroadcastReuseTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 1500;
+	private final static int cols = 100;
+	private final static int cols2 = 10;
+	private final static int blocksize = 1000;
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.1;
+	private final static double eps = 1e-8;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] { "R" }) ); 
+	}
+	
+	@Test
+	public void testReuseEqualDataDense() throws Exception {
+		runBroadcastManagerReuseTest(sparsity1);
+	}
+	
+	@Test
+	public void testReuseEqualDataSparse() throws Exception {
+		runBroadcastManagerReuseTest(sparsity2);
+	}
+	
+	@Test
+	public void testReleaseAndEviction() throws Exception {
+		runBroadcastManagerEvictionTest();
+	}
+	
+	@Test
+	public void testReleaseWithoutRetention() throws Exception {
+		runBroadcastManagerReleaseTest();
+	}
+	
+	@Test
+	public void testSparkEqualShapeNnzDense() {
+		runBroadcastReuseSparkTest(sparsity1, false);
+	}
+	
+	@Test
+	public void testSparkEqualShapeNnzSparse() {
+		runBroadcastReuseSparkTest(sparsity2, false);
+	}
+	
+	@Test
+	public void testSparkEqualShapeNnzDenseRetain() {
+		runBroadcastReuseSparkTest(sparsity1, true);
+	}
+	
+	@Test
+	public void testSparkEqualShapeNnzSparseRetain() {
+		runBroadcastReuseSparkTest(sparsity2, true);
+	}
+	
+	/**
+	 * 
+	 * @param sparsity
+	 * @throws Exception
+	 */
+	private void runBroadcastManagerReuseTest( double sparsity ) 
+		throws Exception
+	{
+		BroadcastManager bcm = new BroadcastManager();
+		
+		//register broadcast of A
+		double[][] A = getRandomMatrix(cols, cols2, -1, 1, sparsity, 7);
+		MatrixBlock mbA = DataConverter.convertToMatrixBlock(A);
+		PartitionedBroadcastMatrix pbmA = put(bcm, mbA, Long.MAX_VALUE);
+		Assert.assertEquals(1, bcm.getNumBroadcasts());
+		
+		//reuse for equal data of a different matrix block
+		MatrixBlock mbA2 = DataConverter.convertToMatrixBlock(A);
+		Assert.assertTrue(pbmA == bcm.get(createKey(mbA2), mbA2));
+		
+		//no reuse for different data w/ equal shape and non-zeros 
+		//(same non-zero pattern, and single modified value)
+		double[][] B = new double[cols][cols2];
+		for( int i=0; i<cols; i++ )
+			for( int j=0; j<cols2; j++ )
+				B[i][j] = 2 * A[i][j];
+		MatrixBlock mbB = DataConverter.convertToMatrixBlock(B);
+		Assert.assertEquals(mbA.getNonZeros(), mbB.getNonZeros());
+		Assert.assertNull(bcm.get(createKey(mbB), mbB));
+		double[][] C = DataConverter.convertToDoubleMatrix(mbA);
+		modify: //modify value of last non-zero
+		for( int i=cols-1; i>=0; i-- )
+			for( int j=cols2-1; j>=0; j-- )
+				if( C[i][j] != 0 ) {
+					C[i][j] += (C[i][j] != -1) ? 1 : 2;
+					break modify;
+				}
+		MatrixBlock mbC = DataConverter.convertToMatrixBlock(C);
+		Assert.assertEquals(mbA.getNonZeros(), mbC.getNonZeros());
+		Assert.assertNull(bcm.get(createKey(mbC), mbC));
+		
+		//register broadcast of B, and reuse of both A and B
+		PartitionedBroadcastMatrix pbmB = put(bcm, mbB, Long.MAX_VALUE);
+		Assert.assertEquals(2, bcm.getNumBroadcasts());
+		Assert.assertTrue(pbmB == bcm.get(createKey(mbB), DataConverter.convertToMatrixBlock(B)));
+		Assert.assertTrue(pbmA == bcm.get(createKey(mbA), DataConverter.convertToMatrixBlock(A)));
+	}
+	
+	/**
+	 * 
+	 * @throws Exception
+	 */
+	private void runBroadcastManagerEvictionTest() 
+		throws Exception
+	{
+		BroadcastManager bcm = new BroadcastManager();
+		MatrixBlock mbA = DataConverter.convertToMatrixBlock(getRandomMatrix(cols, cols2, -1, 1, 1, 7));
+		MatrixBlock mbB = DataConverter.convertToMatrixBlock(getRandomMatrix(cols, cols2, -1, 1, 1, 8));
+		MatrixBlock mbC = DataConverter.convertToMatrixBlock(getRandomMatrix(cols, cols2, -1, 1, 1, 9));
+		
+		//register and reuse A (two references), budget for two broadcasts
+		PartitionedBroadcastMatrix pbmA = put(bcm, mbA, Long.MAX_VALUE);
+		long size = bcm.getSize();
+		long budget = 2 * size;
+		Assert.assertTrue(pbmA == bcm.get(createKey(mbA), mbA));
+		
+		//register B, no eviction (within budget)
+		PartitionedBroadcastMatrix pbmB = put(bcm, mbB, budget);
+		Assert.assertEquals(2, bcm.getNumBroadcasts());
+		
+		//release B but only one reference of A, and register C 
+		//(B evicted as only unreferenced broadcast, A still referenced)
+		Assert.assertTrue(bcm.release(pbmB, true));
+		Assert.assertTrue(bcm.release(pbmA, true));
+		BroadcastKey keyC = createKey(mbC);
+		PartitionedMatrixBlock pmbC = new PartitionedMatrixBlock(mbC, blocksize, blocksize);
+		PartitionedBroadcastMatrix pbmC = new PartitionedBroadcastMatrix(null);
+		List<PartitionedBroadcastMatrix> evicted = bcm.put(keyC, pbmC, pmbC, size, budget);
+		Assert.assertEquals(1, evicted.size());
+		Assert.assertTrue(pbmB == evicted.get(0));
+		Assert.assertFalse(bcm.contains(pbmB));
+		Assert.assertTrue(bcm.contains(pbmA));
+		Assert.assertNull(bcm.get(createKey(mbB), mbB));
+		
+		//release of evicted broadcasts is left to the caller
+		Assert.assertFalse(bcm.release(pbmB, true));
+		
+		//release all references of A and C, and register B again
+		//(LRU eviction of A, which was used before C)
+		Assert.assertTrue(bcm.release(pbmA, true));
+		Assert.assertTrue(bcm.release(pbmC, true));
+		evicted = bcm.put(createKey(mbB), pbmB, new PartitionedMatrixBlock(mbB, blocksize, blocksize), size, budget);
+		Assert.assertEquals(1, evicted.size());
+		Assert.assertTrue(pbmA == evicted.get(0));
+		Assert.assertEquals(2, bcm.getNumBroadcasts());
+		Assert.assertEquals(2 * size, bcm.getSize());
+		
+		//clear returns all remaining broadcasts
+		Assert.assertEquals(2, bcm.clear().size());
+		Assert.assertEquals(0, bcm.getNumBroadcasts());
+		Assert.assertEquals(0, bcm.getSize());
+	}
+	
+	/**
+	 * 
+	 * @throws Exception
+	 */
+	private void runBroadcastManagerReleaseTest() 
+		throws Exception
+	{
+		BroadcastManager bcm = new BroadcastManager();
+		MatrixBlock mbA = DataConverter.convertToMatrixBlock(getRandomMatrix(cols, cols2, -1, 1, 1, 7));
+		MatrixBlock mbB = DataConverter.convertToMatrixBlock(getRandomMatrix(cols, cols2, -1, 1, 1, 8));
+		
+		//register and reuse A (two references), register B
+		PartitionedBroadcastMatrix pbmA = put(bcm, mbA, Long.MAX_VALUE);
+		Assert.assertTrue(pbmA == bcm.get(createKey(mbA), mbA));
+		PartitionedBroadcastMatrix pbmB = put(bcm, mbB, Long.MAX_VALUE);
+		long size = bcm.getSize() / 2;
+		
+		//release of referenced broadcast keeps it for reuse
+		Assert.assertTrue(bcm.release(pbmA, false));
+		Assert.assertTrue(bcm.contains(pbmA));
+		
+		//release of last references removes the broadcasts,
+		//which need to be destroyed by the caller
+		Assert.assertFalse(bcm.release(pbmA, false));
+		Assert.assertFalse(bcm.contains(pbmA));
+		Assert.assertNull(bcm.get(createKey(mbA), mbA));
+		Assert.assertEquals(1, bcm.getNumBroadcasts());
+		Assert.assertEquals(size, bcm.getSize());
+		Assert.assertFalse(bcm.release(pbmB, false));
+		Assert.assertEquals(0, bcm.getNumBroadcasts());
+		Assert.assertEquals(0, bcm.getSize());
+	}
+	
+	/**
+	 * 
+	 * @param sparsity
+	 * @param retain retain unreferenced broadcasts for reuse across iterations
+	 */
+	private void runBroadcastReuseSparkTest( double sparsity, boolean retain ) 
+	{
+		RUNTIME_PLATFORM platformOld = rtplatform;
+		rtplatform = RUNTIME_PLATFORM.SPARK;
+		boolean sparkConfigOld = DMLScript.USE_LOCAL_SPARK_CONFIG;
+		DMLScript.USE_LOCAL_SPARK_CONFIG = true;
+		boolean retainOld = SparkExecutionContext.RETAIN_UNREFERENCED_BROADCASTS;
+		SparkExecutionContext.RETAIN_UNREFERENCED_BROADCASTS = retain;
+		
+		try
+		{
+			TestConfiguration config = getTestConfiguration(TEST_NAME);
+			loadTestConfiguration(config);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{"-stats", "-args", 
+				input("X"), input("A"), input("B"), output("R") };
+			fullRScriptName = HOME + TEST_NAME + ".R";
+			rCmd = "Rscript" + " " + fullRScriptName + " " + inputDir() + " " + expectedDir();
+			
+			//generate inputs, where A and B have equal shape and non-zeros
+			double[][] X = getRandomMatrix(rows, cols, -1, 1, sparsity1, 3);
+			double[][] A = getRandomMatrix(cols, cols2, -1, 1, sparsity, 7);
+			double[][] B = new double[cols][cols2];
+			for( int i=0; i<cols; i++ )
+				for( int j=0; j<cols2; j++ )
+					B[i][j] = 2 * A[i][j];
+			writeInputMatrixWithMTD("X", X, true);
+			writeInputMatrixWithMTD("A", A, true);
+			writeInputMatrixWithMTD("B", B, true);
+			
+			//run tests and compare results
+			runTest(true, false, null, -1); 
+			runRScript(true); 
+			
+			HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("R");
+			HashMap<CellIndex, Double> rfile  = readRMatrixFromFS("R");
+			Assert.assertTrue(TestUtils.compareMatrices(dmlfile, rfile, eps, "Stat-DML", "Stat-R"));
+			
+			//A2 and B2 of iterations 2 and 3 reuse the retained broadcasts of iteration 1
+			if( retain )
+				Assert.assertEquals(4, Statistics.getSparkBroadcastReuseCount());
+		}
+		finally {
+			rtplatform = platformOld;
+			DMLScript.USE_LOCAL_SPARK_CONFIG = sparkConfigOld;
+			SparkExecutionContext.RETAIN_UNREFERENCED_BROADCASTS = retainOld;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param bcm
+	 * @param mb
+	 * @param budget
+	 * @return
+	 * @throws Exception
+	 */
+	private static PartitionedBroadcastMatrix put( BroadcastManager bcm, MatrixBlock mb, long budget ) 
+		throws Exception
+	{
+		PartitionedMatrixBlock pmb = new PartitionedMatrixBlock(mb, blocksize, blocksize);
+		PartitionedBroadcastMatrix pbm = new PartitionedBroadcastMatrix(null);
+		List<PartitionedBroadcastMatrix> evicted = bcm.put(createKey(mb), 
+			pbm, pmb, pmb.estimateSizeInMemory(), budget);
+		Assert.assertTrue(evicted.isEmpty());
+		return pbm;
+	}
+	
+	/**
+	 * 
+	 * @param mb
+	 * @return
+	 */
+	private static BroadcastKey createKey( MatrixBlock mb ) {
+		return BroadcastManager.createKey(mb, blocksize, blocksize);
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.test.integration.functions.caching;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.runtime.util.LocalFileUtils;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Tests the compressed and checksummed write and read of evicted 
+ * buffer pool blocks to/from local files.
+ */
+public class EvictionCompressionTest extends AutomatedTestBase 
+{
+	private final static String TEST_DIR = "functions/caching/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + EvictionCompressionTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 1321;
+	private final static int cols = 432;
+	private final static double sparsity1 = 0.9;
+	private final static double sparsity2 = 0.05;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testDenseCompressed() {
+		runEvictionTest(sparsity1, true, false);
+	}
+	
+	@Test
+	public void testSparseCompressed() {
+		runEvictionTest(sparsity2, true, false);
+	}
+	
+	@Test
+	public void testDenseUncompressed() {
+		runEvictionTest(sparsity1, false, false);
+	}
+	
+	@Test
+	public void testDenseCompressedCorrupted() {
+		runEvictionTest(sparsity1, true, true);
+	}
+	
+	/**
+	 * 
+	 * @param sparsity
+	 * @param compress
+	 * @param corrupt
+	 */
+	private void runEvictionTest( double sparsity, boolean compress, boolean corrupt )
+	{
+		String dir = TEST_DATA_DIR + TEST_CLASS_DIR;
+		String fname = dir + "evict.dat";
+		
+		try
+		{
+			new File(dir).mkdirs();
+			//low-entropy input (rounded values) for a meaningful compression ratio
+			double[][] A = TestUtils.round(getRandomMatrix(rows, cols, 0, 10, sparsity, 7));
+			MatrixBlock mb = DataConverter.convertToMatrixBlock(A);
+			mb.examSparsity();
+			
+			//write evicted block and optionally corrupt a byte 
+			LocalFileUtils.writeCacheBlockToLocal(fname, mb, compress);
+			if( corrupt ) {
+				RandomAccessFile raf = new RandomAccessFile(fname, "rw");
+				raf.seek(raf.length()/2);
+				int b = raf.read();
+				raf.seek(raf.length()/2);
+				raf.write(b ^ 0x7);
+				raf.close();
+			}
+			
+			//read evicted block and compare
+			try {
+				MatrixBlock ret = (MatrixBlock) LocalFileUtils.readCacheBlockFromLocal(fname, compress);
+				Assert.assertFalse("Corruption not detected.", corrupt);
+				Assert.assertEquals(mb.getNonZeros(), ret.getNonZeros());
+				TestUtils.compareMatrices(A, DataConverter.convertToDoubleMatrix(ret), rows, cols, 0);
+			}
+			catch(IOException ex) {
+				if( !corrupt )
+					throw ex;
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			LocalFileUtils.deleteFileIfExists(fname);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.caching;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.conf.DMLConfig;
+import org.apache.sysml.runtime.controlprogram.caching.LazyWriteBuffer;
+import org.apache.sysml.runtime.controlprogram.caching.LazyWriteBuffer.RPolicy;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.runtime.util.LocalFileUtils;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Tests the victim selection of the write buffer eviction policies (fifo, lru,
+ * cost), where the write buffer limit is set such that two blocks fit and the 
+ * third block evicts one of them. Evicted blocks are identified by their files.
+ */
+public class EvictionPolicyTest extends AutomatedTestBase 
+{
+	private final static String TEST_DIR = "functions/caching/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + EvictionPolicyTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 300;
+	private final static int cols = 300;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testFifoPolicy() {
+		runEvictionPolicyTest(RPolicy.FIFO, false, 1, true);
+	}
+	
+	@Test
+	public void testLruPolicy() {
+		runEvictionPolicyTest(RPolicy.LRU, false, 1, false);
+	}
+	
+	@Test
+	public void testCostPolicyNoHints() {
+		runEvictionPolicyTest(RPolicy.COST, false, 0, true);
+	}
+	
+	@Test
+	public void testCostPolicyAccessFrequency() {
+		runEvictionPolicyTest(RPolicy.COST, false, 3, false);
+	}
+	
+	@Test
+	public void testCostPolicyLoopInvariant() {
+		runEvictionPolicyTest(RPolicy.COST, true, 0, false);
+	}
+	
+	/**
+	 * 
+	 * @param policy eviction policy
+	 * @param loopInvariant loop-invariant hint for the first block
+	 * @param numReads number of reads of the first block
+	 * @param evictFirst expected victim: first (true) or second (false) block
+	 */
+	private void runEvictionPolicyTest( RPolicy policy, boolean loopInvariant, int numReads, boolean evictFirst )
+	{
+		String dir = TEST_DATA_DIR + TEST_CLASS_DIR;
+		String fname1 = dir + "evict1.dat";
+		String fname2 = dir + "evict2.dat";
+		String fname3 = dir + "evict3.dat";
+		DMLConfig confOld = ConfigurationManager.getDMLConfig();
+		
+		try
+		{
+			new File(dir).mkdirs();
+			MatrixBlock A = createBlock(1);
+			MatrixBlock B = createBlock(2);
+			MatrixBlock C = createBlock(3);
+			
+			//configure eviction policy and write buffer limit (two blocks)
+			DMLConfig conf = new DMLConfig();
+			conf.setTextValue(DMLConfig.CP_BUFFER_POLICY, policy.name().toLowerCase());
+			ConfigurationManager.setLocalConfig(conf);
+			LazyWriteBuffer.init();
+			LazyWriteBuffer.setWriteBufferLimit(5 * A.getExactSerializedSize() / 2);
+			Assert.assertEquals(policy, LazyWriteBuffer.getPolicy());
+			
+			//write and access blocks, and evict one of the first two blocks
+			LazyWriteBuffer.writeBlock(fname1, A, loopInvariant);
+			LazyWriteBuffer.writeBlock(fname2, B);
+			for( int i=0; i<numReads; i++ )
+				LazyWriteBuffer.readBlock(fname1);
+			LazyWriteBuffer.writeBlock(fname3, C);
+			LazyWriteBuffer.cleanup(); //wait for evictions
+			
+			//check evicted block 
+			Assert.assertEquals(evictFirst, new File(fname1).exists());
+			Assert.assertEquals(!evictFirst, new File(fname2).exists());
+			Assert.assertFalse(new File(fname3).exists());
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			ConfigurationManager.setLocalConfig(confOld);
+			LazyWriteBuffer.setWriteBufferLimit(LazyWriteBuffer.getWriteBufferSize());
+			LazyWriteBuffer.init();
+			LocalFileUtils.deleteFileIfExists(fname1);
+			LocalFileUtils.deleteFileIfExists(fname2);
+			LocalFileUtils.deleteFileIfExists(fname3);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param seed
+	 * @return
+	 */
+	private MatrixBlock createBlock( long seed ) {
+		return DataConverter.convertToMatrixBlock(
+			getRandomMatrix(rows, cols, -1, 1, 1.0, seed));
+	}
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.test.integration.functions.caching;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.runtime.controlprogram.caching.CacheBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.OffHeapDenseBlock;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.runtime.util.LocalFileUtils;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Tests the off-heap storage of dense blocks in the buffer pool write buffer,
+ * incl direct and memory-mapped buffers as well as eviction to local files.
+ */
+public class OffHeapDenseBlockTest extends AutomatedTestBase 
+{
+	private final static String TEST_DIR = "functions/caching/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + OffHeapDenseBlockTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 1234;
+	private final static int cols = 567;
+	private final static double eps = 1e-15;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testDirectBufferRoundtrip() {
+		runOffHeapTest(false, false);
+	}
+	
+	@Test
+	public void testMemoryMappedRoundtrip() {
+		runOffHeapTest(true, false);
+	}
+	
+	@Test
+	public void testDirectBufferEviction() {
+		runOffHeapTest(false, true);
+	}
+	
+	@Test
+	public void testMemoryMappedEviction() {
+		runOffHeapTest(true, true);
+	}
+	
+	/**
+	 * 
+	 * @param mmap
+	 * @param evict
+	 */
+	private void runOffHeapTest( boolean mmap, boolean evict )
+	{
+		String dir = TEST_DATA_DIR + TEST_CLASS_DIR;
+		String fname = dir + "offheap.dat";
+		
+		try
+		{
+			new File(dir).mkdirs();
+			MatrixBlock mb = DataConverter.convertToMatrixBlock(
+				getRandomMatrix(rows, cols, -1, 1, 1.0, 7));
+			int len = rows * cols;
+			
+			//copy dense block to off-heap storage
+			OffHeapDenseBlock odata = mmap ? 
+				new OffHeapDenseBlock(len, fname+".mmap") : new OffHeapDenseBlock(len);
+			odata.copyFrom(mb.getDenseBlock(), len);
+			Assert.assertEquals(mmap, odata.isMemoryMapped());
+			Assert.assertEquals(mb.getValue(3, 7), odata.get(3*cols+7), eps);
+			
+			MatrixBlock ret = null;
+			if( evict ) {
+				//write off-heap block and read via cache block reader
+				LocalFileUtils.writeOffHeapDenseBlockToLocal(fname, 0, rows, cols, odata);
+				CacheBlock cb = LocalFileUtils.readCacheBlockFromLocal(fname);
+				ret = (MatrixBlock) cb;
+				LocalFileUtils.deleteFileIfExists(fname);
+			}
+			else {
+				//copy back into new heap dense block
+				ret = new MatrixBlock(rows, cols, false);
+				ret.allocateDenseBlock();
+				odata.copyTo(ret.getDenseBlock(), len);
+				ret.recomputeNonZeros();
+			}
+			odata.free();
+			
+			//compare results
+			Assert.assertFalse(new File(fname+".mmap").exists());
+			Assert.assertEquals(mb.getNonZeros(), ret.getNonZeros());
+			TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(mb), 
+				DataConverter.convertToDoubleMatrix(ret), rows, cols, eps);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+}
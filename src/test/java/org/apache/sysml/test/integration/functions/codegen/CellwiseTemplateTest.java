@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.codegen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.sysml.hops.codegen.cplan.CNode;
+import org.apache.sysml.hops.codegen.cplan.CNodeBinary;
+import org.apache.sysml.hops.codegen.cplan.CNodeBinary.BinType;
+import org.apache.sysml.hops.codegen.cplan.CNodeCell;
+import org.apache.sysml.hops.codegen.cplan.CNodeData;
+import org.apache.sysml.hops.codegen.cplan.CNodeUnary;
+import org.apache.sysml.hops.codegen.cplan.CNodeUnary.UnaryType;
+import org.apache.sysml.parser.Expression.DataType;
+import org.apache.sysml.runtime.codegen.CodegenUtils;
+import org.apache.sysml.runtime.codegen.SpoofCellwise.CellType;
+import org.apache.sysml.runtime.codegen.SpoofOperator;
+import org.apache.sysml.runtime.instructions.cp.DoubleObject;
+import org.apache.sysml.runtime.instructions.cp.ScalarObject;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Component tests for generated cellwise operators, which compare the 
+ * results of compiled cplans against a straightforward evaluation.
+ */
+public class CellwiseTemplateTest extends AutomatedTestBase 
+{
+	private final static int rows = 1201;
+	private final static int cols = 1001;
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.1;
+	private final static int k = 4;
+	private final static double eps = 1e-8;
+	
+	private enum TestType {
+		SUM_WSQ,      //sum(X * (Y - Z)^2)
+		EXP_MULT_ADD, //exp(X) * Y + s
+		SQRT_MULT,    //sqrt(X) * Y 
+		ROWSUMS_MULT, //rowSums(X * Y)
+	}
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testSumWsqDense() {
+		runCellwiseTemplateTest(TestType.SUM_WSQ, sparsity1, 1);
+	}
+	
+	@Test
+	public void testSumWsqSparse() {
+		runCellwiseTemplateTest(TestType.SUM_WSQ, sparsity2, 1);
+	}
+	
+	@Test
+	public void testSumWsqSparseMT() {
+		runCellwiseTemplateTest(TestType.SUM_WSQ, sparsity2, k);
+	}
+	
+	@Test
+	public void testExpMultAddDense() {
+		runCellwiseTemplateTest(TestType.EXP_MULT_ADD, sparsity1, 1);
+	}
+	
+	@Test
+	public void testExpMultAddSparseMT() {
+		runCellwiseTemplateTest(TestType.EXP_MULT_ADD, sparsity2, k);
+	}
+	
+	@Test
+	public void testSqrtMultDenseMT() {
+		runCellwiseTemplateTest(TestType.SQRT_MULT, sparsity1, k);
+	}
+	
+	@Test
+	public void testSqrtMultSparse() {
+		runCellwiseTemplateTest(TestType.SQRT_MULT, sparsity2, 1);
+	}
+	
+	@Test
+	public void testSqrtMultSparseMT() {
+		runCellwiseTemplateTest(TestType.SQRT_MULT, sparsity2, k);
+	}
+	
+	@Test
+	public void testRowSumsMultDense() {
+		runCellwiseTemplateTest(TestType.ROWSUMS_MULT, sparsity1, 1);
+	}
+	
+	@Test
+	public void testRowSumsMultSparseMT() {
+		runCellwiseTemplateTest(TestType.ROWSUMS_MULT, sparsity2, k);
+	}
+	
+	@Test
+	public void testClassReuse() {
+		try {
+			String src1 = createCPlan(TestType.SUM_WSQ).codegen();
+			String src2 = createCPlan(TestType.SUM_WSQ).codegen();
+			Assert.assertEquals(src1, src2);
+			Assert.assertTrue(CodegenUtils.getOrCompileClass(src1) 
+				== CodegenUtils.getOrCompileClass(src2));
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param type
+	 * @param sp
+	 * @param numThreads
+	 */
+	private void runCellwiseTemplateTest( TestType type, double sp, int numThreads )
+	{
+		try
+		{
+			//generate input data
+			double[][] X = getRandomMatrix(rows, cols, 0, 1, sp, 7);
+			double[][] Y = getRandomMatrix(rows, cols, -1, 1, 1.0, 3);
+			double[][] Z = getRandomMatrix(rows, cols, -1, 1, 1.0, 5);
+			ArrayList<MatrixBlock> inputs = new ArrayList<MatrixBlock>();
+			inputs.add(toMatrixBlock(X));
+			inputs.add(toMatrixBlock(Y));
+			if( type == TestType.SUM_WSQ )
+				inputs.add(toMatrixBlock(Z));
+			ArrayList<ScalarObject> scalars = new ArrayList<ScalarObject>();
+			if( type == TestType.EXP_MULT_ADD )
+				scalars.add(new DoubleObject(7));
+			
+			//compile and execute generated operator
+			CNodeCell cplan = createCPlan(type);
+			SpoofOperator op = CodegenUtils.createInstance(
+				CodegenUtils.getOrCompileClass(cplan.codegen()));
+			
+			if( type == TestType.SUM_WSQ ) {
+				double ret = op.execute(inputs, scalars, numThreads).getDoubleValue();
+				double expected = 0;
+				for( int i=0; i<rows; i++ )
+					for( int j=0; j<cols; j++ )
+						expected += X[i][j] * (Y[i][j]-Z[i][j]) * (Y[i][j]-Z[i][j]);
+				TestUtils.compareScalars(expected, ret, eps);
+			}
+			else {
+				MatrixBlock out = new MatrixBlock();
+				op.execute(inputs, scalars, out, numThreads);
+				int ocols = (type == TestType.ROWSUMS_MULT) ? 1 : cols;
+				double[][] expected = new double[rows][ocols];
+				for( int i=0; i<rows; i++ )
+					for( int j=0; j<cols; j++ ) {
+						if( type == TestType.EXP_MULT_ADD )
+							expected[i][j] = Math.exp(X[i][j]) * Y[i][j] + 7;
+						else if( type == TestType.SQRT_MULT )
+							expected[i][j] = Math.sqrt(X[i][j]) * Y[i][j];
+						else
+							expected[i][0] += X[i][j] * Y[i][j];
+					}
+				TestUtils.compareMatrices(expected, DataConverter.convertToDoubleMatrix(out), rows, ocols, eps);
+				
+				//check maintained number of non-zeros
+				long nnz = out.getNonZeros();
+				out.recomputeNonZeros();
+				Assert.assertEquals(out.getNonZeros(), nnz);
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param type
+	 * @return
+	 */
+	private static CNodeCell createCPlan( TestType type ) 
+	{
+		CNodeData X = new CNodeData(1, DataType.MATRIX);
+		CNodeData Y = new CNodeData(2, DataType.MATRIX);
+		CNodeData Z = new CNodeData(3, DataType.MATRIX);
+		CNodeData s = new CNodeData(4, DataType.SCALAR);
+		ArrayList<CNodeData> none = new ArrayList<CNodeData>();
+		
+		switch( type ) {
+			case SUM_WSQ: {
+				CNode minus = new CNodeBinary(Y, Z, BinType.MINUS);
+				CNode pow2 = new CNodeBinary(minus, minus, BinType.POW2);
+				CNode mult = new CNodeBinary(X, pow2, BinType.MULT);
+				return new CNodeCell(mult, CellType.FULL_AGG, X, 
+						new ArrayList<CNodeData>(Arrays.asList(Y, Z)), none);
+			}
+			case EXP_MULT_ADD: {
+				CNode exp = new CNodeUnary(X, UnaryType.EXP);
+				CNode mult = new CNodeBinary(exp, Y, BinType.MULT);
+				CNode plus = new CNodeBinary(mult, s, BinType.PLUS);
+				return new CNodeCell(plus, CellType.NO_AGG, X, 
+						new ArrayList<CNodeData>(Arrays.asList(Y)), 
+						new ArrayList<CNodeData>(Arrays.asList(s)));
+			}
+			case SQRT_MULT: {
+				CNode sqrt = new CNodeUnary(X, UnaryType.SQRT);
+				CNode mult = new CNodeBinary(sqrt, Y, BinType.MULT);
+				return new CNodeCell(mult, CellType.NO_AGG, X, 
+						new ArrayList<CNodeData>(Arrays.asList(Y)), none);
+			}
+			case ROWSUMS_MULT: {
+				CNode mult = new CNodeBinary(X, Y, BinType.MULT);
+				return new CNodeCell(mult, CellType.ROW_AGG, X, 
+						new ArrayList<CNodeData>(Arrays.asList(Y)), none);
+			}
+			default:
+				throw new RuntimeException("Unsupported test type: "+type);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param data
+	 * @return
+	 * @throws Exception
+	 */
+	private static MatrixBlock toMatrixBlock( double[][] data ) 
+		throws Exception 
+	{
+		MatrixBlock ret = DataConverter.convertToMatrixBlock(data);
+		ret.examSparsity();
+		return ret;
+	}
+}
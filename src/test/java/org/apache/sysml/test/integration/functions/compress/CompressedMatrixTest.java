@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.test.integration.functions.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.sysml.lops.MMTSJ.MMTSJType;
+import org.apache.sysml.lops.MapMultChain.ChainType;
+import org.apache.sysml.runtime.compress.CompressedMatrixBlock;
+import org.apache.sysml.runtime.functionobjects.Multiply;
+import org.apache.sysml.runtime.functionobjects.Plus;
+import org.apache.sysml.runtime.instructions.InstructionUtils;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixIndexes;
+import org.apache.sysml.runtime.matrix.operators.AggregateBinaryOperator;
+import org.apache.sysml.runtime.matrix.operators.AggregateOperator;
+import org.apache.sysml.runtime.matrix.operators.AggregateUnaryOperator;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Component tests comparing the results of operations on compressed matrix
+ * blocks against the same operations on uncompressed matrix blocks.
+ */
+public class CompressedMatrixTest extends AutomatedTestBase 
+{
+	private final static int rows = 2701;
+	private final static int cols = 13;
+	private final static double sparsity1 = 0.9;
+	private final static double sparsity2 = 0.1;
+	private final static double eps = 1e-8;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testDenseDecompress() {
+		runCompressedTest(sparsity1, "decompress");
+	}
+	
+	@Test
+	public void testSparseDecompress() {
+		runCompressedTest(sparsity2, "decompress");
+	}
+	
+	@Test
+	public void testDenseSerialize() {
+		runCompressedTest(sparsity1, "serialize");
+	}
+	
+	@Test
+	public void testSparseSerialize() {
+		runCompressedTest(sparsity2, "serialize");
+	}
+	
+	@Test
+	public void testDenseMatrixVectorMult() {
+		runCompressedTest(sparsity1, "mv");
+	}
+	
+	@Test
+	public void testSparseMatrixVectorMult() {
+		runCompressedTest(sparsity2, "mv");
+	}
+	
+	@Test
+	public void testDenseVectorMatrixMult() {
+		runCompressedTest(sparsity1, "vm");
+	}
+	
+	@Test
+	public void testSparseVectorMatrixMult() {
+		runCompressedTest(sparsity2, "vm");
+	}
+	
+	@Test
+	public void testDenseMMChain() {
+		runCompressedTest(sparsity1, "mmchain");
+	}
+	
+	@Test
+	public void testSparseMMChain() {
+		runCompressedTest(sparsity2, "mmchain");
+	}
+	
+	@Test
+	public void testDenseTransposeSelfMM() {
+		runCompressedTest(sparsity1, "tsmm");
+	}
+	
+	@Test
+	public void testSparseTransposeSelfMM() {
+		runCompressedTest(sparsity2, "tsmm");
+	}
+	
+	@Test
+	public void testDenseSum() {
+		runCompressedTest(sparsity1, "uak+");
+	}
+	
+	@Test
+	public void testSparseSum() {
+		runCompressedTest(sparsity2, "uak+");
+	}
+	
+	@Test
+	public void testDenseRowSums() {
+		runCompressedTest(sparsity1, "uark+");
+	}
+	
+	@Test
+	public void testSparseRowSums() {
+		runCompressedTest(sparsity2, "uark+");
+	}
+	
+	@Test
+	public void testDenseColSums() {
+		runCompressedTest(sparsity1, "uack+");
+	}
+	
+	@Test
+	public void testSparseColSums() {
+		runCompressedTest(sparsity2, "uack+");
+	}
+	
+	@Test
+	public void testDenseSumSq() {
+		runCompressedTest(sparsity1, "uasqk+");
+	}
+	
+	@Test
+	public void testDenseMax() {
+		runCompressedTest(sparsity1, "uamax");
+	}
+	
+	@Test
+	public void testSparseMin() {
+		runCompressedTest(sparsity2, "uamin");
+	}
+	
+	@Test
+	public void testSparseRowMax() {
+		runCompressedTest(sparsity2, "uarmax");
+	}
+	
+	@Test
+	public void testDenseColMin() {
+		runCompressedTest(sparsity1, "uacmin");
+	}
+	
+	/**
+	 * 
+	 * @param sparsity
+	 * @param optype
+	 */
+	private void runCompressedTest(double sparsity, String optype)
+	{
+		try
+		{
+			//generate input data with few distinct values per column
+			double[][] A = TestUtils.round(getRandomMatrix(rows, cols, 0, 10, sparsity, 7));
+			MatrixBlock mb = DataConverter.convertToMatrixBlock(A);
+			
+			//compress given matrix block
+			MatrixBlock cmb = CompressedMatrixBlock.compress(mb, 4);
+			if( !(cmb instanceof CompressedMatrixBlock) )
+				Assert.fail("Input matrix was not compressed.");
+			
+			MatrixBlock ret1 = null, ret2 = null;
+			if( optype.equals("decompress") ) {
+				ret1 = mb;
+				ret2 = ((CompressedMatrixBlock)cmb).decompress(4);
+			}
+			else if( optype.equals("serialize") ) {
+				ByteArrayOutputStream bos = new ByteArrayOutputStream();
+				DataOutputStream dos = new DataOutputStream(bos);
+				cmb.write(dos);
+				dos.flush();
+				Assert.assertEquals(cmb.getExactSizeOnDisk(), bos.size());
+				CompressedMatrixBlock tmp = new CompressedMatrixBlock();
+				tmp.readFields(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+				ret1 = mb;
+				ret2 = tmp.decompress();
+			}
+			else if( optype.equals("mv") || optype.equals("vm") ) {
+				boolean right = optype.equals("mv");
+				double[][] v = getRandomMatrix(right?cols:1, right?1:rows, -1, 1, 1.0, 3);
+				MatrixBlock vb = DataConverter.convertToMatrixBlock(v);
+				AggregateOperator agg = new AggregateOperator(0, Plus.getPlusFnObject());
+				AggregateBinaryOperator op = new AggregateBinaryOperator(Multiply.getMultiplyFnObject(), agg, 4);
+				ret1 = (MatrixBlock) (right ? mb.aggregateBinaryOperations(mb, vb, new MatrixBlock(), op) :
+					mb.aggregateBinaryOperations(vb, mb, new MatrixBlock(), op));
+				ret2 = (MatrixBlock) (right ? cmb.aggregateBinaryOperations(cmb, vb, new MatrixBlock(), op) :
+					cmb.aggregateBinaryOperations(vb, cmb, new MatrixBlock(), op));
+			}
+			else if( optype.equals("mmchain") ) {
+				double[][] v = getRandomMatrix(cols, 1, -1, 1, 1.0, 3);
+				MatrixBlock vb = DataConverter.convertToMatrixBlock(v);
+				ret1 = mb.chainMatrixMultOperations(vb, null, new MatrixBlock(), ChainType.XtXv, 4);
+				ret2 = cmb.chainMatrixMultOperations(vb, null, new MatrixBlock(), ChainType.XtXv, 4);
+			}
+			else if( optype.equals("tsmm") ) {
+				ret1 = mb.transposeSelfMatrixMultOperations(new MatrixBlock(), MMTSJType.LEFT, 4);
+				ret2 = cmb.transposeSelfMatrixMultOperations(new MatrixBlock(), MMTSJType.LEFT, 4);
+			}
+			else { //unary aggregates
+				AggregateUnaryOperator op = InstructionUtils.parseBasicAggregateUnaryOperator(optype);
+				MatrixIndexes ix = new MatrixIndexes(1, 1);
+				ret1 = (MatrixBlock) mb.aggregateUnaryOperations(op, new MatrixBlock(), rows, cols, ix, true);
+				ret2 = (MatrixBlock) cmb.aggregateUnaryOperations(op, new MatrixBlock(), rows, cols, ix, true);
+			}
+			
+			//compare results
+			double[][] d1 = DataConverter.convertToDoubleMatrix(ret1);
+			double[][] d2 = DataConverter.convertToDoubleMatrix(ret2);
+			TestUtils.compareMatrices(d1, d2, ret1.getNumRows(), ret1.getNumColumns(), eps);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+}
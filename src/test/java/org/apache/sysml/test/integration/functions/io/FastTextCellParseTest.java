@@ -0,0 +1,391 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.test.integration.functions.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.runtime.io.IOUtilFunctions;
+import org.apache.sysml.runtime.io.LocalByteRangeReader;
+import org.apache.sysml.runtime.io.LocalByteRangeReader.ByteRange;
+import org.apache.sysml.runtime.io.ReaderTextCellParallel.ReadTaskLocal;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.util.FastByteTokenizer;
+import org.apache.sysml.runtime.util.LocalFileUtils;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Tests the byte-level parsing of local text cell files, i.e., the fast double 
+ * parsing of FastByteTokenizer (bit-identical to Double.parseDouble) as well as 
+ * line splitting of LocalByteRangeReader and parallel read tasks for byte ranges 
+ * with boundaries inside lines and at line ends, across multiple files.
+ */
+public class FastTextCellParseTest extends AutomatedTestBase 
+{
+	private final static String TEST_DIR = "functions/io/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + FastTextCellParseTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 23;
+	private final static int cols = 7;
+	private final static int numFiles = 3;
+	private final static int numRandom = 100000;
+	
+	//special cases: signed zeros, long mantissas, exponent bounds, 
+	//subnormals, missing integer or fraction digits, and NaN/Infinity
+	private final static String[] SPECIAL_VALUES = new String[] {
+		"0", "-0", "+0", "0.0", "-0.0", "-0e10", "0e-400", "00000.000", 
+		"1", "-1", "+1.5", "7.0", ".5", "-.5", "1.", "-1.", "1.e3", ".5e-3",
+		"1e5", "1e+5", "1E5", "1E+05", "1e-5", "1e22", "1e23", "1e-22", "1e-23", 
+		"0.1", "0.3", "123.456", "3.141592653589793", "2.718281828459045",
+		"9007199254740991", "9007199254740992", "9007199254740993", 
+		"123456789012345678", "1234567890123456789", "12345678901234567890",
+		"1234567890123456789012345", "0.1234567890123456789012345",
+		"99999999999999999999999e-3", "0.000000000000000000000000001",
+		"1.7976931348623157e308", "1.7976931348623158e308", "1.7976931348623159e308", 
+		"1e308", "1e309", "-1e309", "2.2250738585072014E-308", "2.2250738585072011E-308", 
+		"2.225073858507201e-308", "4.9e-324", "-4.9e-324", "2.4703282292062327e-324", 
+		"2.4703282292062328e-324", "1e-324", "1e-400", "1e-1000000000", "1e1000000000",
+		"NaN", "-NaN", "+NaN", "Infinity", "-Infinity", "+Infinity" };
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testParseSpecialValues() {
+		runParseDoubleTest(SPECIAL_VALUES);
+	}
+	
+	@Test
+	public void testParseRandomValues() {
+		Random rand = new Random(7);
+		String[] values = new String[numRandom];
+		for( int i=0; i<numRandom; i++ )
+			values[i] = createRandomNumber(rand);
+		runParseDoubleTest(values);
+	}
+	
+	@Test
+	public void testParseCellLines() {
+		FastByteTokenizer st = new FastByteTokenizer();
+		byte[] buf = "7\t3 -0.5\r".getBytes(StandardCharsets.UTF_8);
+		st.reset(buf, 0, buf.length);
+		Assert.assertEquals(7, st.nextInt());
+		Assert.assertEquals(3, st.nextInt());
+		Assert.assertEquals(-0.5, st.nextDouble(), 0);
+		Assert.assertFalse(st.hasMoreTokens());
+		
+		//empty lines w/ windows line ending
+		buf = " \r".getBytes(StandardCharsets.UTF_8);
+		st.reset(buf, 0, buf.length);
+		Assert.assertFalse(st.hasMoreTokens());
+	}
+	
+	@Test
+	public void testLineSplitsSingleLineEnding() {
+		runLineSplitTest(false, false);
+	}
+	
+	@Test
+	public void testLineSplitsMixedLineEndings() {
+		runLineSplitTest(true, false);
+	}
+	
+	@Test
+	public void testLineSplitsLongLine() {
+		runLineSplitTest(true, true);
+	}
+	
+	@Test
+	public void testReadTextCellDenseByteRanges() {
+		runReadTextCellTest(false);
+	}
+	
+	@Test
+	public void testReadTextCellSparseByteRanges() {
+		runReadTextCellTest(true);
+	}
+	
+	/**
+	 * 
+	 * @param values
+	 */
+	private void runParseDoubleTest( String[] values ) 
+	{
+		//concatenate all values into a single line w/ mixed delimiters
+		StringBuilder sb = new StringBuilder();
+		for( int i=0; i<values.length; i++ ) {
+			sb.append(values[i]);
+			sb.append((i%3==0) ? "\t" : (i%3==1) ? " " : "  ");
+		}
+		sb.append("\r");
+		byte[] buf = sb.toString().getBytes(StandardCharsets.UTF_8);
+		
+		//compare bit patterns to string-based parsing
+		FastByteTokenizer st = new FastByteTokenizer();
+		st.reset(buf, 0, buf.length);
+		for( String val : values ) {
+			long expected = Double.doubleToRawLongBits(Double.parseDouble(val));
+			long actual = Double.doubleToRawLongBits(st.nextDouble());
+			Assert.assertEquals("Wrong result for '"+val+"'.", expected, actual);
+		}
+		Assert.assertFalse(st.hasMoreTokens());
+	}
+	
+	/**
+	 * 
+	 * @param mixed
+	 * @param longLine
+	 */
+	private void runLineSplitTest( boolean mixed, boolean longLine ) 
+	{
+		String dir = TEST_DATA_DIR + TEST_CLASS_DIR;
+		File file = new File(dir, "lines.txt");
+		
+		try
+		{
+			//create lines of different lengths, incl empty lines, an optional line 
+			//larger than the read buffer, and a last line w/o trailing line ending
+			List<String> lines = new ArrayList<String>();
+			for( int i=0; i<50; i++ )
+				lines.add((i%7==3) ? "" : createLine(i));
+			if( longLine ) {
+				StringBuilder sb = new StringBuilder();
+				for( int i=0; i<LocalByteRangeReader.DEFAULT_BUFFER_SIZE/9+1; i++ )
+					sb.append("1 1 1.25 ");
+				lines.add(25, sb.toString());
+			}
+			StringBuilder content = new StringBuilder();
+			for( int i=0; i<lines.size(); i++ ) {
+				content.append(lines.get(i));
+				if( i < lines.size()-1 )
+					content.append((mixed && i%2==0) ? "\r\n" : "\n");
+			}
+			writeFile(file, content.toString());
+			
+			//read lines for different byte range sizes (boundaries at all positions 
+			//inside lines, at carriage returns, and at line feeds)
+			long len = file.length();
+			int[] sizes = longLine ? new int[]{1000, 64*1024, LocalByteRangeReader.DEFAULT_BUFFER_SIZE, 
+				(int)len-1, (int)len, (int)len+1} : new int[]{1, 2, 3, 5, 7, 11, 13, 64, (int)len-1, (int)len, (int)len+1};
+			for( int blen : sizes ) {
+				List<String> actual = new ArrayList<String>();
+				for( long pos=0; pos < len; pos+=blen )
+					actual.addAll(readLines(file, pos, Math.min(pos+blen, len)));
+				Assert.assertEquals("Wrong number of lines for range size "+blen+".", lines.size(), actual.size());
+				for( int i=0; i<lines.size(); i++ ) {
+					String line = actual.get(i);
+					if( mixed && line.endsWith("\r") ) //remove carriage return
+						line = line.substring(0, line.length()-1);
+					Assert.assertEquals("Wrong line "+i+" for range size "+blen+".", lines.get(i), line);
+				}
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			LocalFileUtils.deleteFileIfExists(file.getAbsolutePath());
+		}
+	}
+	
+	/**
+	 * 
+	 * @param sparse
+	 */
+	private void runReadTextCellTest( boolean sparse ) 
+	{
+		String dir = TEST_DATA_DIR + TEST_CLASS_DIR + "cells/";
+		File[] files = new File[numFiles];
+		
+		try
+		{
+			//create text cell files of disjoint cells w/ mixed number formats,
+			//line endings, and an empty last line (expected results via parseDouble)
+			Random rand = new Random(3);
+			double[][] expected = new double[rows][cols];
+			int cell = 0;
+			for( int k=0; k<numFiles; k++ ) {
+				StringBuilder sb = new StringBuilder();
+				for( int i=k; i<rows; i+=numFiles )
+					for( int j=0; j<cols; j++ ) {
+						if( (i+j)%3 == 0 ) continue; //sparse cells
+						String val = SPECIAL_VALUES[cell++ % SPECIAL_VALUES.length];
+						while( Double.parseDouble(val)==0 || Double.isNaN(Double.parseDouble(val)) )
+							val = createRandomNumber(rand);
+						expected[i][j] = Double.parseDouble(val);
+						sb.append((i+1)+((j%2==0)?" ":"\t")+(j+1)+" "+val);
+						sb.append(((i+j)%2==0) ? "\r\n" : "\n");
+					}
+				if( k == numFiles-1 )
+					sb.append("\n");
+				files[k] = new File(dir, "part-"+k);
+				writeFile(files[k], sb.toString());
+			}
+			
+			//read via byte ranges of different sizes (incl boundaries at 
+			//all positions within lines and line endings of all files)
+			long maxlen = 0;
+			for( File f : files )
+				maxlen = Math.max(maxlen, f.length());
+			int[] sizes = new int[]{1, 2, 3, 7, 13, 29, 64, 256, (int)maxlen, (int)maxlen+1};
+			for( int blen : sizes ) {
+				MatrixBlock ret = new MatrixBlock(rows, cols, sparse);
+				if( sparse )
+					ret.allocateSparseRowsBlock();
+				else
+					ret.allocateDenseBlock();
+				long lnnz = 0;
+				for( File f : files )
+					for( long pos=0; pos < f.length(); pos+=blen )
+						lnnz += new ReadTaskLocal(new ByteRange(f, pos, 
+							Math.min(pos+blen, f.length())), ret, rows, cols, false).call();
+				ret.setNonZeros(lnnz);
+				if( sparse )
+					ret.sortSparseRows();
+				
+				//compare results (exact, w/o tolerance)
+				long nnz = 0;
+				for( int i=0; i<rows; i++ )
+					for( int j=0; j<cols; j++ ) {
+						Assert.assertEquals("Wrong value at ("+i+","+j+") for range size "+blen+".", 
+							expected[i][j], ret.quickGetValue(i, j), 0);
+						nnz += (expected[i][j]!=0) ? 1 : 0;
+					}
+				Assert.assertEquals(nnz, ret.getNonZeros());
+			}
+			
+			//read via all byte ranges of the parallel reader
+			for( int k=1; k<=8; k++ ) {
+				MatrixBlock ret = new MatrixBlock(rows, cols, false);
+				ret.allocateDenseBlock();
+				for( ByteRange range : LocalByteRangeReader.createByteRanges(files, k) )
+					new ReadTaskLocal(range, ret, rows, cols, false).call();
+				for( int i=0; i<rows; i++ )
+					for( int j=0; j<cols; j++ )
+						Assert.assertEquals(expected[i][j], ret.quickGetValue(i, j), 0);
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			LocalFileUtils.deleteFileIfExists(dir, true);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param file
+	 * @param start
+	 * @param end
+	 * @return
+	 * @throws IOException
+	 */
+	private static List<String> readLines( File file, long start, long end ) 
+		throws IOException
+	{
+		List<String> ret = new ArrayList<String>();
+		LocalByteRangeReader reader = new LocalByteRangeReader(file, start, end);
+		try {
+			while( reader.nextLine() )
+				ret.add(new String(reader.getBuffer(), reader.getLineStart(), 
+					reader.getLineEnd()-reader.getLineStart(), StandardCharsets.UTF_8));
+		}
+		finally {
+			IOUtilFunctions.closeSilently(reader);
+		}
+		return ret;
+	}
+	
+	/**
+	 * 
+	 * @param file
+	 * @param content
+	 * @throws IOException
+	 */
+	private static void writeFile( File file, String content ) 
+		throws IOException
+	{
+		file.getParentFile().mkdirs();
+		OutputStream os = new FileOutputStream(file);
+		try {
+			os.write(content.getBytes(StandardCharsets.UTF_8));
+		}
+		finally {
+			IOUtilFunctions.closeSilently(os);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param i
+	 * @return
+	 */
+	private static String createLine( int i ) {
+		return (i+1) + " " + (i%5+1) + " " + (0.25*i-3);
+	}
+	
+	/**
+	 * Creates a random number in one of various formats, incl random digit
+	 * sequences of up to 25 digits w/ and w/o decimal point and exponent.
+	 * 
+	 * @param rand
+	 * @return
+	 */
+	private static String createRandomNumber( Random rand ) 
+	{
+		switch( rand.nextInt(4) ) {
+			case 0: //shortest repr of random double
+				return Double.toString(Double.longBitsToDouble(rand.nextLong()));
+			case 1: //random double in common range
+				return Double.toString((rand.nextDouble()-0.5) * Math.pow(10, rand.nextInt(20)-10));
+			case 2: //fixed number of significant digits
+				return String.format(Locale.US, "%."+rand.nextInt(20)+"e", rand.nextGaussian()*1e6);
+			default: { //random digit sequence
+				StringBuilder sb = new StringBuilder();
+				if( rand.nextBoolean() )
+					sb.append(rand.nextBoolean() ? '-' : '+');
+				int ndigits = rand.nextInt(25)+1;
+				int dot = rand.nextInt(ndigits+2)-1;
+				for( int i=0; i<ndigits; i++ ) {
+					if( i == dot )
+						sb.append('.');
+					sb.append((char)('0'+rand.nextInt(10)));
+				}
+				if( rand.nextBoolean() )
+					sb.append(rand.nextBoolean()?'e':'E').append(rand.nextInt(700)-350);
+				return sb.toString();
+			}
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.io;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.runtime.io.ReaderRawBlock;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.data.InputInfo;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.OutputInfo;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+
+public class RawBlockReadWriteTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "RawBlockReadWriteTest";
+	private final static String TEST_DIR = "functions/io/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + RawBlockReadWriteTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 2345;
+	private final static int cols = 321;
+	private final static int blocksize = 1000;
+	
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.01;
+	
+	private final static double eps = 1e-10;
+	
+	//small segment size (not a multiple of row or block sizes) to force many segments per block
+	private final static long segsize = 4104;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] { "X" }) ); 
+	}
+	
+	@Test
+	public void testReadWriteDense() {
+		runRawBlockReadWriteTest(sparsity1, false, false);
+	}
+	
+	@Test
+	public void testReadWriteSparse() {
+		runRawBlockReadWriteTest(sparsity2, false, false);
+	}
+	
+	@Test
+	public void testReadRangeDense() {
+		runRawBlockReadWriteTest(sparsity1, true, false);
+	}
+	
+	@Test
+	public void testReadRangeSparse() {
+		runRawBlockReadWriteTest(sparsity2, true, false);
+	}
+	
+	@Test
+	public void testReadWriteDenseSegmented() {
+		runRawBlockReadWriteTest(sparsity1, false, true);
+	}
+	
+	@Test
+	public void testReadWriteSparseSegmented() {
+		runRawBlockReadWriteTest(sparsity2, false, true);
+	}
+	
+	@Test
+	public void testReadRangeDenseSegmented() {
+		runRawBlockReadWriteTest(sparsity1, true, true);
+	}
+	
+	@Test
+	public void testReadRangeSparseSegmented() {
+		runRawBlockReadWriteTest(sparsity2, true, true);
+	}
+	
+	/**
+	 * 
+	 * @param sparsity
+	 * @param range
+	 * @param segmented read blocks in many small segments instead of a single mapping
+	 */
+	private void runRawBlockReadWriteTest( double sparsity, boolean range, boolean segmented ) 
+	{
+		long oldSegSize = ReaderRawBlock.MAX_SEGMENT_SIZE;
+		
+		try
+		{
+			if( segmented )
+				ReaderRawBlock.MAX_SEGMENT_SIZE = segsize;
+			
+			loadTestConfiguration(getTestConfiguration(TEST_NAME));
+			
+			double[][] X = getRandomMatrix(rows, cols, -1, 1, sparsity, 7);
+			MatrixBlock mb = DataConverter.convertToMatrixBlock(X);
+			MatrixCharacteristics mc = new MatrixCharacteristics(rows, cols, blocksize, blocksize, mb.getNonZeros());
+			String fname = output("X");
+			DataConverter.writeMatrixToHDFS(mb, fname, OutputInfo.RawBlockOutputInfo, mc);
+			
+			if( !range ) {
+				MatrixBlock ret = DataConverter.readMatrixFromHDFS(fname, 
+						InputInfo.RawBlockInputInfo, rows, cols, blocksize, blocksize);
+				Assert.assertEquals(mb.getNonZeros(), ret.getNonZeros());
+				TestUtils.compareMatrices(X, DataConverter.convertToDoubleMatrix(ret), rows, cols, eps);
+			}
+			else {
+				//row range across block boundaries, column range within rows
+				int rl = 517, ru = 1733, cl = 13, cu = 200;
+				MatrixBlock ret = new ReaderRawBlock(false).readMatrixRangeFromHDFS(fname, rl, ru, cl, cu);
+				double[][] R = DataConverter.convertToDoubleMatrix(ret);
+				double[][] E = new double[ru-rl+1][cu-cl+1];
+				for( int i=rl; i<=ru; i++ )
+					System.arraycopy(X[i], cl, E[i-rl], 0, cu-cl+1);
+				TestUtils.compareMatrices(E, R, ru-rl+1, cu-cl+1, eps);
+			}
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			ReaderRawBlock.MAX_SEGMENT_SIZE = oldSegSize;
+		}
+	}
+}
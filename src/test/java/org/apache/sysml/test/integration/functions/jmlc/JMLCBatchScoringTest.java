@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.test.integration.functions.jmlc;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.api.DMLException;
+import org.apache.sysml.api.jmlc.Connection;
+import org.apache.sysml.api.jmlc.PreparedScript;
+import org.apache.sysml.api.jmlc.PreparedScriptPool;
+import org.apache.sysml.api.jmlc.ResultVariables;
+import org.apache.sysml.conf.CompilerConfig;
+import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.conf.DMLConfig;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Tests batched scoring and concurrent scoring via a pool of
+ * prepared scripts against independent per-request scoring.
+ */
+public class JMLCBatchScoringTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "batch-scoring";
+	private final static String TEST_DIR = "functions/jmlc/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + JMLCBatchScoringTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 17;
+	private final static int cols = 31;
+	private final static int nRuns = 16;
+	private final static int poolSize = 4;
+	private final static double sparsity = 0.7;
+	private final static double eps = 1e-8;
+	
+	@Override
+	public void setUp() {
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] { "Y" }) ); 
+	}
+	
+	@Test
+	public void testJMLCBatchScoring() throws IOException {
+		runJMLCBatchScoringTest(false);
+	}
+	
+	@Test
+	public void testJMLCPooledScoring() throws IOException {
+		runJMLCBatchScoringTest(true);
+	}
+	
+	@Test
+	public void testJMLCBatchScoringSharedOutput() throws IOException {
+		runJMLCBatchScoringSharedOutputTest();
+	}
+	
+	@Test
+	public void testJMLCScoringRestoresThreadConfigs() throws Exception {
+		runJMLCScoringThreadConfigTest();
+	}
+	
+	/**
+	 * Scores on a separate (pooled) thread with its own thread-local configurations,
+	 * which need to be restored after execution of the prepared script.
+	 * 
+	 * @throws Exception
+	 */
+	private void runJMLCScoringThreadConfigTest() 
+		throws Exception
+	{
+		TestConfiguration config = getTestConfiguration(TEST_NAME);
+		loadTestConfiguration(config);
+		
+		final double[][] W = getRandomMatrix(cols, 3, -0.1, 0.1, 1.0, 7);
+		final double[][] X = getRandomMatrix(rows, cols, -1, 1, sparsity, 3);
+		
+		Connection conn = new Connection();
+		ExecutorService exec = Executors.newSingleThreadExecutor();
+		try
+		{
+			String script = conn.readScript(SCRIPT_DIR + TEST_DIR + TEST_NAME + ".dml");
+			final PreparedScript pstmt = conn.prepareScript(script, new String[]{"X","W"}, new String[]{"Y"}, false);
+			pstmt.setMatrix("W", W, true);
+			pstmt.setMatrix("X", X);
+			
+			Future<Boolean> ret = exec.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() throws Exception {
+					DMLConfig dmlconf = new DMLConfig();
+					CompilerConfig cconf = new CompilerConfig();
+					ConfigurationManager.setLocalConfig(dmlconf);
+					ConfigurationManager.setLocalConfig(cconf);
+					pstmt.executeScript().getMatrix("Y");
+					return ConfigurationManager.getDMLConfig() == dmlconf
+						&& ConfigurationManager.getCompilerConfig() == cconf;
+				}
+			});
+			Assert.assertTrue("Thread-local configurations not restored.", ret.get());
+		}
+		finally {
+			exec.shutdown();
+			conn.close();
+		}
+	}
+	
+	/**
+	 * 
+	 * @param pooled
+	 * @throws IOException
+	 */
+	private void runJMLCBatchScoringTest( boolean pooled ) 
+		throws IOException
+	{
+		TestConfiguration config = getTestConfiguration(TEST_NAME);
+		loadTestConfiguration(config);
+		
+		//generate inputs (variable number of rows per request)
+		final double[][] W = getRandomMatrix(cols, 3, -0.1, 0.1, 1.0, 7);
+		final ArrayList<double[][]> Xset = new ArrayList<double[][]>();
+		for( int i=0; i<nRuns; i++ )
+			Xset.add(getRandomMatrix(rows+i, cols, -1, 1, sparsity, i+3));
+		
+		Connection conn = new Connection();
+		try
+		{
+			String script = conn.readScript(SCRIPT_DIR + TEST_DIR + TEST_NAME + ".dml");
+			PreparedScript pstmt = conn.prepareScript(script, new String[]{"X","W"}, new String[]{"Y"}, false);
+			pstmt.setMatrix("W", W, true);
+			
+			//reference: independent per-request scoring
+			ArrayList<double[][]> expected = new ArrayList<double[][]>();
+			for( double[][] X : Xset ) {
+				pstmt.setMatrix("X", X);
+				expected.add(pstmt.executeScript().getMatrix("Y"));
+			}
+			
+			//batched or pooled scoring
+			ArrayList<double[][]> actual = new ArrayList<double[][]>();
+			if( !pooled ) {
+				ResultVariables[] rs = pstmt.executeScriptBatch("X", Xset.toArray(new double[0][][]));
+				for( ResultVariables r : rs )
+					actual.add(r.getMatrix("Y"));
+			}
+			else {
+				final PreparedScriptPool pool = new PreparedScriptPool(pstmt, poolSize);
+				ExecutorService exec = Executors.newFixedThreadPool(poolSize);
+				List<Future<double[][]>> futures = new ArrayList<Future<double[][]>>();
+				for( final double[][] X : Xset )
+					futures.add(exec.submit(new Callable<double[][]>() {
+						@Override
+						public double[][] call() throws Exception {
+							PreparedScript ps = pool.borrowScript();
+							try {
+								ps.setMatrix("X", X);
+								return ps.executeScript().getMatrix("Y");
+							}
+							finally {
+								pool.returnScript(ps);
+							}
+						}
+					}));
+				exec.shutdown();
+				for( Future<double[][]> f : futures )
+					actual.add(f.get());
+				Assert.assertEquals(poolSize, pool.getNumAvailable());
+				pool.close();
+			}
+			
+			//compare results
+			Assert.assertEquals(expected.size(), actual.size());
+			for( int i=0; i<nRuns; i++ )
+				TestUtils.compareMatrices(expected.get(i), actual.get(i), rows+i, 1, eps);
+		}
+		catch(Exception ex) {
+			throw new IOException(ex);
+		}
+		finally {
+			conn.close();
+		}
+	}
+	
+	/**
+	 * 
+	 * @throws IOException
+	 */
+	private void runJMLCBatchScoringSharedOutputTest() 
+		throws IOException
+	{
+		TestConfiguration config = getTestConfiguration(TEST_NAME);
+		loadTestConfiguration(config);
+		
+		//generate inputs (variable number of rows per request)
+		double[][] W = getRandomMatrix(cols, 3, -0.1, 0.1, 1.0, 7);
+		double[][][] Xset = new double[nRuns][][];
+		for( int i=0; i<nRuns; i++ )
+			Xset[i] = getRandomMatrix(rows+i, cols, -1, 1, sparsity, i+3);
+		
+		Connection conn = new Connection();
+		try
+		{
+			String script = conn.readScript(SCRIPT_DIR + TEST_DIR + TEST_NAME + ".dml");
+			PreparedScript pstmt = conn.prepareScript(script, new String[]{"X","W"}, new String[]{"Y","C"}, false);
+			pstmt.setMatrix("W", W, true);
+			
+			//reference: independent per-request scoring and aggregate over all rows
+			ArrayList<double[][]> expected = new ArrayList<double[][]>();
+			double[][] Cexpected = new double[1][3];
+			for( double[][] X : Xset ) {
+				pstmt.setMatrix("X", X);
+				ResultVariables r = pstmt.executeScript();
+				expected.add(r.getMatrix("Y"));
+				double[][] C = r.getMatrix("C");
+				for( int j=0; j<3; j++ )
+					Cexpected[0][j] += C[0][j];
+			}
+			
+			//batched scoring w/ non-row-aligned output violates the default contract
+			try {
+				pstmt.executeScriptBatch("X", Xset);
+				Assert.fail("Expected exception for non-row-aligned batch output.");
+			}
+			catch(DMLException ex) {
+				//expected
+			}
+			
+			//batched scoring w/ explicit outputs to split
+			ResultVariables[] rs = pstmt.executeScriptBatch("X", Xset, new String[]{"Y"});
+			Assert.assertEquals(nRuns, rs.length);
+			for( int i=0; i<nRuns; i++ ) {
+				TestUtils.compareMatrices(expected.get(i), rs[i].getMatrix("Y"), rows+i, 1, eps);
+				TestUtils.compareMatrices(Cexpected, rs[i].getMatrix("C"), 1, 3, eps);
+			}
+		}
+		catch(Exception ex) {
+			throw new IOException(ex);
+		}
+		finally {
+			conn.close();
+		}
+	}
+}
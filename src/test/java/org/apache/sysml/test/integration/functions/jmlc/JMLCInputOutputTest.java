@@ -21,11 +21,18 @@ package org.apache.sysml.test.integration.functions.jmlc;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.HashMap;
 
 import org.apache.sysml.api.DMLException;
 import org.apache.sysml.api.jmlc.Connection;
 import org.apache.sysml.api.jmlc.PreparedScript;
+import org.apache.sysml.api.jmlc.ResultVariables;
 import org.apache.sysml.runtime.instructions.cp.ScalarObject;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlock;
+import org.apache.sysml.runtime.matrix.data.SparseBlockCSR;
 import org.apache.sysml.test.integration.AutomatedTestBase;
 import org.junit.Assert;
 import org.junit.Test;
@@ -198,4 +205,121 @@ public class JMLCInputOutputTest extends AutomatedTestBase {
 		conn.close();
 	}
 
+	@Test
+	public void testMatrixInputOutputZeroCopy() throws DMLException {
+		Connection conn = new Connection();
+		String str = "X = read('./tmp/X');\nY = X * 2;\nwrite(Y, './tmp/Y');";
+		PreparedScript script = conn.prepareScript(str, new String[] { "X" }, new String[] { "Y" }, false);
+		double[] expected = new double[] { 0, 2, 0, 4, 6, 0 };
+
+		// row-major dense input, dense output returned without copy
+		script.setMatrix("X", new double[] { 0, 1, 0, 2, 3, 0 }, 2, 3);
+		ResultVariables rs = script.executeScript();
+		Assert.assertArrayEquals(expected, rs.getMatrixRowMajor("Y"), 0);
+		Assert.assertSame(rs.getMatrixBlock("Y").getDenseBlock(), rs.getMatrixRowMajor("Y"));
+
+		// CSR sparse input
+		script.setMatrix("X", new int[] { 0, 1, 3 }, new int[] { 1, 0, 1 }, new double[] { 1, 2, 3 }, 2, 3);
+		Assert.assertArrayEquals(expected, script.executeScript().getMatrixRowMajor("Y"), 0);
+
+		// direct buffer input and output
+		DoubleBuffer in = ByteBuffer.allocateDirect(6 * 8).asDoubleBuffer();
+		in.put(new double[] { 0, 1, 0, 2, 3, 0 }).flip();
+		script.setMatrix("X", in, 2, 3);
+		DoubleBuffer out = ByteBuffer.allocateDirect(6 * 8).asDoubleBuffer();
+		script.executeScript().getMatrix("Y", out);
+		for (int i = 0; i < expected.length; i++)
+			Assert.assertEquals(expected[i], out.get(i), 0);
+
+		// inputs are wrapped without copy (output of identity is the input block)
+		String str2 = "X = read('./tmp/X');\nY = X;\nwrite(Y, './tmp/Y');";
+		PreparedScript script2 = conn.prepareScript(str2, new String[] { "X" }, new String[] { "Y" }, false);
+		double[] dense = new double[] { 0, 1, 0, 2, 3, 0 };
+		script2.setMatrix("X", dense, 2, 3);
+		ResultVariables rs2 = script2.executeScript();
+		Assert.assertSame(dense, rs2.getMatrixBlock("Y").getDenseBlock());
+		Assert.assertSame(dense, rs2.getMatrixRowMajor("Y"));
+
+		int[] colIdx = new int[] { 1, 0, 1 };
+		double[] vals = new double[] { 1, 2, 3 };
+		script2.setMatrix("X", new int[] { 0, 1, 3 }, colIdx, vals, 2, 3);
+		MatrixBlock mb = script2.executeScript().getMatrixBlock("Y");
+		Assert.assertTrue(mb.isInSparseFormat());
+		SparseBlock sblock = mb.getSparseBlock();
+		Assert.assertTrue(sblock instanceof SparseBlockCSR);
+		Assert.assertSame(colIdx, sblock.indexes(0));
+		Assert.assertSame(vals, sblock.values(0));
+		conn.close();
+	}
+
+	@Test
+	public void testMatrixInputMalformedCSR() throws DMLException {
+		Connection conn = new Connection();
+		String str = "X = read('./tmp/X');\nY = X * 2;\nwrite(Y, './tmp/Y');";
+		PreparedScript script = conn.prepareScript(str, new String[] { "X" }, new String[] { "Y" }, false);
+		int[] colIdx = new int[] { 1, 0, 1 };
+		double[] vals = new double[] { 1, 2, 3 };
+
+		// invalid row pointer length, start, monotonicity, and nnz
+		checkMalformedCSR(script, new int[] { 0, 1 }, colIdx, vals);
+		checkMalformedCSR(script, new int[] { 1, 1, 3 }, colIdx, vals);
+		checkMalformedCSR(script, new int[] { 0, 2, 1 }, colIdx, vals);
+		checkMalformedCSR(script, new int[] { 0, 1, 4 }, colIdx, vals);
+
+		// invalid or unsorted column indexes
+		checkMalformedCSR(script, new int[] { 0, 1, 3 }, new int[] { 3, 0, 1 }, vals);
+		checkMalformedCSR(script, new int[] { 0, 1, 3 }, new int[] { -1, 0, 1 }, vals);
+		checkMalformedCSR(script, new int[] { 0, 1, 3 }, new int[] { 1, 1, 0 }, vals);
+		conn.close();
+	}
+
+	private static void checkMalformedCSR(PreparedScript script, int[] rowPtr, int[] colIdx, double[] vals) {
+		try {
+			script.setMatrix("X", rowPtr, colIdx, vals, 2, 3);
+			Assert.fail("Malformed CSR input not rejected.");
+		}
+		catch (DMLException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testPreparedScriptPlanCache() throws DMLException {
+		Connection conn = new Connection();
+		String str = "X = read('./tmp/X');\nY = sum(X) + $c;\nwrite(Y, './tmp/Y');";
+		HashMap<String, String> args = new HashMap<String, String>();
+		args.put("$c", "7");
+		double[][] X = new double[][] { { 1, 2 }, { 3, 4 } };
+
+		// first compile, then two cache hits w/ independent programs
+		for (int i = 0; i < 3; i++) {
+			PreparedScript script = conn.prepareScript(str, args, new String[] { "X" }, new String[] { "Y" }, false);
+			script.setMatrix("X", X);
+			Assert.assertEquals(17, script.executeScript().getDouble("Y"), 0);
+			Assert.assertEquals(i, conn.getPlanCacheHits());
+			Assert.assertEquals(1, conn.getPlanCacheMisses());
+		}
+
+		// different arguments must not hit the cached plan
+		args.put("$c", "3");
+		PreparedScript script = conn.prepareScript(str, args, new String[] { "X" }, new String[] { "Y" }, false);
+		script.setMatrix("X", X);
+		Assert.assertEquals(13, script.executeScript().getDouble("Y"), 0);
+		Assert.assertEquals(2, conn.getPlanCacheHits());
+		Assert.assertEquals(2, conn.getPlanCacheMisses());
+
+		// different registered inputs must not hit the cached plan
+		PreparedScript script2 = conn.prepareScript(str, args, new String[] { "X", "Z" }, new String[] { "Y" }, false);
+		script2.setMatrix("X", X);
+		Assert.assertEquals(13, script2.executeScript().getDouble("Y"), 0);
+		Assert.assertEquals(2, conn.getPlanCacheHits());
+		Assert.assertEquals(3, conn.getPlanCacheMisses());
+
+		// same arguments and inputs hit the cached plan again
+		conn.prepareScript(str, args, new String[] { "X" }, new String[] { "Y" }, false);
+		Assert.assertEquals(3, conn.getPlanCacheHits());
+		Assert.assertEquals(3, conn.getPlanCacheMisses());
+		conn.close();
+	}
+
 }
\ No newline at end of file
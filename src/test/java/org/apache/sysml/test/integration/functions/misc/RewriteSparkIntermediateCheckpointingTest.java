@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.test.integration.functions.misc;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.hops.DataOp;
+import org.apache.sysml.hops.Hop;
+import org.apache.sysml.hops.Hop.DataOpTypes;
+import org.apache.sysml.hops.Hop.OpOp1;
+import org.apache.sysml.hops.Hop.OpOp2;
+import org.apache.sysml.hops.LiteralOp;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.hops.cost.CheckpointCostModel;
+import org.apache.sysml.hops.rewrite.HopRewriteUtils;
+import org.apache.sysml.lops.Checkpoint;
+import org.apache.sysml.parser.Expression.DataType;
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+import org.apache.sysml.utils.Statistics;
+
+/**
+ * Tests the cost-based checkpointing of Spark intermediates, i.e., the cost model 
+ * for checkpoint placement and storage levels, as well as the injection of checkpoints
+ * for intermediates with multiple consumers but not for intermediates with a single
+ * consumer (w/ and w/o the rewrite).
+ */
+public class RewriteSparkIntermediateCheckpointingTest extends AutomatedTestBase 
+{
+	private static final String TEST_NAME1 = "RewriteSparkCheckpointing1"; //multiple consumers
+	private static final String TEST_NAME2 = "RewriteSparkCheckpointing2"; //single consumer
+	
+	private static final String TEST_DIR = "functions/misc/";
+	private static final String TEST_CLASS_DIR = TEST_DIR + RewriteSparkIntermediateCheckpointingTest.class.getSimpleName() + "/";
+	
+	private static final String CHKPOINT_OPCODE = "SP_chkpoint";
+	
+	private static final int rows = 500;
+	private static final double eps = Math.pow(10, -10);
+	
+	@Override
+	public void setUp() 
+	{
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration( TEST_NAME1, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1, new String[] { "R" }) );
+		addTestConfiguration( TEST_NAME2, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME2, new String[] { "R" }) );
+	}
+	
+	@Test
+	public void testCheckpointBenefit() throws Exception {
+		//intermediate w/ lineage of three operations
+		DataOp X = createRead(rows, rows);
+		Hop T = createIntermediate(X);
+		Assert.assertTrue(CheckpointCostModel.estimateRecomputeCost(T) > CheckpointCostModel.estimateSize(T));
+		
+		//no checkpoint for single consumer, checkpoint for multiple consumers
+		Assert.assertFalse(CheckpointCostModel.isCheckpointBeneficial(T, 1));
+		Assert.assertTrue(CheckpointCostModel.isCheckpointBeneficial(T, 2));
+		
+		//no checkpoint of reads (not cheaper than reading the input) or unknown sizes
+		Assert.assertFalse(CheckpointCostModel.isCheckpointBeneficial(X, 3));
+		Assert.assertFalse(CheckpointCostModel.isCheckpointBeneficial(createIntermediate(createRead(-1, rows)), 3));
+	}
+	
+	@Test
+	public void testCheckpointStorageLevel() throws Exception {
+		RUNTIME_PLATFORM platformOld = rtplatform;
+		boolean sparkConfigOld = DMLScript.USE_LOCAL_SPARK_CONFIG;
+		DMLScript.rtplatform = RUNTIME_PLATFORM.SPARK;
+		DMLScript.USE_LOCAL_SPARK_CONFIG = true;
+		
+		try {
+			//deserialized storage if fits in aggregate data cache, otherwise serialized
+			Assert.assertEquals(Checkpoint.getDefaultStorageLevelString(), 
+				CheckpointCostModel.selectStorageLevelString(createIntermediate(createRead(rows, rows))));
+			Assert.assertEquals(Checkpoint.getSerializeStorageLevelString(), 
+				CheckpointCostModel.selectStorageLevelString(createIntermediate(createRead(1000000, 1000000))));
+			Assert.assertEquals(Checkpoint.getDefaultStorageLevelString(), 
+				CheckpointCostModel.selectStorageLevelString(createIntermediate(createRead(-1, rows))));
+		}
+		finally {
+			DMLScript.rtplatform = platformOld;
+			DMLScript.USE_LOCAL_SPARK_CONFIG = sparkConfigOld;
+		}
+	}
+	
+	@Test
+	public void testCheckpointMultipleConsumers() {
+		testRewriteSparkCheckpointing( TEST_NAME1 );
+	}
+	
+	@Test
+	public void testCheckpointSingleConsumer() {
+		testRewriteSparkCheckpointing( TEST_NAME2 );
+	}
+	
+	/**
+	 * 
+	 * @param testname
+	 */
+	private void testRewriteSparkCheckpointing( String testname )
+	{	
+		//compare executed checkpoints w/ and w/o rewrite
+		long chkNoRewrite = runRewriteSparkCheckpointing(testname, false);
+		long chkRewrite = runRewriteSparkCheckpointing(testname, true);
+		long expected = chkNoRewrite + (testname.equals(TEST_NAME1) ? 1 : 0);
+		Assert.assertEquals("Unexpected number of executed checkpoints.", expected, chkRewrite);
+	}
+	
+	/**
+	 * 
+	 * @param testname
+	 * @param rewrite
+	 * @return number of executed checkpoint instructions
+	 */
+	private long runRewriteSparkCheckpointing( String testname, boolean rewrite )
+	{	
+		boolean oldFlag = OptimizerUtils.ALLOW_SPARK_INTERMEDIATE_CHECKPOINTING;
+		RUNTIME_PLATFORM platformOld = rtplatform;
+		boolean sparkConfigOld = DMLScript.USE_LOCAL_SPARK_CONFIG;
+		rtplatform = RUNTIME_PLATFORM.SPARK;
+		DMLScript.USE_LOCAL_SPARK_CONFIG = true;
+		
+		try
+		{
+			TestConfiguration config = getTestConfiguration(testname);
+			loadTestConfiguration(config);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + testname + ".dml";
+			programArgs = new String[]{ "-stats","-args", input("X"), output("R") };
+			
+			fullRScriptName = HOME + testname + ".R";
+			rCmd = getRCmd(inputDir(), expectedDir());			
+
+			OptimizerUtils.ALLOW_SPARK_INTERMEDIATE_CHECKPOINTING = rewrite;
+
+			double[][] X = getRandomMatrix(rows, rows, -1, 1, 0.7d, 7);
+			writeInputMatrixWithMTD("X", X, true);
+			
+			runTest(true, false, null, -1); 
+			runRScript(true); 
+			
+			//compare matrices 
+			HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("R");
+			HashMap<CellIndex, Double> rfile  = readRMatrixFromFS("R");
+			TestUtils.compareMatrices(dmlfile, rfile, eps, "Stat-DML", "Stat-R");
+			
+			return Statistics.getCPHeavyHitterCount(CHKPOINT_OPCODE);
+		}
+		finally
+		{
+			OptimizerUtils.ALLOW_SPARK_INTERMEDIATE_CHECKPOINTING = oldFlag;
+			rtplatform = platformOld;
+			DMLScript.USE_LOCAL_SPARK_CONFIG = sparkConfigOld;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param rlen
+	 * @param clen
+	 * @return
+	 */
+	private static DataOp createRead( long rlen, long clen ) {
+		return new DataOp("X", DataType.MATRIX, ValueType.DOUBLE, DataOpTypes.PERSISTENTREAD, 
+			"X", rlen, clen, (rlen >= 0) ? rlen * clen : -1, 1000, 1000);
+	}
+	
+	/**
+	 * 
+	 * @param X
+	 * @return
+	 * @throws Exception
+	 */
+	private static Hop createIntermediate( Hop X ) 
+		throws Exception
+	{
+		//T = abs(X) * 2 + 1
+		Hop abs = HopRewriteUtils.createUnary(X, OpOp1.ABS);
+		Hop mult = HopRewriteUtils.createBinary(abs, new LiteralOp(2), OpOp2.MULT);
+		return HopRewriteUtils.createBinary(mult, new LiteralOp(1), OpOp2.PLUS);
+	}
+}
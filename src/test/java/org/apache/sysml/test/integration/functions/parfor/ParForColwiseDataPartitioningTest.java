@@ -84,6 +84,18 @@ public class ParForColwiseDataPartitioningTest extends AutomatedTestBase
 		runParForDataPartitioningTest(PDataPartitioner.LOCAL, PExecMode.LOCAL, false, true);
 	}
 	
+	@Test
+	public void testParForDataPartitioningLocalMemLocalLargeDense() 
+	{
+		runParForDataPartitioningTest(PDataPartitioner.LOCAL_MEM, PExecMode.LOCAL, false, false);
+	}
+
+	@Test
+	public void testParForDataPartitioningLocalMemLocalLargeSparse() 
+	{
+		runParForDataPartitioningTest(PDataPartitioner.LOCAL_MEM, PExecMode.LOCAL, false, true);
+	}
+	
 	@Test
 	public void testParForDataPartitioningLocalRemoteLargeDense() 
 	{
@@ -300,6 +312,9 @@ public class ParForColwiseDataPartitioningTest extends AutomatedTestBase
 				case NONE: 
 					scriptNum=1; 
 					break; 
+				case LOCAL_MEM: 
+					scriptNum=10; 
+					break; 
 				case LOCAL: 
 					if( mode==PExecMode.LOCAL )
 						scriptNum=2; 
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.parfor;
+
+import java.nio.charset.Charset;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.sysml.conf.ConfigurationManager;
+import org.apache.sysml.parser.AParserWrapper;
+import org.apache.sysml.parser.DMLProgram;
+import org.apache.sysml.parser.DMLTranslator;
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.controlprogram.ParForProgramBlock;
+import org.apache.sysml.runtime.controlprogram.Program;
+import org.apache.sysml.runtime.controlprogram.ProgramBlock;
+import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
+import org.apache.sysml.runtime.controlprogram.context.ExecutionContext;
+import org.apache.sysml.runtime.controlprogram.context.ExecutionContextFactory;
+import org.apache.sysml.runtime.controlprogram.parfor.ParForBody;
+import org.apache.sysml.runtime.controlprogram.parfor.ProgramConverter;
+import org.apache.sysml.runtime.controlprogram.parfor.ProgramConverterBinary;
+import org.apache.sysml.runtime.instructions.cp.BooleanObject;
+import org.apache.sysml.runtime.instructions.cp.DoubleObject;
+import org.apache.sysml.runtime.instructions.cp.IntObject;
+import org.apache.sysml.runtime.instructions.cp.StringObject;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.MatrixFormatMetaData;
+import org.apache.sysml.runtime.matrix.data.InputInfo;
+import org.apache.sysml.runtime.matrix.data.OutputInfo;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+
+/**
+ * Tests the binary serialization of parfor bodies (as used for remote spark parfor) 
+ * against the string-based serialization, including a comparison of the serialized 
+ * sizes of both formats.
+ */
+public class ParForProgramSerializationTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "parfor_progserialize";
+	private final static String TEST_DIR = "functions/parfor/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + ParForProgramSerializationTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 100;
+	private final static int cols = 10;
+	private final static double maxSizeRatio = 1.0; //binary vs string format
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME, 
+			new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] { "R" }) );
+	}
+
+	@Test
+	public void testBinaryProgramSerialization() 
+	{
+		try
+		{
+			ParForBody body = compileParForBody();
+			
+			//roundtrip binary serialization (compared via string-based format)
+			String str = ProgramConverter.serializeParForBody(body);
+			byte[] bin = ProgramConverterBinary.serializeParForBody(body);
+			ParForBody body2 = ProgramConverterBinary.parseParForBody(bin, 0);
+			Assert.assertEquals(str, ProgramConverter.serializeParForBody(body2));
+			
+			//compare sizes of both formats
+			long strSize = str.getBytes(Charset.forName("UTF-8")).length;
+			double ratio = (double)bin.length / strSize;
+			Assert.assertTrue("Binary format not smaller than string format: "+bin.length+" vs "+strSize
+					+ " bytes (ratio "+ratio+")", ratio < maxSizeRatio);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	@Test
+	public void testBinaryProgramSerializationReuse() 
+	{
+		try
+		{
+			ParForBody body = compileParForBody();
+			byte[] bin = ProgramConverterBinary.serializeParForBody(body);
+			ParForBody body2 = ProgramConverterBinary.parseParForBody(bin, 0);
+			
+			//modified symbol table: reuse of parsed program blocks
+			body.getEc().setVariable("c", new IntObject("c", 11));
+			byte[] bin2 = ProgramConverterBinary.serializeParForBody(body);
+			ParForBody body3 = ProgramConverterBinary.parseParForBody(bin2, 0, bin, body2);
+			Assert.assertSame(body2.getChildBlocks(), body3.getChildBlocks());
+			Assert.assertEquals(11, ((IntObject)body3.getEc().getVariable("c")).getLongValue());
+			
+			//modified result variables: full parse w/o reuse
+			body.getResultVarNames().add("c");
+			byte[] bin3 = ProgramConverterBinary.serializeParForBody(body);
+			ParForBody body4 = ProgramConverterBinary.parseParForBody(bin3, 0, bin, body2);
+			Assert.assertNotSame(body2.getChildBlocks(), body4.getChildBlocks());
+			Assert.assertEquals(body.getResultVarNames(), body4.getResultVarNames());
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * Compiles the test script and creates a parfor body (incl symbol table) 
+	 * for the top-level parfor program block.
+	 * 
+	 * @return
+	 * @throws Exception
+	 */
+	private ParForBody compileParForBody() 
+		throws Exception
+	{
+		TestConfiguration config = getTestConfiguration(TEST_NAME);
+		loadTestConfiguration(config);
+		
+		HashMap<String,String> args = new HashMap<String, String>();
+		args.put("$1", String.valueOf(rows));
+		args.put("$2", String.valueOf(cols));
+		args.put("$3", output("R"));
+		
+		//simplified compilation chain (parsing, validate, hops, lops, runtime program)
+		String HOME = SCRIPT_DIR + TEST_DIR;
+		AParserWrapper parser = AParserWrapper.createParser(false);
+		DMLProgram prog = parser.parse(HOME + TEST_NAME + ".dml", null, args);
+		DMLTranslator dmlt = new DMLTranslator(prog);
+		dmlt.liveVariableAnalysis(prog);
+		dmlt.validateParseTree(prog);
+		dmlt.constructHops(prog);
+		dmlt.rewriteHopsDAG(prog);
+		dmlt.constructLops(prog);
+		Program rtprog = prog.getRuntimeProgram(ConfigurationManager.getDMLConfig());
+		
+		//obtain top-level parfor program block
+		ParForProgramBlock pfpb = null;
+		for( ProgramBlock pb : rtprog.getProgramBlocks() )
+			if( pb instanceof ParForProgramBlock )
+				pfpb = (ParForProgramBlock) pb;
+		Assert.assertNotNull(pfpb);
+		
+		//create symbol table with scalar and matrix variables
+		ExecutionContext ec = ExecutionContextFactory.createContext(rtprog);
+		MatrixCharacteristics mc = new MatrixCharacteristics(rows, cols, 1000, 1000, rows*cols);
+		ec.setVariable("X", new MatrixObject(ValueType.DOUBLE, output("X"), 
+			new MatrixFormatMetaData(mc, OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo)));
+		ec.setVariable("R", new MatrixObject(ValueType.DOUBLE, output("R"), 
+			new MatrixFormatMetaData(mc, OutputInfo.BinaryBlockOutputInfo, InputInfo.BinaryBlockInputInfo)));
+		ec.setVariable("s", new StringObject("s", "a,b;c|d=e"));
+		ec.setVariable("a", new DoubleObject("a", 7.3));
+		ec.setVariable("b", new BooleanObject("b", true));
+		ec.setVariable("c", new IntObject("c", 7));
+		
+		return new ParForBody(pfpb.getChildBlocks(), pfpb.getResultVariables(), ec);
+	}
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.test.integration.functions.parfor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.api.DMLScript;
+import org.apache.sysml.api.DMLScript.RUNTIME_PLATFORM;
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.parser.Expression.ValueType;
+import org.apache.sysml.runtime.controlprogram.LocalVariableMap;
+import org.apache.sysml.runtime.controlprogram.caching.CacheableData;
+import org.apache.sysml.runtime.controlprogram.caching.MatrixObject;
+import org.apache.sysml.runtime.controlprogram.parfor.RemoteParForSparkWorker;
+import org.apache.sysml.runtime.matrix.MatrixCharacteristics;
+import org.apache.sysml.runtime.matrix.MatrixFormatMetaData;
+import org.apache.sysml.runtime.matrix.data.InputInfo;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
+import org.apache.sysml.runtime.matrix.data.OutputInfo;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Tests the reuse of input matrices by cached remote spark parworkers across jobs 
+ * of the same parfor, which must not reuse stale inputs if the input data changed,
+ * as well as the cleanup of stale symbol tables of refreshed or dropped parworkers.
+ */
+public class ParForSparkInputReuseTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "parfor_spark_reuse";
+	private final static String TEST_DIR = "functions/parfor/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + ParForSparkInputReuseTest.class.getSimpleName() + "/";
+	private final static double eps = 1e-10;
+	
+	private final static int rows = 1200;
+	private final static int cols = 50;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] { "R" }));
+	}
+	
+	@Test
+	public void testReuseUnmodifiedInput() {
+		runInputReuseTest(false, false);
+	}
+	
+	@Test
+	public void testNoReuseModifiedInput() {
+		runInputReuseTest(true, false);
+	}
+	
+	@Test
+	public void testNoReuseResultVariable() {
+		runInputReuseTest(false, true);
+	}
+	
+	@Test
+	public void testCleanupStaleVariables() {
+		runCleanupVariablesTest();
+	}
+	
+	@Test
+	public void testParForSparkChangedInputs() 
+	{
+		RUNTIME_PLATFORM platformOld = rtplatform;
+		boolean sparkConfigOld = DMLScript.USE_LOCAL_SPARK_CONFIG;
+		rtplatform = RUNTIME_PLATFORM.HYBRID_SPARK;
+		DMLScript.USE_LOCAL_SPARK_CONFIG = true;
+		
+		try
+		{
+			TestConfiguration config = getTestConfiguration(TEST_NAME);
+			loadTestConfiguration(config);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{"-args", input("X"), output("R") };
+			fullRScriptName = HOME + TEST_NAME + ".R";
+			rCmd = getRCmd(inputDir(), expectedDir());
+			
+			double[][] X = getRandomMatrix(rows, cols, 0, 1, 1.0, 7);
+			writeInputMatrixWithMTD("X", X, true);
+			
+			runTest(true, false, null, -1);
+			runRScript(true);
+			
+			//compare matrices (second parfor job must see the modified input)
+			HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("R");
+			HashMap<CellIndex, Double> rfile  = readRMatrixFromFS("R");
+			TestUtils.compareMatrices(dmlfile, rfile, eps, "Stat-DML", "Stat-R");
+		}
+		finally
+		{
+			rtplatform = platformOld;
+			DMLScript.USE_LOCAL_SPARK_CONFIG = sparkConfigOld;
+		}
+	}
+	
+	/**
+	 * 
+	 * @param modify
+	 * @param result
+	 */
+	private void runInputReuseTest( boolean modify, boolean result )
+	{
+		try
+		{
+			TestConfiguration config = getTestConfiguration(TEST_NAME);
+			loadTestConfiguration(config);
+			
+			//input matrix of first job 
+			writeInputMatrixWithMTD("X", getRandomMatrix(rows, cols, 0, 1, 1.0, 7), false);
+			ArrayList<String> resultVars = new ArrayList<String>();
+			if( result )
+				resultVars.add("X");
+			LocalVariableMap vars1 = new LocalVariableMap();
+			MatrixObject mo1 = createMatrixObject(input("X"));
+			vars1.put("X", mo1);
+			HashMap<String, long[]> fstats1 = RemoteParForSparkWorker.getInputFileStatus(vars1, resultVars);
+			
+			//overwrite input file with different data of equal characteristics
+			if( modify ) {
+				Thread.sleep(1000); //file system timestamp granularity
+				writeInputMatrixWithMTD("X", getRandomMatrix(rows, cols, 0, 1, 1.0, 3), false);
+			}
+			
+			//input matrix of second job (same file name and characteristics)
+			LocalVariableMap vars2 = new LocalVariableMap();
+			MatrixObject mo2 = createMatrixObject(input("X"));
+			vars2.put("X", mo2);
+			HashMap<String, long[]> fstats2 = RemoteParForSparkWorker.getInputFileStatus(vars2, resultVars);
+			Assert.assertEquals(mo1.getMatrixCharacteristics(), mo2.getMatrixCharacteristics());
+			
+			//reuse only unmodified inputs
+			RemoteParForSparkWorker.reuseInputVariables(vars1, fstats1, vars2, fstats2, resultVars);
+			if( modify || result )
+				Assert.assertSame(mo2, vars2.get("X"));
+			else
+				Assert.assertSame(mo1, vars2.get("X"));
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * 
+	 */
+	private void runCleanupVariablesTest()
+	{
+		boolean cachingOld = CacheableData.isCachingActive();
+		CacheableData.disableCaching(); //keep released data in memory
+		
+		try
+		{
+			//symbol table of previous job w/ in-memory input X, other input Y, and result R
+			LocalVariableMap vars1 = new LocalVariableMap();
+			MatrixObject moX = createMatrixObject(input("X"), true);
+			MatrixObject moY = createMatrixObject(input("Y"), true);
+			MatrixObject moR = createMatrixObject(output("R"), true);
+			moR.enableCleanup(false); //pinned result variable
+			vars1.put("X", moX);
+			vars1.put("Y", moY);
+			vars1.put("R", moR);
+			
+			//symbol table of new job that reuses X
+			LocalVariableMap vars2 = new LocalVariableMap();
+			vars2.put("X", moX);
+			vars2.put("Y", createMatrixObject(input("Y"), false));
+			vars2.put("R", createMatrixObject(output("R"), false));
+			
+			//cleanup of refreshed parworker keeps reused inputs only
+			RemoteParForSparkWorker.cleanupVariables(vars1, vars2);
+			Assert.assertTrue(moX.isCached(true));
+			Assert.assertFalse(moY.isCached(true));
+			Assert.assertFalse(moR.isCached(true));
+			
+			//cleanup of dropped parworker releases all variables
+			RemoteParForSparkWorker.cleanupVariables(vars2, null);
+			Assert.assertFalse(moX.isCached(true));
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+		finally {
+			if( cachingOld )
+				CacheableData.enableCaching();
+		}
+	}
+	
+	/**
+	 * 
+	 * @param fname
+	 * @param inmem
+	 * @return
+	 * @throws Exception
+	 */
+	private static MatrixObject createMatrixObject( String fname, boolean inmem ) 
+		throws Exception
+	{
+		MatrixObject mo = createMatrixObject(fname);
+		if( inmem ) {
+			mo.acquireModify(new MatrixBlock(rows, cols, 1));
+			mo.release();
+		}
+		return mo;
+	}
+	
+	/**
+	 * 
+	 * @param fname
+	 * @return
+	 */
+	private static MatrixObject createMatrixObject( String fname ) {
+		MatrixCharacteristics mc = new MatrixCharacteristics(rows, cols, 
+			OptimizerUtils.DEFAULT_BLOCKSIZE, OptimizerUtils.DEFAULT_BLOCKSIZE, (long)rows*cols);
+		return new MatrixObject(ValueType.DOUBLE, fname, 
+			new MatrixFormatMetaData(mc, OutputInfo.TextCellOutputInfo, InputInfo.TextCellInputInfo));
+	}
+}
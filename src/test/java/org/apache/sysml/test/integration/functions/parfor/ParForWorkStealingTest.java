@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.sysml.test.integration.functions.parfor;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Test for local parfor with work-stealing task partitioner (per-worker deques 
+ * with range splitting) and skewed iteration costs, for different chunk sizes.
+ */
+public class ParForWorkStealingTest extends AutomatedTestBase 
+{
+	private final static String TEST_DIR = "functions/parfor/";
+	private final static String TEST_NAME1 = "parfor_workstealing1"; //tasksize 1
+	private final static String TEST_NAME2 = "parfor_workstealing2"; //tasksize 5
+	private final static String TEST_CLASS_DIR = TEST_DIR + ParForWorkStealingTest.class.getSimpleName() + "/";
+	
+	private final static double eps = 1e-10;
+	
+	private final static int rows1 = 203;
+	private final static int rows2 = 3; //less iterations than workers
+	private final static int cols = 17;
+	
+	@Override
+	public void setUp() 
+	{
+		addTestConfiguration(TEST_NAME1, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME1, new String[] { "R" }) );
+		addTestConfiguration(TEST_NAME2, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME2, new String[] { "R" }) );
+	}
+
+	@Test
+	public void testParForWorkStealingChunk1() 
+	{
+		runParForWorkStealingTest(TEST_NAME1, rows1);
+	}
+	
+	@Test
+	public void testParForWorkStealingChunk5() 
+	{
+		runParForWorkStealingTest(TEST_NAME2, rows1);
+	}
+	
+	@Test
+	public void testParForWorkStealingFewIterations() 
+	{
+		runParForWorkStealingTest(TEST_NAME1, rows2);
+	}
+	
+	/**
+	 * 
+	 * @param test
+	 * @param rows
+	 */
+	private void runParForWorkStealingTest( String test, int rows )
+	{	
+		String TEST_NAME = test;
+		TestConfiguration config = getTestConfiguration(TEST_NAME);
+		loadTestConfiguration(config);
+		
+		String HOME = SCRIPT_DIR + TEST_DIR;
+		fullDMLScriptName = HOME + TEST_NAME + ".dml";
+		programArgs = new String[]{"-args", String.valueOf(rows), input("X"), output("R") };
+		
+		fullRScriptName = HOME + "parfor_workstealing.R"; //same R script for all chunk sizes
+		rCmd = "Rscript" + " " + fullRScriptName + " " + 
+			String.valueOf(rows) + " " + inputDir() + " " + expectedDir();
+
+		//generate input data
+		double[][] X = getRandomMatrix(rows, cols, 0, 1, 1.0, 7);
+		writeInputMatrixWithMTD("X", X, true);
+		
+		//run tests
+		runTest(true, false, null, -1);
+		runRScript(true);
+	
+		//compare matrices
+		HashMap<CellIndex, Double> dmlfile = readDMLMatrixFromHDFS("R");
+		HashMap<CellIndex, Double> rfile  = readRMatrixFromFS("R");
+		TestUtils.compareMatrices(dmlfile, rfile, eps, "DML", "R");	
+	}
+}
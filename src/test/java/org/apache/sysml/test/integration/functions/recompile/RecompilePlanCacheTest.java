@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.recompile;
+
+import java.util.HashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.apache.sysml.hops.OptimizerUtils;
+import org.apache.sysml.runtime.matrix.data.MatrixValue.CellIndex;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.integration.TestConfiguration;
+import org.apache.sysml.test.utils.TestUtils;
+import org.apache.sysml.utils.Statistics;
+
+/**
+ * Tests the reuse of recompiled instructions for unchanged input sizes
+ * in loops, compared against recompilation in every iteration and R.
+ */
+public class RecompilePlanCacheTest extends AutomatedTestBase 
+{
+	private final static String TEST_NAME = "recompile_plan_cache";
+	private final static String TEST_DIR = "functions/recompile/";
+	private final static String TEST_CLASS_DIR = TEST_DIR + RecompilePlanCacheTest.class.getSimpleName() + "/";
+	
+	private final static int rows = 153;
+	private final static int cols = 27;
+	private final static double sparsity = 0.7;
+	
+	//loop w/ 10 iterations, where the first two see different nnz of Y
+	private final static int expectedHits = 8;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+		addTestConfiguration(TEST_NAME, new TestConfiguration(TEST_CLASS_DIR, TEST_NAME, new String[] { "R" }));
+	}
+	
+	@Test
+	public void testRecompilePlanCache() 
+	{
+		//run w/o plan cache (reference), w/ plan cache, and R
+		HashMap<CellIndex, Double> ret1 = runRecompilePlanCacheTest(false);
+		long recompiles = Statistics.getHopRecompiledSBDAGs();
+		Assert.assertEquals(0, Statistics.getHopRecompileCacheHits());
+		Assert.assertEquals(0, Statistics.getHopRecompileCacheMisses());
+		
+		HashMap<CellIndex, Double> ret2 = runRecompilePlanCacheTest(true);
+		Assert.assertEquals(expectedHits, Statistics.getHopRecompileCacheHits());
+		Assert.assertEquals(recompiles - expectedHits, Statistics.getHopRecompileCacheMisses());
+		Assert.assertEquals(recompiles - expectedHits, Statistics.getHopRecompiledSBDAGs());
+		
+		runRScript(true);
+		HashMap<CellIndex, Double> rfile = readRMatrixFromFS("R");
+		
+		//compare exact results w/ and w/o plan cache, and against R
+		Assert.assertEquals(ret1, ret2);
+		Assert.assertTrue(TestUtils.compareMatrices(ret2, rfile, 1e-10, "Stat-DML", "Stat-R"));
+	}
+	
+	/**
+	 * 
+	 * @param planCache
+	 * @return
+	 */
+	private HashMap<CellIndex, Double> runRecompilePlanCacheTest( boolean planCache )
+	{
+		boolean oldFlag = OptimizerUtils.ALLOW_RECOMPILE_PLAN_CACHE;
+		
+		try
+		{
+			TestConfiguration config = getTestConfiguration(TEST_NAME);
+			loadTestConfiguration(config);
+			
+			String HOME = SCRIPT_DIR + TEST_DIR;
+			fullDMLScriptName = HOME + TEST_NAME + ".dml";
+			programArgs = new String[]{"-stats","-args", input("X"), output("R") };
+			fullRScriptName = HOME + TEST_NAME + ".R";
+			rCmd = getRCmd(inputDir(), expectedDir());
+			
+			OptimizerUtils.ALLOW_RECOMPILE_PLAN_CACHE = planCache;
+			
+			//generate input w/ empty rows (unknown sizes after removeEmpty)
+			double[][] X = getRandomMatrix(rows, cols, 1, 2, sparsity, 7);
+			for( int i=0; i<rows; i+=5 )
+				X[i] = new double[cols];
+			writeInputMatrixWithMTD("X", X, true);
+			
+			runTest(true, false, null, -1); 
+			
+			return readDMLMatrixFromHDFS("R");
+		}
+		finally {
+			OptimizerUtils.ALLOW_RECOMPILE_PLAN_CACHE = oldFlag;
+		}
+	}
+}
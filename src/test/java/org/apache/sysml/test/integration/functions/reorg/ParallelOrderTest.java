@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.reorg;
+
+import org.junit.Test;
+import org.apache.sysml.runtime.matrix.data.LibMatrixReorg;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Tests that the multi-threaded CP sort produces exactly the same (stable) 
+ * output as the single-threaded sort, for data and index returns.
+ */
+public class ParallelOrderTest extends AutomatedTestBase 
+{
+	private final static int rows = 154321;
+	private final static int cols = 3;
+	private final static int by = 2;
+	private final static int k = 4;
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.05;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testOrderVectorDataAscDense() {
+		runParallelOrderTest(false, false, false, false);
+	}
+	
+	@Test
+	public void testOrderVectorDataDescSparse() {
+		runParallelOrderTest(false, true, true, false);
+	}
+	
+	@Test
+	public void testOrderMatrixDataAscSparse() {
+		runParallelOrderTest(true, true, false, false);
+	}
+	
+	@Test
+	public void testOrderMatrixDataDescDense() {
+		runParallelOrderTest(true, false, true, false);
+	}
+	
+	@Test
+	public void testOrderMatrixIndexAscDense() {
+		runParallelOrderTest(true, false, false, true);
+	}
+	
+	@Test
+	public void testOrderMatrixIndexDescSparse() {
+		runParallelOrderTest(true, true, true, true);
+	}
+	
+	/**
+	 * 
+	 * @param matrix
+	 * @param sparse
+	 * @param desc
+	 * @param ixret
+	 */
+	private void runParallelOrderTest( boolean matrix, boolean sparse, boolean desc, boolean ixret )
+	{
+		try
+		{
+			int lcols = matrix ? cols : 1;
+			int lby = matrix ? by : 1;
+			
+			//generate input with many duplicates (check for stable output)
+			double[][] A = getRandomMatrix(rows, lcols, -10, 10, sparse?sparsity2:sparsity1, 7);
+			for( int i=0; i<rows; i++ )
+				for( int j=0; j<lcols; j++ )
+					A[i][j] = Math.round(A[i][j]);
+			MatrixBlock in = DataConverter.convertToMatrixBlock(A);
+			
+			//sequential and multi-threaded sort
+			MatrixBlock ret1 = LibMatrixReorg.sort(in, new MatrixBlock(), lby, desc, ixret);
+			MatrixBlock ret2 = LibMatrixReorg.sort(in, new MatrixBlock(), lby, desc, ixret, k);
+			
+			//compare results
+			int rcols = ixret ? 1 : lcols;
+			TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ret1), 
+				DataConverter.convertToDoubleMatrix(ret2), rows, rcols, 0);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.ternary;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.apache.sysml.runtime.matrix.data.CTableMap;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.operators.SimpleOperator;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Tests that the multi-threaded ctable with thread-local hash maps 
+ * produces the same results as the single-threaded ctable.
+ */
+public class ParallelCTableTest extends AutomatedTestBase 
+{
+	private final static int rows = 1500000;
+	private final static int maxVal = 1000;
+	private final static int k = 4;
+	private final static double eps = 1e-8;
+	
+	private enum CTableType {
+		TRANSFORM,               //ctable(A,B,W)
+		TRANSFORM_SCALAR_WEIGHT, //ctable(A,B)
+		HISTOGRAM,               //ctable(A)
+		WEIGHTED_HISTOGRAM,      //ctable(A,1,W)
+	}
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testCTableTransform() {
+		runParallelCTableTest(CTableType.TRANSFORM);
+	}
+	
+	@Test
+	public void testCTableTransformScalarWeight() {
+		runParallelCTableTest(CTableType.TRANSFORM_SCALAR_WEIGHT);
+	}
+	
+	@Test
+	public void testCTableHistogram() {
+		runParallelCTableTest(CTableType.HISTOGRAM);
+	}
+	
+	@Test
+	public void testCTableWeightedHistogram() {
+		runParallelCTableTest(CTableType.WEIGHTED_HISTOGRAM);
+	}
+	
+	/**
+	 * 
+	 * @param type
+	 */
+	private void runParallelCTableTest( CTableType type )
+	{
+		try
+		{
+			//generate categorical inputs and weights
+			MatrixBlock A = createCategoricalVector(7);
+			MatrixBlock B = createCategoricalVector(3);
+			MatrixBlock W = DataConverter.convertToMatrixBlock(
+				getRandomMatrix(rows, 1, 0, 1, 1.0, 11));
+			SimpleOperator op = new SimpleOperator(null);
+			
+			//sequential and multi-threaded ctable
+			CTableMap map1 = new CTableMap();
+			CTableMap map2 = new CTableMap();
+			switch( type ) {
+				case TRANSFORM:
+					A.ternaryOperations(op, B, W, map1, null);
+					A.ternaryOperations(op, B, W, map2, null, k);
+					break;
+				case TRANSFORM_SCALAR_WEIGHT:
+					A.ternaryOperations(op, B, 1, false, map1, null);
+					A.ternaryOperations(op, B, 1, false, map2, null, k);
+					break;
+				case HISTOGRAM:
+					A.ternaryOperations(op, 1, 1, map1, null);
+					A.ternaryOperations(op, 1, 1, map2, null, k);
+					break;
+				case WEIGHTED_HISTOGRAM:
+					A.ternaryOperations(op, 1, W, map1, null);
+					A.ternaryOperations(op, 1, W, map2, null, k);
+					break;
+			}
+			
+			//compare results
+			Assert.assertEquals(map1.size(), map2.size());
+			Assert.assertEquals(map1.getMaxRow(), map2.getMaxRow());
+			Assert.assertEquals(map1.getMaxColumn(), map2.getMaxColumn());
+			int rlen = (int)map1.getMaxRow();
+			int clen = (int)map1.getMaxColumn();
+			MatrixBlock ret1 = map1.toMatrixBlock(rlen, clen);
+			MatrixBlock ret2 = map2.toMatrixBlock(rlen, clen);
+			TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ret1), 
+				DataConverter.convertToDoubleMatrix(ret2), rlen, clen, eps);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param seed
+	 * @return
+	 */
+	private MatrixBlock createCategoricalVector(long seed) 
+	{
+		double[][] A = getRandomMatrix(rows, 1, 1, maxVal, 1.0, seed);
+		for( int i=0; i<rows; i++ )
+			A[i][0] = Math.floor(A[i][0]);
+		return DataConverter.convertToMatrixBlock(A);
+	}
+}
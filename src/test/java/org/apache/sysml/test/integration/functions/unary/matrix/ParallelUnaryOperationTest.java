@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.sysml.test.integration.functions.unary.matrix;
+
+import org.junit.Test;
+
+import org.apache.sysml.runtime.functionobjects.Builtin;
+import org.apache.sysml.runtime.matrix.data.MatrixBlock;
+import org.apache.sysml.runtime.matrix.operators.UnaryOperator;
+import org.apache.sysml.runtime.util.DataConverter;
+import org.apache.sysml.test.integration.AutomatedTestBase;
+import org.apache.sysml.test.utils.TestUtils;
+
+/**
+ * Component tests comparing multi-threaded against single-threaded 
+ * unary builtin operations over dense and sparse matrices.
+ */
+public class ParallelUnaryOperationTest extends AutomatedTestBase 
+{
+	private final static int rows = 1201;
+	private final static int cols = 1001;
+	private final static double sparsity1 = 0.7;
+	private final static double sparsity2 = 0.1;
+	private final static int k = 4;
+	private final static double eps = 1e-10;
+	
+	@Override
+	public void setUp() {
+		TestUtils.clearAssertionInformation();
+	}
+	
+	@Test
+	public void testExpDense() {
+		runParallelUnaryTest("exp", sparsity1);
+	}
+	
+	@Test
+	public void testExpSparse() {
+		runParallelUnaryTest("exp", sparsity2);
+	}
+	
+	@Test
+	public void testLogDense() {
+		runParallelUnaryTest("log", sparsity1);
+	}
+	
+	@Test
+	public void testSqrtDense() {
+		runParallelUnaryTest("sqrt", sparsity1);
+	}
+	
+	@Test
+	public void testSqrtSparse() {
+		runParallelUnaryTest("sqrt", sparsity2);
+	}
+	
+	@Test
+	public void testSigmoidDense() {
+		runParallelUnaryTest("sigmoid", sparsity1);
+	}
+	
+	@Test
+	public void testSigmoidSparse() {
+		runParallelUnaryTest("sigmoid", sparsity2);
+	}
+	
+	@Test
+	public void testRoundDense() {
+		runParallelUnaryTest("round", sparsity1);
+	}
+	
+	@Test
+	public void testRoundSparse() {
+		runParallelUnaryTest("round", sparsity2);
+	}
+	
+	/**
+	 * 
+	 * @param opcode
+	 * @param sp
+	 */
+	private void runParallelUnaryTest( String opcode, double sp )
+	{
+		try
+		{
+			//generate input data (positive values for log/sqrt)
+			MatrixBlock mb = DataConverter.convertToMatrixBlock(getRandomMatrix(rows, cols, 0, 10, sp, 7));
+			mb.examSparsity();
+			
+			//execute single- and multi-threaded unary operations
+			Builtin fn = Builtin.getBuiltinFnObject(opcode);
+			MatrixBlock ret1 = (MatrixBlock) mb.unaryOperations(new UnaryOperator(fn), new MatrixBlock());
+			MatrixBlock ret2 = (MatrixBlock) mb.unaryOperations(new UnaryOperator(fn, k), new MatrixBlock());
+			
+			//compare results and number of non-zeros
+			TestUtils.compareMatrices(DataConverter.convertToDoubleMatrix(ret1), 
+					DataConverter.convertToDoubleMatrix(ret2), rows, cols, eps);
+			TestUtils.compareScalars(ret1.getNonZeros(), ret2.getNonZeros(), 0);
+		}
+		catch(Exception ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+}